@@ -0,0 +1,422 @@
+package com.reallifedeveloper.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.remote.JMXServiceURL;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes thread dumps of many JVMs at the same time, e.g., all instances of a set of services during an incident, so that stalls across
+ * services can be correlated.
+ * <p>
+ * The dumps are taken concurrently, with at most {@link #setConcurrency(int) concurrency} JMX connections open at any time, and each
+ * endpoint is given at most {@link #setTimeout(Duration) timeout} to connect and dump. Each dump is written to its own file, named after
+ * the endpoint and the common timestamp of the fleet dump, and a summary file lists the outcome for each endpoint.
+ * <p>
+ * By default, the dumps are taken by daemon platform threads. On Java 21 or later, virtual threads can be used by calling
+ * {@code setThreadFactory(Thread.ofVirtual().factory())}.
+ * <p>
+ * An example:
+ *
+ * <pre>
+ * FleetThreadDump fleetDump = new FleetThreadDump(List.of("host1:4711", "host2:4711", "service:jmx:rmi:///jndi/rmi://host3:4711/jmxrmi"));
+ * fleetDump.setTimeout(Duration.ofSeconds(10));
+ * List&lt;FleetThreadDump.Result&gt; results = fleetDump.dump(Path.of("dumps"));
+ * </pre>
+ *
+ * @author RealLifeDeveloper
+ */
+public final class FleetThreadDump {
+
+    /**
+     * The default maximum number of endpoints to dump at the same time.
+     */
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    /**
+     * The default maximum time to connect to and dump one endpoint.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * The name of the summary file, without the timestamp.
+     */
+    public static final String SUMMARY_FILE_PREFIX = "summary";
+
+    private static final Logger LOG = LoggerFactory.getLogger(FleetThreadDump.class);
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final DateTimeFormatter FILE_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private static final int MAX_FILE_NAME_ENDPOINT_LENGTH = 80;
+
+    private final List<String> endpoints;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private @Nullable ThreadFactory threadFactory;
+
+    /**
+     * Creates a new {@code FleetThreadDump} for the given JMX endpoints.
+     *
+     * @param endpoints the endpoints to dump, either on the form "hostname:port", e.g., "localhost:4711", or JMX service URLs, e.g.,
+     *                  "service:jmx:rmi:///jndi/rmi://localhost:4711/jmxrmi"
+     */
+    public FleetThreadDump(List<String> endpoints) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints must not be null or empty: " + endpoints);
+        }
+        Set<String> seen = new HashSet<>();
+        for (String endpoint : endpoints) {
+            serviceUrl(endpoint);
+            if (!seen.add(endpoint)) {
+                throw new IllegalArgumentException("Duplicate endpoint: " + endpoint);
+            }
+        }
+        this.endpoints = List.copyOf(endpoints);
+    }
+
+    /**
+     * Change the maximum number of endpoints to dump at the same time. The default is {@value #DEFAULT_CONCURRENCY}.
+     *
+     * @param concurrency the maximum number of concurrent dumps, must be positive
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Change the maximum time to connect to and dump one endpoint, counted from when work on the endpoint starts. The default is
+     * {@link #DEFAULT_TIMEOUT}.
+     *
+     * @param timeout the maximum time for one endpoint, must be positive
+     */
+    public void setTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        this.timeout = timeout;
+    }
+
+    /**
+     * Change the factory used to create the threads that take the dumps, e.g., to use virtual threads. The default is to use daemon
+     * platform threads.
+     *
+     * @param threadFactory the {@code ThreadFactory} to use
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("threadFactory must not be null");
+        }
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Takes thread dumps of all endpoints concurrently, and writes one file per successful dump and a summary file to the given directory.
+     * All files are named using the same timestamp, taken when this method is called. A failure or timeout for one endpoint does not
+     * affect the others.
+     *
+     * @param directory the directory to write the files to, created if it does not exist
+     *
+     * @return the outcome for each endpoint, in the order the endpoints were given
+     *
+     * @throws IOException          if the directory or the summary file cannot be written
+     * @throws InterruptedException if the thread is interrupted while waiting for the dumps
+     */
+    public List<Result> dump(Path directory) throws IOException, InterruptedException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        Files.createDirectories(directory);
+        Instant timestamp = Instant.now();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, endpoints.size()), workerThreadFactory());
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fleet-thread-dump-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Result> results = new ArrayList<>();
+        try {
+            List<CompletableFuture<Result>> futures = new ArrayList<>();
+            for (String endpoint : endpoints) {
+                futures.add(submit(endpoint, directory, timestamp, executor, scheduler));
+            }
+            for (CompletableFuture<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Unexpected failure", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+        writeSummary(directory, timestamp, results);
+        return Collections.unmodifiableList(results);
+    }
+
+    private ThreadFactory workerThreadFactory() {
+        ThreadFactory factory = threadFactory;
+        if (factory != null) {
+            return factory;
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "fleet-thread-dump-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Submits the dump of one endpoint. The returned future always completes normally, with a failed {@code Result} if the dump fails or
+     * times out. On timeout, the worker thread is interrupted and the JMX connection, if any, is closed to abort the dump.
+     */
+    private CompletableFuture<Result> submit(String endpoint, Path directory, Instant timestamp, ExecutorService executor,
+            ScheduledExecutorService scheduler) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            long startTime = System.nanoTime();
+            HostDump hostDump = new HostDump(Thread.currentThread());
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (future.complete(failure(endpoint, startTime, new TimeoutException("Timed out after " + timeout.toMillis() + " ms")))) {
+                    hostDump.abort();
+                }
+            }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            try {
+                Path file = directory.resolve(fileName(endpoint, timestamp));
+                Instant dumpedAt = hostDump.dump(endpoint, file, timestamp);
+                future.complete(new Result(endpoint, file, dumpedAt, elapsed(startTime), null));
+            } catch (IOException | RuntimeException e) {
+                future.complete(failure(endpoint, startTime, e));
+            } finally {
+                timer.cancel(false);
+                hostDump.finish();
+            }
+        });
+        return future;
+    }
+
+    private static Result failure(String endpoint, long startTime, Exception e) {
+        LOG.warn("Thread dump of {} failed: {}", endpoint.replaceAll("[\r\n]", ""), e.toString());
+        return new Result(endpoint, null, null, elapsed(startTime), e.toString());
+    }
+
+    private static Duration elapsed(long startTime) {
+        return Duration.ofNanos(System.nanoTime() - startTime);
+    }
+
+    private void writeSummary(Path directory, Instant timestamp, List<Result> results) throws IOException {
+        Path summaryFile = directory.resolve(SUMMARY_FILE_PREFIX + "-" + FILE_TIMESTAMP_FORMAT.format(timestamp) + ".txt");
+        try (Writer writer = Files.newBufferedWriter(summaryFile, StandardCharsets.UTF_8)) {
+            long failures = results.stream().filter(result -> !result.isSuccess()).count();
+            writer.append("Fleet thread dump requested at ").append(timestamp.toString()).append(" for ")
+                    .append(Integer.toString(results.size())).append(" endpoints, ").append(Long.toString(failures)).append(" failed")
+                    .append(LINE_SEPARATOR);
+            for (Result result : results) {
+                writer.append(result.toString()).append(LINE_SEPARATOR);
+            }
+        }
+        LOG.info("Wrote fleet thread dump summary to {}", summaryFile);
+    }
+
+    /**
+     * Gives the name of the file for the dump of an endpoint. Long endpoints, such as JMX service URLs containing a serialized stub, are
+     * shortened and made unique using a hash.
+     */
+    /* package-private */ static String fileName(String endpoint, Instant timestamp) {
+        String name = endpoint.replaceAll("[^A-Za-z0-9.-]+", "_");
+        if (name.length() > MAX_FILE_NAME_ENDPOINT_LENGTH) {
+            name = name.substring(0, MAX_FILE_NAME_ENDPOINT_LENGTH) + "-" + Integer.toHexString(endpoint.hashCode());
+        }
+        return name + "-" + FILE_TIMESTAMP_FORMAT.format(timestamp) + ".txt";
+    }
+
+    /* package-private */ static JMXServiceURL serviceUrl(String endpoint) {
+        if (endpoint == null) {
+            throw new IllegalArgumentException("endpoint must not be null");
+        }
+        try {
+            if (endpoint.startsWith("service:jmx:")) {
+                return new JMXServiceURL(endpoint);
+            }
+            int colon = endpoint.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Endpoint should be on the form hostname:port: " + endpoint);
+            }
+            int port = Integer.parseInt(endpoint.substring(colon + 1));
+            if (port < 0) {
+                throw new IllegalArgumentException("Endpoint should be on the form hostname:port: " + endpoint);
+            }
+            return FullThreadDump.serviceUrl(endpoint.substring(0, colon), port);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Endpoint should be on the form hostname:port: " + endpoint, e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed endpoint: " + endpoint, e);
+        }
+    }
+
+    /**
+     * Connects to the JMX servers given as arguments and writes thread dumps of all of them, and a summary, to a directory.
+     *
+     * @param args the directory to write to, followed by one or more endpoints on the form "hostname:port", e.g., "localhost:4711"
+     *
+     * @throws IOException          if the directory or the summary file cannot be written
+     * @throws InterruptedException if the thread is interrupted while waiting for the dumps
+     */
+    public static void main(String... args) throws IOException, InterruptedException {
+        if (args == null || args.length < 2) {
+            throw new IllegalArgumentException(usage());
+        }
+        List<String> endpoints = List.of(args).subList(1, args.length);
+        FleetThreadDump fleetDump = new FleetThreadDump(endpoints);
+        for (Result result : fleetDump.dump(Path.of(args[0]))) {
+            LOG.info(result.toString().replaceAll("[\r\n]", ""));
+        }
+    }
+
+    private static String usage() {
+        return "Usage: java " + FleetThreadDump.class.getName() + " <directory> <hostname>:<port> [<hostname>:<port> ...]";
+    }
+
+    /**
+     * The outcome of dumping one endpoint.
+     *
+     * @param endpoint the endpoint
+     * @param file     the file the dump was written to, or {@code null} if the dump failed
+     * @param dumpedAt when the dump was started, or {@code null} if the dump failed
+     * @param elapsed  the time spent on the endpoint, including connecting
+     * @param error    a description of the error, or {@code null} if the dump succeeded
+     */
+    public record Result(String endpoint, @Nullable Path file, @Nullable Instant dumpedAt, Duration elapsed, @Nullable String error) {
+
+        /**
+         * Creates a new {@code Result}.
+         *
+         * @param endpoint the endpoint
+         * @param file     the file the dump was written to, or {@code null} if the dump failed
+         * @param dumpedAt when the dump was started, or {@code null} if the dump failed
+         * @param elapsed  the time spent on the endpoint, including connecting
+         * @param error    a description of the error, or {@code null} if the dump succeeded
+         */
+        public Result {
+            if (endpoint == null || elapsed == null) {
+                throw new IllegalArgumentException("Arguments must not be null: endpoint=" + endpoint + ", elapsed=" + elapsed);
+            }
+        }
+
+        /**
+         * Checks if the dump succeeded.
+         *
+         * @return {@code true} if the dump was written to a file
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            if (isSuccess()) {
+                return "OK     " + endpoint + " dumped at " + dumpedAt + " in " + elapsed.toMillis() + " ms: "
+                        + (file == null ? null : file.getFileName());
+            }
+            return "FAILED " + endpoint + " after " + elapsed.toMillis() + " ms: " + error;
+        }
+    }
+
+    /**
+     * The dump of one endpoint by a worker thread, which can be aborted by another thread on timeout. The worker thread is only
+     * interrupted while it is working on this endpoint.
+     */
+    private static final class HostDump {
+
+        private final Thread worker;
+        private @Nullable FullThreadDump threadDump;
+        private boolean aborted;
+        private boolean finished;
+
+        HostDump(Thread worker) {
+            this.worker = worker;
+        }
+
+        Instant dump(String endpoint, Path file, Instant timestamp) throws IOException {
+            FullThreadDump connected = new FullThreadDump(serviceUrl(endpoint));
+            if (!register(connected)) {
+                connected.close();
+                throw new IOException("Aborted");
+            }
+            try {
+                Instant dumpedAt = Instant.now();
+                StringBuilder sb = new StringBuilder();
+                sb.append("Endpoint: ").append(endpoint).append(LINE_SEPARATOR);
+                sb.append("Fleet dump requested at: ").append(timestamp).append(LINE_SEPARATOR);
+                sb.append("Dumped at: ").append(dumpedAt).append(LINE_SEPARATOR);
+                connected.dump(sb);
+                Files.writeString(file, sb, StandardCharsets.UTF_8);
+                return dumpedAt;
+            } finally {
+                connected.close();
+            }
+        }
+
+        private synchronized boolean register(FullThreadDump connected) {
+            threadDump = connected;
+            return !aborted;
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            if (finished) {
+                return;
+            }
+            worker.interrupt();
+            FullThreadDump connected = threadDump;
+            if (connected != null) {
+                try {
+                    connected.close();
+                } catch (IOException | RuntimeException e) {
+                    LOG.debug("Failed to close JMX connection after timeout: {}", e.toString());
+                }
+            }
+        }
+
+        void finish() {
+            synchronized (this) {
+                finished = true;
+            }
+            // Clear an interrupt from abort() so that it does not affect the next endpoint handled by the worker thread.
+            Thread.interrupted();
+        }
+    }
+}
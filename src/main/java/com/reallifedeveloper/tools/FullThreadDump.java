@@ -22,21 +22,26 @@ package com.reallifedeveloper.tools;
 import static java.lang.management.ManagementFactory.THREAD_MXBEAN_NAME;
 import static java.lang.management.ManagementFactory.newPlatformMXBeanProxy;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.management.LockInfo;
 import java.lang.management.MonitorInfo;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import javax.management.MBeanServerConnection;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,14 +55,22 @@ import org.slf4j.LoggerFactory;
  * @author RealLifeDeveloper
  */
 @SuppressWarnings("PMD") // This builds on code from other sources
-public final class FullThreadDump {
+public final class FullThreadDump implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(FullThreadDump.class);
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     private MBeanServerConnection server;
 
     private JMXConnector jmxc;
 
+    private @Nullable ThreadMXBean threadMXBean;
+
+    private com.sun.management.@Nullable ThreadMXBean extendedThreadMXBean;
+
+    private boolean extendedThreadMXBeanChecked;
+
     /**
      * Creates a new {@code FullThreadDump} object that is connected to a JMX server on the given host and port.
      *
@@ -71,9 +84,7 @@ public final class FullThreadDump {
 
         // Create an RMI connector client and connect it to
         // the RMI connector server
-        String urlPath = "/jndi/rmi://" + hostname + ":" + port + "/jmxrmi";
-        JMXServiceURL url = new JMXServiceURL("rmi", "", 0, urlPath);
-        connect(url);
+        connect(serviceUrl(hostname, port));
     }
 
     /**
@@ -91,19 +102,145 @@ public final class FullThreadDump {
      * Creates a thread dump with information about all the threads running in the Java process being monitored by the JMX server connected
      * to.
      * <p>
-     * The information is meant to be read by humans and is not easily parsable.
+     * The information is meant to be read by humans and is not easily parsable. To take dumps frequently, e.g., from a watchdog, use
+     * {@link #dump(Appendable)} to write the dump directly to its destination instead of building a list of strings.
      *
      * @return a list of strings with information about the threads, e.g., thread name, call stack an so on.
      *
      * @throws IOException if communication with the JMX server fails
      */
     public List<String> dump() throws IOException {
-        ThreadMonitor monitor = new ThreadMonitor(server);
-        List<String> threadInfo = monitor.threadDump();
+        StringBuilder sb = new StringBuilder();
+        dump(sb);
+        List<String> lines = new ArrayList<>(Arrays.asList(sb.toString().split(Pattern.quote(LINE_SEPARATOR), -1)));
+        lines.remove(lines.size() - 1);
+        return lines;
+    }
+
+    /**
+     * Writes a thread dump with information about all the threads running in the Java process being monitored by the JMX server connected
+     * to, followed by information about deadlocked threads, if any. Each line is terminated by the system line separator.
+     * <p>
+     * The dump is written piece by piece as the threads are processed, and no state is kept between calls, so this method can be called
+     * repeatedly, e.g., every few seconds, without memory growth.
+     *
+     * @param out the destination of the thread dump, e.g., a {@code Writer} or a {@code StringBuilder}
+     *
+     * @throws IOException if communication with the JMX server fails, or if writing to {@code out} fails
+     */
+    public void dump(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        ThreadMonitor monitor = new ThreadMonitor(threadMXBean(), out);
+        monitor.threadDump();
         if (!monitor.findDeadlock()) {
-            threadInfo.add("No deadlock found.");
+            out.append("No deadlock found.").append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Writes a grouped thread dump, where threads with the same state and the same stack are collapsed into one entry giving the number
+     * of threads and their names, followed by information about deadlocked threads, if any. The groups are written with the largest group
+     * first. Each line is terminated by the system line separator.
+     * <p>
+     * This gives a much smaller dump than {@link #dump(Appendable)} for processes with large thread pools, where most threads are idle
+     * with identical stacks. Locked monitors and synchronizers are not included, since they would make otherwise identical threads
+     * different.
+     *
+     * @param out the destination of the thread dump, e.g., a {@code Writer} or a {@code StringBuilder}
+     *
+     * @throws IOException if communication with the JMX server fails, or if writing to {@code out} fails
+     */
+    public void dumpGrouped(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        ThreadMonitor monitor = new ThreadMonitor(threadMXBean(), out);
+        monitor.groupedThreadDump();
+        if (!monitor.findDeadlock()) {
+            out.append("No deadlock found.").append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Gives the {@code ThreadInfo} of each thread running in the Java process being monitored by the JMX server connected to, including
+     * locked monitors and synchronizers if supported by the JVM, without formatting it. No deadlock detection is performed.
+     *
+     * @param consumer called once for each thread
+     *
+     * @throws IOException if communication with the JMX server fails
+     */
+    public void dumpThreadInfo(Consumer<ThreadInfo> consumer) throws IOException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        ThreadMXBean tmbean = threadMXBean();
+        for (ThreadInfo ti : tmbean.dumpAllThreads(tmbean.isObjectMonitorUsageSupported(), tmbean.isSynchronizerUsageSupported())) {
+            consumer.accept(ti);
+        }
+    }
+
+    /**
+     * Gives a proxy for the {@code ThreadMXBean} of the JVM connected to. The proxy is created once and reused for all dumps, and by
+     * other tools using the same connection, such as {@link StackSampler}.
+     *
+     * @return the {@code ThreadMXBean} proxy
+     *
+     * @throws IOException if communication with the JMX server fails
+     */
+    /* package-private */ ThreadMXBean threadMXBean() throws IOException {
+        ThreadMXBean tmbean = threadMXBean;
+        if (tmbean == null) {
+            tmbean = newPlatformMXBeanProxy(server, THREAD_MXBEAN_NAME, ThreadMXBean.class);
+            threadMXBean = tmbean;
         }
-        return threadInfo;
+        return tmbean;
+    }
+
+    /**
+     * Gives a proxy for the HotSpot-specific {@code com.sun.management.ThreadMXBean} of the JVM connected to, which supports reading CPU
+     * time and allocated bytes for many threads in one call. Used by {@link ThreadTop}.
+     *
+     * @return the {@code com.sun.management.ThreadMXBean} proxy, or {@code null} if the JVM connected to does not provide it
+     *
+     * @throws IOException if communication with the JMX server fails
+     */
+    /* package-private */ com.sun.management.@Nullable ThreadMXBean extendedThreadMXBean() throws IOException {
+        if (!extendedThreadMXBeanChecked) {
+            try {
+                extendedThreadMXBean = newPlatformMXBeanProxy(server, THREAD_MXBEAN_NAME, com.sun.management.ThreadMXBean.class);
+            } catch (IllegalArgumentException e) {
+                LOG.debug("com.sun.management.ThreadMXBean not available: {}", e.toString());
+            }
+            extendedThreadMXBeanChecked = true;
+        }
+        return extendedThreadMXBean;
+    }
+
+    /**
+     * Closes the connection to the JMX server.
+     *
+     * @throws IOException if closing the connection fails
+     */
+    @Override
+    public void close() throws IOException {
+        jmxc.close();
+    }
+
+    /**
+     * Gives the {@code JMXServiceURL} of the RMI connector of a JMX server listening on the given host and port.
+     *
+     * @param hostname the name of the host running the JMX server
+     * @param port     the port number the JMX server is listening on
+     *
+     * @return the {@code JMXServiceURL} to connect to
+     *
+     * @throws IOException if the URL is malformed
+     */
+    /* package-private */ static JMXServiceURL serviceUrl(String hostname, int port) throws IOException {
+        String urlPath = "/jndi/rmi://" + hostname + ":" + port + "/jmxrmi";
+        return new JMXServiceURL("rmi", "", 0, urlPath);
     }
 
     /**
@@ -161,101 +298,126 @@ public final class FullThreadDump {
 
     /**
      * Example of using the java.lang.management API to dump stack trace and to perform deadlock detection.
+     * <p>
+     * A new {@code ThreadMonitor} is created for each dump, and writes the dump directly to an {@code Appendable}.
      */
     private static final class ThreadMonitor {
 
-        private static final List<String> THREAD_INFO = new ArrayList<>();
-
         private static final String INDENT = "    ";
 
-        private ThreadMXBean tmbean;
+        private final ThreadMXBean tmbean;
+
+        private final Appendable out;
 
         /**
-         * Constructs a ThreadMonitor object to get thread information in a remote JVM.
+         * Constructs a ThreadMonitor object to write thread information from a remote JVM.
          */
-        ThreadMonitor(MBeanServerConnection server) throws IOException {
-            this.tmbean = newPlatformMXBeanProxy(server, THREAD_MXBEAN_NAME, ThreadMXBean.class);
+        ThreadMonitor(ThreadMXBean tmbean, Appendable out) {
+            this.tmbean = tmbean;
+            this.out = out;
         }
 
         /**
-         * Gives the thread dump information as a list of strings, one line per string.
+         * Writes the thread dump information, including lock info if supported by the JVM.
          */
-        List<String> threadDump() {
-            if (tmbean.isObjectMonitorUsageSupported() && tmbean.isSynchronizerUsageSupported()) {
-                // Print lock info if both object monitor usage
-                // and synchronizer usage are supported.
-                // This sample code can be modified to handle if
-                // either monitor usage or synchronizer usage is supported.
-                dumpThreadInfoWithLocks();
+        void threadDump() throws IOException {
+            boolean lockedMonitors = tmbean.isObjectMonitorUsageSupported();
+            boolean lockedSynchronizers = tmbean.isSynchronizerUsageSupported();
+            if (lockedMonitors && lockedSynchronizers) {
+                out.append("Full Java thread dump with locks info").append(LINE_SEPARATOR);
+            } else {
+                out.append("Full Java thread dump").append(LINE_SEPARATOR);
+            }
+            ThreadInfo[] tinfos = tmbean.dumpAllThreads(lockedMonitors, lockedSynchronizers);
+            for (ThreadInfo ti : tinfos) {
+                printThreadInfo(ti);
+                if (lockedSynchronizers) {
+                    addLockInfo(ti.getLockedSynchronizers());
+                }
             }
-            return THREAD_INFO;
         }
 
         /**
-         * Saves the thread dump information with locks info in THREAD_INFO.
+         * Writes the thread dump information grouped by thread state and stack. The groups are found in linear time using a hash map
+         * keyed on the state and frames of each thread.
          */
-        private void dumpThreadInfoWithLocks() {
-            THREAD_INFO.add("Full Java thread dump with locks info");
-
-            ThreadInfo[] tinfos = tmbean.dumpAllThreads(true, true);
+        void groupedThreadDump() throws IOException {
+            ThreadInfo[] tinfos = tmbean.dumpAllThreads(false, false);
+            Map<ThreadGroupKey, List<String>> groups = new HashMap<>();
             for (ThreadInfo ti : tinfos) {
-                printThreadInfo(ti);
-                LockInfo[] syncs = ti.getLockedSynchronizers();
-                addLockInfo(syncs);
+                ThreadGroupKey key = new ThreadGroupKey(ti.getThreadState(), Arrays.asList(ti.getStackTrace()));
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(ti.getThreadName());
+            }
+            out.append("Grouped Java thread dump: ").append(Integer.toString(tinfos.length)).append(" threads in ")
+                    .append(Integer.toString(groups.size())).append(" groups").append(LINE_SEPARATOR);
+            List<Map.Entry<ThreadGroupKey, List<String>>> sortedGroups = new ArrayList<>(groups.entrySet());
+            sortedGroups.sort((e1, e2) -> Integer.compare(e2.getValue().size(), e1.getValue().size()));
+            for (Map.Entry<ThreadGroupKey, List<String>> group : sortedGroups) {
+                List<String> threadNames = group.getValue();
+                out.append(Integer.toString(threadNames.size())).append(threadNames.size() == 1 ? " thread" : " threads").append(" in ")
+                        .append(group.getKey().state().toString()).append(':');
+                for (int i = 0; i < threadNames.size(); i++) {
+                    out.append(i == 0 ? " " : ", ").append('"').append(threadNames.get(i)).append('"');
+                }
+                out.append(LINE_SEPARATOR);
+                for (StackTraceElement ste : group.getKey().frames()) {
+                    out.append(INDENT).append("at ").append(ste.toString()).append(LINE_SEPARATOR);
+                }
             }
         }
 
-        private void printThreadInfo(ThreadInfo ti) {
+        private void printThreadInfo(ThreadInfo ti) throws IOException {
             addThreadInfo(ti);
 
             StackTraceElement[] stacktrace = ti.getStackTrace();
             MonitorInfo[] monitors = ti.getLockedMonitors();
             for (int i = 0; i < stacktrace.length; i++) {
                 StackTraceElement ste = stacktrace[i];
-                THREAD_INFO.add(INDENT + "at " + ste.toString());
+                out.append(INDENT).append("at ").append(ste.toString()).append(LINE_SEPARATOR);
                 for (MonitorInfo mi : monitors) {
                     if (mi.getLockedStackDepth() == i) {
-                        THREAD_INFO.add(INDENT + "  - locked " + mi);
+                        out.append(INDENT).append("  - locked ").append(mi.toString()).append(LINE_SEPARATOR);
                     }
                 }
             }
         }
 
-        private void addThreadInfo(ThreadInfo ti) {
-            StringBuilder sb = new StringBuilder(
-                    "\"" + ti.getThreadName() + "\"" + " Id=" + ti.getThreadId() + " in " + ti.getThreadState());
+        private void addThreadInfo(ThreadInfo ti) throws IOException {
+            out.append('"').append(ti.getThreadName()).append('"').append(" Id=").append(Long.toString(ti.getThreadId())).append(" in ")
+                    .append(ti.getThreadState().toString());
             if (ti.getLockName() != null) {
-                sb.append(" on lock=" + ti.getLockName());
+                out.append(" on lock=").append(ti.getLockName());
             }
             if (ti.isSuspended()) {
-                sb.append(" (suspended)");
+                out.append(" (suspended)");
             }
             if (ti.isInNative()) {
-                sb.append(" (running in native)");
+                out.append(" (running in native)");
             }
-            THREAD_INFO.add(sb.toString());
+            out.append(LINE_SEPARATOR);
             if (ti.getLockOwnerName() != null) {
-                THREAD_INFO.add(INDENT + " owned by " + ti.getLockOwnerName() + " Id=" + ti.getLockOwnerId());
+                out.append(INDENT).append(" owned by ").append(ti.getLockOwnerName()).append(" Id=")
+                        .append(Long.toString(ti.getLockOwnerId())).append(LINE_SEPARATOR);
             }
         }
 
-        private void addLockInfo(LockInfo[] locks) {
-            THREAD_INFO.add(INDENT + "Locked synchronizers: count = " + locks.length);
+        private void addLockInfo(LockInfo[] locks) throws IOException {
+            out.append(INDENT).append("Locked synchronizers: count = ").append(Integer.toString(locks.length)).append(LINE_SEPARATOR);
             for (LockInfo li : locks) {
-                THREAD_INFO.add(INDENT + "  - " + li);
+                out.append(INDENT).append("  - ").append(li.toString()).append(LINE_SEPARATOR);
             }
         }
 
         /**
-         * Checks if any threads are deadlocked. If any, save the thread dump information.
+         * Checks if any threads are deadlocked. If any, writes the thread dump information for the deadlocked threads.
          */
-        boolean findDeadlock() {
+        boolean findDeadlock() throws IOException {
             long[] tids = tmbean.findDeadlockedThreads();
             if (tids == null) {
                 return false;
             }
 
-            THREAD_INFO.add("Deadlock found :-");
+            out.append("Deadlock found :-").append(LINE_SEPARATOR);
             ThreadInfo[] infos = tmbean.getThreadInfo(tids, true, true);
             for (ThreadInfo ti : infos) {
                 printThreadInfo(ti);
@@ -264,5 +426,11 @@ public final class FullThreadDump {
 
             return true;
         }
+
+        /**
+         * The state and stack frames shared by a group of threads.
+         */
+        private record ThreadGroupKey(Thread.State state, List<StackTraceElement> frames) {
+        }
     }
 }
@@ -0,0 +1,277 @@
+package com.reallifedeveloper.tools;
+
+import java.io.IOException;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A sampling profiler that repeatedly takes stack traces of the threads in a JVM over the JMX connection of a {@link FullThreadDump},
+ * counts how many times each distinct stack has been seen, and writes the result in the collapsed stack format used to create flame
+ * graphs.
+ * <p>
+ * To keep the overhead on the monitored JVM low, the JMX connection and {@code ThreadMXBean} proxy are reused for all samples, no lock
+ * information is requested, and the stack depth can be limited using {@link #setMaxDepth(int)}. The sampling can also be limited to some
+ * threads using {@link #setThreadIds(long...)}. If the stack depth is limited, the outermost frames of deep stacks are missing, so such
+ * stacks do not start at the thread's entry point.
+ * <p>
+ * Each line of the collapsed stack output contains the frames of a stack, from the outermost to the innermost, separated by semicolons,
+ * followed by a space and the number of times the stack was seen, e.g.:
+ *
+ * <pre>
+ * java.lang.Thread.run;com.example.Worker.run;com.example.Worker.process 42
+ * </pre>
+ * <p>
+ * An example:
+ *
+ * <pre>
+ * FullThreadDump threadDump = new FullThreadDump("localhost", 4711);
+ * StackSampler sampler = new StackSampler(threadDump);
+ * sampler.setInterval(Duration.ofMillis(20));
+ * sampler.sample(Duration.ofSeconds(30));
+ * try (Writer writer = Files.newBufferedWriter(Path.of("stacks.txt"))) {
+ *     sampler.writeCollapsedStacks(writer);
+ * }
+ * </pre>
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class StackSampler {
+
+    /**
+     * The default time between samples.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * The default maximum number of frames to sample for each thread.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 128;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StackSampler.class);
+
+    private final FullThreadDump threadDump;
+    private final Map<StackKey, long[]> stackCounts = new HashMap<>();
+    private Duration interval = DEFAULT_INTERVAL;
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+    private long @Nullable [] threadIds;
+    private boolean runnableOnly = true;
+    private boolean threadNamesIncluded;
+    private long sampleCount;
+
+    /**
+     * Creates a new {@code StackSampler} sampling the threads of the JVM that the given {@code FullThreadDump} is connected to.
+     *
+     * @param threadDump the {@code FullThreadDump} whose JMX connection to use
+     */
+    public StackSampler(FullThreadDump threadDump) {
+        if (threadDump == null) {
+            throw new IllegalArgumentException("threadDump must not be null");
+        }
+        this.threadDump = threadDump;
+    }
+
+    /**
+     * Change the time between samples. The default is {@link #DEFAULT_INTERVAL}.
+     *
+     * @param interval the time between samples, must be positive
+     */
+    public void setInterval(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Change the maximum number of frames to sample for each thread, counted from the innermost frame. The default is
+     * {@value #DEFAULT_MAX_DEPTH}.
+     *
+     * @param maxDepth the maximum number of frames, must be positive
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Only sample the threads with the given IDs. The default is to sample all threads.
+     *
+     * @param threadIds the IDs of the threads to sample, or no IDs to sample all threads
+     */
+    public void setThreadIds(long... threadIds) {
+        if (threadIds == null) {
+            throw new IllegalArgumentException("threadIds must not be null");
+        }
+        this.threadIds = threadIds.length == 0 ? null : threadIds.clone();
+    }
+
+    /**
+     * Decide if only threads in the {@code RUNNABLE} state should be sampled, which is normally what is wanted when looking for where the
+     * CPU time goes. The default is {@code true}. Set this to {@code false} to also sample waiting and blocked threads, e.g., when looking
+     * for where the wall-clock time goes.
+     *
+     * @param runnableOnly {@code true} to only sample runnable threads
+     */
+    public void setRunnableOnly(boolean runnableOnly) {
+        this.runnableOnly = runnableOnly;
+    }
+
+    /**
+     * Decide if the name of the thread should be included as the outermost frame of each stack, so that identical stacks in different
+     * threads are counted separately. The default is {@code false}.
+     *
+     * @param threadNamesIncluded {@code true} to include thread names in the stacks
+     */
+    public void setThreadNamesIncluded(boolean threadNamesIncluded) {
+        this.threadNamesIncluded = threadNamesIncluded;
+    }
+
+    /**
+     * Samples the stacks for the given duration, waiting for the configured interval between samples.
+     *
+     * @param duration how long to sample
+     *
+     * @throws IOException          if communication with the JMX server fails
+     * @throws InterruptedException if the thread is interrupted while waiting between samples
+     */
+    public void sample(Duration duration) throws IOException, InterruptedException {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("duration must not be null or negative: " + duration);
+        }
+        sample((int) Math.max(1, Math.min(Integer.MAX_VALUE, duration.toNanos() / interval.toNanos())));
+    }
+
+    /**
+     * Takes the given number of samples, waiting for the configured interval between samples. Samples are taken at a fixed rate, so if
+     * taking a sample takes longer than the interval, the next sample is taken immediately.
+     *
+     * @param samples the number of samples to take
+     *
+     * @throws IOException          if communication with the JMX server fails
+     * @throws InterruptedException if the thread is interrupted while waiting between samples
+     */
+    public void sample(int samples) throws IOException, InterruptedException {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("samples must be positive: " + samples);
+        }
+        ThreadMXBean tmbean = threadDump.threadMXBean();
+        long startTime = System.nanoTime();
+        long nextSampleTime = startTime;
+        for (int i = 0; i < samples; i++) {
+            if (i > 0) {
+                nextSampleTime += interval.toNanos();
+                TimeUnit.NANOSECONDS.sleep(nextSampleTime - System.nanoTime());
+            }
+            sampleOnce(tmbean);
+        }
+        LOG.debug("Took {} samples in {} ms, {} distinct stacks", samples, (System.nanoTime() - startTime) / 1_000_000,
+                stackCounts.size());
+    }
+
+    private void sampleOnce(ThreadMXBean tmbean) {
+        long[] ids = threadIds;
+        ThreadInfo[] threadInfos = ids == null ? tmbean.dumpAllThreads(false, false, maxDepth) : tmbean.getThreadInfo(ids, maxDepth);
+        for (ThreadInfo ti : threadInfos) {
+            if (ti == null || ti.getStackTrace().length == 0 || runnableOnly && ti.getThreadState() != Thread.State.RUNNABLE) {
+                continue;
+            }
+            StackKey key = new StackKey(threadNamesIncluded ? ti.getThreadName() : null, Arrays.asList(ti.getStackTrace()));
+            stackCounts.computeIfAbsent(key, k -> new long[1])[0]++;
+        }
+        sampleCount++;
+    }
+
+    /**
+     * Gives the number of samples taken since this object was created or reset.
+     *
+     * @return the number of samples
+     */
+    public long sampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Gives the number of times each distinct stack has been seen, with the stacks in collapsed form, sorted by stack.
+     *
+     * @return a map from collapsed stack to count
+     */
+    public Map<String, Long> stackCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<StackKey, long[]> entry : stackCounts.entrySet()) {
+            sb.setLength(0);
+            entry.getKey().appendCollapsed(sb);
+            counts.merge(sb.toString(), entry.getValue()[0], Long::sum);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Writes the counted stacks in collapsed stack format, one stack per line, sorted by stack.
+     *
+     * @param out the destination of the output, e.g., a {@code Writer}
+     *
+     * @throws IOException if writing to {@code out} fails
+     */
+    public void writeCollapsedStacks(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        for (Map.Entry<String, Long> entry : stackCounts().entrySet()) {
+            out.append(entry.getKey()).append(' ').append(Long.toString(entry.getValue())).append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Forgets all samples taken so far.
+     */
+    public void reset() {
+        stackCounts.clear();
+        sampleCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StackSampler{interval=" + interval + ", maxDepth=" + maxDepth + ", threadIds="
+                + (threadIds == null ? "all" : Arrays.toString(threadIds)) + ", runnableOnly=" + runnableOnly + ", threadNamesIncluded="
+                + threadNamesIncluded + ", sampleCount=" + sampleCount + "}";
+    }
+
+    /**
+     * A distinct stack, optionally for a named thread. The frames are given innermost first, as in {@code ThreadInfo}.
+     */
+    private record StackKey(@Nullable String threadName, List<StackTraceElement> frames) {
+
+        void appendCollapsed(StringBuilder sb) {
+            if (threadName != null) {
+                sb.append(threadName.replace(';', ':').replace(' ', '_')).append(';');
+            }
+            List<StackTraceElement> outermostFirst = new ArrayList<>(frames);
+            Collections.reverse(outermostFirst);
+            for (int i = 0; i < outermostFirst.size(); i++) {
+                StackTraceElement frame = outermostFirst.get(i);
+                if (i > 0) {
+                    sb.append(';');
+                }
+                sb.append(frame.getClassName()).append('.').append(frame.getMethodName());
+            }
+        }
+    }
+}
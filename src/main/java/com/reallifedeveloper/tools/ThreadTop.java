@@ -0,0 +1,338 @@
+package com.reallifedeveloper.tools;
+
+import java.io.IOException;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A "top" view of the threads in a JVM, showing the threads that use the most CPU time and allocate the most memory during an interval,
+ * together with their current stacks. The JMX connection of a {@link FullThreadDump} is used.
+ * <p>
+ * If the JVM connected to provides {@code com.sun.management.ThreadMXBean}, as HotSpot-based JVMs do, the CPU time and allocated bytes of
+ * all threads are read using one call each. Otherwise, the CPU time is read one thread at a time, and allocation is not measured. Threads
+ * that start or die during the interval are not included.
+ * <p>
+ * An example:
+ *
+ * <pre>
+ * FullThreadDump threadDump = new FullThreadDump("localhost", 4711);
+ * ThreadTop top = new ThreadTop(threadDump);
+ * top.setTopThreads(5);
+ * top.monitor(Duration.ofSeconds(5), 12, System.out);
+ * </pre>
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class ThreadTop {
+
+    /**
+     * The default number of threads to show in each list.
+     */
+    public static final int DEFAULT_TOP_THREADS = 10;
+
+    /**
+     * The default maximum number of frames to show for each thread.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadTop.class);
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final String INDENT = "    ";
+
+    private final FullThreadDump threadDump;
+    private int topThreads = DEFAULT_TOP_THREADS;
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    /**
+     * Creates a new {@code ThreadTop} measuring the threads of the JVM that the given {@code FullThreadDump} is connected to.
+     *
+     * @param threadDump the {@code FullThreadDump} whose JMX connection to use
+     */
+    public ThreadTop(FullThreadDump threadDump) {
+        if (threadDump == null) {
+            throw new IllegalArgumentException("threadDump must not be null");
+        }
+        this.threadDump = threadDump;
+    }
+
+    /**
+     * Change the number of threads to show in each list. The default is {@value #DEFAULT_TOP_THREADS}.
+     *
+     * @param topThreads the number of threads to show, must be positive
+     */
+    public void setTopThreads(int topThreads) {
+        if (topThreads <= 0) {
+            throw new IllegalArgumentException("topThreads must be positive: " + topThreads);
+        }
+        this.topThreads = topThreads;
+    }
+
+    /**
+     * Change the maximum number of frames to show for each thread. The default is {@value #DEFAULT_MAX_DEPTH}.
+     *
+     * @param maxDepth the maximum number of frames, must not be negative
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Measures the CPU time and allocated bytes of the threads during the given interval.
+     *
+     * @param interval how long to measure
+     *
+     * @return a {@code Report} with the threads that used the most CPU time and allocated the most memory
+     *
+     * @throws IOException          if communication with the JMX server fails
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Report measure(Duration interval) throws IOException, InterruptedException {
+        checkInterval(interval);
+        Reading before = read();
+        TimeUnit.NANOSECONDS.sleep(interval.toNanos());
+        return report(before, read());
+    }
+
+    /**
+     * Repeatedly measures the CPU time and allocated bytes of the threads, and writes a report after each interval. The end of one
+     * interval is the start of the next, so no time is left unmeasured.
+     *
+     * @param interval   the length of each interval
+     * @param iterations the number of reports to write
+     * @param out        the destination of the reports, e.g., a {@code Writer}
+     *
+     * @throws IOException          if communication with the JMX server fails, or if writing to {@code out} fails
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void monitor(Duration interval, int iterations, Appendable out) throws IOException, InterruptedException {
+        checkInterval(interval);
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("out must not be null");
+        }
+        Reading before = read();
+        for (int i = 0; i < iterations; i++) {
+            TimeUnit.NANOSECONDS.sleep(before.nanoTime() + interval.toNanos() - System.nanoTime());
+            Reading after = read();
+            report(before, after).write(out);
+            before = after;
+        }
+    }
+
+    private static void checkInterval(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+    }
+
+    private Reading read() throws IOException {
+        ThreadMXBean tmbean = threadDump.threadMXBean();
+        com.sun.management.ThreadMXBean extended = threadDump.extendedThreadMXBean();
+        long[] ids = tmbean.getAllThreadIds();
+        long nanoTime = System.nanoTime();
+        long[] cpuTimes;
+        long @Nullable [] allocatedBytes = null;
+        if (extended == null) {
+            cpuTimes = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                cpuTimes[i] = tmbean.getThreadCpuTime(ids[i]);
+            }
+        } else {
+            cpuTimes = extended.getThreadCpuTime(ids);
+            if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+                allocatedBytes = extended.getThreadAllocatedBytes(ids);
+            }
+        }
+        return new Reading(nanoTime, ids, cpuTimes, allocatedBytes);
+    }
+
+    private Report report(Reading before, Reading after) throws IOException {
+        Map<Long, Integer> beforeIndexes = new HashMap<>();
+        for (int i = 0; i < before.ids().length; i++) {
+            beforeIndexes.put(before.ids()[i], i);
+        }
+        long @Nullable [] allocatedBefore = before.allocatedBytes();
+        long @Nullable [] allocatedAfter = after.allocatedBytes();
+        List<long[]> deltas = new ArrayList<>();
+        for (int i = 0; i < after.ids().length; i++) {
+            Integer j = beforeIndexes.get(after.ids()[i]);
+            if (j != null) {
+                long cpuTime = delta(before.cpuTimes()[j], after.cpuTimes()[i]);
+                long allocated = allocatedBefore == null || allocatedAfter == null ? -1 : delta(allocatedBefore[j], allocatedAfter[i]);
+                deltas.add(new long[] { after.ids()[i], cpuTime, allocated });
+            }
+        }
+        List<long[]> topByCpu = top(deltas, d -> d[1]);
+        List<long[]> topByAllocation = top(deltas, d -> d[2]);
+        Set<Long> topIds = new LinkedHashSet<>();
+        topByCpu.forEach(d -> topIds.add(d[0]));
+        topByAllocation.forEach(d -> topIds.add(d[0]));
+        Map<Long, ThreadInfo> threadInfos = new HashMap<>();
+        if (!topIds.isEmpty()) {
+            long[] ids = topIds.stream().mapToLong(Long::longValue).toArray();
+            for (ThreadInfo ti : threadDump.threadMXBean().getThreadInfo(ids, maxDepth)) {
+                if (ti != null) {
+                    threadInfos.put(ti.getThreadId(), ti);
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(after.nanoTime() - before.nanoTime());
+        LOG.debug("Measured {} threads during {}", deltas.size(), elapsed);
+        return new Report(elapsed, usages(topByCpu, threadInfos), usages(topByAllocation, threadInfos));
+    }
+
+    private static long delta(long before, long after) {
+        return before < 0 || after < 0 ? -1 : Math.max(0, after - before);
+    }
+
+    private List<long[]> top(List<long[]> deltas, ToLongFunction<long[]> value) {
+        return deltas.stream().filter(d -> value.applyAsLong(d) > 0).sorted(Comparator.comparingLong(value).reversed()).limit(topThreads)
+                .toList();
+    }
+
+    private static List<ThreadUsage> usages(List<long[]> deltas, Map<Long, ThreadInfo> threadInfos) {
+        List<ThreadUsage> usages = new ArrayList<>();
+        for (long[] d : deltas) {
+            ThreadInfo ti = threadInfos.get(d[0]);
+            if (ti != null) {
+                usages.add(new ThreadUsage(d[0], ti.getThreadName(), ti.getThreadState(), d[1], d[2], Arrays.asList(ti.getStackTrace())));
+            }
+        }
+        return usages;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadTop{topThreads=" + topThreads + ", maxDepth=" + maxDepth + "}";
+    }
+
+    /**
+     * The CPU time and allocated bytes of all threads at one point in time. The arrays are indexed in the same way as {@code ids}, with
+     * -1 for unknown values. {@code allocatedBytes} is {@code null} if allocation is not measured.
+     */
+    private record Reading(long nanoTime, long[] ids, long[] cpuTimes, long @Nullable [] allocatedBytes) {
+    }
+
+    /**
+     * The CPU time used and the bytes allocated by a thread during an interval, together with the state and stack of the thread at the
+     * end of the interval.
+     *
+     * @param threadId       the ID of the thread
+     * @param threadName     the name of the thread
+     * @param threadState    the state of the thread
+     * @param cpuTimeNanos   the CPU time used by the thread in nanoseconds, or -1 if not measured
+     * @param allocatedBytes the number of bytes allocated by the thread, or -1 if not measured
+     * @param stackTrace     the innermost frames of the stack of the thread
+     */
+    public record ThreadUsage(long threadId, String threadName, Thread.State threadState, long cpuTimeNanos, long allocatedBytes,
+            List<StackTraceElement> stackTrace) {
+
+        /**
+         * Creates a new {@code ThreadUsage}, making a copy of the stack trace.
+         *
+         * @param threadId       the ID of the thread
+         * @param threadName     the name of the thread
+         * @param threadState    the state of the thread
+         * @param cpuTimeNanos   the CPU time used by the thread in nanoseconds, or -1 if not measured
+         * @param allocatedBytes the number of bytes allocated by the thread, or -1 if not measured
+         * @param stackTrace     the innermost frames of the stack of the thread
+         */
+        public ThreadUsage {
+            if (threadName == null || threadState == null || stackTrace == null) {
+                throw new IllegalArgumentException("Arguments must not be null: threadName=" + threadName + ", threadState=" + threadState
+                        + ", stackTrace=" + stackTrace);
+            }
+            stackTrace = List.copyOf(stackTrace);
+        }
+    }
+
+    /**
+     * The threads that used the most CPU time and allocated the most memory during an interval, in descending order.
+     *
+     * @param elapsed         the length of the interval
+     * @param topByCpu        the threads that used the most CPU time
+     * @param topByAllocation the threads that allocated the most bytes, empty if allocation is not measured
+     */
+    public record Report(Duration elapsed, List<ThreadUsage> topByCpu, List<ThreadUsage> topByAllocation) {
+
+        /**
+         * Creates a new {@code Report}, making copies of the lists.
+         *
+         * @param elapsed         the length of the interval
+         * @param topByCpu        the threads that used the most CPU time
+         * @param topByAllocation the threads that allocated the most bytes, empty if allocation is not measured
+         */
+        public Report {
+            if (elapsed == null || topByCpu == null || topByAllocation == null) {
+                throw new IllegalArgumentException("Arguments must not be null: elapsed=" + elapsed + ", topByCpu=" + topByCpu
+                        + ", topByAllocation=" + topByAllocation);
+            }
+            topByCpu = List.copyOf(topByCpu);
+            topByAllocation = List.copyOf(topByAllocation);
+        }
+
+        /**
+         * Writes this report in human-readable form, with each line terminated by the system line separator.
+         *
+         * @param out the destination of the report, e.g., a {@code Writer} or a {@code StringBuilder}
+         *
+         * @throws IOException if writing to {@code out} fails
+         */
+        public void write(Appendable out) throws IOException {
+            if (out == null) {
+                throw new IllegalArgumentException("out must not be null");
+            }
+            long elapsedMillis = Math.max(1, elapsed.toMillis());
+            out.append("Top threads by CPU time during ").append(Long.toString(elapsedMillis)).append(" ms").append(LINE_SEPARATOR);
+            for (ThreadUsage usage : topByCpu) {
+                writeUsage(usage, out);
+            }
+            out.append("Top threads by allocation during ").append(Long.toString(elapsedMillis)).append(" ms").append(LINE_SEPARATOR);
+            for (ThreadUsage usage : topByAllocation) {
+                writeUsage(usage, out);
+            }
+        }
+
+        private void writeUsage(ThreadUsage usage, Appendable out) throws IOException {
+            long elapsedNanos = Math.max(1, elapsed.toNanos());
+            out.append('"').append(usage.threadName()).append('"').append(" Id=").append(Long.toString(usage.threadId())).append(" in ")
+                    .append(usage.threadState().toString());
+            if (usage.cpuTimeNanos() >= 0) {
+                out.append(" cpu=").append(Long.toString(usage.cpuTimeNanos() / 1_000_000)).append(" ms (")
+                        .append(Long.toString(usage.cpuTimeNanos() * 100 / elapsedNanos)).append("%)");
+            }
+            if (usage.allocatedBytes() >= 0) {
+                out.append(" allocated=").append(Long.toString(usage.allocatedBytes())).append(" bytes (")
+                        .append(Long.toString(usage.allocatedBytes() * 1_000 / elapsedNanos)).append(" MB/s)");
+            }
+            out.append(LINE_SEPARATOR);
+            for (StackTraceElement ste : usage.stackTrace()) {
+                out.append(INDENT).append("at ").append(ste.toString()).append(LINE_SEPARATOR);
+            }
+        }
+    }
+}
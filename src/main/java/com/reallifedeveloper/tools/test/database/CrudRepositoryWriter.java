@@ -1,23 +1,32 @@
 package com.reallifedeveloper.tools.test.database;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -29,13 +38,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.repository.CrudRepository;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import com.reallifedeveloper.tools.test.TestUtil;
@@ -46,8 +60,19 @@ import com.reallifedeveloper.tools.test.TestUtil;
  * <p>
  * This can be useful for inserting test data into a repository, irrespective of whether the repository connects to a real database or not.
  * <p>
- * TODO: The current implementation only has basic support for "to many" associations (there must be a &amp;JoinTable annotation on a field,
- * with &amp;JoinColumn annotations), and for enums (an enum must be stored as a string).
+ * The following associations are supported:
+ * <ul>
+ * <li>&#64;ManyToOne and the owning side of &#64;OneToOne, using a &#64;JoinColumn.</li>
+ * <li>The inverse side of &#64;OneToOne, using {@code mappedBy}.</li>
+ * <li>&#64;OneToMany collections and maps, using either {@code mappedBy} or a &#64;JoinColumn that the target entity maps to a field.</li>
+ * <li>&#64;ManyToMany, using a &#64;JoinTable with &#64;JoinColumn annotations; the inverse side is filled in if it uses {@code mappedBy}.
+ * </li>
+ * <li>&#64;ElementCollection of &#64;Embeddable objects, read from the collection table.</li>
+ * </ul>
+ * <p>
+ * Enum values given as strings are mapped to the constant with that name, as stored with {@code @Enumerated(EnumType.STRING)}. Enum values
+ * given as numbers, e.g., when read from a database using {@code JdbcDatabaseReader}, are mapped to the constant with that ordinal, as
+ * stored with the default {@code @Enumerated(EnumType.ORDINAL)}.
  *
  * @author RealLifeDeveloper
  */
@@ -60,11 +85,56 @@ public class CrudRepositoryWriter {
 
     private final EntityMap entityMap = new EntityMap();
 
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, Map<String, ColumnMapping>> columnMappings = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, TypeMapping> typeMappings = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, List<Field>> relationshipFields = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final List<Object> unwiredEntities = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<FieldKey, ReverseIndex> reverseIndexes = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<FieldKey, Map<Object, List<PendingReference>>> pendingReferences = new LinkedHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, Set<Object>> unsavedEntities = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, JoinTableMapping> joinTableMappings = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ElementCollectionMapping> elementCollectionMappings = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private FixtureLoadMonitor fixtureLoadMonitor = FixtureLoadMonitor.disabled();
+
+    /**
+     * Sets the monitor used to measure the time spent saving entities in repositories. The default is a disabled monitor.
+     *
+     * @param fixtureLoadMonitor the monitor to use
+     */
+    public void setFixtureLoadMonitor(FixtureLoadMonitor fixtureLoadMonitor) {
+        if (fixtureLoadMonitor == null) {
+            throw new IllegalArgumentException("fixtureLoadMonitor must not be null");
+        }
+        this.fixtureLoadMonitor = fixtureLoadMonitor;
+    }
+
     /**
      * Creates a new entity based on data from a {@link DbTableRow} and writes it into a repository if appropriate.
      * <p>
      * This method may create entities that are not directly handled by the repository, in which case they are assumed to be related to some
      * entity in the repository.
+     * <p>
+     * If {@code entityType} is an {@code Embeddable}, the row is assumed to come from the collection table of an {@code ElementCollection}
+     * in an entity that has already been written, and the new object is added to that collection.
      *
      * @param <T>                  the type of entities in the repository
      * @param <E>                  the type of entity being created
@@ -79,64 +149,238 @@ public class CrudRepositoryWriter {
      */
     public <T, E, ID extends Serializable> boolean writeEntity(DbTableRow tableRow, Class<T> repositoryEntityType,
             @Nullable Class<E> entityType, CrudRepository<T, ID> repository, String tableName) throws ReflectiveOperationException {
+        return writeEntity(tableRow, entityType, tableName, entity -> saveToRepository(entity, repository, repositoryEntityType));
+    }
+
+    /**
+     * Creates a new entity based on data from a {@link DbTableRow} and writes it into the repository registered for its class, if any.
+     * <p>
+     * This works like {@link #writeEntity(DbTableRow, Class, Class, CrudRepository, String)}, but entities of all the types registered
+     * in {@code repositories} are saved in their own repositories, so a file with rows for several repositories only needs to be read
+     * once.
+     *
+     * @param <E>          the type of entity being created
+     * @param tableRow     the {@code TableRow} with the data to insert into the fields of the newly created entity
+     * @param entityType   the class object representing {@code E}, i.e., the type of entity being created, or {@code null}
+     * @param repositories the repositories in which to save entities
+     * @param tableName    the name of the database table where the entity should be stored
+     * @return {@code true} if an entity was created, no matter if it was saved in a repository, {@code false} otherwise
+     * @throws ReflectiveOperationException if some reflection operation failed creating the entity or setting is fields
+     */
+    public <E> boolean writeEntity(DbTableRow tableRow, @Nullable Class<E> entityType, RepositoryRegistry repositories, String tableName)
+            throws ReflectiveOperationException {
+        return writeEntity(tableRow, entityType, tableName, entity -> saveToRepository(entity, repositories));
+    }
+
+    private <E> boolean writeEntity(DbTableRow tableRow, @Nullable Class<E> entityType, String tableName, EntitySaver entitySaver)
+            throws ReflectiveOperationException {
         if (entityType == null) {
             return false;
         }
-        if (entityType.getAnnotation(Embeddable.class) != null) {
-            return writeEmbeddable(tableRow, repositoryEntityType, entityType, repository, tableName);
+        TypeMapping typeMapping = typeMapping(entityType);
+        if (typeMapping.embeddable()) {
+            return writeEmbeddable(tableRow, entityType, tableName);
         }
-        if (entityType.getAnnotation(Entity.class) == null || !JpaUtil.getTableName(entityType).equalsIgnoreCase(tableName)) {
+        String entityTableName = typeMapping.tableName();
+        if (entityTableName == null || !entityTableName.equalsIgnoreCase(tableName)) {
             return false;
         }
         E entity = createEntity(entityType);
-        for (DbTableField column : tableRow.columns()) {
-            String fieldName = JpaUtil.getFieldName(column.name(), entityType);
-            setField(entity, fieldName, column.value());
+        for (int i = 0; i < tableRow.columnCount(); i++) {
+            ColumnMapping columnMapping = columnMapping(entity, tableRow.columnName(i));
+            setField(entity, columnMapping, tableRow.typedColumnValue(i));
+        }
+        if (entityMap.addEntity(entity)) {
+            unwiredEntities.add(entity);
+            addToReverseIndexes(entity);
+        }
+        if (!entitySaver.save(entity)) {
+            markUnsaved(entity);
         }
-        entityMap.addEntity(entity);
-        saveToRepository(entity, repository, repositoryEntityType);
         return true;
     }
 
-    private <T, ID extends Serializable> void saveToRepository(Object entity, CrudRepository<T, ID> repository,
+    private TypeMapping typeMapping(Class<?> type) {
+        return typeMappings.computeIfAbsent(type, k -> new TypeMapping(k.getAnnotation(Embeddable.class) != null,
+                k.getAnnotation(Entity.class) == null ? null : JpaUtil.getTableName(k)));
+    }
+
+    private <T, ID extends Serializable> boolean saveToRepository(Object entity, CrudRepository<T, ID> repository,
             Class<T> repositoryEntityType) {
         if (repositoryEntityType.isAssignableFrom(entity.getClass())) {
             T entityToSave = repositoryEntityType.cast(entity);
             LOG.debug("Saving entity in repository: entity={}", entity);
+            long startTime = fixtureLoadMonitor.now();
             repository.save(entityToSave);
+            fixtureLoadMonitor.saved(startTime);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean saveToRepository(Object entity, RepositoryRegistry repositories) {
+        CrudRepository<Object, ?> repository = repositories.repositoryFor(entity.getClass());
+        if (repository == null) {
+            return false;
         }
+        LOG.debug("Saving entity in repository: entity={}", entity);
+        long startTime = fixtureLoadMonitor.now();
+        repository.save(entity);
+        fixtureLoadMonitor.saved(startTime);
+        return true;
+    }
+
+    private void markUnsaved(Object entity) {
+        unsavedEntities.computeIfAbsent(entity.getClass(), k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(entity);
     }
 
-    @SuppressWarnings("UnusedVariable")
-    private <T, E, ID extends Serializable> boolean writeEmbeddable(DbTableRow tableRow, Class<T> repositoryEntityType,
-            @Nullable Class<E> entityType, CrudRepository<T, ID> repository, String tableName) {
+    private <E> boolean writeEmbeddable(DbTableRow tableRow, Class<E> embeddableType, String tableName)
+            throws ReflectiveOperationException {
         LOG.debug("Saving embeddable {}", tableRow);
-        throw new UnsupportedOperationException("writeEmbeddable not yet implemented");
+        ElementCollectionMapping mapping = elementCollectionMapping(tableName, embeddableType);
+        if (mapping == null) {
+            return false;
+        }
+        E embeddable = createEntity(embeddableType);
+        Object ownerPrimaryKey = null;
+        for (int i = 0; i < tableRow.columnCount(); i++) {
+            String columnName = tableRow.columnName(i);
+            if (columnName.equalsIgnoreCase(mapping.joinColumnName())) {
+                ownerPrimaryKey = primaryKeyValue(tableRow, i);
+            } else {
+                setField(embeddable, columnMapping(embeddable, columnName), tableRow.typedColumnValue(i));
+            }
+        }
+        if (ownerPrimaryKey == null) {
+            throw new IllegalStateException("Failed to find owner of element collection: missing attribute '" + mapping.joinColumnName()
+                    + "' in table " + tableName);
+        }
+        Object owner = entityMap.findEntity(ownerPrimaryKey, mapping.ownerClass());
+        JpaUtil.addObjectToCollectionField(mapping.field(), owner, embeddable);
+        markUnsaved(owner);
+        return true;
+    }
+
+    private @Nullable ElementCollectionMapping elementCollectionMapping(String tableName, Class<?> embeddableType) {
+        String key = tableName.toLowerCase(Locale.ROOT) + ":" + embeddableType.getName();
+        ElementCollectionMapping mapping = elementCollectionMappings.get(key);
+        if (mapping != null) {
+            return mapping;
+        }
+        for (Class<?> entityClass : entityMap.entityClasses) {
+            for (Field field : entityClass.getDeclaredFields()) {
+                if (field.getAnnotation(ElementCollection.class) == null || !Collection.class.isAssignableFrom(field.getType())
+                        || elementType(field, 0) != embeddableType) {
+                    continue;
+                }
+                CollectionTable collectionTable = field.getAnnotation(CollectionTable.class);
+                String entityName = entityName(entityClass);
+                String collectionTableName = collectionTable == null || collectionTable.name().isEmpty()
+                        ? entityName + "_" + field.getName()
+                        : collectionTable.name();
+                if (!collectionTableName.equalsIgnoreCase(tableName)) {
+                    continue;
+                }
+                String joinColumnName = collectionTable == null || collectionTable.joinColumns().length == 0
+                        || collectionTable.joinColumns()[0].name().isEmpty() ? entityName + "_" + idColumnName(entityClass)
+                                : collectionTable.joinColumns()[0].name();
+                field.setAccessible(true);
+                mapping = new ElementCollectionMapping(entityClass, field, joinColumnName);
+                elementCollectionMappings.put(key, mapping);
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    private static String entityName(Class<?> entityClass) {
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        return entity == null || entity.name().isEmpty() ? entityClass.getSimpleName() : entity.name();
+    }
+
+    private static String idColumnName(Class<?> entityClass) {
+        for (Class<?> c = entityClass; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getAnnotation(Id.class) != null) {
+                    Column column = field.getAnnotation(Column.class);
+                    return column == null || column.name().isEmpty() ? field.getName() : column.name();
+                }
+            }
+        }
+        throw new IllegalStateException("Id field not found for " + entityClass);
+    }
+
+    private static Class<?> elementType(Field field, int typeArgumentIndex) {
+        ParameterizedType parameterizedType = (ParameterizedType) field.getGenericType();
+        Type targetType = parameterizedType.getActualTypeArguments()[typeArgumentIndex];
+        if (targetType instanceof Class<?> targetClass) {
+            return targetClass;
+        }
+        return getClass(targetType.getTypeName());
     }
 
     /**
      * Connects entities based on data in a join table.
+     * <p>
+     * The entity on the right-hand side is added to the collection of the entity on the left-hand side. If the right-hand side entity has a
+     * {@code ManyToMany} collection that is mapped by the left-hand side collection, the left-hand side entity is added to it.
      *
      * @param tableRow       the {@code TableRow} with the data for the join table
      * @param joinTtableName the name of the join table to use to connect entities
      */
     public void addEntitiesFromJoinTable(DbTableRow tableRow, String joinTtableName) {
-        entityMap.joinTableField(joinTtableName).ifPresent(joinTableField -> {
-            joinTableField.setAccessible(true);
-            ParameterizedType parameterizedType = (ParameterizedType) joinTableField.getGenericType();
-            Class<?> targetType = (Class<?>) parameterizedType.getActualTypeArguments()[0];
-            JoinTable joinTable = joinTableField.getAnnotation(JoinTable.class);
-            assert joinTable != null : "JoinTable annotation should be present when the joinTableField method returns a non-empty value";
-            for (JoinColumn joinColumn : joinTable.joinColumns()) {
-                for (JoinColumn inverseJoinColumn : joinTable.inverseJoinColumns()) {
-                    addEntityFromJoinTable(tableRow, joinTableField, targetType, joinColumn, inverseJoinColumn);
-                }
+        JoinTableMapping mapping = joinTableMapping(joinTtableName);
+        if (mapping == null) {
+            return;
+        }
+        JoinTable joinTable = mapping.field().getAnnotation(JoinTable.class);
+        assert joinTable != null : "JoinTable annotation should be present when the joinTableMapping method returns a non-null value";
+        for (JoinColumn joinColumn : joinTable.joinColumns()) {
+            for (JoinColumn inverseJoinColumn : joinTable.inverseJoinColumns()) {
+                addEntityFromJoinTable(tableRow, mapping, joinColumn, inverseJoinColumn);
             }
-        });
+        }
+    }
+
+    private @Nullable JoinTableMapping joinTableMapping(String joinTableName) {
+        String key = joinTableName.toLowerCase(Locale.ROOT);
+        JoinTableMapping mapping = joinTableMappings.get(key);
+        if (mapping == null) {
+            Optional<Field> joinTableField = entityMap.joinTableField(joinTableName);
+            if (joinTableField.isEmpty()) {
+                return null;
+            }
+            Field field = joinTableField.get();
+            field.setAccessible(true);
+            Class<?> targetType = elementType(field, 0);
+            mapping = new JoinTableMapping(field, targetType, inverseManyToManyField(field, targetType));
+            joinTableMappings.put(key, mapping);
+        }
+        return mapping;
+    }
+
+    private static @Nullable Field inverseManyToManyField(Field owningField, Class<?> targetType) {
+        for (Field field : targetType.getDeclaredFields()) {
+            ManyToMany manyToMany = field.getAnnotation(ManyToMany.class);
+            if (manyToMany != null && owningField.getName().equals(manyToMany.mappedBy())
+                    && Collection.class.isAssignableFrom(field.getType())) {
+                field.setAccessible(true);
+                return field;
+            }
+        }
+        return null;
     }
 
     /**
-     * Goes through all entities that have been saved, trying to fix missing associations.
+     * Fixes missing associations for the entities that have been written since the last call to this method, and saves the entities that
+     * have been changed in the repository.
+     * <p>
+     * The work is done incrementally: the relationships of a new entity are examined once, and relationships that could not be resolved,
+     * or that may receive more entities, are remembered and only matched against entities written later. This means that reading many
+     * files using the same {@code CrudRepositoryWriter} scales linearly with the number of entities.
+     * <p>
+     * Entities on the other side of a relationship are found using reverse indexes, one for each combination of entity class and field
+     * that some relationship is mapped by, so no scanning of entities is needed.
      *
      * @param <T>                  the type of entities in the repository
      * @param <ID>                 the type of the primary key of the entities in the repository
@@ -148,10 +392,37 @@ public class CrudRepositoryWriter {
      */
     public <T, ID extends Serializable> void fillReferencesBetweenEntities(CrudRepository<T, ID> repository, Class<T> repositoryEntityType)
             throws ReflectiveOperationException {
-        for (Object entity : entityMap.entities()) {
+        wireNewEntities();
+        saveUnsavedEntities(repository, repositoryEntityType);
+    }
+
+    /**
+     * Fixes missing associations for the entities that have been written since the last call to this method, and saves the entities that
+     * have been changed in the repositories registered for their classes.
+     * <p>
+     * This works like {@link #fillReferencesBetweenEntities(CrudRepository, Class)}, but references between entities in different
+     * repositories are filled in at the same time.
+     *
+     * @param repositories the repositories in which to save the entities that may have been updated
+     *
+     * @throws ReflectiveOperationException if something went wrong using reflection to analyze the entities
+     */
+    public void fillReferencesBetweenEntities(RepositoryRegistry repositories) throws ReflectiveOperationException {
+        wireNewEntities();
+        saveUnsavedEntities(repositories);
+    }
+
+    private void wireNewEntities() throws ReflectiveOperationException {
+        List<Object> newEntities = new ArrayList<>(unwiredEntities);
+        unwiredEntities.clear();
+        Map<Class<?>, List<Object>> newEntitiesByClass = new HashMap<>();
+        for (Object entity : newEntities) {
+            newEntitiesByClass.computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
+        }
+        resolvePendingReferences(newEntitiesByClass);
+        for (Object entity : newEntities) {
             LOG.trace("fillReferencesBetweenEntities: Examining entity {}", entity);
-            for (Field field : entity.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
+            for (Field field : relationshipFields(entity.getClass())) {
                 OneToOne oneToOne = field.getAnnotation(OneToOne.class);
                 if (oneToOne != null) {
                     handleOneToOne(entity, field, oneToOne);
@@ -161,7 +432,82 @@ public class CrudRepositoryWriter {
                     handleOneToMany(entity, field, oneToMany);
                 }
             }
-            saveToRepository(entity, repository, repositoryEntityType);
+        }
+    }
+
+    private List<Field> relationshipFields(Class<?> entityType) {
+        return relationshipFields.computeIfAbsent(entityType, k -> {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : k.getDeclaredFields()) {
+                if (field.getAnnotation(OneToOne.class) != null || field.getAnnotation(OneToMany.class) != null) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields;
+        });
+    }
+
+    /**
+     * Matches relationships of entities examined in earlier calls to {@link #fillReferencesBetweenEntities(CrudRepository, Class)}
+     * against the entities that are new since then.
+     */
+    private void resolvePendingReferences(Map<Class<?>, List<Object>> newEntitiesByClass) throws IllegalAccessException {
+        for (Map.Entry<FieldKey, Map<Object, List<PendingReference>>> entry : pendingReferences.entrySet()) {
+            List<Object> candidates = newEntitiesByClass.get(entry.getKey().entityClass());
+            if (candidates == null) {
+                continue;
+            }
+            ReverseIndex reverseIndex = reverseIndexes.get(entry.getKey());
+            assert reverseIndex != null : "Reverse index should exist for pending reference: " + entry.getKey();
+            Map<Object, List<Object>> candidatesByOwnerId = new LinkedHashMap<>();
+            for (Object candidate : candidates) {
+                Object ownerId = reverseIndex.key(candidate);
+                if (ownerId != null) {
+                    candidatesByOwnerId.computeIfAbsent(ownerId, k -> new ArrayList<>()).add(candidate);
+                }
+            }
+            Map<Object, List<PendingReference>> referencesByOwnerId = entry.getValue();
+            for (Map.Entry<Object, List<Object>> candidatesForOwner : candidatesByOwnerId.entrySet()) {
+                List<PendingReference> references = referencesByOwnerId.get(candidatesForOwner.getKey());
+                if (references == null) {
+                    continue;
+                }
+                for (Iterator<PendingReference> it = references.iterator(); it.hasNext();) {
+                    PendingReference reference = it.next();
+                    addToRelationship(reference.entity(), reference.field(), candidatesForOwner.getValue());
+                    if (isSingleValued(reference.field())) {
+                        it.remove();
+                    }
+                }
+                if (references.isEmpty()) {
+                    referencesByOwnerId.remove(candidatesForOwner.getKey());
+                }
+            }
+        }
+    }
+
+    private <T, ID extends Serializable> void saveUnsavedEntities(CrudRepository<T, ID> repository, Class<T> repositoryEntityType) {
+        for (Iterator<Map.Entry<Class<?>, Set<Object>>> it = unsavedEntities.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Class<?>, Set<Object>> entry = it.next();
+            if (repositoryEntityType.isAssignableFrom(entry.getKey())) {
+                for (Object entity : entry.getValue()) {
+                    saveToRepository(entity, repository, repositoryEntityType);
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private void saveUnsavedEntities(RepositoryRegistry repositories) {
+        for (Iterator<Map.Entry<Class<?>, Set<Object>>> it = unsavedEntities.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Class<?>, Set<Object>> entry = it.next();
+            if (repositories.repositoryFor(entry.getKey()) != null) {
+                for (Object entity : entry.getValue()) {
+                    saveToRepository(entity, repositories);
+                }
+                it.remove();
+            }
         }
     }
 
@@ -174,22 +520,7 @@ public class CrudRepositoryWriter {
             LOG.trace("handleOneToOne: Ignoring owner side, it should be set as normal field: field={}, entity={}", field, entity);
         } else if (oneToOne.mappedBy() != null && !oneToOne.mappedBy().isEmpty()) {
             LOG.trace("handleOneToOne: Inverse side: field={}, entity={}", field, entity);
-            String mappedBy = oneToOne.mappedBy();
-            Object id = JpaUtil.getIdValue(entity);
-            List<?> entitiesToMap = findEntitiesByClassAndField(field.getType(), mappedBy, id);
-            if (entitiesToMap.isEmpty()) {
-                LOG.trace("handleOneToOne: Inverse side found no candidate for OneToOne mapping: field={}, entity={}", field, entity);
-                return;
-            } else if (entitiesToMap.size() > 1) {
-                throw new IllegalStateException("Found multiple candidates for OneToOne mapping: field=" + field + ", entity=" + entity);
-            }
-            Object value = entitiesToMap.get(0);
-            LOG.debug("Setting OneToOne field {} to {}", JpaUtil.fieldNameForLogging(entity, field), value);
-            if (value == null) {
-                LOG.warn("handleOneToOne: Not setting OneToOneField to null: field={}, entity={}", field, entity);
-                return;
-            }
-            field.set(entity, value);
+            wireInverseSide(entity, field, field.getType(), oneToOne.mappedBy());
         } else {
             throw new IllegalStateException(
                     "OneToOne field " + JpaUtil.fieldNameForLogging(entity, field) + " has no mappedBy and no JoinColumn annotation");
@@ -197,25 +528,16 @@ public class CrudRepositoryWriter {
     }
 
     private void handleOneToMany(Object entity, Field field, OneToMany oneToMany) throws IllegalAccessException, NoSuchFieldException {
+        LOG.trace("handleOneToMany: entity={}, field={}, oneToMany={}", entity, field, oneToMany);
         Class<?> collectionType = field.getType();
+        Class<?> targetClass;
         if (Collection.class.isAssignableFrom(collectionType)) {
-            saveEntityInCollection(entity, field, oneToMany);
+            targetClass = elementType(field, 0);
         } else if (Map.class.isAssignableFrom(collectionType)) {
-            saveEntityInMap(entity, field, oneToMany);
+            targetClass = elementType(field, 1);
+        } else {
+            return;
         }
-    }
-
-    private void saveEntityInCollection(Object entity, Field field, OneToMany oneToMany)
-            throws IllegalAccessException, NoSuchFieldException {
-        LOG.trace("saveEntityInCollection: entity={}, field={}, oneToMany={}", entity, field, oneToMany);
-        LOG.trace("Not yet implemented");
-    }
-
-    private void saveEntityInMap(Object entity, Field field, OneToMany oneToMany) throws IllegalAccessException, NoSuchFieldException {
-        LOG.trace("saveEntityInMap: entity={}, field={}, oneToMany={}", entity, field, oneToMany);
-        ParameterizedType parameterizedType = (ParameterizedType) field.getGenericType();
-        Type[] targetTypes = parameterizedType.getActualTypeArguments();
-        Class<?> targetClass = getClass(targetTypes[1].getTypeName());
         String mappedBy = oneToMany.mappedBy();
         if (mappedBy == null || mappedBy.isEmpty()) {
             JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
@@ -223,62 +545,137 @@ public class CrudRepositoryWriter {
                 mappedBy = JpaUtil.getFieldName(joinColumn.name(), targetClass);
             }
         }
+        if ((mappedBy == null || mappedBy.isEmpty())
+                && (field.getAnnotation(JoinTable.class) != null || Collection.class.isAssignableFrom(collectionType))) {
+            LOG.trace("handleOneToMany: Relationship uses a join table, it is filled from join table rows: field={}, entity={}", field,
+                    entity);
+            return;
+        }
         if (mappedBy == null || mappedBy.isEmpty()) {
             throw new IllegalStateException(
                     "OneToMany field " + JpaUtil.fieldNameForLogging(entity, field) + " has no mappedBy and no JoinColumn annotation");
         }
+        wireInverseSide(entity, field, targetClass, mappedBy);
+    }
+
+    /**
+     * Fills in the inverse side of a relationship, i.e., {@code field} in {@code entity}, with the entities of {@code targetClass} whose
+     * {@code mappedBy} field refers to {@code entity}, and remembers the relationship so that entities written later can be added.
+     */
+    private void wireInverseSide(Object entity, Field field, Class<?> targetClass, String mappedBy)
+            throws IllegalAccessException, NoSuchFieldException {
+        FieldKey fieldKey = new FieldKey(targetClass, mappedBy);
         Object id = JpaUtil.getIdValue(entity);
-        List<?> entitiesToMap = findEntitiesByClassAndField(targetClass, mappedBy, id);
-        JpaUtil.addEntitiesToMapField(field, entity, entitiesToMap);
+        List<Object> targets = reverseIndex(fieldKey).find(id);
+        addToRelationship(entity, field, targets);
+        if (isSingleValued(field) && !targets.isEmpty()) {
+            return;
+        }
+        LOG.trace("wireInverseSide: Remembering relationship for entities written later: field={}, entity={}", field, entity);
+        pendingReferences.computeIfAbsent(fieldKey, k -> new HashMap<>()).computeIfAbsent(id, k -> new ArrayList<>())
+                .add(new PendingReference(entity, field));
     }
 
-    private static Class<?> getClass(String className) {
-        try {
-            return Class.forName(className);
-        } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("Class " + className + " not found", e);
+    private void addToRelationship(Object entity, Field field, List<Object> targets) throws IllegalAccessException {
+        if (targets.isEmpty()) {
+            return;
+        }
+        if (Map.class.isAssignableFrom(field.getType())) {
+            JpaUtil.addEntitiesToMapField(field, entity, targets);
+        } else if (Collection.class.isAssignableFrom(field.getType())) {
+            for (Object target : targets) {
+                JpaUtil.addObjectToCollectionField(field, entity, target);
+            }
+        } else {
+            if (targets.size() > 1 || field.get(entity) != null) {
+                throw new IllegalStateException("Found multiple candidates for OneToOne mapping: field=" + field + ", entity=" + entity);
+            }
+            Object value = targets.get(0);
+            LOG.debug("Setting OneToOne field {} to {}", JpaUtil.fieldNameForLogging(entity, field), value);
+            field.set(entity, value);
         }
+        markUnsaved(entity);
     }
 
-    private <T> List<T> findEntitiesByClassAndField(Class<T> entityClass, String fieldName, Object value)
-            throws IllegalAccessException, NoSuchFieldException {
-        LOG.trace("Finding entities by class={}, field={} and value={}", entityClass, fieldName, value);
-        List<T> foundEntities = new ArrayList<>();
-        for (T entity : entityMap.entitiesOfType(entityClass)) {
-            Field field = entity.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            // LOG.debug("{}.{}={}", entityClass.getName(), fieldName, field.get(entity));
-            Object fieldValue = field.get(entity);
-            if (fieldValue == null) {
-                continue;
+    private static boolean isSingleValued(Field field) {
+        return !Collection.class.isAssignableFrom(field.getType()) && !Map.class.isAssignableFrom(field.getType());
+    }
+
+    private ReverseIndex reverseIndex(FieldKey fieldKey) throws IllegalAccessException, NoSuchFieldException {
+        ReverseIndex reverseIndex = reverseIndexes.get(fieldKey);
+        if (reverseIndex == null) {
+            LOG.trace("Creating reverse index for class={} and field={}", fieldKey.entityClass(), fieldKey.fieldName());
+            reverseIndex = new ReverseIndex(declaredField(fieldKey.entityClass(), fieldKey.fieldName()));
+            for (Object entity : entityMap.entitiesOfType(fieldKey.entityClass())) {
+                reverseIndex.add(entity);
             }
-            if (fieldValue.equals(value)) {
-                foundEntities.add(entity);
-            } else if (fieldValue.getClass().getAnnotation(Entity.class) != null && JpaUtil.getIdValue(fieldValue).equals(value)) {
-                foundEntities.add(entity);
+            reverseIndexes.put(fieldKey, reverseIndex);
+        }
+        return reverseIndex;
+    }
+
+    private void addToReverseIndexes(Object entity) throws IllegalAccessException {
+        for (Map.Entry<FieldKey, ReverseIndex> entry : reverseIndexes.entrySet()) {
+            if (entry.getKey().entityClass().equals(entity.getClass())) {
+                entry.getValue().add(entity);
+            }
+        }
+    }
+
+    private static Field declaredField(Class<?> entityClass, String fieldName) throws NoSuchFieldException {
+        for (Class<?> c = entityClass; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getName().equals(fieldName)) {
+                    field.setAccessible(true);
+                    return field;
+                }
             }
         }
-        return foundEntities;
+        throw new NoSuchFieldException(fieldName);
+    }
+
+    private static Class<?> getClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Class " + className + " not found", e);
+        }
     }
 
-    private void addEntityFromJoinTable(DbTableRow tableRow, Field joinTableField, Class<?> targetType, JoinColumn joinColumn,
+    private void addEntityFromJoinTable(DbTableRow tableRow, JoinTableMapping mapping, JoinColumn joinColumn,
             JoinColumn inverseJoinColumn) {
-        String lhsPrimaryKey = null;
-        String rhsPrimaryKey = null;
-        for (DbTableField column : tableRow.columns()) {
-            if (column.name().equalsIgnoreCase(joinColumn.name())) {
-                lhsPrimaryKey = column.value();
-            } else if (column.name().equalsIgnoreCase(inverseJoinColumn.name())) {
-                rhsPrimaryKey = column.value();
+        Object lhsPrimaryKey = null;
+        Object rhsPrimaryKey = null;
+        for (int i = 0; i < tableRow.columnCount(); i++) {
+            String columnName = tableRow.columnName(i);
+            if (columnName.equalsIgnoreCase(joinColumn.name())) {
+                lhsPrimaryKey = primaryKeyValue(tableRow, i);
+            } else if (columnName.equalsIgnoreCase(inverseJoinColumn.name())) {
+                rhsPrimaryKey = primaryKeyValue(tableRow, i);
             }
         }
         if (lhsPrimaryKey == null || rhsPrimaryKey == null) {
             throw new IllegalStateException("Failed to find join table: missing attribute in DBUnit XML file: '" + joinColumn.name()
                     + "' or '" + inverseJoinColumn.name() + "'");
         }
-        Object lhs = entityMap.findEntity(lhsPrimaryKey, joinTableField.getDeclaringClass());
-        Object rhs = entityMap.findEntity(rhsPrimaryKey, targetType);
-        JpaUtil.addObjectToCollectionField(joinTableField, lhs, rhs);
+        Object lhs = entityMap.findEntity(lhsPrimaryKey, mapping.field().getDeclaringClass());
+        Object rhs = entityMap.findEntity(rhsPrimaryKey, mapping.targetType());
+        JpaUtil.addObjectToCollectionField(mapping.field(), lhs, rhs);
+        markUnsaved(lhs);
+        Field inverseField = mapping.inverseField();
+        if (inverseField != null) {
+            JpaUtil.addObjectToCollectionField(inverseField, rhs, lhs);
+            markUnsaved(rhs);
+        }
+    }
+
+    /**
+     * Gives the value of a foreign key column, which may be kept while other columns of the row are read. Text values are copied, since
+     * they may be views into a buffer, while typed values are used as they are.
+     */
+    private static @Nullable Object primaryKeyValue(DbTableRow tableRow, int index) {
+        Object value = tableRow.typedColumnValue(index);
+        return value instanceof CharSequence cs ? cs.toString() : value;
     }
 
     private <T> T createEntity(Class<T> entityType) throws ReflectiveOperationException {
@@ -287,38 +684,25 @@ public class CrudRepositoryWriter {
         return constructor.newInstance();
     }
 
-    private <T> void setField(T entity, String fieldName, String attributeValue) throws ReflectiveOperationException {
-        Field field = JpaUtil.getField(entity, fieldName);
-        field.setAccessible(true);
-        Object fieldValue = createObjectFromString(attributeValue, field, JpaUtil.getPrimaryKeyType(entity.getClass()));
-        LOG.trace("Setting field {} to {}", fieldName, fieldValue);
-        field.set(entity, fieldValue);
-        if (fieldValue != null && fieldValue.getClass().getAnnotation(Entity.class) != null) {
-            potentiallyAddValueToCollection(fieldValue, fieldName, entity);
-        }
-    }
-
-    private <T> void potentiallyAddValueToCollection(Object entity, String fieldName, T value) {
-        for (Field field : entity.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            OneToMany oneToMany = field.getAnnotation(OneToMany.class);
-            if (oneToMany == null) {
-                continue;
-            }
-            if (oneToMany.mappedBy().equals(fieldName)) {
-                JpaUtil.addObjectToCollectionField(field, entity, value);
-            }
+    private ColumnMapping columnMapping(Object entity, String columnName) throws NoSuchFieldException {
+        Class<?> entityType = entity.getClass();
+        Map<String, ColumnMapping> mappingsForEntityType = columnMappings.computeIfAbsent(entityType, k -> new HashMap<>());
+        ColumnMapping columnMapping = mappingsForEntityType.get(columnName);
+        if (columnMapping == null) {
+            String fieldName = JpaUtil.getFieldName(columnName, entityType);
+            Field field = JpaUtil.getField(entity, fieldName);
+            Class<?> valueType = field.getAnnotation(Id.class) == null ? field.getType() : JpaUtil.getPrimaryKeyType(entityType);
+            columnMapping = new ColumnMapping(field, valueType);
+            mappingsForEntityType.put(columnName, columnMapping);
         }
+        return columnMapping;
     }
 
-    private @Nullable Object createObjectFromString(String s, Field field, Class<?> primaryKeyType) {
-        Class<?> type;
-        if (field.getAnnotation(Id.class) != null) {
-            type = primaryKeyType;
-        } else {
-            type = field.getType();
-        }
-        return entityMap.createObjectFromString(s, type);
+    private <T> void setField(T entity, ColumnMapping columnMapping, @Nullable Object attributeValue) throws ReflectiveOperationException {
+        Field field = columnMapping.field();
+        Object fieldValue = entityMap.createObject(attributeValue, columnMapping.valueType());
+        LOG.trace("Setting field {} to {}", field.getName(), fieldValue);
+        field.set(entity, fieldValue);
     }
 
     /**
@@ -333,6 +717,57 @@ public class CrudRepositoryWriter {
          * @return the fields
          */
         List<DbTableField> columns();
+
+        /**
+         * Gives the number of fields in this row.
+         * <p>
+         * The default implementation calls {@link #columns()}; implementations that can give the number of fields without creating
+         * {@code DbTableField} objects should override this method.
+         *
+         * @return the number of fields
+         */
+        default int columnCount() {
+            return columns().size();
+        }
+
+        /**
+         * Gives the name of the database column of the field with the given index.
+         *
+         * @param index the zero-based index of the field
+         *
+         * @return the name of the database column
+         */
+        default String columnName(int index) {
+            return columns().get(index).name();
+        }
+
+        /**
+         * Gives the value of the field with the given index.
+         * <p>
+         * The value may be a view into a buffer that is reused for the next row, so it must not be kept after the row has been processed.
+         *
+         * @param index the zero-based index of the field
+         *
+         * @return the value of the field, may be {@code null}
+         */
+        default @Nullable CharSequence columnValue(int index) {
+            return columns().get(index).value();
+        }
+
+        /**
+         * Gives the value of the field with the given index, as an object of the type used by the source of the row.
+         * <p>
+         * The default implementation calls {@link #columnValue(int)}, which is appropriate for text sources such as files. Rows read
+         * using JDBC should override this method to give the objects returned by the driver, e.g., a {@code Long} or a
+         * {@code java.sql.Timestamp}, which are then converted directly to the field type without being formatted and parsed as text.
+         *
+         * @param index the zero-based index of the field
+         *
+         * @return the value of the field, may be {@code null}
+         */
+        default @Nullable Object typedColumnValue(int index) {
+            return columnValue(index);
+        }
     }
 
     /**
@@ -341,7 +776,105 @@ public class CrudRepositoryWriter {
      * @param name  the name of the database column
      * @param value the value of the field
      */
-    public record DbTableField(String name, String value) {
+    public record DbTableField(String name, @Nullable String value) {
+    }
+
+    /**
+     * Saves an entity in a repository, if there is one for the entity.
+     */
+    @FunctionalInterface
+    private interface EntitySaver {
+        boolean save(Object entity);
+    }
+
+    /**
+     * What a class is mapped to, so that annotations are only examined once per class.
+     *
+     * @param embeddable {@code true} if the class is an {@code Embeddable}
+     * @param tableName  the table name if the class is an {@code Entity}, otherwise {@code null}
+     */
+    private record TypeMapping(boolean embeddable, @Nullable String tableName) {
+    }
+
+    /**
+     * The field that a database column is mapped to, and the type to convert column values to before setting the field.
+     *
+     * @param field     the field, which has been made accessible
+     * @param valueType the type of values for the field, which is the primary key type for an ID field
+     */
+    private record ColumnMapping(Field field, Class<?> valueType) {
+    }
+
+    /**
+     * A relationship of an already examined entity that may receive entities written later.
+     *
+     * @param entity the entity owning the relationship
+     * @param field  the field holding the relationship, which has been made accessible
+     */
+    private record PendingReference(Object entity, Field field) {
+    }
+
+    /**
+     * Identifies a field in an entity class.
+     *
+     * @param entityClass the entity class
+     * @param fieldName   the name of the field
+     */
+    private record FieldKey(Class<?> entityClass, String fieldName) {
+    }
+
+    /**
+     * The owning field of a {@code ManyToMany} relationship defined by a join table.
+     *
+     * @param field        the field with the {@code JoinTable} annotation, which has been made accessible
+     * @param targetType   the type of entities in the collection
+     * @param inverseField the collection in {@code targetType} that is mapped by {@code field}, or {@code null}
+     */
+    private record JoinTableMapping(Field field, Class<?> targetType, @Nullable Field inverseField) {
+    }
+
+    /**
+     * An {@code ElementCollection} of embeddable objects that is read from a collection table.
+     *
+     * @param ownerClass     the entity class holding the collection
+     * @param field          the field holding the collection, which has been made accessible
+     * @param joinColumnName the name of the column in the collection table that refers to the owning entity
+     */
+    private record ElementCollectionMapping(Class<?> ownerClass, Field field, String joinColumnName) {
+    }
+
+    /**
+     * Maps the values of a field to the entities of a single class having that value in the field. If the value is an entity, its
+     * primary key is used instead.
+     */
+    private static final class ReverseIndex {
+
+        private final Field field;
+        private final Map<Object, List<Object>> entitiesByValue = new HashMap<>();
+
+        ReverseIndex(Field field) {
+            this.field = field;
+        }
+
+        void add(Object entity) throws IllegalAccessException {
+            Object key = key(entity);
+            if (key != null) {
+                entitiesByValue.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+            }
+        }
+
+        @Nullable
+        Object key(Object entity) throws IllegalAccessException {
+            Object value = field.get(entity);
+            if (value != null && value.getClass().getAnnotation(Entity.class) != null) {
+                return JpaUtil.getIdValue(value);
+            }
+            return value;
+        }
+
+        List<Object> find(Object value) {
+            return entitiesByValue.getOrDefault(value, Collections.emptyList());
+        }
     }
 
     /**
@@ -351,16 +884,24 @@ public class CrudRepositoryWriter {
      */
     private static class EntityMap {
 
-        private Map<PrimaryKey, Object> entities = new HashMap<>();
+        private Map<PrimaryKey, Object> entities = new LinkedHashMap<>();
         private final Set<Class<?>> entityClasses = new HashSet<>();
+        private final Map<Class<?>, Class<?>> primaryKeyTypes = new HashMap<>();
 
-        void addEntity(Object entity) {
+        boolean addEntity(Object entity) {
             LOG.trace("Adding entity to internal map if necessary: entity={}", entity);
             PrimaryKey primaryKey = PrimaryKey.fromEntity(entity);
-            if (!entities.containsKey(primaryKey)) {
-                entities.put(primaryKey, entity);
-                entityClasses.add(entity.getClass());
+            if (entities.containsKey(primaryKey)) {
+                if (primaryKey.id() != null) {
+                    // Associations are resolved using the first entity, so a later one with the same key would silently be left out.
+                    throw new IllegalStateException("Duplicate primary key for entity " + entity.getClass().getName() + ": id="
+                            + primaryKey.id());
+                }
+                return false;
             }
+            entities.put(primaryKey, entity);
+            entityClasses.add(entity.getClass());
+            return true;
         }
 
         Collection<Object> entities() {
@@ -379,28 +920,39 @@ public class CrudRepositoryWriter {
             return Optional.empty();
         }
 
+        @Nullable
+        Object createObject(@Nullable Object value, Class<?> type) {
+            if (value == null || value instanceof CharSequence) {
+                return createObjectFromString((CharSequence) value, type);
+            }
+            return createObjectFromTypedValue(value, type);
+        }
+
         @SuppressWarnings("checkstyle:noReturnNull")
         @Nullable
-        Object createObjectFromString(String s, Class<?> type) {
-            if (s == null || s.isEmpty()) {
+        Object createObjectFromString(@Nullable CharSequence cs, Class<?> type) {
+            if (cs == null || cs.length() == 0) {
                 return null;
             }
+            // The most common types are converted directly from the CharSequence, to avoid creating a temporary String.
+            if (type == Integer.class) {
+                return Integer.parseInt(cs, 0, cs.length(), 10);
+            } else if (type == Long.class) {
+                return Long.parseLong(cs, 0, cs.length(), 10);
+            } else if (type == Character.class) {
+                return cs.charAt(0);
+            }
+            String s = cs.toString();
             if (type == Byte.class) {
                 return Byte.parseByte(s);
             } else if (type == Short.class) {
                 return Short.parseShort(s);
-            } else if (type == Integer.class) {
-                return Integer.parseInt(s);
-            } else if (type == Long.class) {
-                return Long.parseLong(s);
             } else if (type == Float.class) {
                 return Float.parseFloat(s);
             } else if (type == Double.class) {
                 return Double.parseDouble(s);
             } else if (type == Boolean.class) {
                 return Boolean.parseBoolean(s);
-            } else if (type == Character.class) {
-                return s.charAt(0);
             } else if (type == String.class) {
                 return s;
             } else if (type == Date.class) {
@@ -427,26 +979,118 @@ public class CrudRepositoryWriter {
             }
         }
 
+        /**
+         * Converts a value of a type returned by a JDBC driver to the type of a field. Values that are already of the right type are used
+         * as they are, and values that cannot be converted directly are converted using their string representation.
+         */
+        private @Nullable Object createObjectFromTypedValue(Object value, Class<?> type) {
+            if (type.isInstance(value) && type != Date.class) {
+                return value;
+            }
+            if (type.getAnnotation(Entity.class) != null) {
+                return findEntity(value, type);
+            }
+            if (value instanceof Number n) {
+                Object number = createObjectFromNumber(n, type);
+                if (number != null) {
+                    return number;
+                }
+            } else if (value instanceof Date d) {
+                Object date = createObjectFromDate(d, type);
+                if (date != null) {
+                    return date;
+                }
+            } else if (value instanceof OffsetDateTime odt) {
+                if (type == ZonedDateTime.class) {
+                    return odt.toZonedDateTime();
+                } else if (type == Instant.class) {
+                    return odt.toInstant();
+                } else if (type == Date.class) {
+                    return Date.from(odt.toInstant());
+                }
+            } else if (value instanceof Object[] array && type == List.class) {
+                return Arrays.asList(Arrays.stream(array).map(String::valueOf).toArray(String[]::new));
+            }
+            return createObjectFromString(value.toString(), type);
+        }
+
+        @SuppressWarnings("checkstyle:noReturnNull")
+        private static @Nullable Object createObjectFromNumber(Number n, Class<?> type) {
+            if (type == Integer.class) {
+                return n.intValue();
+            } else if (type == Long.class) {
+                return n.longValue();
+            } else if (type == Short.class) {
+                return n.shortValue();
+            } else if (type == Byte.class) {
+                return n.byteValue();
+            } else if (type == Double.class) {
+                return n.doubleValue();
+            } else if (type == Float.class) {
+                return n.floatValue();
+            } else if (type == BigDecimal.class) {
+                return n instanceof BigInteger bi ? new BigDecimal(bi) : new BigDecimal(n.toString());
+            } else if (type == BigInteger.class) {
+                return n instanceof BigDecimal bd ? bd.toBigIntegerExact() : BigInteger.valueOf(n.longValue());
+            } else if (type == Boolean.class) {
+                return n.intValue() != 0;
+            } else if (type.isEnum()) {
+                // Enums without @Enumerated(EnumType.STRING) are stored as ordinals.
+                Object[] enumConstants = type.getEnumConstants();
+                int ordinal = n.intValue();
+                if (ordinal < 0 || ordinal >= enumConstants.length || ordinal != n.doubleValue()) {
+                    throw new IllegalArgumentException("Invalid ordinal for enum " + type.getName() + ": " + n);
+                }
+                return enumConstants[ordinal];
+            }
+            return null;
+        }
+
+        @SuppressWarnings("checkstyle:noReturnNull")
+        private static @Nullable Object createObjectFromDate(Date d, Class<?> type) {
+            if (type == Date.class) {
+                // java.sql.Timestamp and java.sql.Date are subclasses of java.util.Date, but do not compare equal to one.
+                return new Date(d.getTime());
+            } else if (d instanceof Timestamp ts) {
+                if (type == LocalDateTime.class) {
+                    return ts.toLocalDateTime();
+                } else if (type == LocalDate.class) {
+                    return ts.toLocalDateTime().toLocalDate();
+                } else if (type == Instant.class) {
+                    return ts.toInstant();
+                } else if (type == ZonedDateTime.class) {
+                    return ts.toInstant().atZone(ZoneId.systemDefault());
+                }
+            } else if (d instanceof java.sql.Date sqlDate) {
+                if (type == LocalDate.class) {
+                    return sqlDate.toLocalDate();
+                } else if (type == LocalDateTime.class) {
+                    return sqlDate.toLocalDate().atStartOfDay();
+                }
+            }
+            return null;
+        }
+
         @SuppressWarnings({ "rawtypes", "unchecked" })
-        Object findEntity(String strId, Class<?> entityType) {
+        Object findEntity(Object id, Class<?> entityType) {
             if (entityType.isEnum()) {
                 Class<? extends Enum> enumType = (Class<? extends Enum>) entityType;
-                return Enum.valueOf(enumType, strId);
-            }
-            for (Object entity : entities()) {
-                if (entity.getClass().equals(entityType)) {
-                    try {
-                        Object id = JpaUtil.getIdValue(entity);
-                        if (id != null && id.equals(createObjectFromString(strId, id.getClass()))) {
-                            return entity;
-                        }
-                    } catch (IllegalAccessException e) {
-                        throw new IllegalStateException(
-                                "Unexpected problem looking up entity of " + entityType + " with primary key " + strId, e);
-                    }
+                return Enum.valueOf(enumType, id.toString());
+            }
+            if (entityType.getAnnotation(Entity.class) != null) {
+                Object primaryKey = createObject(id, primaryKeyType(entityType));
+                Object entity = entities.get(new PrimaryKey(entityType.getName(), primaryKey));
+                if (entity != null) {
+                    return entity;
                 }
             }
-            throw new IllegalArgumentException("Entity of " + entityType + " with primary key " + strId + " not found");
+            throw new IllegalArgumentException("Entity of " + entityType + " with primary key " + id + " not found");
+        }
+
+        private Class<?> primaryKeyType(Class<?> entityType) {
+            // Primary keys of primitive types are boxed when read from the entity, so we box them here as well.
+            return primaryKeyTypes.computeIfAbsent(entityType,
+                    k -> MethodType.methodType(JpaUtil.<Object>getPrimaryKeyType(k)).wrap().returnType());
         }
 
         @SuppressWarnings("unchecked")
@@ -455,7 +1099,7 @@ public class CrudRepositoryWriter {
             return (List<T>) entities().stream().filter(entity -> entity.getClass().equals(entityType)).toList();
         }
 
-        private record PrimaryKey(String entityClassName, Object id) {
+        private record PrimaryKey(String entityClassName, @Nullable Object id) {
             static PrimaryKey fromEntity(Object entity) {
                 try {
                     return new PrimaryKey(entity.getClass().getName(), JpaUtil.getIdValue(entity));
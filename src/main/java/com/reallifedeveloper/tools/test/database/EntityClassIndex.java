@@ -0,0 +1,275 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Entity;
+
+/**
+ * An index of the {@link Entity} classes in some packages, giving the entity class associated with a table name.
+ * <p>
+ * This makes it possible to read a data set with rows for many tables without configuring the entity class for each table, see
+ * {@link RepositoryRegistry#setEntityClassIndex(EntityClassIndex)}.
+ * <p>
+ * The index for a set of packages is created once per JVM by {@link #forPackages(String...)} and then cached. It is normally created by
+ * scanning the classpath, but packages covered by an index file named {@value #INDEX_RESOURCE} on the classpath are read from the index
+ * file instead, which avoids the scanning. Packages that are not covered by any index file, e.g., packages in a module without an index
+ * file, are still scanned. An index file can be created at build time using {@link #writeIndexFile(Path)} or {@link #main(String...)},
+ * and is a properties file where each key is a table name and each value is the fully qualified name of an entity class. The key
+ * {@value #PACKAGES_KEY} holds a comma-separated list of the packages, including subpackages, covered by the index file.
+ * <p>
+ * The table name for an entity class is given by {@link JpaUtil#getTableName(Class)}, and is matched ignoring case. If several entity
+ * classes are mapped to the same table, the first one in alphabetical order is used.
+ *
+ * @author RealLifeDeveloper
+ */
+@SuppressFBWarnings(value = "CRLF_INJECTION_LOGS", justification = "Class and table names are logged")
+public final class EntityClassIndex {
+
+    /**
+     * The name of the classpath resource that is used instead of scanning, if present.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/rld-build-tools/entity-index.properties";
+
+    /**
+     * The key in an index file that gives the packages covered by the index file.
+     */
+    public static final String PACKAGES_KEY = "@packages";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityClassIndex.class);
+
+    private static final Map<List<String>, EntityClassIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final List<String> packages;
+
+    private final Map<String, Class<?>> entityTypesByTableName;
+
+    private EntityClassIndex(List<String> packages, Collection<Class<?>> entityTypes) {
+        this.packages = packages;
+        Map<String, Class<?>> entityTypesByName = new TreeMap<>();
+        for (Class<?> entityType : entityTypes) {
+            entityTypesByName.put(entityType.getName(), entityType);
+        }
+        Map<String, Class<?>> tableMap = new TreeMap<>();
+        for (Class<?> entityType : entityTypesByName.values()) {
+            String key = JpaUtil.getTableName(entityType).toLowerCase(Locale.ROOT);
+            Class<?> existingEntityType = tableMap.putIfAbsent(key, entityType);
+            if (existingEntityType != null) {
+                LOG.warn("Table {} is mapped by both {} and {}, using {}", JpaUtil.getTableName(entityType), existingEntityType.getName(),
+                        entityType.getName(), existingEntityType.getName());
+            }
+        }
+        this.entityTypesByTableName = Collections.unmodifiableMap(tableMap);
+    }
+
+    /**
+     * Main method that writes an index file for the entity classes in the given packages, to be included in
+     * {@value #INDEX_RESOURCE} on the classpath.
+     *
+     * @param args the name of the index file to create, followed by one or more packages to scan
+     *
+     * @throws IOException if writing the index file failed
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "Usage: java %s <index file> <package>...".formatted(EntityClassIndex.class.getName()));
+        }
+        scan(Arrays.copyOfRange(args, 1, args.length)).writeIndexFile(Path.of(args[0]));
+    }
+
+    /**
+     * Gives the index of the entity classes in the given packages and their subpackages. The index is created the first time this
+     * method is called with the same packages, and then reused.
+     *
+     * @param basePackages the packages containing the entity classes
+     *
+     * @return the index of the entity classes in {@code basePackages}
+     *
+     * @throws IllegalArgumentException if {@code basePackages} is {@code null} or empty
+     */
+    public static EntityClassIndex forPackages(String... basePackages) {
+        List<String> packages = packages(basePackages);
+        return INDEXES.computeIfAbsent(packages, EntityClassIndex::create);
+    }
+
+    /**
+     * Creates a new index by scanning the classpath for entity classes in the given packages and their subpackages, ignoring any index
+     * files and without caching the result.
+     *
+     * @param basePackages the packages containing the entity classes
+     *
+     * @return a new index of the entity classes in {@code basePackages}
+     *
+     * @throws IllegalArgumentException if {@code basePackages} is {@code null} or empty
+     */
+    public static EntityClassIndex scan(String... basePackages) {
+        List<String> packages = packages(basePackages);
+        return new EntityClassIndex(packages, scanEntityTypes(packages));
+    }
+
+    private static List<Class<?>> scanEntityTypes(List<String> packages) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        List<Class<?>> entityTypes = new ArrayList<>();
+        for (String basePackage : packages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                String className = candidate.getBeanClassName();
+                if (className != null) {
+                    entityTypes.add(loadClass(className));
+                }
+            }
+        }
+        LOG.debug("Found {} entity classes in {}", entityTypes.size(), packages);
+        return entityTypes;
+    }
+
+    /**
+     * Creates an index using the index files on the classpath for the packages they cover, and scanning the classpath for the other
+     * packages.
+     */
+    private static EntityClassIndex create(List<String> packages) {
+        List<Properties> indexes = readIndexFiles();
+        List<String> indexedPackages = new ArrayList<>();
+        List<String> scannedPackages = new ArrayList<>();
+        for (String basePackage : packages) {
+            boolean indexed = indexes.stream().anyMatch(index -> covers(index, basePackage));
+            (indexed ? indexedPackages : scannedPackages).add(basePackage);
+        }
+        List<Class<?>> entityTypes = new ArrayList<>();
+        for (Properties index : indexes) {
+            for (String tableName : index.stringPropertyNames()) {
+                String className = index.getProperty(tableName);
+                if (className != null && !PACKAGES_KEY.equals(tableName)
+                        && indexedPackages.stream().anyMatch(p -> className.startsWith(p + "."))) {
+                    entityTypes.add(loadClass(className));
+                }
+            }
+        }
+        if (!scannedPackages.isEmpty()) {
+            LOG.debug("Packages {} not covered by any entity index, scanning the classpath", scannedPackages);
+            entityTypes.addAll(scanEntityTypes(scannedPackages));
+        }
+        return new EntityClassIndex(packages, entityTypes);
+    }
+
+    private static List<Properties> readIndexFiles() {
+        try {
+            List<Properties> indexes = new ArrayList<>();
+            Enumeration<URL> indexFiles = classLoader().getResources(INDEX_RESOURCE);
+            while (indexFiles.hasMoreElements()) {
+                URL indexFile = indexFiles.nextElement();
+                LOG.debug("Reading entity index {}", indexFile);
+                Properties index = new Properties();
+                try (InputStream in = indexFile.openStream()) {
+                    index.load(in);
+                }
+                indexes.add(index);
+            }
+            return indexes;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected problem reading " + INDEX_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Checks if an index file covers the given package, i.e., if the package, or a package containing it, was scanned to create the
+     * index file.
+     */
+    private static boolean covers(Properties index, String basePackage) {
+        String indexedPackages = index.getProperty(PACKAGES_KEY, "");
+        return Arrays.stream(indexedPackages.split(",")).map(String::trim).filter(p -> !p.isEmpty())
+                .anyMatch(p -> basePackage.equals(p) || basePackage.startsWith(p + "."));
+    }
+
+    private static List<String> packages(String... basePackages) {
+        if (basePackages == null || basePackages.length == 0) {
+            throw new IllegalArgumentException("basePackages must not be null or empty");
+        }
+        return Arrays.stream(basePackages).sorted().distinct().toList();
+    }
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Entity class " + className + " not found", e);
+        }
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader == null ? EntityClassIndex.class.getClassLoader() : classLoader;
+    }
+
+    /**
+     * Gives the entity class associated with a table.
+     *
+     * @param tableName the name of the table, matched ignoring case
+     *
+     * @return the entity class for {@code tableName}, or {@code null} if there is none
+     */
+    public @Nullable Class<?> entityType(String tableName) {
+        return entityTypesByTableName.get(tableName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gives all the entity classes in the index.
+     *
+     * @return the entity classes, ordered by table name
+     */
+    public Collection<Class<?>> entityTypes() {
+        return entityTypesByTableName.values();
+    }
+
+    /**
+     * Writes this index to a file that can be included on the classpath as {@value #INDEX_RESOURCE}, so that the classpath does not have
+     * to be scanned. The entries are sorted by table name, so the file only changes when the entity classes change.
+     *
+     * @param indexFile the file to write
+     *
+     * @throws IOException if writing the file failed
+     */
+    public void writeIndexFile(Path indexFile) throws IOException {
+        Path directory = indexFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            writer.write("# Entity classes by table name, generated by " + EntityClassIndex.class.getName() + System.lineSeparator());
+            writer.write(PACKAGES_KEY + "=" + String.join(",", packages) + System.lineSeparator());
+            for (Class<?> entityType : entityTypesByTableName.values()) {
+                writer.write(JpaUtil.getTableName(entityType) + "=" + entityType.getName() + System.lineSeparator());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EntityClassIndex{packages=" + packages + ", entityTypes=" + entityTypesByTableName.size() + "}";
+    }
+}
@@ -0,0 +1,431 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableField;
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow;
+
+/**
+ * An on-disk cache of parsed test data files, so that the same files do not have to be parsed again by every test JVM.
+ * <p>
+ * The cache is opt-in: it is used by {@code DbTestHelper.readDataSetFromClasspath}, {@code DbUnitFlatXmlReader} and
+ * {@code CsvDatabaseReader} only if the system property {@value #ENABLED_PROPERTY} is {@code true}, or if the system property
+ * {@value #DIRECTORY_PROPERTY} is set. The default cache directory is {@value #DEFAULT_DIRECTORY}, relative to the working directory,
+ * which is the project directory when running tests with Maven.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the contents of the parsed files (including any DTD) and a description of how they were
+ * parsed, so an entry is never used for a file that has changed. Each entry is stored in a compact binary format: all distinct strings
+ * are stored once, and the rows of each table are stored column by column as indexes into the strings.
+ * <p>
+ * The cache is best effort: problems reading or writing an entry are logged, and the files are then parsed as if there was no cache.
+ * Entries are written to a temporary file that is atomically renamed, so several JVMs may use the same cache directory concurrently.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class FixtureCache {
+
+    /**
+     * The name of the system property that enables the cache if set to {@code true}.
+     */
+    public static final String ENABLED_PROPERTY = "rld.fixtureCache.enabled";
+
+    /**
+     * The name of the system property that enables the cache and defines the directory to store it in.
+     */
+    public static final String DIRECTORY_PROPERTY = "rld.fixtureCache.directory";
+
+    /**
+     * The directory used for the cache if it is enabled using {@value #ENABLED_PROPERTY}.
+     */
+    public static final String DEFAULT_DIRECTORY = "target/rld-fixture-cache";
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixtureCache.class);
+
+    private static final int MAGIC = 0x524c4446;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_INDEX = -1;
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final Path directory;
+
+    /**
+     * Creates a new {@code FixtureCache} storing entries in the given directory. The directory is created when the first entry is
+     * written.
+     *
+     * @param directory the directory to store cache entries in
+     */
+    public FixtureCache(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Gives the cache configured using the system properties {@value #ENABLED_PROPERTY} and {@value #DIRECTORY_PROPERTY}, if any.
+     *
+     * @return the configured {@code FixtureCache}, or {@code Optional.empty()} if caching is not enabled
+     */
+    public static Optional<FixtureCache> fromSystemProperties() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory != null && !directory.isBlank()) {
+            return Optional.of(new FixtureCache(Paths.get(directory)));
+        }
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return Optional.of(new FixtureCache(Paths.get(DEFAULT_DIRECTORY)));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Calculates the cache key for the given file contents.
+     *
+     * @param description a description of how the contents are parsed, e.g., the file format and parser settings
+     * @param contents    the contents of the files that are parsed, in order
+     *
+     * @return the cache key, a hexadecimal SHA-256 hash
+     */
+    public static String key(String description, byte[]... contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(intToBytes(FORMAT_VERSION));
+            byte[] descriptionBytes = description.getBytes(StandardCharsets.UTF_8);
+            digest.update(intToBytes(descriptionBytes.length));
+            digest.update(descriptionBytes);
+            for (byte[] content : contents) {
+                digest.update(intToBytes(content.length));
+                digest.update(content);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 should always be available", e);
+        }
+    }
+
+    private static byte[] intToBytes(int i) {
+        return new byte[] { (byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i };
+    }
+
+    /**
+     * Gives the tables stored under the given key.
+     *
+     * @param key the cache key, see {@link #key(String, byte[]...)}
+     *
+     * @return the cached tables, or {@code Optional.empty()} if there is no usable entry for {@code key}
+     */
+    public Optional<List<Table>> get(String key) {
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            List<Table> tables = readTables(in);
+            LOG.debug("Fixture cache hit: {}", file);
+            return Optional.of(tables);
+        } catch (NoSuchFileException e) {
+            LOG.debug("Fixture cache miss: {}", file);
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable fixture cache entry {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores tables under the given key, replacing any existing entry.
+     *
+     * @param key    the cache key, see {@link #key(String, byte[]...)}
+     * @param tables the tables to store
+     */
+    public void put(String key, List<Table> tables) {
+        Path file = file(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream os = Files.newOutputStream(tempFile);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                writeTables(out, tables);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOG.debug("Fixture cache entry written: {}", file);
+        } catch (IOException e) {
+            LOG.warn("Failed to write fixture cache entry {}: {}", file, e.toString());
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+
+    private static void deleteQuietly(@Nullable Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOG.debug("Failed to delete {}: {}", path, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Reads the cached tables from the given {@code InputStream}, which should contain data written by a {@code FixtureCache}.
+     *
+     * @param is the {@code InputStream} to read from
+     *
+     * @return the tables
+     *
+     * @throws IOException if reading failed, or the data is not in the expected format
+     */
+    /* package-private */ static List<Table> readTables(InputStream is) throws IOException {
+        DataInputStream in = is instanceof DataInputStream dis ? dis : new DataInputStream(is);
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a fixture cache entry, or written by an incompatible version");
+        }
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int numberOfTables = in.readInt();
+        List<Table> tables = new ArrayList<>(numberOfTables);
+        for (int t = 0; t < numberOfTables; t++) {
+            String name = strings[in.readInt()];
+            List<String> columnNames = new ArrayList<>();
+            int numberOfColumns = in.readInt();
+            for (int c = 0; c < numberOfColumns; c++) {
+                columnNames.add(strings[in.readInt()]);
+            }
+            Table table = new Table(name, columnNames);
+            int numberOfRows = in.readInt();
+            String[][] rows = new String[numberOfRows][numberOfColumns];
+            for (int c = 0; c < numberOfColumns; c++) {
+                for (int r = 0; r < numberOfRows; r++) {
+                    int index = in.readInt();
+                    rows[r][c] = index == NULL_INDEX ? null : strings[index];
+                }
+            }
+            for (String[] row : rows) {
+                table.addRow(row);
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    /**
+     * Writes tables to the given {@code OutputStream} in the format read by {@link #readTables(InputStream)}.
+     *
+     * @param os     the {@code OutputStream} to write to
+     * @param tables the tables to write
+     *
+     * @throws IOException if writing failed
+     */
+    /* package-private */ static void writeTables(OutputStream os, List<Table> tables) throws IOException {
+        DataOutputStream out = os instanceof DataOutputStream dos ? dos : new DataOutputStream(os);
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Table table : tables) {
+            index(table.getName(), stringIndexes, strings);
+            for (String columnName : table.getColumnNames()) {
+                index(columnName, stringIndexes, strings);
+            }
+            for (String[] row : table.rows) {
+                for (String value : row) {
+                    if (value != null) {
+                        index(value, stringIndexes, strings);
+                    }
+                }
+            }
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(tables.size());
+        for (Table table : tables) {
+            out.writeInt(stringIndexes.get(table.getName()));
+            out.writeInt(table.getColumnNames().size());
+            for (String columnName : table.getColumnNames()) {
+                out.writeInt(stringIndexes.get(columnName));
+            }
+            out.writeInt(table.getRowCount());
+            for (int c = 0; c < table.getColumnNames().size(); c++) {
+                for (String[] row : table.rows) {
+                    String value = row[c];
+                    out.writeInt(value == null ? NULL_INDEX : stringIndexes.get(value));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static void index(String s, Map<String, Integer> stringIndexes, List<String> strings) {
+        if (!stringIndexes.containsKey(s)) {
+            stringIndexes.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FixtureCache{directory=" + directory + "}";
+    }
+
+    /**
+     * A table of string values, or a part of a table, as stored in the cache. All rows have values for the same columns, but a value may
+     * be {@code null}.
+     */
+    public static final class Table {
+
+        private final String name;
+        private final List<String> columnNames;
+        private final List<@Nullable String[]> rows = new ArrayList<>();
+
+        /**
+         * Creates a new, empty {@code Table}.
+         *
+         * @param name        the name of the table
+         * @param columnNames the names of the columns in the table
+         */
+        public Table(String name, List<String> columnNames) {
+            if (name == null || columnNames == null) {
+                throw new IllegalArgumentException("Arguments must not be null: name=" + name + ", columnNames=" + columnNames);
+            }
+            this.name = name;
+            this.columnNames = List.copyOf(columnNames);
+        }
+
+        /**
+         * Adds a row to the end of this table.
+         *
+         * @param values the values of the row, one for each column
+         */
+        public void addRow(@Nullable String... values) {
+            if (values.length != columnNames.size()) {
+                throw new IllegalArgumentException("Wrong number of values: expected " + columnNames.size() + ", got " + values.length
+                        + ": " + Arrays.asList(values));
+            }
+            rows.add(values.clone());
+        }
+
+        /**
+         * Gives the name of this table.
+         *
+         * @return the name of the table
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gives the names of the columns of this table.
+         *
+         * @return an unmodifiable list of the names of the columns
+         */
+        public List<String> getColumnNames() {
+            return columnNames;
+        }
+
+        /**
+         * Gives the number of rows in this table.
+         *
+         * @return the number of rows
+         */
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        /**
+         * Gives the value of a single cell.
+         *
+         * @param row    the zero-based index of the row
+         * @param column the zero-based index of the column
+         *
+         * @return the value of the cell, may be {@code null}
+         */
+        public @Nullable String getValue(int row, int column) {
+            return rows.get(row)[column];
+        }
+
+        /**
+         * Gives a {@link DbTableRow} view of a row in this table, to be used with a {@link CrudRepositoryWriter}.
+         *
+         * @param row the zero-based index of the row
+         *
+         * @return a {@code DbTableRow} for the row
+         */
+        public DbTableRow row(int row) {
+            @Nullable String[] values = rows.get(row);
+            return new DbTableRow() {
+                @Override
+                public List<DbTableField> columns() {
+                    List<DbTableField> columns = new ArrayList<>();
+                    for (int i = 0; i < values.length; i++) {
+                        columns.add(new DbTableField(columnNames.get(i), values[i]));
+                    }
+                    return Collections.unmodifiableList(columns);
+                }
+
+                @Override
+                public int columnCount() {
+                    return values.length;
+                }
+
+                @Override
+                public String columnName(int index) {
+                    return columnNames.get(index);
+                }
+
+                @Override
+                public @Nullable CharSequence columnValue(int index) {
+                    return values[index];
+                }
+
+                @Override
+                public String toString() {
+                    return "DbTableRow{table=" + name + ", columns=" + columns() + "}";
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "Table{name=" + name + ", columnNames=" + columnNames + ", rowCount=" + rows.size() + "}";
+        }
+    }
+}
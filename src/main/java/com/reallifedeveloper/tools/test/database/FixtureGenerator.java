@@ -0,0 +1,553 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Transient;
+
+/**
+ * Generates large amounts of synthetic test data for JPA entities, and writes it as a DbUnit flat XML file or as CSV files that can be
+ * read by {@code DbUnitFlatXmlReader}, {@code CsvDatabaseReader} or {@code DbTestHelper}.
+ * <p>
+ * The tables and columns are found using the same annotations as {@link JpaUtil}: {@code @Table}, {@code @Column}, {@code @Id},
+ * {@code @JoinColumn} and {@code @JoinTable}. Foreign keys from {@code @ManyToOne} and {@code @OneToOne} fields refer to rows generated
+ * for the referenced entity, and rows are generated for the join tables of {@code @ManyToMany} fields with a {@code @JoinTable}
+ * annotation, so the data is referentially consistent as long as all referenced entities are added to the generator. Tables are
+ * written so that referenced tables come before the tables referring to them.
+ * <p>
+ * Primary keys are numbered from 1, or derived from the table name and row number for {@code String} and {@code UUID} keys, and all other
+ * values are random but deterministic: the same seed always gives the same data. Collections, maps, embedded objects and fields of other
+ * types than simple values, enums and entities are left out.
+ * <p>
+ * The rows are written to disk as they are generated, so the number of rows is only limited by the available disk space.
+ * <p>
+ * An example:
+ *
+ * <pre>
+ * FixtureGenerator generator = new FixtureGenerator(42);
+ * generator.addEntity(Customer.class, 100_000);
+ * generator.addEntity(Order.class, 1_000_000);
+ * generator.writeFlatXml(Path.of("target/fixtures/orders.xml"));
+ * </pre>
+ *
+ * @author RealLifeDeveloper
+ */
+public final class FixtureGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixtureGenerator.class);
+
+    private static final int DEFAULT_JOIN_TABLE_ROWS_PER_ENTITY = 2;
+    private static final int MAX_STRING_LENGTH = 12;
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final LocalDateTime BASE_DATE_TIME = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int DATE_RANGE_DAYS = 3650;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final DateTimeFormatter LOCAL_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss", Locale.ROOT);
+    private static final DateTimeFormatter ZONED_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX", Locale.ROOT);
+    private static final int MAX_INT_VALUE = 1_000_000;
+    private static final long MAX_DECIMAL_UNSCALED_VALUE = 100_000_000L;
+
+    private final long seed;
+    private final Map<Class<?>, Long> rowCounts = new LinkedHashMap<>();
+    private int joinTableRowsPerEntity = DEFAULT_JOIN_TABLE_ROWS_PER_ENTITY;
+
+    /**
+     * Creates a new {@code FixtureGenerator} using the given seed for the random values.
+     *
+     * @param seed the seed to use
+     */
+    public FixtureGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Adds an entity for which rows should be generated.
+     *
+     * @param entityType the entity class, which must be annotated with {@code @Entity} and have a single {@code @Id} field
+     * @param rowCount   the number of rows to generate
+     */
+    public void addEntity(Class<?> entityType, long rowCount) {
+        if (entityType == null || entityType.getAnnotation(Entity.class) == null) {
+            throw new IllegalArgumentException("entityType must be an @Entity class: " + entityType);
+        }
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("rowCount must not be negative: " + rowCount);
+        }
+        rowCounts.put(entityType, rowCount);
+    }
+
+    /**
+     * Change the number of join table rows generated for each row of an entity with a {@code @ManyToMany} field. The default is 2.
+     *
+     * @param joinTableRowsPerEntity the number of join table rows per entity row, must not be negative
+     */
+    public void setJoinTableRowsPerEntity(int joinTableRowsPerEntity) {
+        if (joinTableRowsPerEntity < 0) {
+            throw new IllegalArgumentException("joinTableRowsPerEntity must not be negative: " + joinTableRowsPerEntity);
+        }
+        this.joinTableRowsPerEntity = joinTableRowsPerEntity;
+    }
+
+    /**
+     * Writes the generated data for all entities as a DbUnit flat XML file, with one element per row.
+     *
+     * @param file the file to write, parent directories are created if necessary
+     *
+     * @throws IOException if writing the file failed
+     */
+    public void writeFlatXml(Path file) throws IOException {
+        createParentDirectories(file);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("dataset");
+            for (TableModel table : tableModels()) {
+                table.generate(tableSeed(table), (columnNames, values) -> {
+                    xml.writeCharacters("\n    ");
+                    xml.writeEmptyElement(table.name());
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i] != null) {
+                            xml.writeAttribute(columnNames.get(i), values[i]);
+                        }
+                    }
+                });
+            }
+            xml.writeCharacters("\n");
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write " + file, e);
+        }
+    }
+
+    /**
+     * Writes the generated data as CSV files, one file per table named after the table in lower case, e.g., {@code test_entity.csv}.
+     * Each file starts with a header containing the column names.
+     *
+     * @param directory the directory to write the files to, which is created if necessary
+     * @param separator the separator character, normally ',' or ';'
+     *
+     * @return the files written
+     *
+     * @throws IOException if writing a file failed
+     */
+    public List<Path> writeCsv(Path directory, char separator) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        for (TableModel table : tableModels()) {
+            Path file = directory.resolve(table.name().toLowerCase(Locale.ROOT) + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeCsvRow(writer, separator, table.columnNames().toArray(new String[0]));
+                table.generate(tableSeed(table), (columnNames, values) -> writeCsvRow(writer, separator, values));
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Unexpected XML problem writing CSV", e);
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static void writeCsvRow(Writer writer, char separator, @Nullable String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(separator) >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Gives the seed for the random values of a table, so that the values of one table do not change when other tables are added.
+     */
+    private long tableSeed(TableModel table) {
+        return seed * 31 + table.name().toUpperCase(Locale.ROOT).hashCode();
+    }
+
+    private static void createParentDirectories(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    /**
+     * Gives the tables to generate, ordered so that referenced tables come before the tables referring to them, with the join tables
+     * last.
+     */
+    private List<TableModel> tableModels() {
+        Map<Class<?>, EntityModel> entityModels = new LinkedHashMap<>();
+        for (Class<?> entityType : rowCounts.keySet()) {
+            entityModels.put(entityType, new EntityModel(entityType, JpaUtil.getTableName(entityType), rowCounts.get(entityType),
+                    idColumnName(entityType), JpaUtil.getPrimaryKeyType(entityType)));
+        }
+        List<TableModel> tables = new ArrayList<>();
+        List<TableModel> joinTables = new ArrayList<>();
+        Set<Class<?>> orderedEntities = new LinkedHashSet<>();
+        for (Class<?> entityType : rowCounts.keySet()) {
+            addInReferenceOrder(entityType, entityModels, orderedEntities, new LinkedHashSet<>());
+        }
+        for (Class<?> entityType : orderedEntities) {
+            EntityModel entity = entityModels.get(entityType);
+            tables.add(entityTable(entity, entityModels));
+            joinTables.addAll(joinTables(entity, entityModels));
+        }
+        tables.addAll(joinTables);
+        return tables;
+    }
+
+    private static void addInReferenceOrder(Class<?> entityType, Map<Class<?>, EntityModel> entityModels, Set<Class<?>> orderedEntities,
+            Set<Class<?>> visiting) {
+        if (orderedEntities.contains(entityType) || !visiting.add(entityType)) {
+            return;
+        }
+        for (Field field : persistentFields(entityType)) {
+            if (isReference(field) && entityModels.containsKey(field.getType())) {
+                addInReferenceOrder(field.getType(), entityModels, orderedEntities, visiting);
+            }
+        }
+        orderedEntities.add(entityType);
+    }
+
+    private TableModel entityTable(EntityModel entity, Map<Class<?>, EntityModel> entityModels) {
+        List<String> columnNames = new ArrayList<>();
+        List<ValueGenerator> generators = new ArrayList<>();
+        columnNames.add(entity.idColumnName());
+        generators.add((row, random) -> entity.id(row));
+        for (Field field : persistentFields(entity.type())) {
+            if (field.getAnnotation(Id.class) != null) {
+                continue;
+            }
+            if (isReference(field)) {
+                EntityModel target = entityModels.get(field.getType());
+                JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+                if (target == null) {
+                    if (joinColumn != null && !joinColumn.nullable()) {
+                        throw new IllegalStateException("Entity " + field.getType().getName() + " referenced by non-nullable field "
+                                + entity.type().getName() + "." + field.getName() + " has not been added");
+                    }
+                    continue;
+                }
+                columnNames.add(joinColumn != null && !joinColumn.name().isEmpty() ? joinColumn.name()
+                        : field.getName() + "_" + target.idColumnName());
+                generators.add(referenceGenerator(entity, target, field.getAnnotation(OneToOne.class) != null));
+            } else if (isSupportedValueType(field.getType())) {
+                Column column = field.getAnnotation(Column.class);
+                columnNames.add(column != null && !column.name().isEmpty() ? column.name() : field.getName());
+                int length = column == null ? MAX_STRING_LENGTH : Math.min(column.length(), MAX_STRING_LENGTH);
+                Class<?> type = MethodType.methodType(field.getType()).wrap().returnType();
+                generators.add((row, random) -> randomValue(type, length, random));
+            } else {
+                LOG.debug("Skipping field {} of unsupported type {}", field.getName(), field.getType());
+            }
+        }
+        return new TableModel(entity.tableName(), columnNames, entity.rowCount(), (random, sink) -> {
+            @Nullable String[] values = new String[generators.size()];
+            for (long row = 0; row < entity.rowCount(); row++) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = generators.get(i).value(row, random);
+                }
+                sink.row(columnNames, values);
+            }
+        });
+    }
+
+    /**
+     * Gives a generator for a foreign key. One-to-one references refer to different rows as long as there are enough rows, and
+     * references from a table to itself only refer to rows written before the referring row.
+     */
+    private static ValueGenerator referenceGenerator(EntityModel entity, EntityModel target, boolean oneToOne) {
+        boolean selfReference = entity.type() == target.type();
+        return (row, random) -> {
+            long targetRows = selfReference ? row : target.rowCount();
+            if (targetRows == 0) {
+                return null;
+            }
+            return target.id(oneToOne ? row % targetRows : random.nextLong(targetRows));
+        };
+    }
+
+    private List<TableModel> joinTables(EntityModel owner, Map<Class<?>, EntityModel> entityModels) {
+        List<TableModel> joinTables = new ArrayList<>();
+        for (Field field : persistentFields(owner.type())) {
+            JoinTable joinTable = field.getAnnotation(JoinTable.class);
+            ManyToMany manyToMany = field.getAnnotation(ManyToMany.class);
+            if (joinTable == null || manyToMany == null || !manyToMany.mappedBy().isEmpty()) {
+                continue;
+            }
+            Class<?> targetType = manyToMany.targetEntity() == void.class ? elementType(field) : manyToMany.targetEntity();
+            EntityModel target = targetType == null ? null : entityModels.get(targetType);
+            if (target == null) {
+                LOG.debug("Skipping join table {}, entity {} has not been added", joinTable.name(), targetType);
+                continue;
+            }
+            String ownerColumn = joinTable.joinColumns().length > 0 && !joinTable.joinColumns()[0].name().isEmpty()
+                    ? joinTable.joinColumns()[0].name()
+                    : owner.tableName() + "_" + owner.idColumnName();
+            String targetColumn = joinTable.inverseJoinColumns().length > 0 && !joinTable.inverseJoinColumns()[0].name().isEmpty()
+                    ? joinTable.inverseJoinColumns()[0].name()
+                    : field.getName() + "_" + target.idColumnName();
+            int rowsPerOwner = (int) Math.min(joinTableRowsPerEntity, target.rowCount());
+            List<String> columnNames = List.of(ownerColumn, targetColumn);
+            joinTables.add(new TableModel(joinTable.name(), columnNames, owner.rowCount() * rowsPerOwner, (random, sink) -> {
+                @Nullable String[] values = new String[2];
+                for (long row = 0; row < owner.rowCount(); row++) {
+                    long start = rowsPerOwner == 0 ? 0 : random.nextLong(target.rowCount());
+                    for (int i = 0; i < rowsPerOwner; i++) {
+                        values[0] = owner.id(row);
+                        values[1] = target.id((start + i) % target.rowCount());
+                        sink.row(columnNames, values);
+                    }
+                }
+            }));
+        }
+        return joinTables;
+    }
+
+    private static List<Field> persistentFields(Class<?> entityType) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = entityType; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()
+                        && field.getAnnotation(Transient.class) == null) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static @Nullable Class<?> elementType(Field field) {
+        if (field.getGenericType() instanceof ParameterizedType parameterizedType) {
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            if (typeArguments[typeArguments.length - 1] instanceof Class<?> elementType) {
+                return elementType;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isReference(Field field) {
+        if (field.getAnnotation(ManyToOne.class) != null) {
+            return true;
+        }
+        OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+        return oneToOne != null && oneToOne.mappedBy().isEmpty();
+    }
+
+    private static String idColumnName(Class<?> entityType) {
+        for (Field field : persistentFields(entityType)) {
+            if (field.getAnnotation(EmbeddedId.class) != null) {
+                break;
+            }
+            if (field.getAnnotation(Id.class) != null) {
+                Column column = field.getAnnotation(Column.class);
+                return column != null && !column.name().isEmpty() ? column.name() : field.getName();
+            }
+        }
+        throw new IllegalArgumentException("Only entities with a single @Id field are supported: " + entityType.getName());
+    }
+
+    private static boolean isSupportedValueType(Class<?> type) {
+        if (type.isEnum()) {
+            return true;
+        }
+        if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type) || type.isArray()) {
+            return false;
+        }
+        Class<?> wrapped = MethodType.methodType(type).wrap().returnType();
+        return wrapped == String.class || Number.class.isAssignableFrom(wrapped) && (wrapped.getName().startsWith("java.lang.")
+                || wrapped == BigDecimal.class || wrapped == BigInteger.class) || wrapped == Boolean.class || wrapped == Character.class
+                || wrapped == Date.class || wrapped == LocalDate.class || wrapped == LocalDateTime.class || wrapped == ZonedDateTime.class
+                || wrapped == Instant.class || wrapped == UUID.class;
+    }
+
+    private static String randomValue(Class<?> type, int length, Random random) {
+        if (type == String.class) {
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+            }
+            return sb.toString();
+        } else if (type == Integer.class || type == Long.class) {
+            return Integer.toString(random.nextInt(MAX_INT_VALUE));
+        } else if (type == Short.class) {
+            return Integer.toString(random.nextInt(Short.MAX_VALUE));
+        } else if (type == Byte.class) {
+            return Integer.toString(random.nextInt(Byte.MAX_VALUE));
+        } else if (type == Float.class || type == Double.class || type == BigDecimal.class) {
+            return BigDecimal.valueOf(random.nextLong(MAX_DECIMAL_UNSCALED_VALUE), 2).toPlainString();
+        } else if (type == BigInteger.class) {
+            return Long.toString(random.nextLong(Long.MAX_VALUE));
+        } else if (type == Boolean.class) {
+            return Boolean.toString(random.nextBoolean());
+        } else if (type == Character.class) {
+            return String.valueOf(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+        } else if (type == Date.class || type == LocalDate.class) {
+            return BASE_DATE_TIME.toLocalDate().plusDays(random.nextInt(DATE_RANGE_DAYS)).toString();
+        } else if (type == LocalDateTime.class) {
+            return LOCAL_DATE_TIME_FORMAT.format(randomDateTime(random));
+        } else if (type == ZonedDateTime.class) {
+            return ZONED_DATE_TIME_FORMAT.format(randomDateTime(random).atOffset(ZoneOffset.UTC));
+        } else if (type == Instant.class) {
+            return randomDateTime(random).toInstant(ZoneOffset.UTC).toString();
+        } else if (type == UUID.class) {
+            return randomUuid(random).toString();
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return ((Enum<?>) constants[random.nextInt(constants.length)]).name();
+        }
+        throw new IllegalStateException("Unsupported type: " + type);
+    }
+
+    private static LocalDateTime randomDateTime(Random random) {
+        return BASE_DATE_TIME.plusSeconds(random.nextLong((long) DATE_RANGE_DAYS * SECONDS_PER_DAY));
+    }
+
+    private static UUID randomUuid(Random random) {
+        long mostSignificantBits = random.nextLong() & 0xffffffffffff0fffL | 0x0000000000004000L;
+        long leastSignificantBits = random.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public String toString() {
+        return "FixtureGenerator{seed=" + seed + ", rowCounts=" + rowCounts + ", joinTableRowsPerEntity=" + joinTableRowsPerEntity + "}";
+    }
+
+    /**
+     * An entity for which rows are generated.
+     *
+     * @param type         the entity class
+     * @param tableName    the name of the table
+     * @param rowCount     the number of rows to generate
+     * @param idColumnName the name of the primary key column
+     * @param idType       the type of the primary key
+     */
+    private record EntityModel(Class<?> type, String tableName, long rowCount, String idColumnName, Class<?> idType) {
+
+        /**
+         * Gives the primary key of the row with the given index, which only depends on the table and the index, so that rows referring
+         * to this entity can be generated without remembering the keys.
+         */
+        String id(long row) {
+            Class<?> wrapped = MethodType.methodType(idType).wrap().returnType();
+            if (wrapped == Integer.class || wrapped == Long.class || wrapped == Short.class || wrapped == BigInteger.class
+                    || wrapped == BigDecimal.class) {
+                return Long.toString(row + 1);
+            } else if (wrapped == String.class) {
+                return tableName.toLowerCase(Locale.ROOT) + "-" + (row + 1);
+            } else if (wrapped == UUID.class) {
+                return UUID.nameUUIDFromBytes((tableName + ":" + row).getBytes(StandardCharsets.UTF_8)).toString();
+            }
+            throw new IllegalArgumentException("Unsupported primary key type " + idType.getName() + " for " + type.getName());
+        }
+    }
+
+    /**
+     * A table to generate.
+     *
+     * @param name        the name of the table
+     * @param columnNames the names of the columns
+     * @param rowCount    the number of rows to generate
+     * @param rows        generates the rows
+     */
+    private record TableModel(String name, List<String> columnNames, long rowCount, RowGenerator rows) {
+
+        void generate(long seed, RowSink sink) throws IOException, XMLStreamException {
+            LOG.debug("Generating {} rows for table {}", rowCount, name);
+            rows.generate(new Random(seed), sink);
+        }
+    }
+
+    /**
+     * Generates a value for a column.
+     */
+    @FunctionalInterface
+    private interface ValueGenerator {
+        @Nullable
+        String value(long row, Random random);
+    }
+
+    /**
+     * Generates the rows of a table.
+     */
+    @FunctionalInterface
+    private interface RowGenerator {
+        void generate(Random random, RowSink sink) throws IOException, XMLStreamException;
+    }
+
+    /**
+     * Receives generated rows. The array of values is reused for all rows of a table.
+     */
+    @FunctionalInterface
+    private interface RowSink {
+        void row(List<String> columnNames, @Nullable String[] values) throws IOException, XMLStreamException;
+    }
+}
@@ -0,0 +1,87 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Statistics about loading test data from one source, e.g., a CSV file read by {@code CsvDatabaseReader} or a data set inserted by
+ * {@code DbTestHelper}.
+ * <p>
+ * The total time is divided into phases. Which phases apply depends on the loader: the readers populating repositories parse files,
+ * convert rows to entities, wire references between entities and save the entities in a repository, while {@code DbTestHelper} parses
+ * files and inserts rows using JDBC, which is reported as saving. Phases that do not apply have a zero duration.
+ * <p>
+ * An event is also sent if loading the test data failed, in which case the statistics only cover the work done before the failure.
+ *
+ * @param source         a description of the test data, normally the name of the resource
+ * @param loader         the name of the class loading the test data
+ * @param tables         statistics for each table, in the order the tables were loaded
+ * @param parsingTime    the time spent reading and parsing files
+ * @param conversionTime the time spent converting rows to entities
+ * @param wiringTime     the time spent filling in references between entities
+ * @param savingTime     the time spent saving entities in a repository, or inserting rows in a database
+ * @param totalTime      the total time spent loading the test data
+ * @param failure        the exception that made loading the test data fail, or {@code null} if it was loaded successfully
+ *
+ * @author RealLifeDeveloper
+ */
+public record FixtureLoadEvent(String source, String loader, List<TableStatistics> tables, Duration parsingTime, Duration conversionTime,
+        Duration wiringTime, Duration savingTime, Duration totalTime, @Nullable Throwable failure) {
+
+    /**
+     * Creates a new {@code FixtureLoadEvent}, making a copy of the table statistics.
+     *
+     * @param source         a description of the test data, normally the name of the resource
+     * @param loader         the name of the class loading the test data
+     * @param tables         statistics for each table, in the order the tables were loaded
+     * @param parsingTime    the time spent reading and parsing files
+     * @param conversionTime the time spent converting rows to entities
+     * @param wiringTime     the time spent filling in references between entities
+     * @param savingTime     the time spent saving entities in a repository, or inserting rows in a database
+     * @param totalTime      the total time spent loading the test data
+     * @param failure        the exception that made loading the test data fail, or {@code null} if it was loaded successfully
+     */
+    public FixtureLoadEvent {
+        tables = List.copyOf(tables);
+    }
+
+    /**
+     * Checks if the test data was loaded successfully.
+     *
+     * @return {@code true} if there was no failure, {@code false} otherwise
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Gives the total number of rows loaded from all tables.
+     *
+     * @return the total number of rows
+     */
+    public long rowCount() {
+        return tables.stream().mapToLong(TableStatistics::rowCount).sum();
+    }
+
+    /**
+     * Statistics about loading the rows of one table.
+     *
+     * @param tableName the name of the table
+     * @param rowCount  the number of rows loaded
+     * @param time      the time spent loading the rows, not including parsing and wiring
+     */
+    public record TableStatistics(String tableName, long rowCount, Duration time) {
+
+        /**
+         * Gives the number of rows loaded per second.
+         *
+         * @return the number of rows per second, or 0 if no time was measured
+         */
+        public double rowsPerSecond() {
+            long nanos = time.toNanos();
+            return nanos == 0 ? 0 : rowCount * (double) Duration.ofSeconds(1).toNanos() / nanos;
+        }
+    }
+}
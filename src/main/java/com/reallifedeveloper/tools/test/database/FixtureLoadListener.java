@@ -0,0 +1,20 @@
+package com.reallifedeveloper.tools.test.database;
+
+/**
+ * A listener that is notified each time test data has been loaded, with statistics about how long the loading took. Listeners are
+ * registered using {@link FixtureLoadMonitor#addListener(FixtureLoadListener)}.
+ * <p>
+ * Listeners are called by the thread loading the test data, so they should be quick and thread-safe.
+ *
+ * @author RealLifeDeveloper
+ */
+@FunctionalInterface
+public interface FixtureLoadListener {
+
+    /**
+     * Called when test data has been loaded.
+     *
+     * @param event statistics about the loading
+     */
+    void fixtureLoaded(FixtureLoadEvent event);
+}
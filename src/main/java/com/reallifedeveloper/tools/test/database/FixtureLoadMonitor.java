@@ -0,0 +1,230 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the time spent in the different phases of loading test data, and notifies the registered {@link FixtureLoadListener}s when
+ * the loading has finished.
+ * <p>
+ * A monitor is created by the code loading the test data, e.g., {@code CsvDatabaseReader}, {@code DbUnitFlatXmlReader} or
+ * {@code DbTestHelper}, using {@link #start(String, Class)}. If no listeners are registered, the monitor is disabled and does not even
+ * read the clock, so there is no overhead when the statistics are not used.
+ * <p>
+ * A monitor is not thread-safe; it should only be used by the thread loading the test data.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class FixtureLoadMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixtureLoadMonitor.class);
+
+    private static final List<FixtureLoadListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final FixtureLoadMonitor DISABLED = new FixtureLoadMonitor("", "", false);
+
+    private final String source;
+    private final String loader;
+    private final boolean enabled;
+    private final long startTime;
+    private final Map<String, long[]> tables = new LinkedHashMap<>();
+    private long parsingNanos;
+    private long conversionNanos;
+    private long wiringNanos;
+    private long savingNanos;
+
+    private FixtureLoadMonitor(String source, String loader, boolean enabled) {
+        this.source = source;
+        this.loader = loader;
+        this.enabled = enabled;
+        this.startTime = enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registers a listener that is notified each time test data has been loaded.
+     *
+     * @param listener the listener to add
+     */
+    public static void addListener(FixtureLoadListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener registered using {@link #addListener(FixtureLoadListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeListener(FixtureLoadListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Starts monitoring the loading of test data.
+     *
+     * @param source a description of the test data, normally the name of the resource
+     * @param loader the class loading the test data
+     *
+     * @return a new monitor, or a disabled monitor if no listeners are registered
+     */
+    public static FixtureLoadMonitor start(String source, Class<?> loader) {
+        if (LISTENERS.isEmpty()) {
+            return DISABLED;
+        }
+        return new FixtureLoadMonitor(source, loader.getSimpleName(), true);
+    }
+
+    /**
+     * Gives a monitor that does not measure anything.
+     *
+     * @return a disabled monitor
+     */
+    public static FixtureLoadMonitor disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Checks if this monitor measures anything, i.e., if any listeners were registered when it was started.
+     *
+     * @return {@code true} if this monitor is enabled, {@code false} otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gives the current time in nanoseconds, to be used as the start time of a phase, or 0 if the monitor is disabled.
+     *
+     * @return the current value of {@code System.nanoTime()}, or 0
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Gives the time spent saving so far, to be used together with {@link #rowLoaded(String, long, long)} and
+     * {@link #wired(long, long)} when saving happens as part of those phases.
+     *
+     * @return the time spent saving, in nanoseconds
+     */
+    public long savingNanos() {
+        return savingNanos;
+    }
+
+    /**
+     * Records time spent parsing.
+     *
+     * @param startTime the start time, as given by {@link #now()}
+     */
+    public void parsed(long startTime) {
+        if (enabled) {
+            parsingNanos += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Records time spent saving.
+     *
+     * @param startTime the start time, as given by {@link #now()}
+     */
+    public void saved(long startTime) {
+        if (enabled) {
+            savingNanos += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Records that a row has been converted and possibly saved. The time spent saving since {@code savingNanosBefore} is subtracted to
+     * give the conversion time.
+     *
+     * @param tableName         the name of the table the row belongs to
+     * @param startTime         the start time, as given by {@link #now()}
+     * @param savingNanosBefore the saving time when the row was started, as given by {@link #savingNanos()}
+     */
+    public void rowLoaded(String tableName, long startTime, long savingNanosBefore) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startTime;
+            conversionNanos += elapsed - (savingNanos - savingNanosBefore);
+            tableLoaded(tableName, 1, elapsed);
+        }
+    }
+
+    /**
+     * Records that a number of rows of a table have been loaded. This can be called several times for the same table.
+     *
+     * @param tableName the name of the table
+     * @param rowCount  the number of rows
+     * @param nanos     the time spent loading the rows, in nanoseconds
+     */
+    public void tableLoaded(String tableName, long rowCount, long nanos) {
+        if (enabled) {
+            long[] table = tables.computeIfAbsent(tableName, k -> new long[2]);
+            table[0] += rowCount;
+            table[1] += nanos;
+        }
+    }
+
+    /**
+     * Records time spent wiring references between entities. The time spent saving since {@code savingNanosBefore} is subtracted.
+     *
+     * @param startTime         the start time, as given by {@link #now()}
+     * @param savingNanosBefore the saving time when wiring started, as given by {@link #savingNanos()}
+     */
+    public void wired(long startTime, long savingNanosBefore) {
+        if (enabled) {
+            wiringNanos += System.nanoTime() - startTime - (savingNanos - savingNanosBefore);
+        }
+    }
+
+    /**
+     * Stops monitoring after the test data has been loaded successfully, and notifies the registered listeners.
+     *
+     * @see #finish(Throwable)
+     */
+    public void finish() {
+        finish(null);
+    }
+
+    /**
+     * Stops monitoring and notifies the registered listeners. This should be called from a {@code finally} block, so that listeners are
+     * also notified if loading the test data failed. Exceptions thrown by listeners are logged and otherwise ignored, so that they do not
+     * make tests fail, or hide the exception that made loading fail.
+     *
+     * @param failure the exception that made loading the test data fail, or {@code null} if the test data was loaded successfully
+     */
+    public void finish(@Nullable Throwable failure) {
+        if (!enabled) {
+            return;
+        }
+        List<FixtureLoadEvent.TableStatistics> tableStatistics = new ArrayList<>();
+        for (Map.Entry<String, long[]> table : tables.entrySet()) {
+            tableStatistics.add(new FixtureLoadEvent.TableStatistics(table.getKey(), table.getValue()[0],
+                    Duration.ofNanos(table.getValue()[1])));
+        }
+        FixtureLoadEvent event = new FixtureLoadEvent(source, loader, tableStatistics, Duration.ofNanos(parsingNanos),
+                Duration.ofNanos(conversionNanos), Duration.ofNanos(wiringNanos), Duration.ofNanos(savingNanos),
+                Duration.ofNanos(System.nanoTime() - startTime), failure);
+        for (FixtureLoadListener listener : LISTENERS) {
+            try {
+                listener.fixtureLoaded(event);
+            } catch (RuntimeException e) {
+                LOG.warn("Fixture load listener {} failed", listener, e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FixtureLoadMonitor{source=" + source + ", loader=" + loader + ", enabled=" + enabled + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A {@link FixtureLoadListener} that collects the statistics for all test data loaded, and gives a summary per table and phase.
+ * <p>
+ * It can be used as a JUnit 5 extension, in which case it is registered before the first test of a test class and the summary for the
+ * test class is logged on info level after the last test:
+ *
+ * <pre>
+ * &#64;ExtendWith(FixtureLoadReport.class)
+ * public class MyDbTest extends AbstractDbTest {
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * Note that listeners are global, so if test classes run concurrently, the summary for one test class also contains test data loaded by
+ * the others.
+ *
+ * @author RealLifeDeveloper
+ */
+@SuppressFBWarnings(value = "CRLF_INJECTION_LOGS", justification = "This is intended to log the summary including line breaks")
+public final class FixtureLoadReport implements FixtureLoadListener, BeforeAllCallback, AfterAllCallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixtureLoadReport.class);
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final List<FixtureLoadEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void fixtureLoaded(FixtureLoadEvent event) {
+        events.add(event);
+    }
+
+    /**
+     * Gives the events received so far.
+     *
+     * @return a copy of the events received
+     */
+    public synchronized List<FixtureLoadEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * Forgets all events received so far.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+
+    /**
+     * Gives a summary of the events received so far: the total number of rows and time for each table, with rows per second, followed by
+     * the total time for each phase.
+     *
+     * @return a multi-line summary
+     */
+    public synchronized String summary() {
+        Map<String, long[]> tables = new LinkedHashMap<>();
+        Duration parsing = Duration.ZERO;
+        Duration conversion = Duration.ZERO;
+        Duration wiring = Duration.ZERO;
+        Duration saving = Duration.ZERO;
+        Duration total = Duration.ZERO;
+        long failures = 0;
+        for (FixtureLoadEvent event : events) {
+            if (!event.isSuccess()) {
+                failures++;
+            }
+            for (FixtureLoadEvent.TableStatistics table : event.tables()) {
+                long[] totals = tables.computeIfAbsent(table.tableName(), k -> new long[2]);
+                totals[0] += table.rowCount();
+                totals[1] += table.time().toNanos();
+            }
+            parsing = parsing.plus(event.parsingTime());
+            conversion = conversion.plus(event.conversionTime());
+            wiring = wiring.plus(event.wiringTime());
+            saving = saving.plus(event.savingTime());
+            total = total.plus(event.totalTime());
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Loaded test data %d times in %.1f ms", events.size(), millis(total)));
+        if (failures > 0) {
+            sb.append(String.format(Locale.ROOT, ", %d failed", failures));
+        }
+        sb.append(System.lineSeparator());
+        for (Map.Entry<String, long[]> table : tables.entrySet()) {
+            FixtureLoadEvent.TableStatistics statistics = new FixtureLoadEvent.TableStatistics(table.getKey(), table.getValue()[0],
+                    Duration.ofNanos(table.getValue()[1]));
+            sb.append(String.format(Locale.ROOT, "  %s: %d rows in %.1f ms (%.0f rows/s)%n", statistics.tableName(),
+                    statistics.rowCount(), millis(statistics.time()), statistics.rowsPerSecond()));
+        }
+        sb.append(String.format(Locale.ROOT, "  parsing %.1f ms, conversion %.1f ms, wiring %.1f ms, saving %.1f ms", millis(parsing),
+                millis(conversion), millis(wiring), millis(saving)));
+        return sb.toString();
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        clear();
+        FixtureLoadMonitor.addListener(this);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        FixtureLoadMonitor.removeListener(this);
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Test data loaded by {}: {}", context.getDisplayName(), summary());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FixtureLoadReport{events=" + events.size() + "}";
+    }
+}
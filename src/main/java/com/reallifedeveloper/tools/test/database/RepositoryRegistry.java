@@ -0,0 +1,158 @@
+package com.reallifedeveloper.tools.test.database;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.data.repository.CrudRepository;
+
+import jakarta.persistence.Entity;
+
+/**
+ * A registry of the repositories to populate when reading test data, with one repository for each entity class.
+ * <p>
+ * Using a registry, a file containing rows for several tables can be read once, with each row being converted to an entity of the class
+ * associated with the table and saved in the repository for that class. References between the entities are then filled in once for all
+ * the repositories. Entity classes that have no repository of their own, e.g., entities that are only reachable from other entities, can
+ * also be registered, so that their rows are converted to entities and wired to the entities referring to them.
+ * <p>
+ * The table name for an entity class is given by {@link JpaUtil#getTableName(Class)}, and is matched ignoring case. If an
+ * {@link EntityClassIndex} has been set, tables without a registered entity class are looked up in the index, so that a whole data set
+ * can be read without registering each entity class. Rows for tables that have no entity class are treated as join table rows.
+ * <p>
+ * An entity is saved in the repository registered for its class or, if there is none, in the repository registered for the closest
+ * superclass or interface.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class RepositoryRegistry {
+
+    private final Map<Class<?>, CrudRepository<?, ?>> repositories = new LinkedHashMap<>();
+    private final Map<String, Class<?>> entityTypesByTableName = new HashMap<>();
+    private final Map<Class<?>, Optional<CrudRepository<?, ?>>> repositoriesByEntityClass = new HashMap<>();
+    private @Nullable EntityClassIndex entityClassIndex;
+
+    /**
+     * Registers the repository in which to save entities of the given type, and of its subtypes unless they have repositories of their
+     * own.
+     *
+     * @param entityType the class object representing {@code T}
+     * @param repository the repository in which to save entities of type {@code T}
+     * @param <T>        the type of entities in the repository
+     * @param <ID>       the type of the primary key of the entities in the repository
+     *
+     * @throws IllegalArgumentException if any argument is {@code null}, if the entity type has already been registered, or if another
+     *                                  entity type with the same table name has been registered
+     */
+    public <T, ID extends Serializable> void register(Class<T> entityType, CrudRepository<T, ID> repository) {
+        if (entityType == null || repository == null) {
+            throw new IllegalArgumentException("Arguments must not be null: entityType=" + entityType + ", repository=" + repository);
+        }
+        addEntityType(entityType);
+        repositories.put(entityType, repository);
+        repositoriesByEntityClass.clear();
+    }
+
+    /**
+     * Registers an entity type without a repository of its own. Entities of this type are saved in the repository registered for a
+     * superclass, if any, and are otherwise only available through references from other entities.
+     *
+     * @param entityType the entity class to register
+     *
+     * @throws IllegalArgumentException if {@code entityType} is {@code null} or not annotated with {@code jakarta.persistence.Entity}, if
+     *                                  the entity type has already been registered, or if another entity type with the same table name
+     *                                  has been registered
+     */
+    public void register(Class<?> entityType) {
+        if (entityType == null) {
+            throw new IllegalArgumentException("entityType must not be null");
+        }
+        if (entityType.getAnnotation(Entity.class) == null) {
+            throw new IllegalArgumentException("entityType is not annotated with @Entity: " + entityType.getName());
+        }
+        addEntityType(entityType);
+    }
+
+    private void addEntityType(Class<?> entityType) {
+        if (entityType.getAnnotation(Entity.class) == null) {
+            if (repositories.containsKey(entityType)) {
+                throw new IllegalArgumentException("Entity type already registered: " + entityType.getName());
+            }
+            return;
+        }
+        String key = JpaUtil.getTableName(entityType).toLowerCase(Locale.ROOT);
+        Class<?> registeredEntityType = entityTypesByTableName.get(key);
+        if (entityType.equals(registeredEntityType)) {
+            throw new IllegalArgumentException("Entity type already registered: " + entityType.getName());
+        }
+        if (registeredEntityType != null) {
+            throw new IllegalArgumentException("Table " + JpaUtil.getTableName(entityType) + " already registered for "
+                    + registeredEntityType.getName() + ", cannot register " + entityType.getName());
+        }
+        entityTypesByTableName.put(key, entityType);
+    }
+
+    /**
+     * Sets an index used to find the entity type for tables that have no registered entity type. The default is to use no index.
+     *
+     * @param entityClassIndex the index to use, or {@code null} to use no index
+     */
+    public void setEntityClassIndex(@Nullable EntityClassIndex entityClassIndex) {
+        this.entityClassIndex = entityClassIndex;
+    }
+
+    /**
+     * Gives the entity type associated with a table, either registered or found in the {@link EntityClassIndex}, if any.
+     *
+     * @param tableName the name of the table, matched ignoring case
+     *
+     * @return the entity type for {@code tableName}, or {@code null} if there is none
+     */
+    public @Nullable Class<?> entityType(String tableName) {
+        Class<?> entityType = entityTypesByTableName.get(tableName.toLowerCase(Locale.ROOT));
+        if (entityType == null && entityClassIndex != null) {
+            entityType = entityClassIndex.entityType(tableName);
+        }
+        return entityType;
+    }
+
+    /**
+     * Gives the repository in which to save entities of the given class: the repository registered for the class itself or, if there
+     * is none, the repository registered for the closest superclass or interface.
+     *
+     * @param entityClass the class of an entity
+     *
+     * @return the repository for {@code entityClass}, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable CrudRepository<Object, ?> repositoryFor(Class<?> entityClass) {
+        return (CrudRepository<Object, ?>) repositoriesByEntityClass.computeIfAbsent(entityClass, this::findRepository).orElse(null);
+    }
+
+    private Optional<CrudRepository<?, ?>> findRepository(Class<?> entityClass) {
+        for (Class<?> type = entityClass; type != null; type = type.getSuperclass()) {
+            CrudRepository<?, ?> repository = repositories.get(type);
+            if (repository != null) {
+                return Optional.of(repository);
+            }
+        }
+        for (Map.Entry<Class<?>, CrudRepository<?, ?>> entry : repositories.entrySet()) {
+            if (entry.getKey().isAssignableFrom(entityClass)) {
+                return Optional.of(entry.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return "RepositoryRegistry{repositories=" + repositories.keySet() + ", entityTypes=" + entityTypesByTableName.values()
+                + ", entityClassIndex=" + entityClassIndex + "}";
+    }
+}
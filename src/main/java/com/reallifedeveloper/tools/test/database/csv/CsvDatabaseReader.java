@@ -1,38 +1,37 @@
 package com.reallifedeveloper.tools.test.database.csv;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.repository.CrudRepository;
 
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvException;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.Getter;
 import lombok.ToString;
 
-import com.reallifedeveloper.tools.test.TestUtil;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableField;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow;
+import com.reallifedeveloper.tools.test.database.FixtureCache;
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
 
 /**
- * A class to read a CSV file and populate a Spring Data {@code CrudRepository} using the information in the file.
+ * A class to read a CSV file and populate a Spring Data {@code CrudRepository} using the information in the file. Several repositories
+ * can be populated from the same files by registering them in a {@link RepositoryRegistry}.
  * <p>
  * This is useful for testing in-memory repositories using the same test cases as for real repository implementations, and also for
  * populating in-memory repositories for testing services, without having to use a real database.
@@ -44,6 +43,15 @@ import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow
  *     1;foo
  *     2;bar
  * </pre>
+ * <p>
+ * The file is parsed using a {@link CsvRowCursor}, which reuses its buffers from row to row, so large files can be read without creating
+ * garbage for every cell.
+ * <p>
+ * If a {@link FixtureCache} has been enabled using system properties, the rows of a file are stored in the cache the first time the file
+ * is parsed, and read from the cache as long as the file and the parser configuration are unchanged.
+ * <p>
+ * If any {@code FixtureLoadListener}s have been registered with {@link FixtureLoadMonitor}, they are notified with the time spent
+ * parsing, converting, wiring and saving each time a file has been read.
  *
  * @author RealLifeDeveloper
  */
@@ -86,61 +94,169 @@ public class CsvDatabaseReader {
      */
     public <T, E, ID extends Serializable> void read(String resourceName, CrudRepository<T, ID> repository, Class<T> repositoryEntityType,
             @Nullable Class<E> entityType, String tableName) throws IOException, CsvException {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(repositoryEntityType, repository);
+        read(resourceName, repositories, entityType, tableName);
+    }
+
+    /**
+     * Reads a CSV file from the named resource, populating the repositories in the given registry.
+     * <p>
+     * The rows are converted to entities of the type registered for the table and saved in the repository for that type, or treated as
+     * join table rows if no entity type has been registered for the table. Reading all the files for a data set using the same registry
+     * means that references between entities in different repositories are filled in without having to read any file more than once.
+     *
+     * @param resourceName the classpath resource containing a CSV file
+     * @param repositories the repositories to populate, and the entity types to create
+     * @param tableName    the name of the database table to use; may be either a table associated with a registered entity type, or a
+     *                     join table
+     *
+     * @throws IOException  if reading the file failed
+     * @throws CsvException if parsing the file failed
+     */
+    public void read(String resourceName, RepositoryRegistry repositories, String tableName) throws IOException, CsvException {
+        read(resourceName, repositories, repositories.entityType(tableName), tableName);
+    }
+
+    private void read(String resourceName, RepositoryRegistry repositories, @Nullable Class<?> entityType, String tableName)
+            throws IOException, CsvException {
         try (InputStream in = CsvDatabaseReader.class.getResourceAsStream(resourceName)) {
             if (in == null) {
                 throw new FileNotFoundException(resourceName);
             }
             LOG.info("Reading from {}", resourceName.replaceAll("[\r\n]", ""));
-            try (Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
-                CSVParser parser = new CSVParserBuilder().withSeparator(csvSeparatorCharacter).build();
-                try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(csvSkipLines).withCSVParser(parser).build()) {
-                    String[] header = csvReader.readNext();
-                    String[] row;
-                    while ((row = csvReader.readNext()) != null) {
-                        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-                        DbTableRow tableRow = new CsvTableRow(header, row);
-                        if (crudRepositoryWriter.writeEntity(tableRow, repositoryEntityType, entityType, repository, tableName)) {
-                            continue;
+            FixtureLoadMonitor monitor = FixtureLoadMonitor.start(resourceName, CsvDatabaseReader.class);
+            crudRepositoryWriter.setFixtureLoadMonitor(monitor);
+            Throwable failure = null;
+            try {
+                Optional<FixtureCache> fixtureCache = FixtureCache.fromSystemProperties();
+                if (fixtureCache.isPresent()) {
+                    long parseStartTime = monitor.now();
+                    FixtureCache.Table table = readTableUsingCache(fixtureCache.get(), in);
+                    monitor.parsed(parseStartTime);
+                    for (int i = 0; i < table.getRowCount(); i++) {
+                        writeRow(table.row(i), repositories, entityType, tableName, monitor);
+                    }
+                } else {
+                    try (CsvRowCursor cursor = new CsvRowCursor(new InputStreamReader(in, StandardCharsets.UTF_8), csvSeparatorCharacter)) {
+                        long parseStartTime = monitor.now();
+                        cursor.skipLines(csvSkipLines);
+                        if (cursor.next()) {
+                            CsvTableRow tableRow = new CsvTableRow(cursor.toStringArray(), cursor);
+                            while (cursor.next()) {
+                                tableRow.verifyRow();
+                                monitor.parsed(parseStartTime);
+                                writeRow(tableRow, repositories, entityType, tableName, monitor);
+                                parseStartTime = monitor.now();
+                            }
                         }
-                        crudRepositoryWriter.addEntitiesFromJoinTable(tableRow, tableName);
+                        monitor.parsed(parseStartTime);
                     }
                 }
-                crudRepositoryWriter.fillReferencesBetweenEntities(repository, repositoryEntityType);
+                long wiringStartTime = monitor.now();
+                long savingNanosBefore = monitor.savingNanos();
+                crudRepositoryWriter.fillReferencesBetweenEntities(repositories);
+                monitor.wired(wiringStartTime, savingNanosBefore);
+            } catch (Exception | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                crudRepositoryWriter.setFixtureLoadMonitor(FixtureLoadMonitor.disabled());
+                monitor.finish(failure);
             }
         } catch (ReflectiveOperationException | SecurityException e) {
             throw new IllegalStateException("Unexpected problem reading CSV file from '" + resourceName + "'", e);
         }
     }
 
+    private void writeRow(DbTableRow tableRow, RepositoryRegistry repositories, @Nullable Class<?> entityType, String tableName,
+            FixtureLoadMonitor monitor) throws ReflectiveOperationException {
+        long startTime = monitor.now();
+        long savingNanosBefore = monitor.savingNanos();
+        if (!crudRepositoryWriter.writeEntity(tableRow, entityType, repositories, tableName)) {
+            crudRepositoryWriter.addEntitiesFromJoinTable(tableRow, tableName);
+        }
+        monitor.rowLoaded(tableName, startTime, savingNanosBefore);
+    }
+
+    /**
+     * Gives the rows of the CSV file as a cached table, parsing the file only if it is not found in the cache. The table has no name,
+     * since the table name is given when reading the file.
+     */
+    private FixtureCache.Table readTableUsingCache(FixtureCache fixtureCache, InputStream in) throws IOException, CsvException {
+        byte[] content = in.readAllBytes();
+        String key = FixtureCache.key("csv;separator=" + csvSeparatorCharacter + ";skipLines=" + csvSkipLines, content);
+        Optional<List<FixtureCache.Table>> cachedTables = fixtureCache.get(key);
+        if (cachedTables.isPresent() && cachedTables.get().size() == 1) {
+            return cachedTables.get().get(0);
+        }
+        FixtureCache.Table table = new FixtureCache.Table("", List.of());
+        try (CsvRowCursor cursor = new CsvRowCursor(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8),
+                csvSeparatorCharacter)) {
+            cursor.skipLines(csvSkipLines);
+            if (cursor.next()) {
+                CsvTableRow tableRow = new CsvTableRow(cursor.toStringArray(), cursor);
+                table = new FixtureCache.Table("", tableRow.header);
+                while (cursor.next()) {
+                    tableRow.verifyRow();
+                    table.addRow(cursor.toStringArray());
+                }
+            }
+        }
+        fixtureCache.put(key, List.of(table));
+        return table;
+    }
+
+    /**
+     * A {@link DbTableRow} that is backed by a {@link CsvRowCursor}, so the same object represents the current row of the cursor. The
+     * column values are views into the cursor's buffer and are converted directly into field values, without intermediate strings.
+     */
     @ToString
     private static class CsvTableRow implements DbTableRow {
 
         private final List<String> header;
-        private final List<String> row;
+        @ToString.Exclude
+        private final CsvRowCursor cursor;
 
-        @SuppressWarnings("PMD.UseVarargs")
         @SuppressFBWarnings(value = "CT_CONSTRUCTOR_THROW", justification = "Private class")
-        /* package-private */ CsvTableRow(String[] header, String[] row) {
-            if (header == null || row == null || header.length == 0 || row.length == 0) {
-                throw new IllegalArgumentException(
-                        "Arguments must not be null or empty: header=" + TestUtil.asList(header) + ", row=" + TestUtil.asList(row));
-            }
-            if (header.length != row.length) {
-                throw new IllegalArgumentException(
-                        "header and row should be of same length: header=" + Arrays.asList(header) + ", row=" + Arrays.asList(row));
+        /* package-private */ CsvTableRow(String[] header, CsvRowCursor cursor) {
+            if (header.length == 0) {
+                throw new IllegalArgumentException("header must not be empty");
             }
             this.header = Arrays.asList(header);
-            this.row = Arrays.asList(row);
+            this.cursor = cursor;
+        }
+
+        /* package-private */ void verifyRow() {
+            if (header.size() != cursor.cellCount()) {
+                throw new IllegalArgumentException("header and row should be of same length: header=" + header + ", row="
+                        + Arrays.asList(cursor.toStringArray()));
+            }
         }
 
         @Override
         public List<DbTableField> columns() {
             List<DbTableField> columns = new ArrayList<>();
-            for (int i = 0; i < row.size(); i++) {
-                columns.add(new DbTableField(header.get(i), row.get(i)));
+            for (int i = 0; i < header.size(); i++) {
+                columns.add(new DbTableField(header.get(i), cursor.cell(i).toString()));
             }
             return columns;
         }
 
+        @Override
+        public int columnCount() {
+            return header.size();
+        }
+
+        @Override
+        public String columnName(int index) {
+            return header.get(index);
+        }
+
+        @Override
+        public CharSequence columnValue(int index) {
+            return cursor.cell(index);
+        }
+
     }
 }
@@ -0,0 +1,288 @@
+package com.reallifedeveloper.tools.test.database.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.opencsv.exceptions.CsvException;
+
+/**
+ * A forward-only cursor over the rows of a CSV document that reuses its internal buffers from row to row.
+ * <p>
+ * The cells of the current row are exposed as {@code CharSequence} views into a shared character buffer, so reading a row does not
+ * allocate any strings. The views are only valid until the next call to {@link #next()}; callers that need to keep a value must convert
+ * it, e.g., by calling {@code toString()}.
+ * <p>
+ * The parsing rules follow those of the default OpenCSV parser: cells may be quoted using double quotes, a quote inside a quoted cell is
+ * written either as two double quotes or as a backslash followed by a double quote, and a backslash may be escaped by another backslash.
+ * Blank lines are ignored.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class CsvRowCursor implements Closeable {
+
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int INITIAL_ROW_BUFFER_SIZE = 256;
+    private static final int INITIAL_NUMBER_OF_CELLS = 16;
+
+    private final Reader reader;
+    private final char separator;
+
+    private final char[] readBuffer = new char[READ_BUFFER_SIZE];
+    private int readPosition;
+    private int readLimit;
+    private int pushedBack = NONE;
+
+    private char[] rowBuffer = new char[INITIAL_ROW_BUFFER_SIZE];
+    private int rowLength;
+    private int[] cellStarts = new int[INITIAL_NUMBER_OF_CELLS];
+    private int[] cellEnds = new int[INITIAL_NUMBER_OF_CELLS];
+    private int cellCount;
+    private long rowNumber;
+
+    private final List<Cell> cells = new ArrayList<>();
+
+    /**
+     * Creates a new {@code CsvRowCursor} reading from the given {@code Reader}.
+     * <p>
+     * The cursor does its own buffering, so there is no need to wrap {@code reader} in a {@code BufferedReader}.
+     *
+     * @param reader    the {@code Reader} to read the CSV document from
+     * @param separator the separator character to use, normally ',' or ';'
+     */
+    public CsvRowCursor(Reader reader, char separator) {
+        if (reader == null) {
+            throw new IllegalArgumentException("reader must not be null");
+        }
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Skips the given number of lines without parsing them.
+     *
+     * @param numberOfLines the number of lines to skip
+     *
+     * @throws IOException if reading from the underlying {@code Reader} failed
+     */
+    public void skipLines(int numberOfLines) throws IOException {
+        for (int i = 0; i < numberOfLines; i++) {
+            int c = read();
+            while (c != EOF && c != '\n' && c != '\r') {
+                c = read();
+            }
+            if (c == EOF) {
+                return;
+            }
+            consumeLineFeedAfter(c);
+        }
+    }
+
+    /**
+     * Advances the cursor to the next non-blank row.
+     *
+     * @return {@code true} if the cursor was positioned on a new row, {@code false} if there are no more rows
+     *
+     * @throws IOException  if reading from the underlying {@code Reader} failed
+     * @throws CsvException if the row is malformed, e.g., has an unterminated quoted cell
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    public boolean next() throws IOException, CsvException {
+        rowLength = 0;
+        cellCount = 0;
+        int c = read();
+        while (c == '\n' || c == '\r') {
+            c = read();
+        }
+        if (c == EOF) {
+            return false;
+        }
+        rowNumber++;
+        int cellStart = 0;
+        boolean inQuotes = false;
+        while (true) {
+            if (c == ESCAPE) {
+                int escaped = read();
+                if (escaped == QUOTE || escaped == ESCAPE) {
+                    append((char) escaped);
+                    c = read();
+                } else {
+                    append(ESCAPE);
+                    c = escaped;
+                }
+            } else if (inQuotes) {
+                if (c == EOF) {
+                    throw new CsvException("Unterminated quoted cell in row " + rowNumber);
+                }
+                if (c == QUOTE) {
+                    c = read();
+                    if (c == QUOTE) {
+                        append(QUOTE);
+                        c = read();
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    append((char) c);
+                    c = read();
+                }
+            } else if (c == QUOTE) {
+                inQuotes = true;
+                c = read();
+            } else if (c == separator) {
+                endCell(cellStart);
+                cellStart = rowLength;
+                c = read();
+            } else if (c == '\n' || c == '\r' || c == EOF) {
+                endCell(cellStart);
+                consumeLineFeedAfter(c);
+                return true;
+            } else {
+                append((char) c);
+                c = read();
+            }
+        }
+    }
+
+    /**
+     * Gives the number of cells in the current row.
+     *
+     * @return the number of cells in the current row
+     */
+    public int cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Gives a view of the cell with the given index in the current row.
+     * <p>
+     * The same view object is returned for a given index on every row, and its content changes when the cursor moves.
+     *
+     * @param index the zero-based index of the cell
+     *
+     * @return a {@code CharSequence} view of the cell
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #cellCount()}
+     */
+    public CharSequence cell(int index) {
+        if (index < 0 || index >= cellCount) {
+            throw new IndexOutOfBoundsException("index=" + index + ", cellCount=" + cellCount);
+        }
+        return cells.get(index);
+    }
+
+    /**
+     * Copies the cells of the current row to a new string array. This is useful for rows that need to be kept, such as a header row.
+     *
+     * @return the cells of the current row as strings
+     */
+    public String[] toStringArray() {
+        String[] strings = new String[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            strings[i] = cells.get(i).toString();
+        }
+        return strings;
+    }
+
+    /**
+     * Gives the one-based number of the current row, not counting skipped lines and blank lines.
+     *
+     * @return the number of the current row
+     */
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (readPosition == readLimit) {
+            readLimit = reader.read(readBuffer, 0, readBuffer.length);
+            readPosition = 0;
+            if (readLimit <= 0) {
+                readLimit = 0;
+                return EOF;
+            }
+        }
+        return readBuffer[readPosition++];
+    }
+
+    private void consumeLineFeedAfter(int c) throws IOException {
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (rowLength == rowBuffer.length) {
+            rowBuffer = Arrays.copyOf(rowBuffer, rowBuffer.length * 2);
+        }
+        rowBuffer[rowLength++] = c;
+    }
+
+    private void endCell(int cellStart) {
+        if (cellCount == cellStarts.length) {
+            cellStarts = Arrays.copyOf(cellStarts, cellStarts.length * 2);
+            cellEnds = Arrays.copyOf(cellEnds, cellEnds.length * 2);
+        }
+        cellStarts[cellCount] = cellStart;
+        cellEnds[cellCount] = rowLength;
+        if (cells.size() == cellCount) {
+            cells.add(new Cell(cellCount));
+        }
+        cellCount++;
+    }
+
+    /**
+     * A view of a single cell in the current row.
+     */
+    private final class Cell implements CharSequence {
+
+        private final int index;
+
+        Cell(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return cellEnds[index] - cellStarts[index];
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException("i=" + i + ", length=" + length());
+            }
+            return rowBuffer[cellStarts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(rowBuffer, cellStarts[index], length());
+        }
+    }
+}
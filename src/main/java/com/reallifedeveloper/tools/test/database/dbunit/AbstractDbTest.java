@@ -1,8 +1,12 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.sql.DataSource;
 
@@ -14,7 +18,12 @@ import org.dbunit.ext.mssql.InsertIdentityOperation;
 import org.dbunit.operation.DatabaseOperation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Base class for DBUnit tests.
@@ -47,6 +56,11 @@ import org.springframework.transaction.annotation.Transactional;
  *     protected IDataTypeFactory getDataTypeFactory() { return dataTypeFactory; }
  * }
  * </pre>
+ * <p>
+ * By default, the test data is inserted before each test. If the tests run in transactions that are rolled back, which is the default
+ * when using the Spring TestContext framework since this class is {@code Transactional}, the test data can instead be inserted and
+ * committed once per test class or once per JVM, by overriding {@link #getDataSetLoading()}. The tests must then not commit any changes
+ * to the database.
  *
  * @author RealLifeDeveloper
  *
@@ -54,11 +68,30 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public abstract class AbstractDbTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractDbTest.class);
+
+    /**
+     * The data set currently committed to each {@code DataSource} by tests that do not load the data set before each test.
+     */
+    private static final Map<DataSource, LoadedDataSet> LOADED_DATA_SETS = new ConcurrentHashMap<>();
+
     /**
      * The default operation to perform before executing each test.
      */
     public static final DatabaseOperation DEFAULT_SETUP_OPERATION = InsertIdentityOperation.CLEAN_INSERT;
 
+    /**
+     * An operation to perform before executing each test that only restores the tables that have been modified, see
+     * {@link DeltaResetOperation}. Return this from {@link #getSetUpOperation()} to speed up tests using large data sets.
+     */
+    public static final DatabaseOperation DELTA_RESET_SETUP_OPERATION = new DeltaResetOperation(InsertIdentityOperation.CLEAN_INSERT);
+
+    /**
+     * An operation to perform before executing each test that deletes and inserts the data set using plain JDBC batches instead of
+     * DbUnit, see {@link JdbcBatchInsertOperation}. Return this from {@link #getSetUpOperation()} to speed up tests using large data sets.
+     */
+    public static final DatabaseOperation JDBC_BATCH_SETUP_OPERATION = JdbcBatchInsertOperation.CLEAN_INSERT;
+
     /**
      * The default operation to perform after executing each test.
      */
@@ -68,7 +101,8 @@ public abstract class AbstractDbTest {
     private Optional<String> dataSetDtdResourceName;
     private String[] dataSetResourceNames;
 
-    private DbTestHelper dbTestHelper;
+    private @Nullable DbTestHelper dbTestHelper;
+    private boolean dataSetLoadedForEachTest = true;
 
     /**
      * Creates a new test instance, using the given schema and reading the DBUnit XML file found in the given classpath resource.
@@ -104,10 +138,38 @@ public abstract class AbstractDbTest {
     @BeforeEach
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     public void setUpDatabase() throws Exception {
-        dbTestHelper = new DbTestHelper(getDataSource(), getDataSet(), getSchemaName(), getDataTypeFactory());
-        dbTestHelper.setSetUpOperation(getSetUpOperation());
-        dbTestHelper.setTearDownOperation(getTearDownOperation());
-        dbTestHelper.init();
+        DataSource dataSource = getDataSource();
+        IDataSet dataSet = getDataSet();
+        DataSetLoading dataSetLoading = getDataSetLoading();
+        if (dataSetLoading != DataSetLoading.BEFORE_EACH_TEST && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            LOG.warn("No active transaction to roll back, loading data set before each test instead of {}", dataSetLoading);
+            dataSetLoading = DataSetLoading.BEFORE_EACH_TEST;
+        }
+        if (dataSetLoading != DataSetLoading.BEFORE_EACH_TEST && isConnectionTransactional(dataSource)) {
+            LOG.warn("Connections from the DataSource take part in the test transaction, so the data set would be rolled back after the "
+                    + "first test; loading data set before each test instead of {}", dataSetLoading);
+            dataSetLoading = DataSetLoading.BEFORE_EACH_TEST;
+        }
+        dataSetLoadedForEachTest = dataSetLoading == DataSetLoading.BEFORE_EACH_TEST;
+        LoadedDataSet loadedDataSet = null;
+        if (!dataSetLoadedForEachTest) {
+            Class<?> testClass = dataSetLoading == DataSetLoading.ONCE_PER_CLASS ? getClass() : null;
+            loadedDataSet = new LoadedDataSet(testClass, getSchemaName(), dataSet);
+            if (loadedDataSet.equals(LOADED_DATA_SETS.get(dataSource))) {
+                dbTestHelper = null;
+                return;
+            }
+        }
+        DbTestHelper helper = new DbTestHelper(dataSource, dataSet, getSchemaName(), getDataTypeFactory());
+        LOADED_DATA_SETS.remove(dataSource);
+        helper.setSetUpOperation(getSetUpOperation());
+        helper.setTearDownOperation(getTearDownOperation());
+        helper.setConnectionCaching(isConnectionCaching());
+        dbTestHelper = helper;
+        helper.init();
+        if (loadedDataSet != null) {
+            LOADED_DATA_SETS.put(dataSource, loadedDataSet);
+        }
     }
 
     /**
@@ -118,11 +180,34 @@ public abstract class AbstractDbTest {
     @AfterEach
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     public void tearDownDatabase() throws Exception {
-        if (dbTestHelper != null) {
+        if (dbTestHelper != null && dataSetLoadedForEachTest) {
             dbTestHelper.clean();
         }
     }
 
+    /**
+     * Checks if a connection from the given {@code DataSource} is bound to the current Spring transaction, e.g., because the
+     * {@code DataSource} is a {@code TransactionAwareDataSourceProxy}, in which case data inserted by DbUnit is rolled back with the test.
+     */
+    private static boolean isConnectionTransactional(DataSource dataSource) throws SQLException {
+        DataSource targetDataSource = dataSource instanceof TransactionAwareDataSourceProxy proxy ? proxy.getTargetDataSource()
+                : dataSource;
+        if (targetDataSource == null || !TransactionSynchronizationManager.hasResource(targetDataSource)) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return DataSourceUtils.isConnectionTransactional(DataSourceUtils.getTargetConnection(connection), targetDataSource);
+        }
+    }
+
+    /**
+     * Forgets which data sets have been loaded once per test class or once per JVM, so that they are loaded again before the next test.
+     * Call this if a test has committed changes to the database.
+     */
+    public static void forgetLoadedDataSets() {
+        LOADED_DATA_SETS.clear();
+    }
+
     /**
      * Gives the name of the database schema. Can be {@code null}.
      *
@@ -153,6 +238,7 @@ public abstract class AbstractDbTest {
     /**
      * Gives the data set used by DbUnit when testing. The default implementation reads XML files from the classpath resources pointed to by
      * the {@code dataSetResourceNames} property, validating using the DTD pointed to by the {@code dataSetDtdResourceName} property.
+     * The files are only parsed the first time, see {@link DbTestHelper#readDataSetFromClasspath(String, String...)}.
      * <p>
      * Override this method if you want to provide the DbUnit test data in some other way.
      *
@@ -188,10 +274,37 @@ public abstract class AbstractDbTest {
         return Optional.empty();
     }
 
+    /**
+     * Gives the strategy for when to load the data set.
+     * <p>
+     * The default is {@link DataSetLoading#BEFORE_EACH_TEST}. Override this method to load the data set only once per test class or once
+     * per JVM, relying on each test running in a transaction that is rolled back. If there is no active transaction when a test starts,
+     * the data set is loaded before the test anyway.
+     *
+     * @return the strategy for loading the data set
+     */
+    protected DataSetLoading getDataSetLoading() {
+        return DataSetLoading.BEFORE_EACH_TEST;
+    }
+
+    /**
+     * Decides if the DbUnit connection, including the database metadata, should be cached and reused by other tests, see
+     * {@link DbTestHelper#setConnectionCaching(boolean)}.
+     * <p>
+     * The default is {@code false}. Override this method to return {@code true} if the database schema is not changed by the tests.
+     *
+     * @return {@code true} to cache the DbUnit connection
+     */
+    protected boolean isConnectionCaching() {
+        return false;
+    }
+
     /**
      * Gives the operation to perform before executing each test.
      * <p>
-     * The default is {@link #DEFAULT_SETUP_OPERATION}. Override this method to change this behavior.
+     * The default is {@link #DEFAULT_SETUP_OPERATION}. Override this method to change this behavior, e.g., to return
+     * {@link #DELTA_RESET_SETUP_OPERATION} so that only modified tables are restored, or {@link #JDBC_BATCH_SETUP_OPERATION} to insert
+     * the data set without using DbUnit.
      *
      * @return the setup operation to perform
      */
@@ -222,4 +335,43 @@ public abstract class AbstractDbTest {
         // Do nothing
     }
 
+    /**
+     * Strategies for when to load the data set into the database.
+     */
+    public enum DataSetLoading {
+        /**
+         * Perform the setup operation before each test, and the teardown operation after each test.
+         */
+        BEFORE_EACH_TEST,
+
+        /**
+         * Perform the setup operation before the first test in a test class, and commit the data. Tests must run in transactions that
+         * are rolled back. The teardown operation is not performed.
+         * <p>
+         * DbUnit must use a connection outside of the test transaction, so that the data is committed. If connections from the
+         * {@code DataSource} are bound to the test transaction, e.g., with a {@code TransactionAwareDataSourceProxy}, or if there is no
+         * test transaction, the data set is loaded before each test instead.
+         */
+        ONCE_PER_CLASS,
+
+        /**
+         * Perform the setup operation once per JVM for each data set, and commit the data. Test classes using the same data set and
+         * {@code DataSource} share the data, as long as no other test class loads a different data set in between. Tests must run in
+         * transactions that are rolled back. The teardown operation is not performed.
+         * <p>
+         * As for {@link #ONCE_PER_CLASS}, DbUnit must use a connection outside of the test transaction, otherwise the data set is loaded
+         * before each test instead.
+         */
+        ONCE_PER_JVM
+    }
+
+    /**
+     * Identifies a data set that has been committed to a database.
+     *
+     * @param testClass  the test class that loaded the data set, or {@code null} if the data set is shared by all test classes
+     * @param schemaName the name of the database schema
+     * @param dataSet    the data set, which is compared by identity
+     */
+    private record LoadedDataSet(@Nullable Class<?> testClass, Optional<String> schemaName, IDataSet dataSet) {
+    }
 }
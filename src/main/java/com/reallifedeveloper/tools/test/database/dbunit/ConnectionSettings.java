@@ -0,0 +1,76 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.dbunit.database.DatabaseConfig;
+
+/**
+ * Settings for the DbUnit connection used to insert test data, see {@link DbTestHelper#setConnectionSettings(ConnectionSettings)}.
+ * <p>
+ * Batched statements make DbUnit send many rows to the database in each round trip, which is usually much faster than inserting the
+ * rows one by one. To get the full effect, some JDBC drivers also need to be configured to rewrite batches into multi-row statements,
+ * e.g., {@code reWriteBatchedInserts=true} for PostgreSQL or {@code rewriteBatchedStatements=true} for MySQL, and caching of prepared
+ * statements is also configured in the JDBC driver or connection pool, e.g., {@code cachePrepStmts=true} for MySQL.
+ *
+ * @param batchedStatements {@code true} to use JDBC batches when inserting data, see {@link DatabaseConfig#FEATURE_BATCHED_STATEMENTS}
+ * @param batchSize         the maximum number of statements in a batch, see {@link DatabaseConfig#PROPERTY_BATCH_SIZE}
+ * @param fetchSize         the JDBC fetch size to use when reading data, see {@link DatabaseConfig#PROPERTY_FETCH_SIZE}
+ *
+ * @author RealLifeDeveloper
+ */
+public record ConnectionSettings(boolean batchedStatements, int batchSize, int fetchSize) {
+
+    /**
+     * The settings used by DbUnit if nothing else is configured: no batched statements, and a batch size and fetch size of 100.
+     */
+    public static final ConnectionSettings DBUNIT_DEFAULTS = new ConnectionSettings(false, 100, 100);
+
+    private static final int LARGE_BATCH_SIZE = 1000;
+    private static final int MEDIUM_BATCH_SIZE = 500;
+
+    /**
+     * Creates new {@code ConnectionSettings}.
+     *
+     * @param batchedStatements {@code true} to use JDBC batches when inserting data
+     * @param batchSize         the maximum number of statements in a batch, must be positive
+     * @param fetchSize         the JDBC fetch size to use when reading data, must be positive
+     */
+    public ConnectionSettings {
+        if (batchSize <= 0 || fetchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "batchSize and fetchSize must be positive: batchSize=" + batchSize + ", fetchSize=" + fetchSize);
+        }
+    }
+
+    /**
+     * Gives high-throughput settings for the database described by the given {@code DatabaseMetaData}.
+     * <p>
+     * Batched statements are used if the JDBC driver supports batch updates. Databases that handle large batches well, such as
+     * PostgreSQL, MySQL, MariaDB, HSQLDB and H2, get a batch size and fetch size of 1000, while other databases get 500.
+     *
+     * @param metaData the {@code DatabaseMetaData} of a connection to the database
+     *
+     * @return settings suitable for the database
+     *
+     * @throws SQLException if reading the database metadata failed
+     */
+    public static ConnectionSettings forDatabase(DatabaseMetaData metaData) throws SQLException {
+        String productName = String.valueOf(metaData.getDatabaseProductName()).toLowerCase(Locale.ROOT);
+        int size = productName.contains("postgresql") || productName.contains("mysql") || productName.contains("mariadb")
+                || productName.contains("hsql") || productName.startsWith("h2") ? LARGE_BATCH_SIZE : MEDIUM_BATCH_SIZE;
+        return new ConnectionSettings(metaData.supportsBatchUpdates(), size, size);
+    }
+
+    /**
+     * Applies these settings to the given DbUnit configuration.
+     *
+     * @param config the {@code DatabaseConfig} to modify
+     */
+    public void applyTo(DatabaseConfig config) {
+        config.setProperty(DatabaseConfig.FEATURE_BATCHED_STATEMENTS, batchedStatements);
+        config.setProperty(DatabaseConfig.PROPERTY_BATCH_SIZE, batchSize);
+        config.setProperty(DatabaseConfig.PROPERTY_FETCH_SIZE, fetchSize);
+    }
+}
@@ -0,0 +1,531 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.DatabaseSequenceFilter;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.filter.ITableFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Exports the contents of database tables as a DbUnit flat XML file, or as CSV files, e.g., to create test data from a copy of a
+ * production database.
+ * <p>
+ * The rows are streamed from the database to the files, so tables of any size can be exported without running out of memory. The number
+ * of rows fetched from the database at a time can be changed using {@link #setFetchSize(int)}, several tables can be exported
+ * concurrently using {@link #setParallelism(int)}, and the rows to export from a table can be selected using
+ * {@link #setRowFilter(String, String)}.
+ * <p>
+ * The tables are exported so that referenced tables come before the tables referring to them, if the foreign keys allow it, so that the
+ * files can be used to insert the data again.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class DataSetExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataSetExporter.class);
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private @Nullable String schemaName;
+    private List<Pattern> includedTables = List.of();
+    private List<Pattern> excludedTables = List.of();
+    private final Map<String, String> rowFilters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int parallelism = 1;
+
+    /**
+     * Creates a new {@code DataSetExporter} exporting tables from the given data source.
+     *
+     * @param dataSource the data source to read from
+     */
+    public DataSetExporter(DataSource dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource must not be null");
+        }
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Only export tables from the given schema. The default is to use the default schema of the connection.
+     *
+     * @param schemaName the name of the schema, or {@code null} to use the default schema
+     */
+    public void setSchemaName(@Nullable String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * Only export tables whose names match at least one of the given regular expressions, ignoring case. The default is to export all
+     * tables.
+     *
+     * @param tableNamePatterns regular expressions matching the names of the tables to export
+     */
+    public void setIncludedTables(String... tableNamePatterns) {
+        this.includedTables = compile(tableNamePatterns);
+    }
+
+    /**
+     * Do not export tables whose names match at least one of the given regular expressions, ignoring case. Exclusion takes precedence over
+     * inclusion. The default is to exclude no tables.
+     *
+     * @param tableNamePatterns regular expressions matching the names of the tables not to export
+     */
+    public void setExcludedTables(String... tableNamePatterns) {
+        this.excludedTables = compile(tableNamePatterns);
+    }
+
+    /**
+     * Only export the rows of a table matching an SQL condition, e.g., {@code "CREATED > DATE '2024-01-01'"}. The condition is used as the
+     * {@code WHERE} clause of the query reading the table, so it is evaluated by the database.
+     * <p>
+     * Note that the condition is added to the query as is, so it should never contain untrusted input.
+     *
+     * @param tableName    the name of the table, ignoring case
+     * @param sqlCondition the condition the rows to export must match
+     */
+    public void setRowFilter(String tableName, String sqlCondition) {
+        if (tableName == null || sqlCondition == null) {
+            throw new IllegalArgumentException("Arguments must not be null: tableName=" + tableName + ", sqlCondition=" + sqlCondition);
+        }
+        rowFilters.put(tableName, sqlCondition);
+    }
+
+    /**
+     * Change the number of rows fetched from the database at a time. The default is 1000.
+     *
+     * @param fetchSize the number of rows to fetch at a time, must be positive
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Change the number of tables exported concurrently, each using its own connection. The default is to export one table at a time.
+     * <p>
+     * If a Spring transaction is active in the calling thread, the tables are exported one at a time using the connection of the
+     * transaction, so that uncommitted changes made in the transaction are exported regardless of the parallelism.
+     *
+     * @param parallelism the number of tables to export concurrently, must be positive
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    private static List<Pattern> compile(String... tableNamePatterns) {
+        if (tableNamePatterns == null) {
+            throw new IllegalArgumentException("tableNamePatterns must not be null");
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String tableNamePattern : tableNamePatterns) {
+            patterns.add(Pattern.compile(tableNamePattern, Pattern.CASE_INSENSITIVE));
+        }
+        return List.copyOf(patterns);
+    }
+
+    /**
+     * Exports the tables as a DbUnit flat XML file, with one element per row. Columns with {@code null} values are left out and binary
+     * values are Base64 encoded, like in files written by DbUnit.
+     * <p>
+     * If more than one table is exported concurrently, each table is first written to a temporary file in the same directory as
+     * {@code file}.
+     *
+     * @param file the file to write, parent directories are created if necessary
+     *
+     * @return the names of the exported tables, in the order they were written
+     *
+     * @throws SQLException          if reading from the database failed
+     * @throws DatabaseUnitException if the table names could not be read
+     * @throws IOException           if writing the file failed
+     */
+    public List<String> exportFlatXml(Path file) throws SQLException, DatabaseUnitException, IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            throw new IllegalArgumentException("file must have a parent directory: " + file);
+        }
+        Files.createDirectories(directory);
+        List<String> tableNames = tableNames();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<dataset>\n");
+            if (parallelism == 1 || tableNames.size() <= 1) {
+                for (String tableName : tableNames) {
+                    exportTable(tableName, new FlatXmlTableWriter(writer));
+                }
+            } else {
+                List<Path> fragments = new ArrayList<>();
+                try {
+                    for (int i = 0; i < tableNames.size(); i++) {
+                        fragments.add(Files.createTempFile(directory, file.getFileName() + "-", ".part"));
+                    }
+                    exportConcurrently(tableNames, i -> {
+                        try (Writer fragmentWriter = Files.newBufferedWriter(fragments.get(i), StandardCharsets.UTF_8)) {
+                            exportTable(tableNames.get(i), new FlatXmlTableWriter(fragmentWriter));
+                        }
+                    });
+                    for (Path fragment : fragments) {
+                        try (Reader reader = Files.newBufferedReader(fragment, StandardCharsets.UTF_8)) {
+                            reader.transferTo(writer);
+                        }
+                    }
+                } finally {
+                    for (Path fragment : fragments) {
+                        Files.deleteIfExists(fragment);
+                    }
+                }
+            }
+            writer.write("</dataset>\n");
+        }
+        return tableNames;
+    }
+
+    /**
+     * Exports the tables as CSV files, one file per table named after the table in lower case, e.g., {@code test_entity.csv}. Each file
+     * starts with a header containing the column names, and {@code null} values are written as empty cells.
+     *
+     * @param directory the directory to write the files to, which is created if necessary
+     * @param separator the separator character, normally ',' or ';'
+     *
+     * @return the files written, in the order the tables should be inserted
+     *
+     * @throws SQLException          if reading from the database failed
+     * @throws DatabaseUnitException if the table names could not be read
+     * @throws IOException           if writing a file failed
+     */
+    public List<Path> exportCsv(Path directory, char separator) throws SQLException, DatabaseUnitException, IOException {
+        Files.createDirectories(directory);
+        List<String> tableNames = tableNames();
+        List<Path> files = new ArrayList<>();
+        for (String tableName : tableNames) {
+            files.add(directory.resolve(tableName.toLowerCase(Locale.ROOT) + ".csv"));
+        }
+        exportConcurrently(tableNames, i -> {
+            try (Writer writer = Files.newBufferedWriter(files.get(i), StandardCharsets.UTF_8)) {
+                exportTable(tableNames.get(i), new CsvTableWriter(writer, separator));
+            }
+        });
+        return files;
+    }
+
+    private List<String> tableNames() throws SQLException, DatabaseUnitException {
+        Connection connection = DataSourceUtils.doGetConnection(dataSource);
+        try {
+            IDatabaseConnection databaseConnection = schemaName == null ? new DatabaseConnection(connection)
+                    : new DatabaseConnection(connection, schemaName);
+            List<String> tableNames = new ArrayList<>();
+            for (String tableName : databaseConnection.createDataSet().getTableNames()) {
+                if (isIncluded(tableName)) {
+                    tableNames.add(tableName);
+                }
+            }
+            try {
+                ITableFilter sequenceFilter = new DatabaseSequenceFilter(databaseConnection, tableNames.toArray(new String[0]));
+                return new ArrayList<>(Arrays.asList(sequenceFilter.getTableNames(databaseConnection.createDataSet())));
+            } catch (DatabaseUnitException e) {
+                LOG.warn("Could not order tables by foreign keys, exporting them in metadata order: {}", e.getMessage());
+                return tableNames;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private boolean isIncluded(String tableName) {
+        boolean included = includedTables.isEmpty() || includedTables.stream().anyMatch(p -> p.matcher(tableName).matches());
+        return included && excludedTables.stream().noneMatch(p -> p.matcher(tableName).matches());
+    }
+
+    private void exportConcurrently(List<String> tableNames, TableExport tableExport) throws SQLException, IOException {
+        int threads = Math.min(parallelism, tableNames.size());
+        if (threads > 1 && TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Worker threads would not see the uncommitted changes of the transaction.
+            LOG.debug("Transaction active, exporting tables sequentially instead of using {} threads", threads);
+            threads = 1;
+        }
+        if (threads <= 1) {
+            for (int i = 0; i < tableNames.size(); i++) {
+                tableExport.export(i);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tableNames.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    tableExport.export(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                result(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void result(Future<?> future) throws SQLException, IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting tables", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            } else if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Unexpected problem exporting tables", cause);
+        }
+    }
+
+    /**
+     * Streams the rows of a table to a {@code TableWriter}. Auto-commit is turned off while reading, since some drivers, e.g., the
+     * PostgreSQL driver, otherwise ignore the fetch size and read the whole result into memory. If the connection belongs to a Spring
+     * transaction, it is used as is, and the transaction is neither committed nor rolled back.
+     */
+    private void exportTable(String tableName, TableWriter tableWriter) throws SQLException, IOException {
+        long startTime = System.nanoTime();
+        Connection connection = DataSourceUtils.doGetConnection(dataSource);
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet rs = statement.executeQuery(selectStatement(connection.getMetaData(), tableName))) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    String[] columnNames = new String[metaData.getColumnCount()];
+                    boolean[] binary = new boolean[columnNames.length];
+                    for (int i = 0; i < columnNames.length; i++) {
+                        columnNames[i] = metaData.getColumnLabel(i + 1);
+                        binary[i] = isBinary(metaData.getColumnType(i + 1));
+                    }
+                    tableWriter.startTable(tableName, columnNames);
+                    @Nullable String[] values = new String[columnNames.length];
+                    long rowCount = 0;
+                    while (rs.next()) {
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = binary[i] ? base64(rs.getBytes(i + 1)) : rs.getString(i + 1);
+                        }
+                        tableWriter.row(values);
+                        rowCount++;
+                    }
+                    tableWriter.endTable();
+                    LOG.debug("Exported {} rows from {} in {} ms", rowCount, tableName, (System.nanoTime() - startTime) / 1_000_000);
+                }
+            } finally {
+                if (autoCommit) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private String selectStatement(DatabaseMetaData metaData, String tableName) throws SQLException {
+        String quote = metaData.getIdentifierQuoteString().trim();
+        String qualifiedTableName = quote + tableName + quote;
+        if (schemaName != null) {
+            qualifiedTableName = quote + schemaName + quote + "." + qualifiedTableName;
+        }
+        String rowFilter = rowFilters.get(tableName);
+        return rowFilter == null ? "SELECT * FROM " + qualifiedTableName : "SELECT * FROM " + qualifiedTableName + " WHERE " + rowFilter;
+    }
+
+    private static boolean isBinary(int sqlType) {
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY || sqlType == Types.BLOB;
+    }
+
+    private static @Nullable String base64(byte @Nullable [] bytes) {
+        return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "DataSetExporter{schemaName=" + schemaName + ", includedTables=" + includedTables + ", excludedTables=" + excludedTables
+                + ", rowFilters=" + rowFilters + ", fetchSize=" + fetchSize + ", parallelism=" + parallelism + "}";
+    }
+
+    /**
+     * Exports the table with the given index.
+     */
+    @FunctionalInterface
+    private interface TableExport {
+        void export(int index) throws SQLException, IOException;
+    }
+
+    /**
+     * Writes the rows of a table in some format.
+     */
+    private interface TableWriter {
+        void startTable(String tableName, String[] columnNames) throws IOException;
+
+        void row(@Nullable String[] values) throws IOException;
+
+        void endTable() throws IOException;
+    }
+
+    /**
+     * Writes one empty XML element per row, named after the table and with one attribute per non-null column.
+     */
+    private static final class FlatXmlTableWriter implements TableWriter {
+
+        private final Writer writer;
+        private @Nullable XMLStreamWriter xml;
+        private String tableName = "";
+        private String[] columnNames = new String[0];
+
+        FlatXmlTableWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startTable(String tableName, String[] columnNames) throws IOException {
+            this.tableName = tableName;
+            this.columnNames = columnNames.clone();
+            try {
+                xml = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to create XML writer for table " + tableName, e);
+            }
+        }
+
+        @Override
+        public void row(@Nullable String[] values) throws IOException {
+            XMLStreamWriter xmlWriter = xmlWriter();
+            try {
+                xmlWriter.writeCharacters("    ");
+                xmlWriter.writeEmptyElement(tableName);
+                for (int i = 0; i < values.length; i++) {
+                    String value = values[i];
+                    if (value != null) {
+                        xmlWriter.writeAttribute(columnNames[i], value);
+                    }
+                }
+                xmlWriter.writeCharacters("\n");
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to write row of table " + tableName, e);
+            }
+        }
+
+        @Override
+        public void endTable() throws IOException {
+            try {
+                XMLStreamWriter xmlWriter = xmlWriter();
+                xmlWriter.flush();
+                xmlWriter.close();
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to write table " + tableName, e);
+            }
+            writer.flush();
+        }
+
+        private XMLStreamWriter xmlWriter() {
+            XMLStreamWriter xmlWriter = xml;
+            if (xmlWriter == null) {
+                throw new IllegalStateException("startTable has not been called");
+            }
+            return xmlWriter;
+        }
+    }
+
+    /**
+     * Writes a header with the column names followed by one line per row, quoting values containing the separator, quotes or line
+     * breaks.
+     */
+    private static final class CsvTableWriter implements TableWriter {
+
+        private final Writer writer;
+        private final char separator;
+
+        CsvTableWriter(Writer writer, char separator) {
+            this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+            this.separator = separator;
+        }
+
+        @Override
+        public void startTable(String tableName, String[] columnNames) throws IOException {
+            row(columnNames);
+        }
+
+        @Override
+        public void row(@Nullable String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(separator);
+                }
+                String value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value.indexOf(separator) >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void endTable() throws IOException {
+            writer.flush();
+        }
+    }
+}
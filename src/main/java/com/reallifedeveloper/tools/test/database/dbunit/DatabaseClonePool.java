@@ -0,0 +1,246 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * A pool of clones of a template database, which lets tests running in parallel each use their own database, without having to create
+ * the schema and insert the test data for each database.
+ * <p>
+ * Each thread gets its own clone the first time it asks for one, and keeps using it until the pool is closed. A number of clones are
+ * created in the background in advance, so that a thread normally does not have to wait for a clone to be created.
+ * <p>
+ * An example of how to use the pool with {@link AbstractDbTest}, where each test class running in parallel uses the clone belonging to
+ * the thread it runs in:
+ *
+ * <pre>
+ * private static final DatabaseClonePool POOL = new DatabaseClonePool(InitializingDatabaseCloner.forHsqldb(ds -&gt; {
+ *     new ResourceDatabasePopulator(new ClassPathResource("/schema.sql")).execute(ds);
+ *     IDataSet dataSet = DbTestHelper.readDataSetFromClasspath(null, "/dbunit/dataset1.xml");
+ *     new DbTestHelper(ds, dataSet, Optional.empty(), Optional.empty()).init();
+ * }), "testdb", 4);
+ *
+ * &#64;Override
+ * protected DataSource getDataSource() {
+ *     return POOL.dataSourceForCurrentThread();
+ * }
+ * </pre>
+ * <p>
+ * The pool can also be used as a Spring bean, with {@link #routingDataSource()} as the {@code DataSource} bean, so that the JPA
+ * {@code EntityManagerFactory} and the test use the same clone.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class DatabaseClonePool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseClonePool.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final DatabaseCloner cloner;
+    private final String namePrefix;
+    private final int prewarmedClones;
+    private final BlockingQueue<Clone> availableClones = new LinkedBlockingQueue<>();
+    private final Map<Thread, Clone> clonesInUse = new ConcurrentHashMap<>();
+    private final List<Clone> allClones = new ArrayList<>();
+    private final AtomicInteger cloneCounter = new AtomicInteger();
+    private final ExecutorService executor;
+    private final DataSource routingDataSource = new RoutingDataSource();
+    private int pendingClones;
+    private boolean templatePrepared;
+    private boolean closed;
+
+    /**
+     * Creates a new {@code DatabaseClonePool}. The template database is prepared when the first clone is requested.
+     *
+     * @param cloner          the {@code DatabaseCloner} used to prepare the template and create clones
+     * @param namePrefix      the prefix of the names of the clones, consisting only of letters, digits and underscores
+     * @param prewarmedClones the number of clones to create in advance, may be zero
+     */
+    public DatabaseClonePool(DatabaseCloner cloner, String namePrefix, int prewarmedClones) {
+        if (cloner == null || namePrefix == null) {
+            throw new IllegalArgumentException("Arguments must not be null: cloner=" + cloner + ", namePrefix=" + namePrefix);
+        }
+        if (!namePrefix.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid namePrefix: " + namePrefix);
+        }
+        if (prewarmedClones < 0) {
+            throw new IllegalArgumentException("prewarmedClones must not be negative: " + prewarmedClones);
+        }
+        this.cloner = cloner;
+        this.namePrefix = namePrefix;
+        this.prewarmedClones = prewarmedClones;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-clone-pool-" + namePrefix);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gives the {@code DataSource} for the clone used by the current thread, taking a clone from the pool if the thread does not have
+     * one yet.
+     *
+     * @return the {@code DataSource} for the clone used by the current thread
+     *
+     * @throws IllegalStateException if the pool has been closed, or if preparing the template or creating a clone failed
+     */
+    public DataSource dataSourceForCurrentThread() {
+        Thread thread = Thread.currentThread();
+        Clone clone = clonesInUse.get(thread);
+        if (clone == null) {
+            clone = takeClone();
+            clonesInUse.put(thread, clone);
+        }
+        return clone.dataSource();
+    }
+
+    /**
+     * Gives a {@code DataSource} that delegates to the clone used by the thread asking for a connection, see
+     * {@link #dataSourceForCurrentThread()}.
+     *
+     * @return a {@code DataSource} delegating to the clone used by the current thread
+     */
+    public DataSource routingDataSource() {
+        return routingDataSource;
+    }
+
+    private Clone takeClone() {
+        prepareTemplateIfNeeded();
+        Clone clone = availableClones.poll();
+        if (clone == null) {
+            LOG.debug("No prewarmed clone available, creating one");
+            clone = createClone();
+        }
+        replenish();
+        return clone;
+    }
+
+    private synchronized void prepareTemplateIfNeeded() {
+        if (closed) {
+            throw new IllegalStateException("The pool has been closed");
+        }
+        if (!templatePrepared) {
+            try {
+                cloner.prepareTemplate();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to prepare template database", e);
+            }
+            templatePrepared = true;
+            replenish();
+        }
+    }
+
+    private synchronized void replenish() {
+        if (closed) {
+            return;
+        }
+        int missing = prewarmedClones - availableClones.size() - pendingClones;
+        for (int i = 0; i < missing; i++) {
+            pendingClones++;
+            executor.execute(() -> {
+                try {
+                    availableClones.add(createClone());
+                } catch (IllegalStateException e) {
+                    LOG.warn("Failed to create prewarmed clone: {}", e.toString());
+                } finally {
+                    synchronized (this) {
+                        pendingClones--;
+                    }
+                }
+            });
+        }
+    }
+
+    private Clone createClone() {
+        String name = namePrefix + "_" + cloneCounter.incrementAndGet();
+        try {
+            Clone clone = new Clone(name, cloner.createClone(name));
+            synchronized (this) {
+                allClones.add(clone);
+            }
+            LOG.debug("Created clone {}", name);
+            return clone;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create clone " + name, e);
+        }
+    }
+
+    /**
+     * Stops creating clones in the background and drops all clones created by this pool.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Timed out waiting for clones to be created");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Clone> clonesToDrop;
+        synchronized (this) {
+            clonesToDrop = new ArrayList<>(allClones);
+            allClones.clear();
+        }
+        availableClones.clear();
+        clonesInUse.clear();
+        for (Clone clone : clonesToDrop) {
+            try {
+                cloner.dropClone(clone.name(), clone.dataSource());
+            } catch (SQLException e) {
+                LOG.warn("Failed to drop clone {}: {}", clone.name(), e.toString());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseClonePool{cloner=" + cloner + ", namePrefix=" + namePrefix + ", prewarmedClones=" + prewarmedClones + "}";
+    }
+
+    /**
+     * A clone of the template database.
+     *
+     * @param name       the name of the clone
+     * @param dataSource the {@code DataSource} for the clone
+     */
+    private record Clone(String name, DataSource dataSource) {
+    }
+
+    /**
+     * A {@code DataSource} that gives connections to the clone used by the current thread.
+     */
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return dataSourceForCurrentThread().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return dataSourceForCurrentThread().getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates copies of a template database, for use by a {@link DatabaseClonePool}.
+ *
+ * @author RealLifeDeveloper
+ */
+public interface DatabaseCloner {
+
+    /**
+     * Prepares the template database, e.g., by creating the schema and loading test data. Called once, before the first clone is created.
+     *
+     * @throws SQLException if preparing the template failed
+     */
+    void prepareTemplate() throws SQLException;
+
+    /**
+     * Creates a new clone of the template database.
+     *
+     * @param cloneName the name of the clone, consisting only of letters, digits and underscores
+     *
+     * @return a {@code DataSource} giving connections to the new clone
+     *
+     * @throws SQLException if creating the clone failed
+     */
+    DataSource createClone(String cloneName) throws SQLException;
+
+    /**
+     * Removes a clone created by {@link #createClone(String)}.
+     *
+     * @param cloneName the name of the clone
+     * @param clone     the {@code DataSource} for the clone
+     *
+     * @throws SQLException if removing the clone failed
+     */
+    void dropClone(String cloneName, DataSource clone) throws SQLException;
+
+    /**
+     * Initializes a database, e.g., by creating the schema and inserting test data using a {@link DbTestHelper}.
+     */
+    @FunctionalInterface
+    interface DatabaseInitializer {
+        /**
+         * Initializes the database.
+         *
+         * @param dataSource a {@code DataSource} giving connections to the database
+         *
+         * @throws Exception if initializing the database failed
+         */
+        @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+        void initialize(DataSource dataSource) throws Exception;
+    }
+}
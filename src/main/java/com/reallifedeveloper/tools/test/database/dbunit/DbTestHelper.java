@@ -1,24 +1,54 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dbunit.DataSourceDatabaseTester;
 import org.dbunit.IDatabaseTester;
+import org.dbunit.IOperationListener;
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
 import org.dbunit.dataset.CompositeDataSet;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.dataset.ITableMetaData;
+import org.dbunit.dataset.datatype.DataType;
 import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.dataset.xml.FlatDtdDataSet;
 import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
 import org.dbunit.operation.DatabaseOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.reallifedeveloper.tools.test.database.FixtureCache;
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
 
 /**
  * A helper class used by {@link AbstractDbTest}. It could be used directly by a test class that for some reason cannot inherit from
@@ -29,13 +59,58 @@ import org.dbunit.operation.DatabaseOperation;
  */
 public final class DbTestHelper {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DbTestHelper.class);
+
+    private static final Map<DataSetKey, IDataSet> DATA_SETS = new ConcurrentHashMap<>();
+
+    private static final int CONNECTION_VALIDATION_TIMEOUT_SECONDS = 5;
+
+    /**
+     * The maximum number of idle DbUnit connections that are cached. When a connection is returned to a full cache, the connection that
+     * has been idle the longest is closed.
+     */
+    public static final int MAX_IDLE_CONNECTIONS = 8;
+
+    /**
+     * Idle DbUnit connections, with their cached database metadata, that can be reused by tests using the same {@code DataSource},
+     * schema and {@code IDataTypeFactory}. The most recently used connection is first. All access must be synchronized on the deque.
+     */
+    private static final Deque<IdleConnection> IDLE_CONNECTIONS = new ArrayDeque<>();
+
+    /**
+     * Incremented each time the idle connections are closed, so that connections in use at that time are closed instead of being
+     * returned to the cache. Guarded by {@code IDLE_CONNECTIONS}.
+     */
+    private static long connectionCacheGeneration;
+
+    /**
+     * Whether a shutdown hook that closes the idle connections has been registered. Guarded by {@code IDLE_CONNECTIONS}.
+     */
+    private static boolean shutdownHookRegistered;
+
     private final IDatabaseTester databaseTester;
 
+    private final ConnectionKey connectionKey;
+
+    private @Nullable ConnectionSettings connectionSettings;
+
+    private boolean connectionCaching;
+
+    private long leasedConnectionGeneration;
+
     /**
      * Creates a new {@code DbTestHelper}, with test data provided by the given {@code dataSet} and using the given
      * {@code dataSource} to insert it. The database schema name may be provided (can be {@code null}), and the type of database
      * can be defined using {@code dataTypeFactory} (can also be {@code null}).
      *
+     * <p>
+     * Test data is inserted using batched statements with settings suitable for the database, see
+     * {@link ConnectionSettings#forDatabase(java.sql.DatabaseMetaData)}. Use {@link #setConnectionSettings(ConnectionSettings)} to
+     * change this.
+     * <p>
+     * By default, a new DbUnit connection is used for each operation and closed afterwards. Use {@link #setConnectionCaching(boolean)}
+     * to reuse the connection, including the database metadata that DbUnit reads from the JDBC driver.
+     *
      * @param dataSource      the {@code DataSource} to use when inserting test data
      * @param dataSet         the DbUnit test data set to read
      * @param schemaName      optional name of the database schema
@@ -46,18 +121,41 @@ public final class DbTestHelper {
             throw new IllegalArgumentException("Arguments must not be null: dataSource=" + dataSource + ", dataSet=" + dataSet
                     + ", schemaName=" + schemaName + ", dataTypeFactory=" + dataTypeFactory);
         }
+        connectionKey = new ConnectionKey(dataSource, schemaName.orElse(null), dataTypeFactory.orElse(null));
         databaseTester = new DataSourceDatabaseTester(dataSource, schemaName.orElse(null)) {
             // We override this method to configure the dataTypeFactory for the connection, to avoid warnings from DbUnit.
             @Override
             public IDatabaseConnection getConnection() throws Exception {
-                IDatabaseConnection conn = super.getConnection();
+                IDatabaseConnection conn = connectionCaching ? leaseConnection(super::getConnection) : super.getConnection();
                 dataTypeFactory.ifPresent(dtf -> {
                     conn.getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, dtf);
                     conn.getConfig().setProperty(DatabaseConfig.FEATURE_ALLOW_EMPTY_FIELDS, true);
                 });
+                ConnectionSettings settings = connectionSettings;
+                if (settings == null) {
+                    settings = ConnectionSettings.forDatabase(conn.getConnection().getMetaData());
+                }
+                settings.applyTo(conn.getConfig());
                 return conn;
             }
         };
+        // The default operation listener closes the connection after each operation, we return it to the cache instead.
+        databaseTester.setOperationListener(new IOperationListener() {
+            @Override
+            public void connectionRetrieved(IDatabaseConnection connection) {
+                // Nothing to do, the connection is configured in getConnection.
+            }
+
+            @Override
+            public void operationSetUpFinished(IDatabaseConnection connection) {
+                releaseOrClose(connection);
+            }
+
+            @Override
+            public void operationTearDownFinished(IDatabaseConnection connection) {
+                releaseOrClose(connection);
+            }
+        });
         databaseTester.setDataSet(dataSet);
     }
 
@@ -66,6 +164,16 @@ public final class DbTestHelper {
      * the DTD pointed to by {@code dataSetDtdResourceName} property.
      * <p>
      * The {@code dataSetDtdResourceName} parameter may be {@code null}, in which case no validation is performed.
+     * <p>
+     * If there are several resources, they are parsed concurrently, and the resulting data set contains the tables in the order of
+     * {@code dataSetResourceNames}.
+     * <p>
+     * The data set is remembered, so that later calls with the same DTD and resource names, e.g., from other test classes in the same
+     * JVM, return the same data set without reading the resources again. The data set must therefore not be modified. Use
+     * {@link #clearDataSetCache()} to forget all data sets.
+     * <p>
+     * If a {@link FixtureCache} has been enabled using system properties, the parsed data set is stored in the cache, and later calls
+     * with resources that have the same contents read the data set from the cache instead of parsing the XML files.
      *
      * @param dataSetDtdResourceName the name of the resource containing the DTD for test data files, or {@code null}
      * @param dataSetResourceNames   the names of the resources containing test data
@@ -79,39 +187,303 @@ public final class DbTestHelper {
             throws DataSetException, IOException {
         if (dataSetResourceNames == null || dataSetResourceNames.length == 0) {
             throw new IllegalArgumentException("You must provide at least one dataSetResourceName");
-        } else {
-            FlatXmlDataSetBuilder builder = new FlatXmlDataSetBuilder();
-            builder.setColumnSensing(true);
-            addPotentialDtd(builder, Optional.ofNullable(dataSetDtdResourceName));
-            List<IDataSet> dataSets = readDataSets(builder, dataSetResourceNames);
-            return new CompositeDataSet(dataSets.toArray(new IDataSet[0]));
         }
+        DataSetKey key = new DataSetKey(dataSetDtdResourceName, Arrays.asList(dataSetResourceNames.clone()));
+        IDataSet dataSet = DATA_SETS.get(key);
+        if (dataSet == null) {
+            FixtureLoadMonitor monitor = FixtureLoadMonitor.start(key.description(), DbTestHelper.class);
+            Throwable failure = null;
+            try {
+                long startTime = monitor.now();
+                dataSet = readDataSet(dataSetDtdResourceName, dataSetResourceNames);
+                monitor.parsed(startTime);
+            } catch (Exception | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                monitor.finish(failure);
+            }
+            IDataSet existingDataSet = DATA_SETS.putIfAbsent(key, dataSet);
+            if (existingDataSet != null) {
+                dataSet = existingDataSet;
+            }
+        }
+        return dataSet;
     }
 
-    private static void addPotentialDtd(FlatXmlDataSetBuilder builder, Optional<String> dataSetDtdResourceName)
+    /**
+     * Forgets all data sets remembered by {@link #readDataSetFromClasspath(String, String...)}, so that the resources are read again.
+     */
+    public static void clearDataSetCache() {
+        DATA_SETS.clear();
+    }
+
+    private static IDataSet readDataSet(@Nullable String dataSetDtdResourceName, String... dataSetResourceNames)
             throws DataSetException, IOException {
-        if (dataSetDtdResourceName.isPresent()) {
-            try (InputStream is = DbTestHelper.class.getResourceAsStream(dataSetDtdResourceName.get())) {
-                if (is == null) {
-                    throw new IllegalArgumentException("DTD not found on classpath: " + dataSetDtdResourceName.get());
-                }
-                builder.setMetaDataSetFromDtd(is);
+        Optional<FixtureCache> fixtureCache = FixtureCache.fromSystemProperties();
+        if (fixtureCache.isPresent()) {
+            return readDataSetUsingCache(fixtureCache.get(), dataSetDtdResourceName, dataSetResourceNames);
+        }
+        IDataSet metaDataSet = null;
+        if (dataSetDtdResourceName != null) {
+            try (InputStream is = openResource(dataSetDtdResourceName, "DTD not found on classpath: ")) {
+                metaDataSet = readDtd(is);
             }
         }
+        List<DataSetSource> sources = new ArrayList<>();
+        for (String dataSetResourceName : dataSetResourceNames) {
+            sources.add(() -> openResource(dataSetResourceName, "Dataset not found on classpath: "));
+        }
+        return new CompositeDataSet(parseDataSets(metaDataSet, sources));
     }
 
-    private static List<IDataSet> readDataSets(FlatXmlDataSetBuilder builder, String... dataSetResourceNames)
-            throws DataSetException, IOException {
-        List<IDataSet> dataSets = new ArrayList<>();
+    private static IDataSet readDataSetUsingCache(FixtureCache fixtureCache, @Nullable String dataSetDtdResourceName,
+            String... dataSetResourceNames) throws DataSetException, IOException {
+        byte[] dtd = dataSetDtdResourceName == null ? null : readResource(dataSetDtdResourceName, "DTD not found on classpath: ");
+        List<byte[]> contents = new ArrayList<>();
+        if (dtd != null) {
+            contents.add(dtd);
+        }
+        List<DataSetSource> sources = new ArrayList<>();
         for (String dataSetResourceName : dataSetResourceNames) {
-            try (InputStream is = DbTestHelper.class.getResourceAsStream(dataSetResourceName)) {
-                if (is == null) {
-                    throw new IllegalArgumentException("Dataset not found on classpath: " + dataSetResourceName);
+            byte[] content = readResource(dataSetResourceName, "Dataset not found on classpath: ");
+            contents.add(content);
+            sources.add(() -> new ByteArrayInputStream(content));
+        }
+        String key = FixtureCache.key("dbunit-flat-xml-dataset;dtd=" + (dtd != null), contents.toArray(new byte[0][]));
+        Optional<List<FixtureCache.Table>> cachedTables = fixtureCache.get(key);
+        if (cachedTables.isPresent()) {
+            return toDataSet(cachedTables.get());
+        }
+        IDataSet metaDataSet = dtd == null ? null : readDtd(new ByteArrayInputStream(dtd));
+        IDataSet dataSet = new CompositeDataSet(parseDataSets(metaDataSet, sources));
+        Optional<List<FixtureCache.Table>> tables = toTables(dataSet);
+        if (tables.isPresent()) {
+            fixtureCache.put(key, tables.get());
+        }
+        return dataSet;
+    }
+
+    private static IDataSet readDtd(InputStream is) throws DataSetException, IOException {
+        return new FlatDtdDataSet(new InputStreamReader(is, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the given sources using one {@code FlatXmlDataSetBuilder} per source. If there is more than one source, they are parsed
+     * concurrently using a thread pool of daemon threads that is shut down when all sources have been parsed, so that slow parsing does not
+     * occupy the threads of the common fork/join pool, which may be used by the tests themselves.
+     */
+    private static IDataSet[] parseDataSets(@Nullable IDataSet metaDataSet, List<DataSetSource> sources)
+            throws DataSetException, IOException {
+        IDataSet[] dataSets = new IDataSet[sources.size()];
+        if (sources.size() == 1) {
+            dataSets[0] = parseDataSet(metaDataSet, sources.get(0));
+            return dataSets;
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "data-set-parser-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<IDataSet>> futures = new ArrayList<>();
+            for (DataSetSource source : sources) {
+                futures.add(executor.submit(() -> parseDataSet(metaDataSet, source)));
+            }
+            for (int i = 0; i < dataSets.length; i++) {
+                dataSets[i] = result(futures.get(i));
+            }
+            return dataSets;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static IDataSet parseDataSet(@Nullable IDataSet metaDataSet, DataSetSource source) throws DataSetException, IOException {
+        FlatXmlDataSetBuilder builder = new FlatXmlDataSetBuilder();
+        builder.setColumnSensing(true);
+        if (metaDataSet != null) {
+            builder.setMetaDataSet(metaDataSet);
+        }
+        try (InputStream is = source.open()) {
+            return builder.build(is);
+        }
+    }
+
+    private static IDataSet result(Future<IDataSet> future) throws DataSetException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading data set", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataSetException dataSetException) {
+                throw dataSetException;
+            } else if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Unexpected problem reading data set", cause);
+        }
+    }
+
+    private static InputStream openResource(String resourceName, String notFoundMessage) {
+        InputStream is = DbTestHelper.class.getResourceAsStream(resourceName);
+        if (is == null) {
+            throw new IllegalArgumentException(notFoundMessage + resourceName);
+        }
+        return is;
+    }
+
+    private static byte[] readResource(String resourceName, String notFoundMessage) throws IOException {
+        try (InputStream is = openResource(resourceName, notFoundMessage)) {
+            return is.readAllBytes();
+        }
+    }
+
+    /**
+     * Converts a data set to tables that can be cached. Data sets read from flat XML files only contain strings and {@code null}
+     * values, but if some other kind of value is found, the data set is not cached.
+     */
+    private static Optional<List<FixtureCache.Table>> toTables(IDataSet dataSet) throws DataSetException {
+        List<FixtureCache.Table> tables = new ArrayList<>();
+        ITableIterator it = dataSet.iterator();
+        while (it.next()) {
+            ITable table = it.getTable();
+            Column[] columns = table.getTableMetaData().getColumns();
+            List<String> columnNames = new ArrayList<>();
+            for (Column column : columns) {
+                columnNames.add(column.getColumnName());
+            }
+            FixtureCache.Table cachedTable = new FixtureCache.Table(table.getTableMetaData().getTableName(), columnNames);
+            for (int row = 0; row < table.getRowCount(); row++) {
+                String[] values = new String[columns.length];
+                for (int column = 0; column < columns.length; column++) {
+                    Object value = table.getValue(row, columns[column].getColumnName());
+                    if (value != null && !(value instanceof String)) {
+                        return Optional.empty();
+                    }
+                    values[column] = (String) value;
+                }
+                cachedTable.addRow(values);
+            }
+            tables.add(cachedTable);
+        }
+        return Optional.of(tables);
+    }
+
+    private static IDataSet toDataSet(List<FixtureCache.Table> tables) throws DataSetException {
+        DefaultDataSet dataSet = new DefaultDataSet();
+        for (FixtureCache.Table cachedTable : tables) {
+            List<String> columnNames = cachedTable.getColumnNames();
+            Column[] columns = new Column[columnNames.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new Column(columnNames.get(i), DataType.UNKNOWN);
+            }
+            DefaultTable table = new DefaultTable(new DefaultTableMetaData(cachedTable.getName(), columns));
+            for (int row = 0; row < cachedTable.getRowCount(); row++) {
+                Object[] values = new Object[columns.length];
+                for (int column = 0; column < columns.length; column++) {
+                    values[column] = cachedTable.getValue(row, column);
+                }
+                table.addRow(values);
+            }
+            dataSet.addTable(table);
+        }
+        return dataSet;
+    }
+
+    /**
+     * Gives an idle cached connection for the {@code DataSource}, schema and {@code IDataTypeFactory} of this object, or creates a new
+     * connection if there is no valid cached connection.
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private IDatabaseConnection leaseConnection(ConnectionFactory connectionFactory) throws Exception {
+        while (true) {
+            IDatabaseConnection connection = null;
+            synchronized (IDLE_CONNECTIONS) {
+                leasedConnectionGeneration = connectionCacheGeneration;
+                Iterator<IdleConnection> it = IDLE_CONNECTIONS.iterator();
+                while (it.hasNext()) {
+                    IdleConnection idleConnection = it.next();
+                    if (idleConnection.key().equals(connectionKey)) {
+                        it.remove();
+                        connection = idleConnection.connection();
+                        break;
+                    }
+                }
+            }
+            if (connection == null) {
+                return connectionFactory.create();
+            }
+            if (connection.getConnection().isValid(CONNECTION_VALIDATION_TIMEOUT_SECONDS)) {
+                return connection;
+            }
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Returns a connection to the cache, or closes it if connection caching is turned off or if the idle connections have been closed
+     * since the connection was leased. If the cache is full, the connection that has been idle the longest is closed.
+     */
+    private void releaseOrClose(IDatabaseConnection connection) {
+        IDatabaseConnection connectionToClose = connection;
+        if (connectionCaching) {
+            synchronized (IDLE_CONNECTIONS) {
+                if (leasedConnectionGeneration == connectionCacheGeneration) {
+                    registerShutdownHook();
+                    IDLE_CONNECTIONS.addFirst(new IdleConnection(connectionKey, connection));
+                    connectionToClose = IDLE_CONNECTIONS.size() > MAX_IDLE_CONNECTIONS ? IDLE_CONNECTIONS.removeLast().connection() : null;
                 }
-                dataSets.add(builder.build(is));
             }
         }
-        return dataSets;
+        if (connectionToClose != null) {
+            closeQuietly(connectionToClose);
+        }
+    }
+
+    /**
+     * Registers a shutdown hook that closes the idle connections when the JVM exits. Must be called while synchronized on
+     * {@code IDLE_CONNECTIONS}.
+     */
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DbTestHelper::closeIdleConnections, "DbTestHelper-close-idle-connections"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * Closes all cached DbUnit connections, so that new connections are created and the database metadata is read again. Connections
+     * that are in use when this method is called are closed when they are no longer used.
+     * <p>
+     * This should be called if the database schema is changed, e.g., by a test that creates or alters tables, since the metadata
+     * cached with the connections is then out of date. It should also be called before dropping a database or using it as a template,
+     * since the idle connections keep the database open. The idle connections are closed automatically when the JVM exits.
+     */
+    public static void closeIdleConnections() {
+        List<IDatabaseConnection> connections = new ArrayList<>();
+        synchronized (IDLE_CONNECTIONS) {
+            connectionCacheGeneration++;
+            IDLE_CONNECTIONS.forEach(idleConnection -> connections.add(idleConnection.connection()));
+            IDLE_CONNECTIONS.clear();
+        }
+        connections.forEach(DbTestHelper::closeQuietly);
+    }
+
+    private static void closeQuietly(IDatabaseConnection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.warn("Failed to close connection: {}", e.toString());
+        }
     }
 
     /**
@@ -121,7 +493,38 @@ public final class DbTestHelper {
      */
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     public void init() throws Exception {
-        databaseTester.onSetup();
+        IDataSet dataSet = databaseTester.getDataSet();
+        FixtureLoadMonitor monitor = FixtureLoadMonitor.start(dataSetDescription(dataSet), DbTestHelper.class);
+        if (!monitor.isEnabled()) {
+            databaseTester.onSetup();
+            return;
+        }
+        databaseTester.setDataSet(new MonitoredDataSet(dataSet, monitor));
+        Throwable failure = null;
+        try {
+            long startTime = monitor.now();
+            databaseTester.onSetup();
+            monitor.saved(startTime);
+        } catch (Exception | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            databaseTester.setDataSet(dataSet);
+            monitor.finish(failure);
+        }
+    }
+
+    /**
+     * Gives the names of the resources the data set was read from, if it was read using
+     * {@link #readDataSetFromClasspath(String, String...)}.
+     */
+    private static String dataSetDescription(IDataSet dataSet) {
+        for (Map.Entry<DataSetKey, IDataSet> entry : DATA_SETS.entrySet()) {
+            if (entry.getValue() == dataSet) {
+                return entry.getKey().description();
+            }
+        }
+        return dataSet.getClass().getSimpleName();
     }
 
     /**
@@ -145,6 +548,40 @@ public final class DbTestHelper {
         databaseTester.setSetUpOperation(setUpOperation);
     }
 
+    /**
+     * Change the settings of the DbUnit connection used to insert test data.
+     * <p>
+     * The default is to use settings suitable for the database, see {@link ConnectionSettings#forDatabase(java.sql.DatabaseMetaData)}.
+     * Use {@link ConnectionSettings#DBUNIT_DEFAULTS} to get the DbUnit defaults, without batched statements.
+     *
+     * @param connectionSettings the new connection settings to use
+     */
+    public void setConnectionSettings(ConnectionSettings connectionSettings) {
+        if (connectionSettings == null) {
+            throw new IllegalArgumentException("connectionSettings must not be null");
+        }
+        this.connectionSettings = connectionSettings;
+    }
+
+    /**
+     * Change whether the DbUnit connection should be cached and reused by other {@code DbTestHelper} objects using the same
+     * {@code DataSource}, schema and {@code IDataTypeFactory}.
+     * <p>
+     * The default is to not cache connections. With caching, the database metadata is only read once, instead of once per test. A cached
+     * connection is only used by one test at a time, and at most {@link #MAX_IDLE_CONNECTIONS} idle connections are kept open, so a
+     * connection pool used by tests running in parallel must allow as many open connections as there are parallel tests.
+     * <p>
+     * Note that the cached metadata is not updated if the database schema changes, so call {@link #closeIdleConnections()} after
+     * executing DDL statements. Idle connections also keep the database open, so do not cache connections to a database that is later
+     * used as a template or dropped, e.g., when initializing clones for a {@link DatabaseClonePool}, or call
+     * {@code closeIdleConnections()} first.
+     *
+     * @param connectionCaching {@code true} to cache the connection, {@code false} to create a new connection for each operation
+     */
+    public void setConnectionCaching(boolean connectionCaching) {
+        this.connectionCaching = connectionCaching;
+    }
+
     /**
      * Change the operation performed after executing each test.
      * <p>
@@ -155,4 +592,164 @@ public final class DbTestHelper {
     public void setTearDownOperation(DatabaseOperation tearDownOperation) {
         databaseTester.setTearDownOperation(tearDownOperation);
     }
+
+    /**
+     * Identifies a data set read by {@link DbTestHelper#readDataSetFromClasspath(String, String...)}.
+     *
+     * @param dataSetDtdResourceName the name of the DTD resource, or {@code null}
+     * @param dataSetResourceNames   the names of the data set resources
+     */
+    private record DataSetKey(@Nullable String dataSetDtdResourceName, List<String> dataSetResourceNames) {
+
+        String description() {
+            return String.join(", ", dataSetResourceNames);
+        }
+    }
+
+    /**
+     * Identifies the DbUnit connections that can be shared by {@code DbTestHelper} objects.
+     *
+     * @param dataSource      the {@code DataSource} used to create the connection
+     * @param schemaName      the name of the database schema, or {@code null}
+     * @param dataTypeFactory the {@code IDataTypeFactory} used by the connection, or {@code null}
+     */
+    private record ConnectionKey(DataSource dataSource, @Nullable String schemaName, @Nullable IDataTypeFactory dataTypeFactory) {
+    }
+
+    /**
+     * An idle DbUnit connection in the cache.
+     *
+     * @param key        identifies the {@code DbTestHelper} objects that can use the connection
+     * @param connection the connection
+     */
+    private record IdleConnection(ConnectionKey key, IDatabaseConnection connection) {
+    }
+
+    /**
+     * Creates a new DbUnit connection.
+     */
+    @FunctionalInterface
+    private interface ConnectionFactory {
+        @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+        IDatabaseConnection create() throws Exception;
+    }
+
+    /**
+     * A data set that reports the time spent on each table to a {@code FixtureLoadMonitor}. The time for a table is measured from when the
+     * iterator is advanced to the table until it is advanced again, which is when DbUnit operations such as {@code INSERT} have finished
+     * processing the table.
+     * <p>
+     * A new {@code MonitoredDataSet} is created each time the test data is loaded, so operations that remember data sets between
+     * executions, such as {@link DeltaResetOperation}, should use {@link #unwrap(IDataSet)}.
+     */
+    /* package-private */ static final class MonitoredDataSet implements IDataSet {
+
+        private final IDataSet dataSet;
+        private final FixtureLoadMonitor monitor;
+
+        MonitoredDataSet(IDataSet dataSet, FixtureLoadMonitor monitor) {
+            this.dataSet = dataSet;
+            this.monitor = monitor;
+        }
+
+        /**
+         * Gives the data set being monitored.
+         *
+         * @param dataSet the data set, which may be a {@code MonitoredDataSet}
+         *
+         * @return the data set monitored by {@code dataSet}, or {@code dataSet} itself if it is not a {@code MonitoredDataSet}
+         */
+        /* package-private */ static IDataSet unwrap(IDataSet dataSet) {
+            return dataSet instanceof MonitoredDataSet monitoredDataSet ? monitoredDataSet.dataSet : dataSet;
+        }
+
+        @Override
+        public String[] getTableNames() throws DataSetException {
+            return dataSet.getTableNames();
+        }
+
+        @Override
+        public ITableMetaData getTableMetaData(String tableName) throws DataSetException {
+            return dataSet.getTableMetaData(tableName);
+        }
+
+        @Override
+        public ITable getTable(String tableName) throws DataSetException {
+            return dataSet.getTable(tableName);
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("deprecation")
+        public ITable[] getTables() throws DataSetException {
+            return dataSet.getTables();
+        }
+
+        @Override
+        public ITableIterator iterator() throws DataSetException {
+            return new MonitoredTableIterator(dataSet.iterator(), monitor);
+        }
+
+        @Override
+        public ITableIterator reverseIterator() throws DataSetException {
+            return new MonitoredTableIterator(dataSet.reverseIterator(), monitor);
+        }
+
+        @Override
+        public boolean isCaseSensitiveTableNames() {
+            return dataSet.isCaseSensitiveTableNames();
+        }
+    }
+
+    /**
+     * A table iterator used by {@code MonitoredDataSet}.
+     */
+    private static final class MonitoredTableIterator implements ITableIterator {
+
+        private final ITableIterator iterator;
+        private final FixtureLoadMonitor monitor;
+        private @Nullable ITable currentTable;
+        private long currentTableStartTime;
+
+        MonitoredTableIterator(ITableIterator iterator, FixtureLoadMonitor monitor) {
+            this.iterator = iterator;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public boolean next() throws DataSetException {
+            long now = monitor.now();
+            ITable table = currentTable;
+            if (table != null) {
+                monitor.tableLoaded(table.getTableMetaData().getTableName(), table.getRowCount(), now - currentTableStartTime);
+            }
+            currentTable = null;
+            currentTableStartTime = monitor.now();
+            return iterator.next();
+        }
+
+        @Override
+        public ITableMetaData getTableMetaData() throws DataSetException {
+            return iterator.getTableMetaData();
+        }
+
+        /**
+         * Gives the current table. Only tables whose rows are requested are measured, so that operations that only need the table
+         * names, such as {@code DELETE_ALL}, are not counted.
+         */
+        @Override
+        public ITable getTable() throws DataSetException {
+            ITable table = iterator.getTable();
+            currentTable = table;
+            return table;
+        }
+    }
+
+    /**
+     * Opens an {@code InputStream} with the contents of a data set file.
+     */
+    @FunctionalInterface
+    private interface DataSetSource {
+        InputStream open() throws IOException;
+    }
 }
@@ -1,8 +1,30 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -10,7 +32,11 @@ import org.dbunit.DatabaseUnitException;
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.DatabaseConnection;
 import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.DefaultTableMetaData;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITableMetaData;
 import org.dbunit.dataset.datatype.IDataTypeFactory;
 import org.dbunit.dataset.xml.FlatDtdWriter;
 import org.slf4j.Logger;
@@ -24,6 +50,11 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
  * Generates a DTD for DbUnit XML files used to populate the test database.
+ * <p>
+ * For large schemas, the tables to include can be selected using {@link #setIncludedTables(String...)} and
+ * {@link #setExcludedTables(String...)}, the table metadata can be read concurrently using several connections, see
+ * {@link #setParallelism(int)}, and {@link #writeDtdIfSchemaChanged(Path)} can be used to only generate the DTD when the schema has
+ * changed.
  *
  * @author RealLifeDeveloper
  *
@@ -33,8 +64,15 @@ public class DbUnitDtdGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(DbUnitDtdGenerator.class);
 
+    private static final String FINGERPRINT_PREFIX = "<!-- Schema fingerprint: ";
+    private static final String FINGERPRINT_SUFFIX = " -->";
+
     private final ApplicationContext applicationContext;
 
+    private List<Pattern> includedTables = List.of();
+    private List<Pattern> excludedTables = List.of();
+    private int parallelism = 1;
+
     /**
      * Creates a new {@code DbUnitDtdGenerator} using the given Spring application context. It reads all tables in the database pointed to
      * by a data source from the application context and generates a DTD matching that database.
@@ -99,6 +137,49 @@ public class DbUnitDtdGenerator {
         LOG.info(dtd);
     }
 
+    /**
+     * Only include tables whose names match at least one of the given regular expressions, ignoring case. The default is to include all
+     * tables.
+     *
+     * @param tableNamePatterns regular expressions matching the names of the tables to include
+     */
+    public void setIncludedTables(String... tableNamePatterns) {
+        this.includedTables = compile(tableNamePatterns);
+    }
+
+    /**
+     * Exclude tables whose names match at least one of the given regular expressions, ignoring case. Exclusion takes precedence over
+     * inclusion. The default is to exclude no tables.
+     *
+     * @param tableNamePatterns regular expressions matching the names of the tables to exclude
+     */
+    public void setExcludedTables(String... tableNamePatterns) {
+        this.excludedTables = compile(tableNamePatterns);
+    }
+
+    /**
+     * Change the number of connections used to read the table metadata concurrently. The default is to use a single connection.
+     *
+     * @param parallelism the number of connections to use, must be positive
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    private static List<Pattern> compile(String... tableNamePatterns) {
+        if (tableNamePatterns == null) {
+            throw new IllegalArgumentException("tableNamePatterns must not be null");
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String tableNamePattern : tableNamePatterns) {
+            patterns.add(Pattern.compile(tableNamePattern, Pattern.CASE_INSENSITIVE));
+        }
+        return List.copyOf(patterns);
+    }
+
     /**
      * Gives the DbUnit DTD as a string.
      *
@@ -108,11 +189,64 @@ public class DbUnitDtdGenerator {
      * @throws DatabaseUnitException if a DbUnit problem occurred
      */
     public String generateDtd() throws SQLException, DatabaseUnitException {
-        IDatabaseConnection connection = new DatabaseConnection(getDataSource().getConnection());
-        if (getDataTypeFactory().isPresent()) {
-            connection.getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, getDataTypeFactory().get());
+        Optional<IDataTypeFactory> dataTypeFactory = getDataTypeFactory();
+        List<String> tableNames;
+        IDatabaseConnection connection = createConnection(dataTypeFactory);
+        try {
+            tableNames = tableNames(connection);
+        } finally {
+            connection.close();
+        }
+        return generateDtd(tableNames, dataTypeFactory);
+    }
+
+    /**
+     * Writes the DbUnit DTD to the given file, unless the file was written by this method for the same schema. The first line of the file
+     * is a comment with a fingerprint of the tables and columns in the schema, which is compared with the current schema.
+     * <p>
+     * Calculating the fingerprint only requires reading the table and column names and types, which is much faster than reading all the
+     * metadata needed to generate the DTD.
+     *
+     * @param dtdFile the file to write the DTD to
+     *
+     * @return {@code true} if the DTD was written, {@code false} if the schema had not changed
+     *
+     * @throws SQLException          if a database problem occurred
+     * @throws DatabaseUnitException if a DbUnit problem occurred
+     * @throws IOException           if reading or writing the file failed
+     */
+    public boolean writeDtdIfSchemaChanged(Path dtdFile) throws SQLException, DatabaseUnitException, IOException {
+        Optional<IDataTypeFactory> dataTypeFactory = getDataTypeFactory();
+        List<String> tableNames;
+        String fingerprint;
+        IDatabaseConnection connection = createConnection(dataTypeFactory);
+        try {
+            tableNames = tableNames(connection);
+            fingerprint = schemaFingerprint(connection, tableNames);
+        } finally {
+            connection.close();
+        }
+        String fingerprintLine = FINGERPRINT_PREFIX + fingerprint + FINGERPRINT_SUFFIX;
+        if (Files.exists(dtdFile)) {
+            try (Stream<String> lines = Files.lines(dtdFile, StandardCharsets.UTF_8)) {
+                if (lines.findFirst().filter(fingerprintLine::equals).isPresent()) {
+                    LOG.debug("Schema unchanged, not regenerating {}", dtdFile);
+                    return false;
+                }
+            }
+        }
+        Files.writeString(dtdFile, fingerprintLine + System.lineSeparator() + generateDtd(tableNames, dataTypeFactory),
+                StandardCharsets.UTF_8);
+        return true;
+    }
+
+    private String generateDtd(List<String> tableNames, Optional<IDataTypeFactory> dataTypeFactory)
+            throws SQLException, DatabaseUnitException {
+        Map<String, ITableMetaData> metaData = readTableMetaData(tableNames, dataTypeFactory);
+        DefaultDataSet dataSet = new DefaultDataSet();
+        for (String tableName : tableNames) {
+            dataSet.addTable(new DefaultTable(metaData.get(tableName)));
         }
-        IDataSet dataSet = connection.createDataSet();
         StringWriter stringWriter = new StringWriter();
         FlatDtdWriter datasetWriter = new FlatDtdWriter(stringWriter);
         datasetWriter.setContentModel(FlatDtdWriter.SEQUENCE);
@@ -120,6 +254,136 @@ public class DbUnitDtdGenerator {
         return stringWriter.toString();
     }
 
+    private IDatabaseConnection createConnection(Optional<IDataTypeFactory> dataTypeFactory) throws SQLException, DatabaseUnitException {
+        IDatabaseConnection connection = new DatabaseConnection(getDataSource().getConnection());
+        if (dataTypeFactory.isPresent()) {
+            connection.getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, dataTypeFactory.get());
+        }
+        return connection;
+    }
+
+    /**
+     * Gives the names of the included tables, using a single metadata query instead of creating a DbUnit data set for the whole schema.
+     */
+    private List<String> tableNames(IDatabaseConnection connection) throws SQLException {
+        Set<String> tableNames = new LinkedHashSet<>();
+        String[] tableTypes = (String[]) connection.getConfig().getProperty(DatabaseConfig.PROPERTY_TABLE_TYPE);
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        try (ResultSet rs = metaData.getTables(null, connection.getSchema(), "%", tableTypes)) {
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                if (isIncluded(tableName)) {
+                    tableNames.add(tableName);
+                }
+            }
+        }
+        return new ArrayList<>(tableNames);
+    }
+
+    private boolean isIncluded(String tableName) {
+        boolean included = includedTables.isEmpty() || includedTables.stream().anyMatch(p -> p.matcher(tableName).matches());
+        return included && excludedTables.stream().noneMatch(p -> p.matcher(tableName).matches());
+    }
+
+    /**
+     * Reads the metadata of the given tables, using one connection per group of tables if {@code parallelism} is more than one. The
+     * metadata is copied so that it can be used after the connections have been closed.
+     */
+    private Map<String, ITableMetaData> readTableMetaData(List<String> tableNames, Optional<IDataTypeFactory> dataTypeFactory)
+            throws SQLException, DatabaseUnitException {
+        int groups = Math.max(1, Math.min(parallelism, tableNames.size()));
+        List<List<String>> tableGroups = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            tableGroups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tableNames.size(); i++) {
+            tableGroups.get(i % groups).add(tableNames.get(i));
+        }
+        if (groups == 1) {
+            return readTableMetaDataUsingOneConnection(tableGroups.get(0), dataTypeFactory);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(groups);
+        try {
+            List<Future<Map<String, ITableMetaData>>> futures = new ArrayList<>();
+            for (List<String> tableGroup : tableGroups) {
+                futures.add(executor.submit(() -> readTableMetaDataUsingOneConnection(tableGroup, dataTypeFactory)));
+            }
+            Map<String, ITableMetaData> metaData = new HashMap<>();
+            for (Future<Map<String, ITableMetaData>> future : futures) {
+                metaData.putAll(result(future));
+            }
+            return metaData;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, ITableMetaData> readTableMetaDataUsingOneConnection(List<String> tableNames,
+            Optional<IDataTypeFactory> dataTypeFactory) throws SQLException, DatabaseUnitException {
+        Map<String, ITableMetaData> metaData = new HashMap<>();
+        IDatabaseConnection connection = createConnection(dataTypeFactory);
+        try {
+            IDataSet dataSet = connection.createDataSet(tableNames.toArray(new String[0]));
+            for (String tableName : tableNames) {
+                ITableMetaData tableMetaData = dataSet.getTableMetaData(tableName);
+                metaData.put(tableName, new DefaultTableMetaData(tableMetaData.getTableName(), tableMetaData.getColumns(),
+                        tableMetaData.getPrimaryKeys()));
+            }
+        } finally {
+            connection.close();
+        }
+        return metaData;
+    }
+
+    private static Map<String, ITableMetaData> result(Future<Map<String, ITableMetaData>> future)
+            throws SQLException, DatabaseUnitException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading table metadata", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            } else if (cause instanceof DatabaseUnitException databaseUnitException) {
+                throw databaseUnitException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Unexpected problem reading table metadata", cause);
+        }
+    }
+
+    /**
+     * Calculates a fingerprint of the names, types and nullability of the columns of the given tables, using a single metadata query.
+     */
+    private static String schemaFingerprint(IDatabaseConnection connection, List<String> tableNames) throws SQLException {
+        Set<String> tables = new LinkedHashSet<>(tableNames);
+        Map<String, List<String>> columnsByTable = new TreeMap<>();
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        try (ResultSet rs = metaData.getColumns(null, connection.getSchema(), "%", "%")) {
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                if (tables.contains(tableName)) {
+                    columnsByTable.computeIfAbsent(tableName, t -> new ArrayList<>()).add(rs.getString("COLUMN_NAME") + ":"
+                            + rs.getInt("DATA_TYPE") + ":" + rs.getString("TYPE_NAME") + ":" + rs.getInt("NULLABLE"));
+                }
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String tableName : tableNames) {
+                digest.update((tableName + "=" + columnsByTable.getOrDefault(tableName, List.of()) + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     private DataSource getDataSource() {
         return applicationContext.getBean(DataSource.class);
     }
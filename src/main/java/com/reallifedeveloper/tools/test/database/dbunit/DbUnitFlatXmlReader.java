@@ -1,17 +1,21 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.repository.CrudRepository;
@@ -27,12 +31,22 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableField;
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow;
+import com.reallifedeveloper.tools.test.database.FixtureCache;
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
 
 /**
  * A class to read a DBUnit flat XML dataset file and populate a Spring Data {@code CrudRepository} using the information in the file.
+ * Several repositories can be populated from the same file by registering them in a {@link RepositoryRegistry}.
  * <p>
  * This is useful for testing in-memory repositories using the same test cases as for real repository implementations, and also for
  * populating in-memory repositories for testing services, without having to use a real database.
+ * <p>
+ * If a {@link FixtureCache} has been enabled using system properties, the rows of a file are stored in the cache the first time the file
+ * is parsed, and read from the cache as long as the file is unchanged.
+ * <p>
+ * If any {@code FixtureLoadListener}s have been registered with {@link FixtureLoadMonitor}, they are notified with the time spent
+ * parsing, converting, wiring and saving each time a file has been read.
  *
  * @author RealLifeDeveloper
  */
@@ -89,33 +103,133 @@ public final class DbUnitFlatXmlReader {
 
     public <T, E, ID extends Serializable> void read(String resourceName, CrudRepository<T, ID> repository, Class<T> repositoryEntityType,
             Class<E> entityType) throws IOException, SAXException {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(repositoryEntityType, repository);
+        read(resourceName, repositories, tableName -> entityType);
+    }
+
+    /**
+     * Reads a DBUnit flat XML file from the named resource, populating the repositories in the given registry.
+     * <p>
+     * Each row is converted to an entity of the type registered for its table and saved in the repository for that type, and rows for
+     * tables without a registered entity type are treated as join table rows. References between the entities are filled in once all
+     * rows have been read, so a data set for many repositories is only parsed once. As when inserting the data set into a database, a row
+     * must come after the rows it references using foreign key columns.
+     *
+     * @param resourceName the classpath resource containing a DBUnit flat XML document
+     * @param repositories the repositories to populate, and the entity types to create
+     *
+     * @throws IOException  if reading the file failed
+     * @throws SAXException if parsing the file failed
+     */
+    public void read(String resourceName, RepositoryRegistry repositories) throws IOException, SAXException {
+        read(resourceName, repositories, repositories::entityType);
+    }
+
+    private void read(String resourceName, RepositoryRegistry repositories, Function<String, @Nullable Class<?>> entityTypes)
+            throws IOException, SAXException {
         try (InputStream in = DbUnitFlatXmlReader.class.getResourceAsStream(resourceName)) {
             if (in == null) {
                 throw new FileNotFoundException(resourceName);
             }
-            Document doc = documentBuilder.parse(in);
-            Element dataset = doc.getDocumentElement();
-            NodeList tableRows = dataset.getChildNodes();
-
             LOG.info("Reading from {}", resourceName.replaceAll("[\r\n]", ""));
-            for (int i = 0; i < tableRows.getLength(); i++) {
-                Node tableRowNode = tableRows.item(i);
-                if (tableRowNode.getNodeType() == Node.ELEMENT_NODE) {
-                    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-                    DbTableRow tableRow = new NodeTableRow(tableRowNode);
-                    String tableName = tableRowNode.getNodeName();
-                    if (crudRepositoryWriter.writeEntity(tableRow, repositoryEntityType, entityType, repository, tableName)) {
-                        continue;
+            FixtureLoadMonitor monitor = FixtureLoadMonitor.start(resourceName, DbUnitFlatXmlReader.class);
+            crudRepositoryWriter.setFixtureLoadMonitor(monitor);
+            Throwable failure = null;
+            try {
+                Optional<FixtureCache> fixtureCache = FixtureCache.fromSystemProperties();
+                if (fixtureCache.isPresent()) {
+                    long parseStartTime = monitor.now();
+                    List<FixtureCache.Table> tables = readTablesUsingCache(fixtureCache.get(), in);
+                    monitor.parsed(parseStartTime);
+                    for (FixtureCache.Table table : tables) {
+                        Class<?> entityType = entityTypes.apply(table.getName());
+                        for (int i = 0; i < table.getRowCount(); i++) {
+                            writeRow(table.row(i), table.getName(), repositories, entityType, monitor);
+                        }
+                    }
+                } else {
+                    long parseStartTime = monitor.now();
+                    Document doc = documentBuilder.parse(in);
+                    monitor.parsed(parseStartTime);
+                    Element dataset = doc.getDocumentElement();
+                    NodeList tableRows = dataset.getChildNodes();
+
+                    for (int i = 0; i < tableRows.getLength(); i++) {
+                        Node tableRowNode = tableRows.item(i);
+                        if (tableRowNode.getNodeType() == Node.ELEMENT_NODE) {
+                            @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                            DbTableRow tableRow = new NodeTableRow(tableRowNode);
+                            String tableName = tableRowNode.getNodeName();
+                            writeRow(tableRow, tableName, repositories, entityTypes.apply(tableName), monitor);
+                        }
                     }
-                    crudRepositoryWriter.addEntitiesFromJoinTable(tableRow, tableName);
                 }
+                long wiringStartTime = monitor.now();
+                long savingNanosBefore = monitor.savingNanos();
+                crudRepositoryWriter.fillReferencesBetweenEntities(repositories);
+                monitor.wired(wiringStartTime, savingNanosBefore);
+            } catch (Exception | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                crudRepositoryWriter.setFixtureLoadMonitor(FixtureLoadMonitor.disabled());
+                monitor.finish(failure);
             }
-            crudRepositoryWriter.fillReferencesBetweenEntities(repository, repositoryEntityType);
         } catch (ReflectiveOperationException | SecurityException e) {
             throw new IllegalStateException("Unexpected problem reading XML file from '" + resourceName + "'", e);
         }
     }
 
+    private void writeRow(DbTableRow tableRow, String tableName, RepositoryRegistry repositories, @Nullable Class<?> entityType,
+            FixtureLoadMonitor monitor) throws ReflectiveOperationException {
+        long startTime = monitor.now();
+        long savingNanosBefore = monitor.savingNanos();
+        if (!crudRepositoryWriter.writeEntity(tableRow, entityType, repositories, tableName)) {
+            crudRepositoryWriter.addEntitiesFromJoinTable(tableRow, tableName);
+        }
+        monitor.rowLoaded(tableName, startTime, savingNanosBefore);
+    }
+
+    /**
+     * Gives the rows of the XML document as cached tables, parsing the document only if it is not found in the cache. Consecutive rows
+     * for the same table with the same attributes are stored in the same cached table, so the order of the rows is kept, and attributes
+     * that are missing from a row are not confused with empty values.
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private List<FixtureCache.Table> readTablesUsingCache(FixtureCache fixtureCache, InputStream in) throws IOException, SAXException {
+        byte[] content = in.readAllBytes();
+        String key = FixtureCache.key("dbunit-flat-xml-rows", content);
+        Optional<List<FixtureCache.Table>> cachedTables = fixtureCache.get(key);
+        if (cachedTables.isPresent()) {
+            return cachedTables.get();
+        }
+        NodeList tableRows = documentBuilder.parse(new ByteArrayInputStream(content)).getDocumentElement().getChildNodes();
+        List<FixtureCache.Table> tables = new ArrayList<>();
+        FixtureCache.Table currentTable = null;
+        for (int i = 0; i < tableRows.getLength(); i++) {
+            Node tableRowNode = tableRows.item(i);
+            if (tableRowNode.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            NamedNodeMap attributes = tableRowNode.getAttributes();
+            List<String> columnNames = new ArrayList<>();
+            String[] values = new String[attributes.getLength()];
+            for (int j = 0; j < attributes.getLength(); j++) {
+                columnNames.add(attributes.item(j).getNodeName());
+                values[j] = attributes.item(j).getNodeValue();
+            }
+            if (currentTable == null || !currentTable.getName().equals(tableRowNode.getNodeName())
+                    || !currentTable.getColumnNames().equals(columnNames)) {
+                currentTable = new FixtureCache.Table(tableRowNode.getNodeName(), columnNames);
+                tables.add(currentTable);
+            }
+            currentTable.addRow(values);
+        }
+        fixtureCache.put(key, tables);
+        return tables;
+    }
+
     /**
      * An implementation of the {@link DbTableRow} interface that gets its data from an * XML {@link Node} representing a single row in a
      * DBUnit XML dataset.
@@ -134,21 +248,35 @@ public final class DbUnitFlatXmlReader {
      */
     private static class NodeTableRow implements DbTableRow {
 
-        private final Node tableRowNode;
+        private final NamedNodeMap attributes;
 
         /* package-private */ NodeTableRow(Node tableRowNode) {
-            this.tableRowNode = tableRowNode;
+            this.attributes = tableRowNode.getAttributes();
         }
 
         @Override
         public List<DbTableField> columns() {
             List<DbTableField> columns = new ArrayList<>();
-            NamedNodeMap attributes = tableRowNode.getAttributes();
             for (int j = 0; j < attributes.getLength(); j++) {
                 Node attribute = attributes.item(j);
                 columns.add(new DbTableField(attribute.getNodeName(), attribute.getNodeValue()));
             }
             return columns;
         }
+
+        @Override
+        public int columnCount() {
+            return attributes.getLength();
+        }
+
+        @Override
+        public String columnName(int index) {
+            return attributes.item(index).getNodeName();
+        }
+
+        @Override
+        public CharSequence columnValue(int index) {
+            return attributes.item(index).getNodeValue();
+        }
     }
 }
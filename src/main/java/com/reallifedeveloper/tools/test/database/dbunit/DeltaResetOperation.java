@@ -0,0 +1,256 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.FilteredDataSet;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.operation.DatabaseOperation;
+import org.dbunit.util.QualifiedTableName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A DbUnit {@code DatabaseOperation} that restores the tables of a data set to their original state, like a clean insert, but only
+ * touches the tables that have actually been modified since the last time the operation was executed.
+ * <p>
+ * The first time the operation is executed for a data set and database, a full clean insert is performed, and a fingerprint consisting of
+ * the row count and an order-independent checksum of all rows is calculated for each table in the data set. The next time, the
+ * fingerprints are calculated again and compared with the stored ones, and only the tables that differ, together with the tables in the
+ * data set that have foreign keys referring to them, are cleaned and inserted again. If the tests do not modify the database, or run in
+ * transactions that are rolled back, nothing needs to be restored.
+ * <p>
+ * If something goes wrong when comparing fingerprints or restoring tables, a full clean insert is performed instead.
+ * <p>
+ * Fingerprints are remembered per JVM, keyed by the database URL, user, schema and data set object, so the same data set object should be
+ * used for all tests, as is the case when using {@link DbTestHelper#readDataSetFromClasspath(String, String...)}.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class DeltaResetOperation extends DatabaseOperation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeltaResetOperation.class);
+
+    private static final long ROW_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final Map<StateKey, Map<String, Fingerprint>> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private final DatabaseOperation cleanInsertOperation;
+
+    /**
+     * Creates a new {@code DeltaResetOperation} that uses the given operation to clean and insert tables.
+     *
+     * @param cleanInsertOperation the operation to use to restore all tables, or only the modified tables, normally
+     *                             {@code DatabaseOperation.CLEAN_INSERT} or {@code InsertIdentityOperation.CLEAN_INSERT}
+     */
+    public DeltaResetOperation(DatabaseOperation cleanInsertOperation) {
+        if (cleanInsertOperation == null) {
+            throw new IllegalArgumentException("cleanInsertOperation must not be null");
+        }
+        this.cleanInsertOperation = cleanInsertOperation;
+    }
+
+    /**
+     * Forgets all fingerprints, so that the next execution of any {@code DeltaResetOperation} performs a full clean insert.
+     */
+    public static void forgetFingerprints() {
+        FINGERPRINTS.clear();
+    }
+
+    @Override
+    public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+        StateKey stateKey = stateKey(connection, dataSet);
+        Map<String, Fingerprint> expectedFingerprints = FINGERPRINTS.remove(stateKey);
+        String[] tableNames = dataSet.getTableNames();
+        if (expectedFingerprints != null) {
+            try {
+                restoreModifiedTables(connection, dataSet, tableNames, expectedFingerprints);
+                FINGERPRINTS.put(stateKey, expectedFingerprints);
+                return;
+            } catch (DatabaseUnitException | SQLException | RuntimeException e) {
+                LOG.warn("Failed to restore modified tables, falling back to a full clean insert: {}", e.toString());
+            }
+        }
+        LOG.debug("Full clean insert of tables {}", Arrays.asList(tableNames));
+        cleanInsertOperation.execute(connection, dataSet);
+        FINGERPRINTS.put(stateKey, fingerprints(connection, tableNames));
+    }
+
+    private void restoreModifiedTables(IDatabaseConnection connection, IDataSet dataSet, String[] tableNames,
+            Map<String, Fingerprint> expectedFingerprints) throws DatabaseUnitException, SQLException {
+        Map<String, Fingerprint> actualFingerprints = fingerprints(connection, tableNames);
+        List<String> modifiedTables = new ArrayList<>();
+        for (String tableName : tableNames) {
+            String key = key(tableName);
+            if (!Objects.equals(expectedFingerprints.get(key), actualFingerprints.get(key))) {
+                modifiedTables.add(tableName);
+            }
+        }
+        if (modifiedTables.isEmpty()) {
+            LOG.debug("No modified tables");
+            return;
+        }
+        Set<String> tablesToRestore = withReferringTables(connection, modifiedTables, tableNames);
+        String[] orderedTablesToRestore = Arrays.stream(tableNames).filter(t -> tablesToRestore.contains(key(t))).toArray(String[]::new);
+        LOG.debug("Restoring modified tables {}, and tables referring to them: {}", modifiedTables, Arrays.asList(orderedTablesToRestore));
+        cleanInsertOperation.execute(connection, new FilteredDataSet(orderedTablesToRestore, dataSet));
+        expectedFingerprints.putAll(fingerprints(connection, orderedTablesToRestore));
+    }
+
+    /**
+     * Adds the tables in the data set that have foreign keys referring to the given tables, directly or indirectly, since they must be
+     * cleaned before the given tables can be cleaned.
+     */
+    private static Set<String> withReferringTables(IDatabaseConnection connection, List<String> tables, String[] dataSetTableNames)
+            throws SQLException {
+        Set<String> dataSetTables = new LinkedHashSet<>();
+        for (String tableName : dataSetTableNames) {
+            dataSetTables.add(key(tableName));
+        }
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> tablesToExamine = new ArrayDeque<>();
+        for (String table : tables) {
+            result.add(key(table));
+            tablesToExamine.push(table);
+        }
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        String schema = connection.getSchema();
+        while (!tablesToExamine.isEmpty()) {
+            String table = tablesToExamine.pop();
+            try (ResultSet rs = metaData.getExportedKeys(null, schema == null ? null : identifier(metaData, schema),
+                    identifier(metaData, table))) {
+                while (rs.next()) {
+                    String referringTable = rs.getString("FKTABLE_NAME");
+                    if (dataSetTables.contains(key(referringTable)) && result.add(key(referringTable))) {
+                        tablesToExamine.push(referringTable);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    private static Map<String, Fingerprint> fingerprints(IDatabaseConnection connection, String[] tableNames) throws SQLException {
+        Map<String, Fingerprint> fingerprints = new HashMap<>();
+        String escapePattern = (String) connection.getConfig().getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+        try (Statement statement = connection.getConnection().createStatement()) {
+            for (String tableName : tableNames) {
+                String qualifiedName = new QualifiedTableName(tableName, connection.getSchema(), escapePattern).getQualifiedName();
+                try (ResultSet rs = statement.executeQuery("SELECT * FROM " + qualifiedName)) {
+                    fingerprints.put(key(tableName), fingerprint(rs));
+                }
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Calculates the fingerprint of the rows in a {@code ResultSet}. Each row is hashed, and the row hashes are added, so the order of
+     * the rows does not matter.
+     */
+    private static Fingerprint fingerprint(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        long rowCount = 0;
+        long checksum = 0;
+        while (rs.next()) {
+            long rowHash = 1;
+            for (int i = 1; i <= columnCount; i++) {
+                rowHash = 31 * rowHash + valueHash(rs.getObject(i));
+            }
+            rowHash *= ROW_HASH_MULTIPLIER;
+            checksum += rowHash ^ (rowHash >>> 31);
+            rowCount++;
+        }
+        return new Fingerprint(rowCount, checksum);
+    }
+
+    private static int valueHash(@Nullable Object value) throws SQLException {
+        if (value instanceof byte[] bytes) {
+            return Arrays.hashCode(bytes);
+        } else if (value instanceof Blob blob) {
+            return Arrays.hashCode(blob.getBytes(1, (int) blob.length()));
+        } else if (value instanceof Clob clob) {
+            return clobContents(clob).hashCode();
+        }
+        return Objects.hashCode(value);
+    }
+
+    private static String clobContents(Clob clob) throws SQLException {
+        try (Reader reader = clob.getCharacterStream()) {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            return writer.toString();
+        } catch (IOException e) {
+            throw new SQLException("Failed to read CLOB", e);
+        }
+    }
+
+    private static String key(String tableName) {
+        return tableName.toUpperCase(Locale.ROOT);
+    }
+
+    private static StateKey stateKey(IDatabaseConnection connection, IDataSet dataSet) throws SQLException {
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        return new StateKey(metaData.getURL(), metaData.getUserName(), connection.getSchema(),
+                DbTestHelper.MonitoredDataSet.unwrap(dataSet));
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaResetOperation{cleanInsertOperation=" + cleanInsertOperation + "}";
+    }
+
+    /**
+     * Identifies a data set inserted into a database.
+     *
+     * @param url      the database URL
+     * @param userName the database user
+     * @param schema   the database schema, or {@code null}
+     * @param dataSet  the data set, which is compared by identity, without any {@code MonitoredDataSet} wrapper
+     */
+    private record StateKey(@Nullable String url, @Nullable String userName, @Nullable String schema, IDataSet dataSet) {
+    }
+
+    /**
+     * The fingerprint of the contents of a table.
+     *
+     * @param rowCount the number of rows in the table
+     * @param checksum an order-independent checksum of the rows
+     */
+    private record Fingerprint(long rowCount, long checksum) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * A {@link DatabaseCloner} for in-memory databases, such as HSQLDB or H2, that creates each clone as a new, empty in-memory database and
+ * initializes it the same way as the template would have been initialized. For in-memory databases this is as fast as copying, and it
+ * works the same way for all databases.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class InitializingDatabaseCloner implements DatabaseCloner {
+
+    private final Function<String, DataSource> dataSourceFactory;
+    private final DatabaseInitializer initializer;
+    private final String shutdownCommand;
+
+    /**
+     * Creates a new {@code InitializingDatabaseCloner}.
+     *
+     * @param dataSourceFactory a function that creates a {@code DataSource} for a new, empty database with the given name
+     * @param initializer       the {@code DatabaseInitializer} used to create the schema and insert test data into each clone
+     * @param shutdownCommand   the SQL command used to remove a clone, e.g., {@code SHUTDOWN}
+     */
+    public InitializingDatabaseCloner(Function<String, DataSource> dataSourceFactory, DatabaseInitializer initializer,
+            String shutdownCommand) {
+        if (dataSourceFactory == null || initializer == null || shutdownCommand == null) {
+            throw new IllegalArgumentException("Arguments must not be null: dataSourceFactory=" + dataSourceFactory + ", initializer="
+                    + initializer + ", shutdownCommand=" + shutdownCommand);
+        }
+        this.dataSourceFactory = dataSourceFactory;
+        this.initializer = initializer;
+        this.shutdownCommand = shutdownCommand;
+    }
+
+    /**
+     * Creates a new {@code InitializingDatabaseCloner} for HSQLDB in-memory databases.
+     *
+     * @param initializer the {@code DatabaseInitializer} used to create the schema and insert test data into each clone
+     *
+     * @return a new {@code InitializingDatabaseCloner}
+     */
+    public static InitializingDatabaseCloner forHsqldb(DatabaseInitializer initializer) {
+        return new InitializingDatabaseCloner(name -> new DriverManagerDataSource("jdbc:hsqldb:mem:" + name, "SA", ""), initializer,
+                "SHUTDOWN");
+    }
+
+    /**
+     * Creates a new {@code InitializingDatabaseCloner} for H2 in-memory databases.
+     *
+     * @param initializer the {@code DatabaseInitializer} used to create the schema and insert test data into each clone
+     *
+     * @return a new {@code InitializingDatabaseCloner}
+     */
+    public static InitializingDatabaseCloner forH2(DatabaseInitializer initializer) {
+        return new InitializingDatabaseCloner(name -> new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", ""),
+                initializer, "SHUTDOWN");
+    }
+
+    @Override
+    public void prepareTemplate() {
+        // Nothing to do, each clone is initialized when it is created.
+    }
+
+    @Override
+    public DataSource createClone(String cloneName) throws SQLException {
+        DataSource clone = dataSourceFactory.apply(cloneName);
+        try {
+            initializer.initialize(clone);
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException("Failed to initialize database " + cloneName, e);
+        }
+        return clone;
+    }
+
+    @Override
+    public void dropClone(String cloneName, DataSource clone) throws SQLException {
+        try (Connection connection = clone.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(shutdownCommand);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.operation.DatabaseOperation;
+import org.dbunit.util.QualifiedTableName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A DbUnit {@code DatabaseOperation} that inserts a data set using plain JDBC, as a faster alternative to
+ * {@code DatabaseOperation.INSERT} for large data sets.
+ * <p>
+ * DbUnit looks up metadata and converts each value using a {@code DataType} for every row. This operation instead creates an insert plan
+ * for each table and set of columns the first time they are seen in a JVM: the {@code INSERT} statement and the JDBC types of the
+ * columns, which are read once from the database. The plans are then reused, the values are bound using typed setters such as
+ * {@code setLong} and {@code setTimestamp}, and the rows are inserted using {@code PreparedStatement} batches. The tables are inserted in
+ * the order of the data set.
+ * <p>
+ * Any data set can be inserted, e.g., one read from flat XML files using {@link DbTestHelper#readDataSetFromClasspath(String, String...)}
+ * or from CSV files using DbUnit's {@code CsvDataSet}. String values are converted to the JDBC type of the column using the same formats
+ * as in flat XML files: ISO dates and timestamps, {@code true}/{@code false} or {@code 1}/{@code 0} for booleans and Base64 for binary
+ * data. Values of other types are bound using {@code setObject}.
+ * <p>
+ * The insert plans are cached per database URL and user, so if the database schema changes while the JVM is running, call
+ * {@link #clearInsertPlanCache()}. Unlike {@code InsertIdentityOperation}, identity columns on SQL Server are not handled.
+ * <p>
+ * An example of how to use the operation with {@link DbTestHelper}:
+ *
+ * <pre>
+ * dbTestHelper.setSetUpOperation(JdbcBatchInsertOperation.CLEAN_INSERT);
+ * </pre>
+ *
+ * @author RealLifeDeveloper
+ */
+@SuppressFBWarnings(value = "SQL_INJECTION_JDBC", justification = "Table and column names come from the data set")
+public final class JdbcBatchInsertOperation extends DatabaseOperation {
+
+    /**
+     * The default maximum number of rows in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * An operation that deletes all rows of the tables in the data set, in the reverse order of the data set, and then inserts the data
+     * using batches of {@value #DEFAULT_BATCH_SIZE} rows.
+     */
+    public static final DatabaseOperation CLEAN_INSERT = cleanInsert(DEFAULT_BATCH_SIZE);
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchInsertOperation.class);
+
+    private static final Map<InsertPlanKey, InsertPlan> INSERT_PLANS = new ConcurrentHashMap<>();
+
+    private static final int ISO_DATE_LENGTH = 10;
+
+    private final int batchSize;
+    private final boolean deleteAllFirst;
+
+    /**
+     * Creates a new {@code JdbcBatchInsertOperation} that inserts the data set without first deleting existing rows.
+     *
+     * @param batchSize the maximum number of rows in a batch
+     */
+    public JdbcBatchInsertOperation(int batchSize) {
+        this(batchSize, false);
+    }
+
+    private JdbcBatchInsertOperation(int batchSize, boolean deleteAllFirst) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.deleteAllFirst = deleteAllFirst;
+    }
+
+    /**
+     * Gives a {@code JdbcBatchInsertOperation} that first deletes all rows from the tables in the data set, in the reverse order of the
+     * data set, and then inserts the data set.
+     *
+     * @param batchSize the maximum number of rows in a batch
+     *
+     * @return a clean insert operation
+     */
+    public static JdbcBatchInsertOperation cleanInsert(int batchSize) {
+        return new JdbcBatchInsertOperation(batchSize, true);
+    }
+
+    /**
+     * Forgets all cached insert plans, so that the column types are read from the database again.
+     */
+    public static void clearInsertPlanCache() {
+        INSERT_PLANS.clear();
+    }
+
+    @Override
+    public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+        Connection jdbcConnection = connection.getConnection();
+        DatabaseMetaData metaData = jdbcConnection.getMetaData();
+        String databaseUrl = metaData.getURL();
+        String userName = metaData.getUserName();
+        if (deleteAllFirst) {
+            deleteAll(connection, dataSet);
+        }
+        ITableIterator it = dataSet.iterator();
+        while (it.next()) {
+            ITable table = it.getTable();
+            if (table.getRowCount() == 0) {
+                continue;
+            }
+            Column[] columns = table.getTableMetaData().getColumns();
+            String tableName = qualifiedTableName(connection, table.getTableMetaData().getTableName());
+            List<String> columnNames = new ArrayList<>();
+            for (Column column : columns) {
+                columnNames.add(escapedColumnName(connection, column.getColumnName()));
+            }
+            InsertPlanKey key = new InsertPlanKey(databaseUrl, userName, tableName, columnNames);
+            InsertPlan plan = INSERT_PLANS.get(key);
+            if (plan == null) {
+                plan = createInsertPlan(jdbcConnection, tableName, columnNames);
+                INSERT_PLANS.putIfAbsent(key, plan);
+            }
+            insert(jdbcConnection, plan, table, columns);
+            LOG.debug("Inserted {} rows into {}", table.getRowCount(), tableName);
+        }
+    }
+
+    private static void deleteAll(IDatabaseConnection connection, IDataSet dataSet) throws DataSetException, SQLException {
+        String[] tableNames = dataSet.getTableNames();
+        try (Statement statement = connection.getConnection().createStatement()) {
+            for (int i = tableNames.length - 1; i >= 0; i--) {
+                statement.addBatch("DELETE FROM " + qualifiedTableName(connection, tableNames[i]));
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String qualifiedTableName(IDatabaseConnection connection, String tableName) {
+        String escapePattern = (String) connection.getConfig().getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+        return new QualifiedTableName(tableName, connection.getSchema(), escapePattern).getQualifiedName();
+    }
+
+    private static String escapedColumnName(IDatabaseConnection connection, String columnName) {
+        String escapePattern = (String) connection.getConfig().getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+        return new QualifiedTableName(columnName, null, escapePattern).getQualifiedName();
+    }
+
+    /**
+     * Creates the insert plan for a table, reading the column types from the metadata of a query that returns no rows.
+     */
+    private static InsertPlan createInsertPlan(Connection connection, String tableName, List<String> columnNames) throws SQLException {
+        String columns = String.join(", ", columnNames);
+        int[] sqlTypes = new int[columnNames.size()];
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT " + columns + " FROM " + tableName + " WHERE 1 = 0")) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 0; i < sqlTypes.length; i++) {
+                sqlTypes[i] = metaData.getColumnType(i + 1);
+            }
+        }
+        StringJoiner parameters = new StringJoiner(", ", " VALUES (", ")");
+        for (int i = 0; i < sqlTypes.length; i++) {
+            parameters.add("?");
+        }
+        LOG.debug("Created insert plan for {}", tableName);
+        return new InsertPlan("INSERT INTO " + tableName + " (" + columns + ")" + parameters, sqlTypes);
+    }
+
+    private void insert(Connection connection, InsertPlan plan, ITable table, Column[] columns) throws DataSetException, SQLException {
+        int[] sqlTypes = plan.sqlTypes();
+        try (PreparedStatement statement = connection.prepareStatement(plan.sql())) {
+            int rowsInBatch = 0;
+            for (int row = 0; row < table.getRowCount(); row++) {
+                for (int column = 0; column < columns.length; column++) {
+                    Object value = table.getValue(row, columns[column].getColumnName());
+                    try {
+                        bind(statement, column + 1, sqlTypes[column], value);
+                    } catch (IllegalArgumentException e) {
+                        throw new DataSetException("Cannot convert value '" + value + "' in column " + columns[column].getColumnName()
+                                + " of table " + table.getTableMetaData().getTableName() + " to " + jdbcTypeName(sqlTypes[column]), e);
+                    }
+                }
+                statement.addBatch();
+                rowsInBatch++;
+                if (rowsInBatch == batchSize) {
+                    statement.executeBatch();
+                    rowsInBatch = 0;
+                }
+            }
+            if (rowsInBatch > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Binds a value to a statement parameter, converting strings to the JDBC type of the column.
+     *
+     * @param statement the statement to bind the value to
+     * @param index     the index of the parameter, starting at 1
+     * @param sqlType   the JDBC type of the column, from {@code java.sql.Types}
+     * @param value     the value to bind, may be {@code null}
+     *
+     * @throws SQLException             if binding the value failed
+     * @throws IllegalArgumentException if {@code value} cannot be converted to {@code sqlType}
+     */
+    /* package-private */ static void bind(PreparedStatement statement, int index, int sqlType, @Nullable Object value)
+            throws SQLException {
+        if (value == null || value == ITable.NO_VALUE) {
+            statement.setNull(index, sqlType);
+            return;
+        }
+        if (!(value instanceof String s)) {
+            statement.setObject(index, value);
+            return;
+        }
+        switch (sqlType) {
+        case Types.BIT, Types.BOOLEAN -> statement.setBoolean(index, parseBoolean(s));
+        case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> statement.setInt(index, Integer.parseInt(s.trim()));
+        case Types.BIGINT -> statement.setLong(index, Long.parseLong(s.trim()));
+        case Types.REAL -> statement.setFloat(index, Float.parseFloat(s));
+        case Types.FLOAT, Types.DOUBLE -> statement.setDouble(index, Double.parseDouble(s));
+        case Types.NUMERIC, Types.DECIMAL -> statement.setBigDecimal(index, new BigDecimal(s.trim()));
+        case Types.DATE -> statement.setDate(index, parseDate(s));
+        case Types.TIME -> statement.setTime(index, Time.valueOf(s.trim()));
+        case Types.TIMESTAMP -> statement.setTimestamp(index, parseTimestamp(s));
+        case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> statement.setBytes(index, Base64.getDecoder().decode(s));
+        case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB ->
+            statement.setString(index, s);
+        default -> statement.setObject(index, s);
+        }
+    }
+
+    private static boolean parseBoolean(String s) {
+        String value = s.trim().toLowerCase(Locale.ROOT);
+        return switch (value) {
+        case "true", "1" -> true;
+        case "false", "0" -> false;
+        default -> throw new IllegalArgumentException("Not a boolean: " + s);
+        };
+    }
+
+    private static Date parseDate(String s) {
+        String value = s.trim();
+        return value.length() == ISO_DATE_LENGTH ? Date.valueOf(value) : new Date(parseTimestamp(value).getTime());
+    }
+
+    private static Timestamp parseTimestamp(String s) {
+        String value = s.trim().replace('T', ' ');
+        return Timestamp.valueOf(value.length() == ISO_DATE_LENGTH ? value + " 00:00:00" : value);
+    }
+
+    private static String jdbcTypeName(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return "JDBC type " + sqlType;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcBatchInsertOperation{batchSize=" + batchSize + ", deleteAllFirst=" + deleteAllFirst + "}";
+    }
+
+    /**
+     * Identifies an insert plan: the database, the qualified name of the table and the columns inserted.
+     */
+    private record InsertPlanKey(String databaseUrl, @Nullable String userName, String tableName, List<String> columnNames) {
+    }
+
+    /**
+     * A cached insert plan for a table.
+     *
+     * @param sql      the {@code INSERT} statement with one parameter for each column
+     * @param sqlTypes the JDBC types of the columns, from {@code java.sql.Types}
+     */
+    @SuppressFBWarnings(value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2" }, justification = "Internal record, the array is never modified")
+    private record InsertPlan(String sql, int[] sqlTypes) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.FilteredDataSet;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.operation.DatabaseOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A DbUnit {@code DatabaseOperation} that inserts the tables of a data set concurrently, using several database connections.
+ * <p>
+ * The foreign keys between the tables in the data set are read from the JDBC metadata, and a table is inserted as soon as all tables it
+ * refers to have been inserted and committed, so the order of the tables in the data set does not matter. Each table is inserted in a
+ * transaction of its own, since rows inserted using one connection are not visible to other connections until they have been committed.
+ * <p>
+ * Since the tables are committed one at a time, the data set is not inserted atomically. If inserting a table fails, the rows of the data
+ * set are instead deleted, using their primary keys, from the tables that have already been committed. This is a best-effort cleanup:
+ * tables without primary keys are left with the rows that were inserted, and with {@link #cleanInsert(DataSource, int)} the rows deleted
+ * before the insert have already been committed and are not restored.
+ * <p>
+ * The data set is inserted sequentially, in the order of the data set, using the connection given to the operation if the tables have
+ * cyclic foreign keys, or if the connection is not in auto-commit mode, since other connections cannot then see the changes made by it.
+ * <p>
+ * An example of how to use the operation with {@link DbTestHelper}:
+ *
+ * <pre>
+ * dbTestHelper.setSetUpOperation(ParallelInsertOperation.cleanInsert(dataSource, 4));
+ * </pre>
+ *
+ * @author RealLifeDeveloper
+ */
+public final class ParallelInsertOperation extends DatabaseOperation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelInsertOperation.class);
+
+    private static final String[] COPIED_PROPERTIES = { DatabaseConfig.PROPERTY_DATATYPE_FACTORY, DatabaseConfig.PROPERTY_ESCAPE_PATTERN,
+            DatabaseConfig.PROPERTY_METADATA_HANDLER, DatabaseConfig.PROPERTY_BATCH_SIZE, DatabaseConfig.PROPERTY_FETCH_SIZE,
+            DatabaseConfig.FEATURE_BATCHED_STATEMENTS, DatabaseConfig.FEATURE_ALLOW_EMPTY_FIELDS,
+            DatabaseConfig.FEATURE_CASE_SENSITIVE_TABLE_NAMES, DatabaseConfig.FEATURE_QUALIFIED_TABLE_NAMES };
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final boolean deleteAllFirst;
+
+    /**
+     * Creates a new {@code ParallelInsertOperation} that inserts the data set without first deleting existing rows.
+     *
+     * @param dataSource  the {@code DataSource} used to create the connections used to insert tables, must give connections to the same
+     *                    database as the connection given to the operation
+     * @param parallelism the maximum number of tables to insert concurrently
+     */
+    public ParallelInsertOperation(DataSource dataSource, int parallelism) {
+        this(dataSource, parallelism, false);
+    }
+
+    private ParallelInsertOperation(DataSource dataSource, int parallelism, boolean deleteAllFirst) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource must not be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.deleteAllFirst = deleteAllFirst;
+    }
+
+    /**
+     * Gives a {@code ParallelInsertOperation} that first deletes all rows from the tables in the data set, in an order that respects the
+     * foreign keys between the tables, and then inserts the data set.
+     *
+     * @param dataSource  the {@code DataSource} used to create the connections used to insert tables, must give connections to the same
+     *                    database as the connection given to the operation
+     * @param parallelism the maximum number of tables to insert concurrently
+     *
+     * @return a clean insert operation
+     */
+    public static ParallelInsertOperation cleanInsert(DataSource dataSource, int parallelism) {
+        return new ParallelInsertOperation(dataSource, parallelism, true);
+    }
+
+    @Override
+    public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+        String[] tableNames = dataSet.getTableNames();
+        Map<String, Set<String>> referencedTables = referencedTables(connection, tableNames);
+        Optional<List<String>> orderedTables = topologicalOrder(tableNames, referencedTables);
+        if (orderedTables.isEmpty() || !connection.getConnection().getAutoCommit()) {
+            LOG.debug("Cyclic foreign keys or connection not in auto-commit mode, inserting tables sequentially");
+            if (deleteAllFirst) {
+                DatabaseOperation.DELETE_ALL.execute(connection, dataSet);
+            }
+            DatabaseOperation.INSERT.execute(connection, dataSet);
+            return;
+        }
+        IDataSet orderedDataSet = new FilteredDataSet(orderedTables.get().toArray(new String[0]), dataSet);
+        if (deleteAllFirst) {
+            DatabaseOperation.DELETE_ALL.execute(connection, orderedDataSet);
+        }
+        if (parallelism == 1 || tableNames.length < 2) {
+            DatabaseOperation.INSERT.execute(connection, orderedDataSet);
+            return;
+        }
+        insertConcurrently(connection, dataSet, orderedTables.get(), referencedTables);
+    }
+
+    private void insertConcurrently(IDatabaseConnection connection, IDataSet dataSet, List<String> orderedTables,
+            Map<String, Set<String>> referencedTables) throws DatabaseUnitException, SQLException {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, orderedTables.size()), runnable -> {
+            Thread thread = new Thread(runnable, "parallel-insert-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<IDatabaseConnection> idleConnections = new LinkedBlockingQueue<>();
+        List<IDatabaseConnection> allConnections = Collections.synchronizedList(new ArrayList<>());
+        Set<String> insertedTables = Collections.synchronizedSet(new LinkedHashSet<>());
+        try {
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (String tableName : orderedTables) {
+                CompletableFuture<?>[] dependencies = referencedTables.get(key(tableName)).stream().map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                futures.put(key(tableName), CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                    IDatabaseConnection workerConnection = idleConnections.poll();
+                    try {
+                        if (workerConnection == null) {
+                            workerConnection = workerConnection(connection);
+                            allConnections.add(workerConnection);
+                        }
+                        insertTable(workerConnection, dataSet, tableName);
+                        insertedTables.add(tableName);
+                    } catch (DatabaseUnitException | SQLException e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        if (workerConnection != null) {
+                            idleConnections.add(workerConnection);
+                        }
+                    }
+                }, executor));
+            }
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                removeInsertedRows(connection, dataSet, orderedTables, insertedTables);
+                throw unwrap(e);
+            }
+        } finally {
+            executor.shutdownNow();
+            allConnections.forEach(ParallelInsertOperation::closeQuietly);
+        }
+    }
+
+    private static void insertTable(IDatabaseConnection workerConnection, IDataSet dataSet, String tableName)
+            throws DatabaseUnitException, SQLException {
+        Connection jdbcConnection = workerConnection.getConnection();
+        try {
+            DatabaseOperation.INSERT.execute(workerConnection, new FilteredDataSet(new String[] { tableName }, dataSet));
+            jdbcConnection.commit();
+            LOG.debug("Inserted table {}", tableName);
+        } catch (DatabaseUnitException | SQLException | RuntimeException e) {
+            jdbcConnection.rollback();
+            throw e;
+        }
+    }
+
+    private IDatabaseConnection workerConnection(IDatabaseConnection connection) throws DatabaseUnitException, SQLException {
+        Connection jdbcConnection = dataSource.getConnection();
+        try {
+            jdbcConnection.setAutoCommit(false);
+            String schema = connection.getSchema();
+            IDatabaseConnection workerConnection = schema == null ? new DatabaseConnection(jdbcConnection)
+                    : new DatabaseConnection(jdbcConnection, schema);
+            DatabaseConfig config = connection.getConfig();
+            for (String property : COPIED_PROPERTIES) {
+                Object value = config.getProperty(property);
+                if (value != null) {
+                    workerConnection.getConfig().setProperty(property, value);
+                }
+            }
+            return workerConnection;
+        } catch (DatabaseUnitException | SQLException | RuntimeException e) {
+            jdbcConnection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the rows of the data set from the tables that were inserted before inserting another table failed, using the primary keys.
+     * Tables without primary keys cannot be cleaned this way, and are left as they are.
+     */
+    private static void removeInsertedRows(IDatabaseConnection connection, IDataSet dataSet, List<String> orderedTables,
+            Set<String> insertedTables) {
+        List<String> tablesToClean;
+        synchronized (insertedTables) {
+            tablesToClean = orderedTables.stream().filter(insertedTables::contains).toList();
+        }
+        if (tablesToClean.isEmpty()) {
+            return;
+        }
+        LOG.debug("Inserting tables failed, removing inserted rows from {}", tablesToClean);
+        try {
+            DatabaseOperation.DELETE.execute(connection, new FilteredDataSet(tablesToClean.toArray(new String[0]), dataSet));
+        } catch (DatabaseUnitException | SQLException e) {
+            LOG.warn("Failed to remove inserted rows from {}: {}", tablesToClean, e.toString());
+        }
+    }
+
+    /**
+     * Finds the tables in the data set that each table in the data set refers to using foreign keys, ignoring references from a table to
+     * itself.
+     */
+    private static Map<String, Set<String>> referencedTables(IDatabaseConnection connection, String[] tableNames) throws SQLException {
+        Map<String, Set<String>> referencedTables = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            referencedTables.put(key(tableName), new LinkedHashSet<>());
+        }
+        DatabaseMetaData metaData = connection.getConnection().getMetaData();
+        String schema = connection.getSchema();
+        for (String tableName : tableNames) {
+            try (ResultSet rs = metaData.getImportedKeys(null, schema == null ? null : identifier(metaData, schema),
+                    identifier(metaData, tableName))) {
+                while (rs.next()) {
+                    String referencedTable = key(rs.getString("PKTABLE_NAME"));
+                    if (referencedTables.containsKey(referencedTable) && !referencedTable.equals(key(tableName))) {
+                        referencedTables.get(key(tableName)).add(referencedTable);
+                    }
+                }
+            }
+        }
+        return referencedTables;
+    }
+
+    /**
+     * Orders the tables so that each table comes after the tables it refers to, keeping the order of the data set as far as possible.
+     *
+     * @return the ordered tables, or an empty {@code Optional} if there are cyclic foreign keys
+     */
+    private static Optional<List<String>> topologicalOrder(String[] tableNames, Map<String, Set<String>> referencedTables) {
+        List<String> orderedTables = new ArrayList<>();
+        Set<String> orderedKeys = new LinkedHashSet<>();
+        Deque<String> remainingTables = new ArrayDeque<>(List.of(tableNames));
+        while (!remainingTables.isEmpty()) {
+            boolean progress = false;
+            for (String tableName : List.copyOf(remainingTables)) {
+                if (orderedKeys.containsAll(referencedTables.get(key(tableName)))) {
+                    orderedTables.add(tableName);
+                    orderedKeys.add(key(tableName));
+                    remainingTables.remove(tableName);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(orderedTables);
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    private static String key(String tableName) {
+        return tableName.toUpperCase(Locale.ROOT);
+    }
+
+    private static DatabaseUnitException unwrap(CompletionException e) throws DatabaseUnitException, SQLException {
+        Throwable cause = e.getCause();
+        if (cause instanceof DatabaseUnitException databaseUnitException) {
+            throw databaseUnitException;
+        } else if (cause instanceof SQLException sqlException) {
+            throw sqlException;
+        } else if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (cause instanceof Error error) {
+            throw error;
+        }
+        return new DatabaseUnitException("Parallel insert failed", cause);
+    }
+
+    private static void closeQuietly(IDatabaseConnection connection) {
+        try (Connection jdbcConnection = connection.getConnection()) {
+            jdbcConnection.setAutoCommit(true);
+        } catch (SQLException e) {
+            LOG.warn("Failed to close connection: {}", e.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelInsertOperation{parallelism=" + parallelism + ", deleteAllFirst=" + deleteAllFirst + "}";
+    }
+}
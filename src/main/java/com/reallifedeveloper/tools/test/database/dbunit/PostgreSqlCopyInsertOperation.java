@@ -0,0 +1,241 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.FilteredDataSet;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.ITableIterator;
+import org.dbunit.operation.CompositeOperation;
+import org.dbunit.operation.DatabaseOperation;
+import org.dbunit.util.QualifiedTableName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A DbUnit {@code DatabaseOperation} that inserts large tables using the PostgreSQL {@code COPY} command, which is much faster than
+ * inserting the rows using {@code INSERT} statements, even batched ones.
+ * <p>
+ * Tables with fewer rows than a threshold, tables with values that cannot be written as text, such as binary data, and all tables if the
+ * database is not PostgreSQL, are inserted using {@code DatabaseOperation.INSERT}. The tables are inserted in the order of the data set.
+ * <p>
+ * The PostgreSQL JDBC driver is accessed using reflection, so this class can be used without having the driver on the compile classpath.
+ * <p>
+ * To clean the tables before inserting, use {@link #CLEAN_INSERT}, or combine the operation with {@code DatabaseOperation.DELETE_ALL}
+ * using a {@code CompositeOperation}.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class PostgreSqlCopyInsertOperation extends DatabaseOperation {
+
+    /**
+     * The default minimum number of rows for a table to be inserted using {@code COPY}.
+     */
+    public static final int DEFAULT_MIN_ROWS_FOR_COPY = 1000;
+
+    /**
+     * An operation that deletes all rows of the tables in the data set, and then inserts the data using
+     * {@code PostgreSqlCopyInsertOperation} with the default threshold.
+     */
+    public static final DatabaseOperation CLEAN_INSERT = new CompositeOperation(DatabaseOperation.DELETE_ALL,
+            new PostgreSqlCopyInsertOperation(DEFAULT_MIN_ROWS_FOR_COPY));
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostgreSqlCopyInsertOperation.class);
+
+    private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+    private static final String COPY_MANAGER_CLASS = "org.postgresql.copy.CopyManager";
+
+    private final int minRowsForCopy;
+
+    /**
+     * Creates a new {@code PostgreSqlCopyInsertOperation}.
+     *
+     * @param minRowsForCopy the minimum number of rows for a table to be inserted using {@code COPY}
+     */
+    public PostgreSqlCopyInsertOperation(int minRowsForCopy) {
+        if (minRowsForCopy < 0) {
+            throw new IllegalArgumentException("minRowsForCopy must not be negative: " + minRowsForCopy);
+        }
+        this.minRowsForCopy = minRowsForCopy;
+    }
+
+    @Override
+    public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+        Connection jdbcConnection = connection.getConnection();
+        Class<?> pgConnectionClass = pgConnectionClass(jdbcConnection);
+        if (pgConnectionClass == null) {
+            LOG.debug("Not a PostgreSQL connection, using normal inserts");
+            DatabaseOperation.INSERT.execute(connection, dataSet);
+            return;
+        }
+        List<String> tablesToInsert = new ArrayList<>();
+        ITableIterator it = dataSet.iterator();
+        while (it.next()) {
+            ITable table = it.getTable();
+            String tableName = table.getTableMetaData().getTableName();
+            if (table.getRowCount() < minRowsForCopy || !isCopyable(table)) {
+                tablesToInsert.add(tableName);
+                continue;
+            }
+            insertTables(connection, dataSet, tablesToInsert);
+            copy(jdbcConnection, pgConnectionClass, copyCommand(connection, table), new CsvTableReader(table));
+            LOG.debug("Copied {} rows into {}", table.getRowCount(), tableName);
+        }
+        insertTables(connection, dataSet, tablesToInsert);
+    }
+
+    private static void insertTables(IDatabaseConnection connection, IDataSet dataSet, List<String> tableNames)
+            throws DatabaseUnitException, SQLException {
+        if (!tableNames.isEmpty()) {
+            DatabaseOperation.INSERT.execute(connection, new FilteredDataSet(tableNames.toArray(new String[0]), dataSet));
+            tableNames.clear();
+        }
+    }
+
+    private static @Nullable Class<?> pgConnectionClass(Connection connection) throws SQLException {
+        try {
+            Class<?> pgConnectionClass = Class.forName(PG_CONNECTION_CLASS, true, connection.getClass().getClassLoader());
+            return connection.isWrapperFor(pgConnectionClass) ? pgConnectionClass : null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /* package-private */ static String copyCommand(IDatabaseConnection connection, ITable table) throws DataSetException {
+        String escapePattern = (String) connection.getConfig().getProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN);
+        String tableName = new QualifiedTableName(table.getTableMetaData().getTableName(), connection.getSchema(), escapePattern)
+                .getQualifiedName();
+        StringJoiner columns = new StringJoiner(", ", " (", ")");
+        for (Column column : table.getTableMetaData().getColumns()) {
+            // Column names are escaped the same way as table names, as DbUnit does in its own INSERT statements.
+            columns.add(new QualifiedTableName(column.getColumnName(), null, escapePattern).getQualifiedName());
+        }
+        return "COPY " + tableName + columns + " FROM STDIN WITH (FORMAT csv)";
+    }
+
+    private static void copy(Connection connection, Class<?> pgConnectionClass, String command, Reader csv) throws SQLException {
+        try {
+            Object pgConnection = connection.unwrap(pgConnectionClass);
+            Object copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            Method copyIn = Class.forName(COPY_MANAGER_CLASS, true, pgConnectionClass.getClassLoader()).getMethod("copyIn", String.class,
+                    Reader.class);
+            copyIn.invoke(copyManager, command, csv);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("COPY failed: " + command, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Failed to use the PostgreSQL COPY API", e);
+        }
+    }
+
+    /**
+     * Checks if all values of a table can be written as text using {@link CsvTableReader}.
+     *
+     * @param table the table to check
+     *
+     * @return {@code true} if all values are {@code null}, character sequences, numbers or booleans
+     *
+     * @throws DataSetException if reading from the table failed
+     */
+    /* package-private */ static boolean isCopyable(ITable table) throws DataSetException {
+        Column[] columns = table.getTableMetaData().getColumns();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            for (Column column : columns) {
+                if (!isText(table.getValue(row, column.getColumnName()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isText(@Nullable Object value) {
+        return value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean;
+    }
+
+    @Override
+    public String toString() {
+        return "PostgreSqlCopyInsertOperation{minRowsForCopy=" + minRowsForCopy + "}";
+    }
+
+    /**
+     * A {@code Reader} giving the rows of a table in the CSV format used by the PostgreSQL {@code COPY} command, where {@code null} is
+     * written as an unquoted empty value and all other values are quoted. The rows are converted one at a time as they are read, so the
+     * table is never held in memory as text.
+     */
+    /* package-private */ static final class CsvTableReader extends Reader {
+
+        private final ITable table;
+        private final Column[] columns;
+        private final StringBuilder buffer = new StringBuilder();
+        private int position;
+        private int row;
+
+        CsvTableReader(ITable table) throws DataSetException {
+            this.table = table;
+            this.columns = table.getTableMetaData().getColumns();
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (position == buffer.length()) {
+                if (row == table.getRowCount()) {
+                    return -1;
+                }
+                readRow();
+            }
+            int n = Math.min(len, buffer.length() - position);
+            buffer.getChars(position, position + n, cbuf, off);
+            position += n;
+            return n;
+        }
+
+        private void readRow() throws IOException {
+            buffer.setLength(0);
+            position = 0;
+            try {
+                for (int column = 0; column < columns.length; column++) {
+                    if (column > 0) {
+                        buffer.append(',');
+                    }
+                    String columnName = columns[column].getColumnName();
+                    Object value = table.getValue(row, columnName);
+                    if (!isText(value)) {
+                        throw new IOException("Value in column " + columnName + " cannot be written as text: " + value);
+                    }
+                    if (value != null) {
+                        buffer.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+                    }
+                }
+            } catch (DataSetException e) {
+                throw new IOException("Failed to read row " + row + " of table " + table.getTableMetaData().getTableName(), e);
+            }
+            buffer.append('\n');
+            row++;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close, the table is owned by the data set.
+        }
+    }
+}
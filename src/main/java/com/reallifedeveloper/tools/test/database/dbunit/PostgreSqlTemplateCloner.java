@@ -0,0 +1,95 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DatabaseCloner} for PostgreSQL that creates clones using {@code CREATE DATABASE clone TEMPLATE template}, which copies the
+ * files of the template database and is much faster than creating the schema and inserting the test data again.
+ * <p>
+ * PostgreSQL only allows a database to be used as a template if nobody else is connected to it, so the {@code DataSource} created for
+ * the template database must not keep connections open, e.g., it should not be a connection pool.
+ *
+ * @author RealLifeDeveloper
+ */
+public final class PostgreSqlTemplateCloner implements DatabaseCloner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostgreSqlTemplateCloner.class);
+
+    private static final Pattern DATABASE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final DataSource adminDataSource;
+    private final String templateDatabaseName;
+    private final Function<String, DataSource> dataSourceFactory;
+    private final DatabaseInitializer templateInitializer;
+
+    /**
+     * Creates a new {@code PostgreSqlTemplateCloner}.
+     *
+     * @param adminDataSource      a {@code DataSource} for a database user allowed to create databases, connected to a database other
+     *                             than the template, e.g., {@code postgres}
+     * @param templateDatabaseName the name of the template database, which is created, or re-created if it already exists
+     * @param dataSourceFactory    a function that creates a {@code DataSource} for the database with the given name
+     * @param templateInitializer  the {@code DatabaseInitializer} used to create the schema and insert test data into the template
+     */
+    public PostgreSqlTemplateCloner(DataSource adminDataSource, String templateDatabaseName, Function<String, DataSource> dataSourceFactory,
+            DatabaseInitializer templateInitializer) {
+        if (adminDataSource == null || templateDatabaseName == null || dataSourceFactory == null || templateInitializer == null) {
+            throw new IllegalArgumentException("Arguments must not be null: adminDataSource=" + adminDataSource + ", templateDatabaseName="
+                    + templateDatabaseName + ", dataSourceFactory=" + dataSourceFactory + ", templateInitializer=" + templateInitializer);
+        }
+        this.adminDataSource = adminDataSource;
+        this.templateDatabaseName = validDatabaseName(templateDatabaseName);
+        this.dataSourceFactory = dataSourceFactory;
+        this.templateInitializer = templateInitializer;
+    }
+
+    @Override
+    public void prepareTemplate() throws SQLException {
+        executeAsAdmin("DROP DATABASE IF EXISTS " + templateDatabaseName);
+        executeAsAdmin("CREATE DATABASE " + templateDatabaseName);
+        try {
+            templateInitializer.initialize(dataSourceFactory.apply(templateDatabaseName));
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException("Failed to initialize template database " + templateDatabaseName, e);
+        }
+        LOG.info("Template database {} prepared", templateDatabaseName);
+    }
+
+    @Override
+    public DataSource createClone(String cloneName) throws SQLException {
+        String databaseName = validDatabaseName(cloneName);
+        executeAsAdmin("DROP DATABASE IF EXISTS " + databaseName);
+        executeAsAdmin("CREATE DATABASE " + databaseName + " TEMPLATE " + templateDatabaseName);
+        return dataSourceFactory.apply(databaseName);
+    }
+
+    @Override
+    public void dropClone(String cloneName, DataSource clone) throws SQLException {
+        executeAsAdmin("DROP DATABASE IF EXISTS " + validDatabaseName(cloneName));
+    }
+
+    private void executeAsAdmin(String sql) throws SQLException {
+        LOG.debug("Executing: {}", sql);
+        try (Connection connection = adminDataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String validDatabaseName(String name) {
+        if (!DATABASE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid database name: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,198 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Sorts rows of string values that may not fit in memory. Rows are collected in a buffer, and each time the buffer is full it is sorted
+ * and written to a temporary file. When all rows have been added, the sorted rows are read by merging the temporary files and the rows
+ * remaining in the buffer, so at most one buffer of rows, plus one row per temporary file, is kept in memory. If all rows fit in the
+ * buffer, no temporary files are created.
+ * <p>
+ * Closing the sorter deletes the temporary files.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author RealLifeDeveloper
+ */
+/* package-private */ final class ExternalRowSorter implements Closeable {
+
+    private final int bufferSize;
+    private final Comparator<@Nullable String[]> comparator;
+    private final List<@Nullable String[]> buffer = new ArrayList<>();
+    private final List<Path> files = new ArrayList<>();
+    private final List<DataInputStream> inputs = new ArrayList<>();
+    private @Nullable PriorityQueue<Source> sources;
+
+    /**
+     * Creates a new {@code ExternalRowSorter}.
+     *
+     * @param bufferSize the maximum number of rows to keep in memory
+     * @param comparator the comparator giving the order of the rows
+     */
+    /* package-private */ ExternalRowSorter(int bufferSize, Comparator<@Nullable String[]> comparator) {
+        this.bufferSize = bufferSize;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds a row to be sorted.
+     *
+     * @param row the values of the row, some of which may be {@code null}
+     *
+     * @throws IOException          if writing to a temporary file failed
+     * @throws IllegalStateException if reading the sorted rows has started
+     */
+    /* package-private */ void add(@Nullable String[] row) throws IOException {
+        if (sources != null) {
+            throw new IllegalStateException("Cannot add rows after reading has started");
+        }
+        buffer.add(row);
+        if (buffer.size() >= bufferSize) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(comparator);
+        Path file = Files.createTempFile("rld-sorted-rows", ".bin");
+        files.add(file);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (@Nullable String[] row : buffer) {
+                out.writeInt(row.length);
+                for (String value : row) {
+                    if (value == null) {
+                        out.writeInt(-1);
+                    } else {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gives the next row in sorted order. The first call ends adding rows.
+     *
+     * @return the next row, or {@code null} if there are no more rows
+     *
+     * @throws IOException if reading from a temporary file failed
+     */
+    /* package-private */ @Nullable String @Nullable [] next() throws IOException {
+        PriorityQueue<Source> queue = sources;
+        if (queue == null) {
+            queue = new PriorityQueue<>((s1, s2) -> comparator.compare(s1.row, s2.row));
+            buffer.sort(comparator);
+            addSource(queue, new Source(null));
+            for (Path file : files) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+                inputs.add(in);
+                addSource(queue, new Source(in));
+            }
+            sources = queue;
+        }
+        Source source = queue.poll();
+        if (source == null) {
+            return null;
+        }
+        @Nullable String[] row = source.row;
+        addSource(queue, source);
+        return row;
+    }
+
+    private void addSource(PriorityQueue<Source> queue, Source source) throws IOException {
+        if (source.advance()) {
+            queue.add(source);
+        }
+    }
+
+    /**
+     * Gives the number of temporary files created.
+     *
+     * @return the number of temporary files
+     */
+    /* package-private */ int fileCount() {
+        return files.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (DataInputStream in : inputs) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        inputs.clear();
+        files.clear();
+        buffer.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * A sorted sequence of rows, either the buffer or a temporary file, and its current row.
+     */
+    private final class Source {
+
+        private final @Nullable DataInputStream in;
+        private int bufferIndex;
+        private @Nullable String[] row = new String[0];
+
+        Source(@Nullable DataInputStream in) {
+            this.in = in;
+        }
+
+        boolean advance() throws IOException {
+            if (in == null) {
+                if (bufferIndex >= buffer.size()) {
+                    return false;
+                }
+                row = buffer.get(bufferIndex++);
+                return true;
+            }
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            @Nullable String[] values = new String[length];
+            for (int i = 0; i < length; i++) {
+                int byteCount = in.readInt();
+                if (byteCount >= 0) {
+                    values[i] = new String(in.readNBytes(byteCount), StandardCharsets.UTF_8);
+                }
+            }
+            row = values;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter;
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableField;
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow;
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
+
+/**
+ * A class to read tables from a database using JDBC and populate Spring Data {@code CrudRepository} instances, normally in-memory
+ * repositories, using the rows read.
+ * <p>
+ * This is useful when reference data is kept in a database, e.g., a local HSQLDB or H2 database, since the data does not have to be
+ * exported to a file first. The rows are mapped to entities by a {@link CrudRepositoryWriter}, in the same way as rows read from CSV or
+ * DbUnit flat XML files, but the values are the objects returned by the JDBC driver, which are converted directly to the field types
+ * instead of being formatted and parsed as text.
+ * <p>
+ * The rows are streamed from the database using forward-only result sets, fetching a number of rows at a time, see
+ * {@link #setFetchSize(int)}. The tables are read in one read-only transaction, which is rolled back when all tables have been read.
+ * <p>
+ * If any {@code FixtureLoadListener}s have been registered with {@link FixtureLoadMonitor}, they are notified with the time spent
+ * fetching rows (reported as parsing), converting, wiring and saving each time tables have been read.
+ *
+ * @author RealLifeDeveloper
+ */
+@SuppressFBWarnings(value = { "SQL_INJECTION_JDBC", "CRLF_INJECTION_LOGS" },
+        justification = "Table names, schema name and row filters are given by the test code, not by users")
+public final class JdbcDatabaseReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcDatabaseReader.class);
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final CrudRepositoryWriter crudRepositoryWriter = new CrudRepositoryWriter();
+    private final Map<String, String> rowFilters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private @Nullable String schemaName;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Creates a new {@code JdbcDatabaseReader} reading from the given data source.
+     *
+     * @param dataSource the data source to read from
+     */
+    public JdbcDatabaseReader(DataSource dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource must not be null");
+        }
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Read the tables from the given schema. The default is to use the default schema of the connection.
+     *
+     * @param schemaName the name of the schema, or {@code null} to use the default schema
+     */
+    public void setSchemaName(@Nullable String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * Only read the rows of a table that match an SQL condition, e.g., {@code "ID < 1000"}. The default is to read all rows.
+     *
+     * @param tableName    the name of the table, ignoring case
+     * @param sqlCondition the condition the rows to read must match
+     */
+    public void setRowFilter(String tableName, String sqlCondition) {
+        if (tableName == null || sqlCondition == null) {
+            throw new IllegalArgumentException("Arguments must not be null: tableName=" + tableName + ", sqlCondition=" + sqlCondition);
+        }
+        rowFilters.put(tableName, sqlCondition);
+    }
+
+    /**
+     * Change the number of rows fetched from the database at a time. The default is 1000.
+     *
+     * @param fetchSize the number of rows to fetch at a time, must be positive
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Reads a table from the database, populating the given repository with entities of the given type.
+     *
+     * @param repository           the repository to populate with the entities from the table
+     * @param repositoryEntityType the class object representing {@code <T>}, i.e., the class of entities in the repository
+     * @param entityType           the class object representing {@code <E>}, i.e., the class of entity being read
+     * @param tableName            the name of the database table to read; may be either the table associated with the entity, or a join
+     *                             table
+     * @param <T>                  the type of entities in the repository
+     * @param <E>                  the type of entity being read
+     * @param <ID>                 the type of the primary key of the entities in the repository
+     *
+     * @throws SQLException if reading from the database failed
+     */
+    public <T, E, ID extends Serializable> void read(CrudRepository<T, ID> repository, Class<T> repositoryEntityType,
+            @Nullable Class<E> entityType, String tableName) throws SQLException {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(repositoryEntityType, repository);
+        read(repositories, t -> entityType, List.of(tableName));
+    }
+
+    /**
+     * Reads tables from the database, populating the repositories in the given registry.
+     * <p>
+     * The rows of each table are converted to entities of the type registered for the table and saved in the repository for that type,
+     * and the rows of tables without a registered entity type are treated as join table rows. References between the entities are
+     * filled in once all tables have been read. As when inserting rows into a database, a table must be read after the tables it
+     * references using foreign key columns.
+     *
+     * @param repositories the repositories to populate, and the entity types to create
+     * @param tableNames   the names of the tables to read, in the order to read them
+     *
+     * @throws SQLException if reading from the database failed
+     */
+    public void read(RepositoryRegistry repositories, String... tableNames) throws SQLException {
+        if (repositories == null || tableNames == null || tableNames.length == 0) {
+            throw new IllegalArgumentException("Arguments must not be null or empty: repositories=" + repositories + ", tableNames="
+                    + (tableNames == null ? null : Arrays.asList(tableNames)));
+        }
+        read(repositories, repositories::entityType, Arrays.asList(tableNames));
+    }
+
+    private void read(RepositoryRegistry repositories, Function<String, @Nullable Class<?>> entityTypes, List<String> tableNames)
+            throws SQLException {
+        LOG.info("Reading tables {}", tableNames);
+        FixtureLoadMonitor monitor = FixtureLoadMonitor.start(String.join(",", tableNames), JdbcDatabaseReader.class);
+        crudRepositoryWriter.setFixtureLoadMonitor(monitor);
+        Throwable failure = null;
+        try {
+            Connection connection = DataSourceUtils.doGetConnection(dataSource);
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                try {
+                    for (String tableName : tableNames) {
+                        readTable(connection, tableName, repositories, entityTypes.apply(tableName), monitor);
+                    }
+                } finally {
+                    if (autoCommit) {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    }
+                }
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            long wiringStartTime = monitor.now();
+            long savingNanosBefore = monitor.savingNanos();
+            crudRepositoryWriter.fillReferencesBetweenEntities(repositories);
+            monitor.wired(wiringStartTime, savingNanosBefore);
+        } catch (ReflectiveOperationException | SecurityException e) {
+            failure = e;
+            throw new IllegalStateException("Unexpected problem reading tables " + tableNames, e);
+        } catch (SQLException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            crudRepositoryWriter.setFixtureLoadMonitor(FixtureLoadMonitor.disabled());
+            monitor.finish(failure);
+        }
+    }
+
+    /**
+     * Streams the rows of a table to the {@code CrudRepositoryWriter}. Auto-commit has been turned off, since some drivers, e.g., the
+     * PostgreSQL driver, otherwise ignore the fetch size and read the whole result into memory. If the connection belongs to a Spring
+     * transaction, it is used as is, and the transaction is neither committed nor rolled back.
+     */
+    private void readTable(Connection connection, String tableName, RepositoryRegistry repositories, @Nullable Class<?> entityType,
+            FixtureLoadMonitor monitor) throws SQLException, ReflectiveOperationException {
+        long startTime = System.nanoTime();
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            long parseStartTime = monitor.now();
+            long rowCount = 0;
+            try (ResultSet rs = statement.executeQuery(selectStatement(tableName))) {
+                JdbcTableRow tableRow = new JdbcTableRow(rs);
+                while (tableRow.next()) {
+                    monitor.parsed(parseStartTime);
+                    writeRow(tableRow, repositories, entityType, tableName, monitor);
+                    rowCount++;
+                    parseStartTime = monitor.now();
+                }
+            }
+            monitor.parsed(parseStartTime);
+            LOG.debug("Read {} rows from {} in {} ms", rowCount, tableName, (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    private void writeRow(DbTableRow tableRow, RepositoryRegistry repositories, @Nullable Class<?> entityType, String tableName,
+            FixtureLoadMonitor monitor) throws ReflectiveOperationException {
+        long startTime = monitor.now();
+        long savingNanosBefore = monitor.savingNanos();
+        if (!crudRepositoryWriter.writeEntity(tableRow, entityType, repositories, tableName)) {
+            crudRepositoryWriter.addEntitiesFromJoinTable(tableRow, tableName);
+        }
+        monitor.rowLoaded(tableName, startTime, savingNanosBefore);
+    }
+
+    private String selectStatement(String tableName) {
+        String qualifiedTableName = schemaName == null ? tableName : schemaName + "." + tableName;
+        String rowFilter = rowFilters.get(tableName);
+        return rowFilter == null ? "SELECT * FROM " + qualifiedTableName : "SELECT * FROM " + qualifiedTableName + " WHERE " + rowFilter;
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcDatabaseReader{schemaName=" + schemaName + ", fetchSize=" + fetchSize + ", rowFilters=" + rowFilters + "}";
+    }
+
+    /**
+     * A {@link DbTableRow} that is backed by a {@code ResultSet}, so the same object represents the current row of the result set. The
+     * values are read using {@code ResultSet.getObject}, so they have the types used by the JDBC driver. Arrays and large objects are
+     * read into memory, since they may not be valid after moving to the next row.
+     */
+    private static final class JdbcTableRow implements DbTableRow {
+
+        private final ResultSet rs;
+        private final String[] columnNames;
+        private final @Nullable Object[] values;
+
+        /* package-private */ JdbcTableRow(ResultSet rs) throws SQLException {
+            this.rs = rs;
+            ResultSetMetaData metaData = rs.getMetaData();
+            this.columnNames = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnNames[i] = metaData.getColumnLabel(i + 1);
+            }
+            this.values = new Object[columnNames.length];
+        }
+
+        /* package-private */ boolean next() throws SQLException {
+            if (!rs.next()) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = value(rs.getObject(i + 1));
+            }
+            return true;
+        }
+
+        private static @Nullable Object value(@Nullable Object object) throws SQLException {
+            if (object instanceof Array array) {
+                try {
+                    return array.getArray();
+                } finally {
+                    array.free();
+                }
+            } else if (object instanceof Clob clob) {
+                try {
+                    return clob.getSubString(1, Math.toIntExact(clob.length()));
+                } finally {
+                    clob.free();
+                }
+            } else if (object instanceof Blob blob) {
+                try {
+                    return blob.getBytes(1, Math.toIntExact(blob.length()));
+                } finally {
+                    blob.free();
+                }
+            }
+            return object;
+        }
+
+        @Override
+        public List<DbTableField> columns() {
+            List<DbTableField> columns = new ArrayList<>();
+            for (int i = 0; i < columnNames.length; i++) {
+                CharSequence value = columnValue(i);
+                columns.add(new DbTableField(columnNames[i], value == null ? null : value.toString()));
+            }
+            return columns;
+        }
+
+        @Override
+        public int columnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String columnName(int index) {
+            return columnNames[index];
+        }
+
+        @Override
+        public @Nullable CharSequence columnValue(int index) {
+            Object value = values[index];
+            if (value instanceof Object[] array) {
+                return Arrays.stream(array).map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+            }
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        public @Nullable Object typedColumnValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        public String toString() {
+            return "JdbcTableRow{columns=" + columns() + "}";
+        }
+    }
+}
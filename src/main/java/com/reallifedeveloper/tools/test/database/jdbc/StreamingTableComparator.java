@@ -0,0 +1,693 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import com.opencsv.exceptions.CsvException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import com.reallifedeveloper.tools.test.database.csv.CsvRowCursor;
+
+/**
+ * Compares the contents of a database table with the expected contents given in a flat XML or CSV file, without reading either of them
+ * into memory, so that tables with millions of rows can be verified.
+ * <p>
+ * The rows of the table are read using JDBC, ordered by primary key. The expected rows are sorted by primary key, using temporary files if
+ * there are more rows than fit in the sort buffer, see {@link #setSortBufferSize(int)}. The two sorted streams of rows are then merged,
+ * and the first differences are reported, see {@link #setMaxDifferences(int)}.
+ * <p>
+ * Only the columns present in the expected data are compared. The values are compared after converting them to a normalized form based
+ * on the JDBC type of the column, e.g., {@code BigDecimal} for numbers and {@code LocalDateTime} for timestamps, so {@code "5"} and
+ * {@code "5.0"} are equal for a numeric column. Binary values are compared as Base64 strings.
+ * <p>
+ * A file whose name ends with {@code .csv} is read as a CSV file with a header containing the column names, where an empty value means
+ * {@code null}. Other files are read as DbUnit flat XML files, using only the rows for the table being compared. A missing attribute
+ * means {@code null}.
+ * <p>
+ * The rows are merged using the key order given by the database, so string primary keys must use a collation that orders strings the
+ * same way as {@code String.compareTo}. If they do not, an {@code IllegalStateException} is thrown.
+ * <p>
+ * An example:
+ *
+ * <pre>
+ * StreamingTableComparator comparator = new StreamingTableComparator(dataSource);
+ * comparator.assertTableEquals("/expected/orders.xml", "ORDERS");
+ * </pre>
+ *
+ * @author RealLifeDeveloper
+ */
+@SuppressFBWarnings(value = { "SQL_INJECTION_JDBC", "CRLF_INJECTION_LOGS" }, justification = "Table names are given by the test")
+public final class StreamingTableComparator {
+
+    /**
+     * The default maximum number of differences to report.
+     */
+    public static final int DEFAULT_MAX_DIFFERENCES = 10;
+
+    /**
+     * The default maximum number of expected rows to sort in memory.
+     */
+    public static final int DEFAULT_SORT_BUFFER_SIZE = 100_000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingTableComparator.class);
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int ISO_DATE_LENGTH = 10;
+
+    private final DataSource dataSource;
+    private final Map<String, String> rowFilters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private @Nullable String schemaName;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int maxDifferences = DEFAULT_MAX_DIFFERENCES;
+    private int sortBufferSize = DEFAULT_SORT_BUFFER_SIZE;
+    private char csvSeparatorCharacter = ',';
+
+    /**
+     * Creates a new {@code StreamingTableComparator} comparing tables in the given data source.
+     *
+     * @param dataSource the data source containing the tables to compare
+     */
+    public StreamingTableComparator(DataSource dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource must not be null");
+        }
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Compare tables in the given schema. The default is to use the default schema of the connection.
+     *
+     * @param schemaName the name of the schema, or {@code null} to use the default schema
+     */
+    public void setSchemaName(@Nullable String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * Only compare the rows of a table that match an SQL condition, e.g., {@code "ID < 1000"}. The default is to compare all rows.
+     *
+     * @param tableName    the name of the table, ignoring case
+     * @param sqlCondition the condition the rows to compare must match
+     */
+    public void setRowFilter(String tableName, String sqlCondition) {
+        if (tableName == null || sqlCondition == null) {
+            throw new IllegalArgumentException("Arguments must not be null: tableName=" + tableName + ", sqlCondition=" + sqlCondition);
+        }
+        rowFilters.put(tableName, sqlCondition);
+    }
+
+    /**
+     * Change the number of rows fetched from the database at a time. The default is 1000.
+     *
+     * @param fetchSize the number of rows to fetch at a time, must be positive
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Change the maximum number of differences to report. The comparison stops when this many differences have been found. The default
+     * is {@value #DEFAULT_MAX_DIFFERENCES}.
+     *
+     * @param maxDifferences the maximum number of differences, must be positive
+     */
+    public void setMaxDifferences(int maxDifferences) {
+        if (maxDifferences <= 0) {
+            throw new IllegalArgumentException("maxDifferences must be positive: " + maxDifferences);
+        }
+        this.maxDifferences = maxDifferences;
+    }
+
+    /**
+     * Change the maximum number of expected rows to sort in memory. If there are more expected rows, they are sorted using temporary
+     * files. The default is {@value #DEFAULT_SORT_BUFFER_SIZE}.
+     *
+     * @param sortBufferSize the maximum number of rows to sort in memory, must be positive
+     */
+    public void setSortBufferSize(int sortBufferSize) {
+        if (sortBufferSize <= 0) {
+            throw new IllegalArgumentException("sortBufferSize must be positive: " + sortBufferSize);
+        }
+        this.sortBufferSize = sortBufferSize;
+    }
+
+    /**
+     * Change the separator character used when reading CSV files. The default is ','.
+     *
+     * @param csvSeparatorCharacter the separator character, normally ',' or ';'
+     */
+    public void setCsvSeparatorCharacter(char csvSeparatorCharacter) {
+        this.csvSeparatorCharacter = csvSeparatorCharacter;
+    }
+
+    /**
+     * Compares the contents of a table with the expected rows in a flat XML or CSV file.
+     *
+     * @param resourceName the classpath resource containing the expected rows
+     * @param tableName    the name of the table to compare
+     *
+     * @return the first differences found, at most {@code maxDifferences}, or an empty list if the table contains exactly the expected
+     *         rows
+     *
+     * @throws IOException              if reading the expected rows failed
+     * @throws SQLException             if reading from the database failed
+     * @throws IllegalArgumentException if the table has no primary key, if the expected data contains a column that is not in the table,
+     *                                  or if an expected row has no value for a primary key column
+     */
+    public List<TableDifference> compare(String resourceName, String tableName) throws IOException, SQLException {
+        if (resourceName == null || tableName == null) {
+            throw new IllegalArgumentException("Arguments must not be null: resourceName=" + resourceName + ", tableName=" + tableName);
+        }
+        long startTime = System.nanoTime();
+        // Use the connection of the current Spring transaction, if any, so that changes made by the test are seen.
+        Connection connection = DataSourceUtils.doGetConnection(dataSource);
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                TableColumns columns = tableColumns(connection, tableName);
+                try (ExternalRowSorter sorter = new ExternalRowSorter(sortBufferSize, columns::compareRows)) {
+                    boolean[] expectedColumns = readExpectedRows(resourceName, tableName, columns, sorter);
+                    List<TableDifference> differences = mergeJoin(connection, tableName, columns, expectedColumns, sorter);
+                    LOG.debug("Compared {} with {} in {} ms using {} temporary files, {} differences", tableName, resourceName,
+                            (System.nanoTime() - startTime) / 1_000_000, sorter.fileCount(), differences.size());
+                    return differences;
+                }
+            } finally {
+                if (autoCommit) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Verifies that a table contains exactly the expected rows in a flat XML or CSV file.
+     *
+     * @param resourceName the classpath resource containing the expected rows
+     * @param tableName    the name of the table to compare
+     *
+     * @throws AssertionError           if the table differs from the expected rows, with the first differences in the message
+     * @throws IOException              if reading the expected rows failed
+     * @throws SQLException             if reading from the database failed
+     * @throws IllegalArgumentException if the table has no primary key, if the expected data contains a column that is not in the table,
+     *                                  or if an expected row has no value for a primary key column
+     */
+    public void assertTableEquals(String resourceName, String tableName) throws IOException, SQLException {
+        List<TableDifference> differences = compare(resourceName, tableName);
+        if (!differences.isEmpty()) {
+            StringBuilder message = new StringBuilder("Table " + tableName + " does not match " + resourceName);
+            if (differences.size() == maxDifferences) {
+                message.append(", showing the first ").append(maxDifferences).append(" differences");
+            }
+            message.append(':');
+            for (TableDifference difference : differences) {
+                message.append(System.lineSeparator()).append("    ").append(difference);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    private TableColumns tableColumns(Connection connection, String tableName) throws SQLException {
+        List<String> columnNames = new ArrayList<>();
+        List<Integer> sqlTypes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT * FROM " + qualifiedTableName(tableName) + " WHERE 1 = 0")) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columnNames.add(metaData.getColumnLabel(i));
+                sqlTypes.add(metaData.getColumnType(i));
+            }
+        }
+        List<String> keyColumnNames = primaryKeyColumns(connection, tableName);
+        if (keyColumnNames.isEmpty()) {
+            throw new IllegalArgumentException("Table " + tableName + " has no primary key");
+        }
+        return new TableColumns(columnNames, sqlTypes.stream().mapToInt(Integer::intValue).toArray(), keyColumnNames);
+    }
+
+    /**
+     * Gives the names of the primary key columns of a table, in key order. Since databases differ in how they store unquoted names, the
+     * name is looked up as given, in upper case and in lower case.
+     */
+    private List<String> primaryKeyColumns(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String schema = schemaName == null ? connection.getSchema() : schemaName;
+        for (int variant = 0; variant < 3; variant++) {
+            String table = caseVariant(tableName, variant);
+            String schemaVariant = schema == null ? null : caseVariant(schema, variant);
+            TreeMap<Short, String> keyColumns = new TreeMap<>();
+            try (ResultSet rs = metaData.getPrimaryKeys(connection.getCatalog(), schemaVariant, table)) {
+                while (rs.next()) {
+                    keyColumns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                }
+            }
+            if (!keyColumns.isEmpty()) {
+                return new ArrayList<>(keyColumns.values());
+            }
+        }
+        return List.of();
+    }
+
+    private static String caseVariant(String name, int variant) {
+        if (variant == 1) {
+            return name.toUpperCase(Locale.ROOT);
+        } else if (variant == 2) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    private String qualifiedTableName(String tableName) {
+        return schemaName == null ? tableName : schemaName + "." + tableName;
+    }
+
+    /**
+     * Reads the expected rows for a table and adds them to a sorter.
+     *
+     * @return for each column of the table, whether it is present in the expected data
+     */
+    private boolean[] readExpectedRows(String resourceName, String tableName, TableColumns columns, ExternalRowSorter sorter)
+            throws IOException {
+        try (InputStream in = StreamingTableComparator.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new FileNotFoundException(resourceName);
+            }
+            LOG.info("Reading expected rows for {} from {}", tableName, resourceName.replaceAll("[\r\n]", ""));
+            boolean[] expectedColumns = new boolean[columns.size()];
+            if (resourceName.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                readCsv(in, resourceName, tableName, columns, expectedColumns, sorter);
+            } else {
+                readFlatXml(in, resourceName, tableName, columns, expectedColumns, sorter);
+            }
+            return expectedColumns;
+        }
+    }
+
+    private void readCsv(InputStream in, String resourceName, String tableName, TableColumns columns, boolean[] expectedColumns,
+            ExternalRowSorter sorter) throws IOException {
+        try (CsvRowCursor cursor = new CsvRowCursor(new InputStreamReader(in, StandardCharsets.UTF_8), csvSeparatorCharacter)) {
+            if (!cursor.next()) {
+                return;
+            }
+            String[] header = cursor.toStringArray();
+            int[] indexes = new int[header.length];
+            for (int i = 0; i < header.length; i++) {
+                indexes[i] = columns.index(header[i], resourceName, tableName);
+                expectedColumns[indexes[i]] = true;
+            }
+            while (cursor.next()) {
+                if (cursor.cellCount() != header.length) {
+                    throw new IllegalArgumentException("header and row should be of same length: header=" + Arrays.asList(header)
+                            + ", row=" + Arrays.asList(cursor.toStringArray()));
+                }
+                @Nullable String[] row = new String[columns.size()];
+                for (int i = 0; i < header.length; i++) {
+                    CharSequence value = cursor.cell(i);
+                    row[indexes[i]] = value.length() == 0 ? null : value.toString();
+                }
+                addRow(row, cursor.rowNumber(), resourceName, tableName, columns, sorter);
+            }
+        } catch (CsvException e) {
+            throw new IOException("Failed to parse CSV file " + resourceName, e);
+        }
+    }
+
+    private static void readFlatXml(InputStream in, String resourceName, String tableName, TableColumns columns,
+            boolean[] expectedColumns, ExternalRowSorter sorter) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                int depth = 0;
+                long rowNumber = 0;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == 2 && xml.getLocalName().equalsIgnoreCase(tableName)) {
+                            @Nullable String[] row = new String[columns.size()];
+                            for (int i = 0; i < xml.getAttributeCount(); i++) {
+                                int index = columns.index(xml.getAttributeLocalName(i), resourceName, tableName);
+                                row[index] = xml.getAttributeValue(i);
+                                expectedColumns[index] = true;
+                            }
+                            addRow(row, ++rowNumber, resourceName, tableName, columns, sorter);
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse flat XML file " + resourceName, e);
+        }
+    }
+
+    private static void addRow(@Nullable String[] row, long rowNumber, String resourceName, String tableName, TableColumns columns,
+            ExternalRowSorter sorter) throws IOException {
+        for (int keyColumn : columns.keyColumns()) {
+            if (normalize(row[keyColumn], columns.sqlType(keyColumn)) == null) {
+                throw new IllegalArgumentException("Row " + rowNumber + " for table " + tableName + " in " + resourceName
+                        + " has no value for primary key column " + columns.name(keyColumn));
+            }
+        }
+        sorter.add(row);
+    }
+
+    /**
+     * Reads the rows of the table ordered by primary key, and merges them with the sorted expected rows.
+     */
+    private List<TableDifference> mergeJoin(Connection connection, String tableName, TableColumns columns, boolean[] expectedColumns,
+            ExternalRowSorter sorter) throws IOException, SQLException {
+        List<TableDifference> differences = new ArrayList<>();
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet rs = statement.executeQuery(selectStatement(tableName, columns))) {
+                @Nullable String[] expected = sorter.next();
+                Object[] expectedKey = expected == null ? new Object[0] : columns.key(expected);
+                Object[] actualKey = rs.next() ? actualKey(rs, columns) : null;
+                while ((expected != null || actualKey != null) && differences.size() < maxDifferences) {
+                    int comparison;
+                    if (expected == null) {
+                        comparison = 1;
+                    } else if (actualKey == null) {
+                        comparison = -1;
+                    } else {
+                        comparison = TableColumns.compareKeys(expectedKey, actualKey);
+                    }
+                    if (comparison <= 0 && expected != null) {
+                        if (comparison < 0) {
+                            differences.add(new TableDifference(TableDifference.Type.MISSING_ROW, Arrays.asList(expectedKey), null, null,
+                                    null));
+                        } else {
+                            compareRow(expected, expectedKey, rs, columns, expectedColumns, differences);
+                        }
+                        expected = sorter.next();
+                        expectedKey = expected == null ? new Object[0] : columns.key(expected);
+                    }
+                    if (comparison >= 0 && actualKey != null) {
+                        if (comparison > 0) {
+                            differences.add(new TableDifference(TableDifference.Type.UNEXPECTED_ROW, Arrays.asList(actualKey), null,
+                                    null, null));
+                        }
+                        actualKey = nextActualKey(rs, actualKey, tableName, columns);
+                    }
+                }
+            }
+        }
+        return differences.size() > maxDifferences ? new ArrayList<>(differences.subList(0, maxDifferences)) : differences;
+    }
+
+    private String selectStatement(String tableName, TableColumns columns) {
+        String rowFilter = rowFilters.get(tableName);
+        String where = rowFilter == null ? "" : " WHERE " + rowFilter;
+        return "SELECT * FROM " + qualifiedTableName(tableName) + where + " ORDER BY " + String.join(", ", columns.keyColumnNames());
+    }
+
+    private static Object[] actualKey(ResultSet rs, TableColumns columns) throws SQLException {
+        int[] keyColumns = columns.keyColumns();
+        Object[] key = new Object[keyColumns.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = Objects.requireNonNull(actualValue(rs, keyColumns[i], columns.sqlType(keyColumns[i])));
+        }
+        return key;
+    }
+
+    private static Object @Nullable [] nextActualKey(ResultSet rs, Object[] previousKey, String tableName, TableColumns columns)
+            throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        Object[] key = actualKey(rs, columns);
+        if (TableColumns.compareKeys(previousKey, key) >= 0) {
+            throw new IllegalStateException("Rows of table " + tableName + " are not ordered by primary key as expected, "
+                    + Arrays.asList(previousKey) + " came before " + Arrays.asList(key)
+                    + ", check that the database collation orders strings like String.compareTo");
+        }
+        return key;
+    }
+
+    private static void compareRow(@Nullable String[] expected, Object[] key, ResultSet rs, TableColumns columns, boolean[] expectedColumns,
+            List<TableDifference> differences) throws SQLException {
+        for (int i = 0; i < expectedColumns.length; i++) {
+            if (expectedColumns[i] && !columns.isKeyColumn(i)) {
+                Object expectedValue = normalize(expected[i], columns.sqlType(i));
+                Object actualValue = actualValue(rs, i, columns.sqlType(i));
+                if (!Objects.equals(expectedValue, actualValue)) {
+                    differences.add(new TableDifference(TableDifference.Type.DIFFERENT_VALUE, Arrays.asList(key), columns.name(i),
+                            expectedValue, actualValue));
+                }
+            }
+        }
+    }
+
+    private static @Nullable Object actualValue(ResultSet rs, int index, int sqlType) throws SQLException {
+        if (isBinary(sqlType)) {
+            byte[] bytes = rs.getBytes(index + 1);
+            return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+        }
+        if (isCharacter(sqlType)) {
+            return rs.getString(index + 1);
+        }
+        return normalize(rs.getObject(index + 1), sqlType);
+    }
+
+    /**
+     * Converts a value read from the database or from a file to a normalized form that can be compared using {@code equals}, based on the
+     * JDBC type of the column. Numbers are converted to {@code BigDecimal} without trailing zeros, dates and times to {@code java.time}
+     * objects and unknown types to strings. An empty string is {@code null} for columns that do not contain characters.
+     *
+     * @param value   the value to normalize, may be {@code null}
+     * @param sqlType the JDBC type of the column, from {@code java.sql.Types}
+     *
+     * @return the normalized value, or {@code null} if {@code value} is {@code null}
+     *
+     * @throws IllegalArgumentException if {@code value} cannot be converted to {@code sqlType}
+     */
+    /* package-private */ static @Nullable Object normalize(@Nullable Object value, int sqlType) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String s && s.isEmpty() && !isCharacter(sqlType) && !isBinary(sqlType)) {
+            return null;
+        }
+        try {
+            return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC,
+                    Types.DECIMAL -> normalizeNumber(value);
+            case Types.BIT, Types.BOOLEAN -> normalizeBoolean(value);
+            case Types.DATE -> normalizeDate(value);
+            case Types.TIME -> value instanceof Time t ? t.toLocalTime() : LocalTime.parse(value.toString().trim());
+            case Types.TIMESTAMP -> normalizeTimestamp(value);
+            case Types.TIMESTAMP_WITH_TIMEZONE -> value instanceof OffsetDateTime odt ? odt.toInstant()
+                    : OffsetDateTime.parse(value.toString().trim().replace(' ', 'T')).toInstant();
+            default -> value.toString();
+            };
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cannot convert '" + value + "' to " + jdbcTypeName(sqlType), e);
+        }
+    }
+
+    private static BigDecimal normalizeNumber(Object value) {
+        BigDecimal number = (value instanceof BigDecimal bd ? bd : new BigDecimal(value.toString().trim())).stripTrailingZeros();
+        return number.scale() < 0 ? number.setScale(0) : number;
+    }
+
+    private static Boolean normalizeBoolean(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        } else if (value instanceof Number n) {
+            return n.intValue() != 0;
+        }
+        return switch (value.toString().trim().toLowerCase(Locale.ROOT)) {
+        case "true", "1" -> Boolean.TRUE;
+        case "false", "0" -> Boolean.FALSE;
+        default -> throw new IllegalArgumentException("Not a boolean: " + value);
+        };
+    }
+
+    private static LocalDate normalizeDate(Object value) {
+        if (value instanceof Date d) {
+            return d.toLocalDate();
+        } else if (value instanceof LocalDate ld) {
+            return ld;
+        }
+        String s = value.toString().trim();
+        return s.length() == ISO_DATE_LENGTH ? LocalDate.parse(s) : normalizeTimestamp(s).toLocalDate();
+    }
+
+    private static LocalDateTime normalizeTimestamp(Object value) {
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime();
+        } else if (value instanceof LocalDateTime ldt) {
+            return ldt;
+        }
+        String s = value.toString().trim().replace('T', ' ');
+        return Timestamp.valueOf(s.length() == ISO_DATE_LENGTH ? s + " 00:00:00" : s).toLocalDateTime();
+    }
+
+    private static boolean isBinary(int sqlType) {
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY || sqlType == Types.BLOB;
+    }
+
+    private static boolean isCharacter(int sqlType) {
+        return sqlType == Types.CHAR || sqlType == Types.VARCHAR || sqlType == Types.LONGVARCHAR || sqlType == Types.NCHAR
+                || sqlType == Types.NVARCHAR || sqlType == Types.LONGNVARCHAR || sqlType == Types.CLOB || sqlType == Types.NCLOB;
+    }
+
+    private static String jdbcTypeName(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return "JDBC type " + sqlType;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingTableComparator{schemaName=" + schemaName + ", fetchSize=" + fetchSize + ", maxDifferences=" + maxDifferences
+                + ", sortBufferSize=" + sortBufferSize + ", csvSeparatorCharacter=" + csvSeparatorCharacter + ", rowFilters=" + rowFilters
+                + "}";
+    }
+
+    /**
+     * The columns of a table, in the order returned by {@code SELECT *}, and the primary key columns.
+     */
+    private static final class TableColumns {
+
+        private final List<String> names;
+        private final int[] sqlTypes;
+        private final List<String> keyColumnNames;
+        private final int[] keyColumns;
+        private final Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        TableColumns(List<String> names, int[] sqlTypes, List<String> keyColumnNames) {
+            this.names = names;
+            this.sqlTypes = sqlTypes;
+            this.keyColumnNames = keyColumnNames;
+            for (int i = 0; i < names.size(); i++) {
+                indexes.put(names.get(i), i);
+            }
+            this.keyColumns = new int[keyColumnNames.size()];
+            for (int i = 0; i < keyColumns.length; i++) {
+                Integer index = indexes.get(keyColumnNames.get(i));
+                if (index == null) {
+                    throw new IllegalStateException("Primary key column " + keyColumnNames.get(i) + " not found in " + names);
+                }
+                keyColumns[i] = index;
+            }
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        String name(int index) {
+            return names.get(index);
+        }
+
+        int sqlType(int index) {
+            return sqlTypes[index];
+        }
+
+        List<String> keyColumnNames() {
+            return keyColumnNames;
+        }
+
+        int[] keyColumns() {
+            return keyColumns;
+        }
+
+        boolean isKeyColumn(int index) {
+            for (int keyColumn : keyColumns) {
+                if (keyColumn == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int index(String columnName, String resourceName, String tableName) {
+            Integer index = indexes.get(columnName);
+            if (index == null) {
+                throw new IllegalArgumentException("Column " + columnName + " in " + resourceName + " not found in table " + tableName);
+            }
+            return index;
+        }
+
+        Object[] key(@Nullable String[] row) {
+            Object[] key = new Object[keyColumns.length];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = Objects.requireNonNull(normalize(row[keyColumns[i]], sqlTypes[keyColumns[i]]));
+            }
+            return key;
+        }
+
+        int compareRows(@Nullable String[] row1, @Nullable String[] row2) {
+            return compareKeys(key(row1), key(row2));
+        }
+
+        @SuppressWarnings("unchecked")
+        static int compareKeys(Object[] key1, Object[] key2) {
+            for (int i = 0; i < key1.length; i++) {
+                int comparison = ((Comparable<Object>) key1[i]).compareTo(key2[i]);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        }
+    }
+}
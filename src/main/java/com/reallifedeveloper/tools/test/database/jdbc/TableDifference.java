@@ -0,0 +1,69 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A difference between the expected and the actual contents of a database table, found by {@link StreamingTableComparator}.
+ * <p>
+ * Values are given in the normalized form used for comparing, e.g., {@code BigDecimal} for numbers and {@code LocalDateTime} for
+ * timestamps.
+ *
+ * @param type       the kind of difference
+ * @param key        the primary key values of the row, in the order of the primary key columns
+ * @param columnName the name of the column with different values, or {@code null} if a whole row is missing or unexpected
+ * @param expected   the expected value of the column, or {@code null}
+ * @param actual     the actual value of the column, or {@code null}
+ *
+ * @author RealLifeDeveloper
+ */
+public record TableDifference(Type type, List<Object> key, @Nullable String columnName, @Nullable Object expected,
+        @Nullable Object actual) {
+
+    /**
+     * Creates a new {@code TableDifference}, making a copy of the key values.
+     *
+     * @param type       the kind of difference
+     * @param key        the primary key values of the row, in the order of the primary key columns
+     * @param columnName the name of the column with different values, or {@code null} if a whole row is missing or unexpected
+     * @param expected   the expected value of the column, or {@code null}
+     * @param actual     the actual value of the column, or {@code null}
+     */
+    public TableDifference {
+        if (type == null || key == null) {
+            throw new IllegalArgumentException("Arguments must not be null: type=" + type + ", key=" + key);
+        }
+        key = List.copyOf(key);
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+        case MISSING_ROW -> "Missing row with key " + key;
+        case UNEXPECTED_ROW -> "Unexpected row with key " + key;
+        case DIFFERENT_VALUE -> "Row with key " + key + ", column " + columnName + ": expected <" + expected + "> but was <" + actual
+                + ">";
+        };
+    }
+
+    /**
+     * The kinds of differences between expected and actual table contents.
+     */
+    public enum Type {
+        /**
+         * An expected row is not found in the table.
+         */
+        MISSING_ROW,
+
+        /**
+         * The table contains a row that is not expected.
+         */
+        UNEXPECTED_ROW,
+
+        /**
+         * A column of a row has a different value than expected.
+         */
+        DIFFERENT_VALUE
+    }
+}
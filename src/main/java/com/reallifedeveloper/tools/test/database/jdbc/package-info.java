@@ -0,0 +1,6 @@
+/**
+ * Support classes for reading test data directly from a database, and for comparing database tables with expected data, using JDBC.
+ *
+ * @author RealLifeDeveloper
+ */
+package com.reallifedeveloper.tools.test.database.jdbc;
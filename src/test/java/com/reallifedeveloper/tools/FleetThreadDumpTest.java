@@ -0,0 +1,206 @@
+package com.reallifedeveloper.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FleetThreadDumpTest {
+
+    private final List<JMXConnectorServer> connectors = new ArrayList<>();
+
+    private final List<Socket> silentSockets = Collections.synchronizedList(new ArrayList<>());
+
+    private ServerSocket silentServer;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    public void init() throws Exception {
+        // Two JMX servers in this JVM stand in for a fleet of JVMs.
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        for (int i = 0; i < 2; i++) {
+            JMXConnectorServer connector = JMXConnectorServerFactory.newJMXConnectorServer(new JMXServiceURL("service:jmx:rmi://"), null,
+                    mbs);
+            connector.start();
+            connectors.add(connector);
+        }
+        // A server that accepts connections but never answers stands in for a hanging JVM.
+        silentServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    silentSockets.add(silentServer.accept());
+                }
+            } catch (IOException e) {
+                // The server socket was closed.
+            }
+        }, "silent-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (JMXConnectorServer connector : connectors) {
+            connector.stop();
+        }
+        silentServer.close();
+        for (Socket socket : silentSockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void dump() throws Exception {
+        List<String> endpoints = List.of(connectors.get(0).getAddress().toString(), connectors.get(1).getAddress().toString());
+        FleetThreadDump fleetDump = new FleetThreadDump(endpoints);
+        fleetDump.setConcurrency(1);
+        List<FleetThreadDump.Result> results = fleetDump.dump(directory);
+        assertEquals(2, results.size());
+        Instant requestedAt = null;
+        for (int i = 0; i < results.size(); i++) {
+            FleetThreadDump.Result result = results.get(i);
+            assertEquals(endpoints.get(i), result.endpoint());
+            assertTrue(result.isSuccess(), "Dump should have succeeded: " + result);
+            List<String> lines = Files.readAllLines(Objects.requireNonNull(result.file()));
+            assertEquals("Endpoint: " + endpoints.get(i), lines.get(0));
+            assertTrue(lines.get(1).startsWith("Fleet dump requested at: "), lines.get(1));
+            Instant fileRequestedAt = Instant.parse(lines.get(1).substring("Fleet dump requested at: ".length()));
+            if (requestedAt != null) {
+                assertEquals(requestedAt, fileRequestedAt, "All dumps should have the same timestamp");
+            }
+            requestedAt = fileRequestedAt;
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith("Full Java thread dump")), "Dump not found in file");
+            assertEquals("No deadlock found.", lines.get(lines.size() - 1));
+        }
+        List<String> summary = Files.readAllLines(summaryFile());
+        assertEquals("Fleet thread dump requested at " + requestedAt + " for 2 endpoints, 0 failed", summary.get(0));
+        assertEquals(3, summary.size());
+        assertTrue(summary.get(1).startsWith("OK     " + endpoints.get(0) + " dumped at "), summary.get(1));
+    }
+
+    @Test
+    public void dumpWithFailingAndHangingEndpoints() throws Exception {
+        String goodEndpoint = connectors.get(0).getAddress().toString();
+        String refusingEndpoint = "localhost:" + unusedPort();
+        String hangingEndpoint = "localhost:" + silentServer.getLocalPort();
+        FleetThreadDump fleetDump = new FleetThreadDump(List.of(hangingEndpoint, refusingEndpoint, goodEndpoint));
+        fleetDump.setTimeout(Duration.ofMillis(500));
+        fleetDump.setThreadFactory(Thread::new);
+        List<FleetThreadDump.Result> results = fleetDump.dump(directory);
+        assertEquals(3, results.size());
+        FleetThreadDump.Result hanging = results.get(0);
+        assertFalse(hanging.isSuccess());
+        assertNull(hanging.file());
+        assertTrue(String.valueOf(hanging.error()).contains("Timed out after 500 ms"), hanging.error());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess(), "Good endpoint should not be affected by the others: " + results.get(2));
+        List<String> summary = Files.readAllLines(summaryFile());
+        assertTrue(summary.get(0).endsWith(" for 3 endpoints, 2 failed"), summary.get(0));
+        assertTrue(summary.get(1).startsWith("FAILED " + hangingEndpoint + " after "), summary.get(1));
+    }
+
+    @Test
+    public void fileName() {
+        assertEquals("localhost_4711-20261019T101112.123Z.txt",
+                FleetThreadDump.fileName("localhost:4711", Instant.parse("2026-10-19T10:11:12.123Z")));
+    }
+
+    @Test
+    public void fileNameForLongEndpoint() {
+        String endpoint = "service:jmx:rmi://localhost/stub/" + "A".repeat(500);
+        Instant timestamp = Instant.parse("2026-10-19T10:11:12.123Z");
+        String fileName = FleetThreadDump.fileName(endpoint, timestamp);
+        assertTrue(fileName.length() < 150, fileName);
+        assertTrue(fileName.startsWith("service_jmx_rmi_localhost_stub_AAA"), fileName);
+        assertFalse(fileName.equals(FleetThreadDump.fileName(endpoint + "B", timestamp)),
+                "Different endpoints should have different file names");
+    }
+
+    @Test
+    public void serviceUrl() throws Exception {
+        JMXServiceURL url = FleetThreadDump.serviceUrl("localhost:4711");
+        assertEquals("rmi", url.getProtocol());
+        assertEquals("/jndi/rmi://localhost:4711/jmxrmi", url.getURLPath());
+        assertEquals("foo", FleetThreadDump.serviceUrl("service:jmx:rmi://foo").getHost());
+        Exception e = assertThrows(IllegalArgumentException.class, () -> FleetThreadDump.serviceUrl("localhost"));
+        assertEquals("Endpoint should be on the form hostname:port: localhost", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> FleetThreadDump.serviceUrl("localhost:foo"));
+        assertEquals("Endpoint should be on the form hostname:port: localhost:foo", e.getMessage());
+    }
+
+    @Test
+    public void constructorDuplicateEndpoint() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new FleetThreadDump(List.of("foo:1", "bar:2", "foo:1")));
+        assertEquals("Duplicate endpoint: foo:1", e.getMessage());
+    }
+
+    @Test
+    public void constructorEmptyEndpoints() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new FleetThreadDump(List.of()));
+        assertEquals("endpoints must not be null or empty: []", e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveConcurrency() {
+        FleetThreadDump fleetDump = new FleetThreadDump(List.of("localhost:4711"));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> fleetDump.setConcurrency(0));
+        assertEquals("concurrency must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveTimeout() {
+        FleetThreadDump fleetDump = new FleetThreadDump(List.of("localhost:4711"));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> fleetDump.setTimeout(Duration.ofSeconds(-1)));
+        assertEquals("timeout must be positive: PT-1S", e.getMessage());
+    }
+
+    @Test
+    public void mainWithoutEndpoints() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> FleetThreadDump.main("dumps"));
+        assertTrue(e.getMessage().startsWith("Usage: java " + FleetThreadDump.class.getName()), e.getMessage());
+    }
+
+    private Path summaryFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            String prefix = FleetThreadDump.SUMMARY_FILE_PREFIX + "-";
+            List<Path> summaryFiles = files.filter(file -> file.getFileName().toString().startsWith(prefix)).toList();
+            assertEquals(1, summaryFiles.size(), "Wrong number of summary files: " + summaryFiles);
+            return summaryFiles.get(0);
+        }
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
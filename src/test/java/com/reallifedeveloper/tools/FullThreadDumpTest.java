@@ -5,9 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import javax.management.MBeanServer;
 import javax.management.remote.JMXConnectorServer;
@@ -60,6 +64,91 @@ public class FullThreadDumpTest {
         assertEquals(threads.size(), numThreads, "Wrong number of threads in dump: ");
     }
 
+    @Test
+    public void repeatedDumpsDoNotAccumulate() throws Exception {
+        FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+        threadDump.dump();
+        List<String> threadInfo = threadDump.dump();
+        assertEquals(1, threadInfo.stream().filter(line -> line.startsWith("Full Java thread dump")).count(),
+                "Thread dump should only contain one dump: ");
+        assertEquals("No deadlock found.", threadInfo.get(threadInfo.size() - 1));
+    }
+
+    @Test
+    public void dumpToAppendable() throws Exception {
+        FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+        StringWriter writer = new StringWriter();
+        threadDump.dump(writer);
+        String dump = writer.toString();
+        assertTrue(dump.startsWith("Full Java thread dump"), "Wrong start of dump: " + dump);
+        assertTrue(dump.contains("\"" + Thread.currentThread().getName() + "\" Id="),
+                "Current thread not found in dump: " + dump);
+        assertTrue(dump.endsWith("No deadlock found." + System.lineSeparator()), "Wrong end of dump: " + dump);
+    }
+
+    @Test
+    public void dumpThreadInfo() throws Exception {
+        FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+        List<ThreadInfo> threadInfos = new ArrayList<>();
+        threadDump.dumpThreadInfo(threadInfos::add);
+        assertTrue(threadInfos.stream().anyMatch(ti -> ti.getThreadName().equals(Thread.currentThread().getName())),
+                "Current thread not found in dump");
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void dumpNullAppendable() throws Exception {
+        FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+        Exception e = assertThrows(IllegalArgumentException.class, () -> threadDump.dump((Appendable) null));
+        assertEquals("out must not be null", e.getMessage());
+    }
+
+    @Test
+    public void dumpGrouped() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Thread> waitingThreads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Thread thread = new Thread(() -> awaitQuietly(latch), "grouped thread " + i);
+            thread.setDaemon(true);
+            thread.start();
+            waitingThreads.add(thread);
+        }
+        try {
+            for (Thread thread : waitingThreads) {
+                while (thread.getState() != Thread.State.WAITING) {
+                    Thread.sleep(1);
+                }
+            }
+            FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+            StringWriter writer = new StringWriter();
+            threadDump.dumpGrouped(writer);
+            List<String> lines = writer.toString().lines().toList();
+            assertTrue(lines.get(0).startsWith("Grouped Java thread dump: "), lines.get(0));
+            List<String> groupLines = lines.stream().filter(line -> line.matches("\\d+ threads? in [A-Z_]+:.*")).toList();
+            int numThreads = groupLines.stream().mapToInt(line -> Integer.parseInt(line.substring(0, line.indexOf(' ')))).sum();
+            assertEquals("Grouped Java thread dump: " + numThreads + " threads in " + groupLines.size() + " groups", lines.get(0));
+            String waitingGroup = groupLines.stream().filter(line -> line.contains("\"grouped thread 0\"")).findFirst().orElseThrow();
+            assertTrue(waitingGroup.startsWith("5 threads in WAITING: "), waitingGroup);
+            for (Thread thread : waitingThreads) {
+                assertTrue(waitingGroup.contains("\"" + thread.getName() + "\""), waitingGroup);
+            }
+            assertEquals("No deadlock found.", lines.get(lines.size() - 1));
+        } finally {
+            latch.countDown();
+            for (Thread thread : waitingThreads) {
+                thread.join();
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void dumpGroupedNullAppendable() throws Exception {
+        FullThreadDump threadDump = new FullThreadDump(connector.getAddress());
+        Exception e = assertThrows(IllegalArgumentException.class, () -> threadDump.dumpGrouped(null));
+        assertEquals("out must not be null", e.getMessage());
+    }
+
     @Test
     public void dumpWithDeadlock() throws Exception {
         Deadlock deadlock = new Deadlock();
@@ -169,4 +258,12 @@ public class FullThreadDumpTest {
             }
         }
     }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.reallifedeveloper.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.time.Duration;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StackSamplerTest {
+
+    private static final String BUSY_THREAD_NAME = "busy thread";
+
+    private JMXConnectorServer connector;
+
+    private Thread busyThread;
+
+    private volatile boolean running = true;
+
+    @BeforeEach
+    public void init() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi://");
+        connector = JMXConnectorServerFactory.newJMXConnectorServer(url, null, mbs);
+        connector.start();
+        busyThread = new Thread(this::spin, BUSY_THREAD_NAME);
+        busyThread.setDaemon(true);
+        busyThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        running = false;
+        busyThread.join();
+        connector.stop();
+    }
+
+    @Test
+    public void sampleAllThreads() throws Exception {
+        StackSampler sampler = new StackSampler(new FullThreadDump(connector.getAddress()));
+        sampler.setInterval(Duration.ofMillis(1));
+        sampler.setThreadNamesIncluded(true);
+        sampler.sample(5);
+        assertEquals(5, sampler.sampleCount());
+        StringWriter writer = new StringWriter();
+        sampler.writeCollapsedStacks(writer);
+        String busyStackPrefix = "busy_thread;java.lang.Thread.run";
+        String spinFrame = getClass().getName() + ".spin";
+        assertTrue(writer.toString().lines().anyMatch(line -> line.startsWith(busyStackPrefix) && line.contains(spinFrame)),
+                "Busy thread not found in collapsed stacks: " + writer);
+        long busyThreadSamples = sampler.stackCounts().entrySet().stream().filter(e -> e.getKey().startsWith(busyStackPrefix))
+                .mapToLong(Map.Entry::getValue).sum();
+        assertEquals(5, busyThreadSamples);
+    }
+
+    @Test
+    public void sampleSelectedThreadWithLimitedDepth() throws Exception {
+        StackSampler sampler = new StackSampler(new FullThreadDump(connector.getAddress()));
+        sampler.setInterval(Duration.ofMillis(1));
+        sampler.setThreadIds(busyThreadId());
+        sampler.setMaxDepth(1);
+        sampler.sample(Duration.ofMillis(3));
+        assertEquals(3, sampler.sampleCount());
+        for (String stack : sampler.stackCounts().keySet()) {
+            assertFalse(stack.contains(";"), "Stack should only have one frame: " + stack);
+        }
+        assertEquals(3, sampler.stackCounts().values().stream().mapToLong(Long::longValue).sum());
+        sampler.reset();
+        assertEquals(0, sampler.sampleCount());
+        assertTrue(sampler.stackCounts().isEmpty(), "Stack counts should be empty after reset");
+    }
+
+    @Test
+    public void setNonPositiveInterval() throws Exception {
+        StackSampler sampler = new StackSampler(new FullThreadDump(connector.getAddress()));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> sampler.setInterval(Duration.ZERO));
+        assertEquals("interval must be positive: PT0S", e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveMaxDepth() throws Exception {
+        StackSampler sampler = new StackSampler(new FullThreadDump(connector.getAddress()));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> sampler.setMaxDepth(0));
+        assertEquals("maxDepth must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullThreadDump() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new StackSampler(null));
+        assertEquals("threadDump must not be null", e.getMessage());
+    }
+
+    private long busyThreadId() {
+        for (ThreadInfo ti : ManagementFactory.getThreadMXBean().dumpAllThreads(false, false)) {
+            if (BUSY_THREAD_NAME.equals(ti.getThreadName())) {
+                return ti.getThreadId();
+            }
+        }
+        throw new IllegalStateException("Busy thread not found");
+    }
+
+    @SuppressWarnings("PMD.EmptyControlStatement")
+    private void spin() {
+        long counter = 0;
+        while (running) {
+            counter++;
+        }
+        assertTrue(counter > 0);
+    }
+}
@@ -0,0 +1,147 @@
+package com.reallifedeveloper.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ThreadTopTest {
+
+    private static final String BUSY_THREAD_NAME = "busy thread";
+
+    private static final String ALLOCATING_THREAD_NAME = "allocating thread";
+
+    private JMXConnectorServer connector;
+
+    private Thread busyThread;
+
+    private Thread allocatingThread;
+
+    private volatile boolean running = true;
+
+    private volatile Object allocated;
+
+    @BeforeEach
+    public void init() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi://");
+        connector = JMXConnectorServerFactory.newJMXConnectorServer(url, null, mbs);
+        connector.start();
+        busyThread = new Thread(this::spin, BUSY_THREAD_NAME);
+        busyThread.setDaemon(true);
+        busyThread.start();
+        allocatingThread = new Thread(this::allocate, ALLOCATING_THREAD_NAME);
+        allocatingThread.setDaemon(true);
+        allocatingThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        running = false;
+        busyThread.join();
+        allocatingThread.join();
+        connector.stop();
+    }
+
+    @Test
+    public void measure() throws Exception {
+        ThreadTop top = new ThreadTop(new FullThreadDump(connector.getAddress()));
+        top.setTopThreads(3);
+        top.setMaxDepth(2);
+        ThreadTop.Report report = top.measure(Duration.ofMillis(200));
+        assertTrue(report.elapsed().toMillis() >= 200, "Elapsed time too short: " + report.elapsed());
+        assertTrue(report.topByCpu().size() <= 3, "Too many threads: " + report.topByCpu());
+        assertTrue(threadNames(report.topByCpu()).contains(BUSY_THREAD_NAME), "Busy thread not found: " + report.topByCpu());
+        assertTrue(threadNames(report.topByAllocation()).contains(ALLOCATING_THREAD_NAME),
+                "Allocating thread not found: " + report.topByAllocation());
+        for (ThreadTop.ThreadUsage usage : report.topByCpu()) {
+            assertTrue(usage.cpuTimeNanos() > 0, "CPU time should be positive: " + usage);
+            assertTrue(usage.stackTrace().size() <= 2, "Stack too deep: " + usage);
+        }
+        assertFalse(report.topByAllocation().isEmpty(), "No allocating threads found");
+    }
+
+    @Test
+    public void monitor() throws Exception {
+        ThreadTop top = new ThreadTop(new FullThreadDump(connector.getAddress()));
+        StringBuilder sb = new StringBuilder();
+        top.monitor(Duration.ofMillis(50), 2, sb);
+        String output = sb.toString();
+        assertEquals(2, output.lines().filter(line -> line.startsWith("Top threads by CPU time during ")).count(), output);
+        assertEquals(2, output.lines().filter(line -> line.startsWith("Top threads by allocation during ")).count(), output);
+        assertTrue(output.contains("\"" + BUSY_THREAD_NAME + "\" Id="), output);
+    }
+
+    @Test
+    public void writeReport() throws Exception {
+        ThreadTop.ThreadUsage usage = new ThreadTop.ThreadUsage(42, "foo", Thread.State.RUNNABLE, 500_000_000, 3_000_000,
+                List.of(new StackTraceElement("com.example.Foo", "bar", "Foo.java", 17)));
+        ThreadTop.Report report = new ThreadTop.Report(Duration.ofSeconds(1), List.of(usage), List.of(usage));
+        StringBuilder sb = new StringBuilder();
+        report.write(sb);
+        String ls = System.lineSeparator();
+        String usageLines = "\"foo\" Id=42 in RUNNABLE cpu=500 ms (50%) allocated=3000000 bytes (3 MB/s)" + ls
+                + "    at com.example.Foo.bar(Foo.java:17)" + ls;
+        assertEquals("Top threads by CPU time during 1000 ms" + ls + usageLines + "Top threads by allocation during 1000 ms" + ls
+                + usageLines, sb.toString());
+    }
+
+    @Test
+    public void setNonPositiveTopThreads() throws Exception {
+        ThreadTop top = new ThreadTop(new FullThreadDump(connector.getAddress()));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> top.setTopThreads(0));
+        assertEquals("topThreads must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    public void setNegativeMaxDepth() throws Exception {
+        ThreadTop top = new ThreadTop(new FullThreadDump(connector.getAddress()));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> top.setMaxDepth(-1));
+        assertEquals("maxDepth must not be negative: -1", e.getMessage());
+    }
+
+    @Test
+    public void monitorNonPositiveIterations() throws Exception {
+        ThreadTop top = new ThreadTop(new FullThreadDump(connector.getAddress()));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> top.monitor(Duration.ofMillis(1), 0, new StringBuilder()));
+        assertEquals("iterations must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullThreadDump() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new ThreadTop(null));
+        assertEquals("threadDump must not be null", e.getMessage());
+    }
+
+    private static List<String> threadNames(List<ThreadTop.ThreadUsage> usages) {
+        return usages.stream().map(ThreadTop.ThreadUsage::threadName).toList();
+    }
+
+    private void spin() {
+        long counter = 0;
+        while (running) {
+            counter++;
+        }
+        assertTrue(counter > 0);
+    }
+
+    private void allocate() {
+        while (running) {
+            allocated = new byte[1024];
+        }
+    }
+}
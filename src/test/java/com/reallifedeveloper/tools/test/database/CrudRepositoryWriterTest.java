@@ -1,16 +1,37 @@
 package com.reallifedeveloper.tools.test.database;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
@@ -46,10 +67,141 @@ public class CrudRepositoryWriterTest {
     }
 
     @Test
-    public void writeEmbeddableThrowsException() throws Exception {
-        Exception e = assertThrows(UnsupportedOperationException.class,
-                () -> writer.writeEntity(null, null, TestEmbeddable.class, null, null));
-        assertEquals("writeEmbeddable not yet implemented", e.getMessage());
+    public void writeEmbeddableAddsToElementCollection() throws Exception {
+        InMemoryJpaRepository<Owner, Long> repository = new InMemoryJpaRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Owner.class, Owner.class, repository, "owner");
+        boolean written = writer.writeEntity(new TestDbTableRow(new DbTableField("owner_id", "1"), new DbTableField("street", "Main St")),
+                Owner.class, TestEmbeddable.class, repository, "OWNER_ADDRESS");
+        writer.fillReferencesBetweenEntities(repository, Owner.class);
+        assertTrue(written);
+        Owner owner = repository.findById(1L).get();
+        assertEquals(1, owner.addresses.size());
+        assertEquals("Main St", owner.addresses.get(0).street);
+    }
+
+    @Test
+    public void writeEmbeddableWithUnknownTableIsIgnored() throws Exception {
+        InMemoryJpaRepository<Owner, Long> repository = new InMemoryJpaRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Owner.class, Owner.class, repository, "owner");
+        assertFalse(writer.writeEntity(new TestDbTableRow(new DbTableField("owner_id", "1")), Owner.class, TestEmbeddable.class, repository,
+                "no_such_table"));
+    }
+
+    @Test
+    public void writeEmbeddableWithoutJoinColumnThrowsException() throws Exception {
+        InMemoryJpaRepository<Owner, Long> repository = new InMemoryJpaRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Owner.class, Owner.class, repository, "owner");
+        Exception e = assertThrows(IllegalStateException.class, () -> writer.writeEntity(
+                new TestDbTableRow(new DbTableField("street", "Main St")), Owner.class, TestEmbeddable.class, repository, "owner_address"));
+        assertEquals("Failed to find owner of element collection: missing attribute 'owner_id' in table owner_address", e.getMessage());
+    }
+
+    @Test
+    public void oneToManyCollectionWithJoinColumn() throws Exception {
+        InMemoryJpaRepository<Owner, Long> repository = new InMemoryJpaRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Owner.class, Owner.class, repository, "owner");
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "2")), Owner.class, Owner.class, repository, "owner");
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "10"), new DbTableField("owner_id", "1")), Owner.class, Pet.class,
+                repository, "pet");
+        writer.fillReferencesBetweenEntities(repository, Owner.class);
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "11"), new DbTableField("owner_id", "1")), Owner.class, Pet.class,
+                repository, "pet");
+        writer.fillReferencesBetweenEntities(repository, Owner.class);
+        Owner owner = repository.findById(1L).get();
+        assertEquals(2, owner.pets.size());
+        assertEquals(10L, owner.pets.get(0).id);
+        assertEquals(11L, owner.pets.get(1).id);
+        assertTrue(repository.findById(2L).get().pets.isEmpty());
+    }
+
+    @Test
+    public void manyToManyFillsBothSides() throws Exception {
+        InMemoryJpaRepository<Owner, Long> repository = new InMemoryJpaRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Owner.class, Owner.class, repository, "owner");
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "20")), Owner.class, Club.class, repository, "club");
+        writer.addEntitiesFromJoinTable(new TestDbTableRow(new DbTableField("owner_id", "1"), new DbTableField("club_id", "20")),
+                "OWNER_CLUB");
+        writer.fillReferencesBetweenEntities(repository, Owner.class);
+        Owner owner = repository.findById(1L).get();
+        assertEquals(1, owner.clubs.size());
+        Club club = owner.clubs.get(0);
+        assertEquals(20L, club.id);
+        assertEquals(1, club.members.size());
+        assertSame(owner, club.members.get(0));
+    }
+
+    @Test
+    public void inverseOneToOneIsResolvedByLaterRead() throws Exception {
+        CountingRepository<Parent, Long> repository = new CountingRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Parent.class, Parent.class, repository, "parent");
+        writer.fillReferencesBetweenEntities(repository, Parent.class);
+        Parent parent = repository.findById(1L).get();
+        assertNull(parent.child);
+
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "2"), new DbTableField("parent_id", "1")), Parent.class,
+                Child.class, repository, "child");
+        writer.fillReferencesBetweenEntities(repository, Parent.class);
+        assertSame(parent, parent.child.parent);
+        assertEquals(2, repository.saves, "Parent should be saved when created and when its child has been set");
+    }
+
+    @Test
+    public void unchangedEntitiesAreNotSavedAgain() throws Exception {
+        CountingRepository<Parent, Long> repository = new CountingRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Parent.class, Parent.class, repository, "parent");
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "2")), Parent.class, Parent.class, repository, "parent");
+        writer.fillReferencesBetweenEntities(repository, Parent.class);
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "3")), Parent.class, Parent.class, repository, "parent");
+        writer.fillReferencesBetweenEntities(repository, Parent.class);
+        assertEquals(3, repository.count());
+        assertEquals(3, repository.saves);
+    }
+
+    @Test
+    public void duplicatePrimaryKeyIsRejected() throws Exception {
+        CountingRepository<Parent, Long> repository = new CountingRepository<>();
+        writer.writeEntity(new TestDbTableRow(new DbTableField("id", "1")), Parent.class, Parent.class, repository, "parent");
+        DbTableRow duplicateRow = new TestDbTableRow(new DbTableField("id", "1"));
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> writer.writeEntity(duplicateRow, Parent.class, Parent.class, repository, "parent"));
+        assertEquals("Duplicate primary key for entity " + Parent.class.getName() + ": id=1", e.getMessage());
+        assertEquals(1, repository.saves, "The duplicate should not be saved");
+    }
+
+    @Test
+    public void writeEntityUsingTypedValues() throws Exception {
+        InMemoryJpaRepository<TypedEntity, Long> repository = new InMemoryJpaRepository<>();
+        String[] names = { "id", "i", "b", "bi", "date", "localDate", "localDateTime", "zonedDateTime", "instant", "testEnum", "strings",
+                "bool" };
+        Object[] values = { 1, 2L, 3, new BigDecimal("12345678901234567890"), Timestamp.valueOf("2026-05-10 10:45:00"),
+                java.sql.Date.valueOf("2026-05-10"), Timestamp.valueOf("2026-05-10 10:45:00"),
+                OffsetDateTime.parse("2026-05-10T10:45:00+02:00"), Timestamp.from(Instant.parse("2026-05-10T08:45:00Z")), 1,
+                new Object[] { "foo", "bar" }, 1 };
+        writer.writeEntity(new TypedDbTableRow(names, values), TypedEntity.class, TypedEntity.class, repository, "typed");
+        writer.fillReferencesBetweenEntities(repository, TypedEntity.class);
+
+        TypedEntity entity = repository.findById(1L).get();
+        assertEquals(2, entity.i);
+        assertEquals((byte) 3, entity.b);
+        assertEquals(new BigInteger("12345678901234567890"), entity.bi);
+        assertEquals(Date.class, entity.date.getClass());
+        assertEquals(Timestamp.valueOf("2026-05-10 10:45:00").getTime(), entity.date.getTime());
+        assertEquals(LocalDate.parse("2026-05-10"), entity.localDate);
+        assertEquals(LocalDateTime.parse("2026-05-10T10:45:00"), entity.localDateTime);
+        assertEquals(ZonedDateTime.parse("2026-05-10T10:45:00+02:00"), entity.zonedDateTime);
+        assertEquals(Instant.parse("2026-05-10T08:45:00Z"), entity.instant);
+        assertEquals(TestEnum.BAR, entity.testEnum);
+        assertEquals(List.of("foo", "bar"), entity.strings);
+        assertEquals(Boolean.TRUE, entity.bool);
+    }
+
+    @Test
+    public void writeEntityWithInvalidEnumOrdinal() throws Exception {
+        InMemoryJpaRepository<TypedEntity, Long> repository = new InMemoryJpaRepository<>();
+        DbTableRow row = new TypedDbTableRow(new String[] { "id", "testEnum" }, new Object[] { 1, 2 });
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> writer.writeEntity(row, TypedEntity.class, TypedEntity.class, repository, "typed"));
+        assertEquals("Invalid ordinal for enum " + TestEnum.class.getName() + ": 2", e.getMessage());
     }
 
     @Entity
@@ -66,6 +218,76 @@ public class CrudRepositoryWriterTest {
 
     @Embeddable
     private static class TestEmbeddable {
+        private String street;
+    }
+
+    @Entity
+    @Table(name = "owner")
+    private static class Owner {
+        @Id
+        @SuppressWarnings("UnusedVariable")
+        private Long id;
+        @ElementCollection
+        @CollectionTable(name = "owner_address", joinColumns = @JoinColumn(name = "owner_id"))
+        private List<TestEmbeddable> addresses = new ArrayList<>();
+        @OneToMany
+        @JoinColumn(name = "owner_id")
+        private List<Pet> pets = new ArrayList<>();
+        @ManyToMany
+        @JoinTable(name = "owner_club", joinColumns = @JoinColumn(name = "owner_id"), inverseJoinColumns = @JoinColumn(name = "club_id"))
+        private List<Club> clubs = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "pet")
+    private static class Pet {
+        @Id
+        private Long id;
+        @ManyToOne
+        @JoinColumn(name = "owner_id")
+        @SuppressWarnings("UnusedVariable")
+        private Owner owner;
+    }
+
+    @Entity
+    @Table(name = "club")
+    private static class Club {
+        @Id
+        private Long id;
+        @ManyToMany(mappedBy = "clubs")
+        private List<Owner> members = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "parent")
+    private static class Parent {
+        @Id
+        @SuppressWarnings("UnusedVariable")
+        private Long id;
+        @OneToOne(mappedBy = "parent")
+        private Child child;
+    }
+
+    @Entity
+    @Table(name = "child")
+    private static class Child {
+        @Id
+        @SuppressWarnings("UnusedVariable")
+        private Long id;
+        @OneToOne
+        @JoinColumn(name = "parent_id")
+        private Parent parent;
+    }
+
+    private static class CountingRepository<T, ID extends Comparable<? super ID>> extends InMemoryJpaRepository<T, ID> {
+
+        private int saves;
+
+        @Override
+        public <S extends T> S save(S entity) {
+            saves++;
+            return super.save(entity);
+        }
     }
 
     private static class TestDbTableRow implements DbTableRow {
@@ -82,4 +304,52 @@ public class CrudRepositoryWriterTest {
         }
 
     }
+
+    @Entity
+    @Table(name = "typed")
+    private static class TypedEntity {
+        @Id
+        @SuppressWarnings("UnusedVariable")
+        private Long id;
+        private Integer i;
+        private Byte b;
+        private BigInteger bi;
+        private Date date;
+        private LocalDate localDate;
+        private LocalDateTime localDateTime;
+        private ZonedDateTime zonedDateTime;
+        private Instant instant;
+        private TestEnum testEnum;
+        private List<String> strings;
+        private Boolean bool;
+    }
+
+    private enum TestEnum {
+        FOO, BAR
+    }
+
+    private static class TypedDbTableRow implements DbTableRow {
+
+        private final String[] names;
+        private final Object[] values;
+
+        TypedDbTableRow(String[] names, Object[] values) {
+            this.names = names;
+            this.values = values;
+        }
+
+        @Override
+        public List<DbTableField> columns() {
+            List<DbTableField> columns = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                columns.add(new DbTableField(names[i], String.valueOf(values[i])));
+            }
+            return columns;
+        }
+
+        @Override
+        public Object typedColumnValue(int index) {
+            return values[index];
+        }
+    }
 }
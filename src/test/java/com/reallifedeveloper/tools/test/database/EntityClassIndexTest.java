@@ -0,0 +1,121 @@
+package com.reallifedeveloper.tools.test.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.reallifedeveloper.tools.test.database.dbunit.DbUnitTestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntityWithoutRepository;
+
+public class EntityClassIndexTest {
+
+    private static final String ENTITY_PACKAGE = "com.reallifedeveloper.tools.test.database.dbunit";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void scan() {
+        EntityClassIndex index = EntityClassIndex.scan(ENTITY_PACKAGE);
+        assertEquals(3, index.entityTypes().size());
+        assertEquals(TestEntity.class, index.entityType("test_entity"));
+        assertEquals(DbUnitTestEntity.class, index.entityType("DBUNITTESTENTITY"));
+        assertEquals(TestEntityWithoutRepository.class, index.entityType("TEST_ENTITY_WITHOUT_REPOSITORY"));
+        assertNull(index.entityType("DBUNITTESTENTITY_TESTENTITY"));
+    }
+
+    @Test
+    public void forPackagesIsCached() {
+        EntityClassIndex index = EntityClassIndex.forPackages(ENTITY_PACKAGE);
+        assertSame(index, EntityClassIndex.forPackages(ENTITY_PACKAGE));
+        assertEquals(3, index.entityTypes().size());
+    }
+
+    @Test
+    public void writeIndexFile() throws Exception {
+        Path indexFile = directory.resolve("entity-index.properties");
+        EntityClassIndex.main(indexFile.toString(), ENTITY_PACKAGE);
+        List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        assertEquals(List.of("# Entity classes by table name, generated by " + EntityClassIndex.class.getName(),
+                EntityClassIndex.PACKAGES_KEY + "=" + ENTITY_PACKAGE, "DbUnitTestEntity=" + DbUnitTestEntity.class.getName(),
+                "TEST_ENTITY=" + TestEntity.class.getName(),
+                "TEST_ENTITY_WITHOUT_REPOSITORY=" + TestEntityWithoutRepository.class.getName()), lines);
+    }
+
+    @Test
+    public void forPackagesUsesIndexFile() throws Exception {
+        writeIndexFileOnClasspath(EntityClassIndex.PACKAGES_KEY + "=" + ENTITY_PACKAGE + "\nTEST_ENTITY=" + TestEntity.class.getName()
+                + "\nFOO=com.example.Foo\n");
+        EntityClassIndex index = forPackagesUsingIndexFile(ENTITY_PACKAGE, "com.reallifedeveloper.tools.test.database.csv");
+        assertEquals(List.of(TestEntity.class), List.copyOf(index.entityTypes()));
+    }
+
+    @Test
+    public void forPackagesScansPackagesNotCoveredByIndexFile() throws Exception {
+        String otherPackage = "com.reallifedeveloper.tools.test.database.inmemory";
+        writeIndexFileOnClasspath(
+                EntityClassIndex.PACKAGES_KEY + "=" + ENTITY_PACKAGE + "\nTEST_ENTITY=" + TestEntity.class.getName() + "\n");
+        EntityClassIndex index = forPackagesUsingIndexFile(ENTITY_PACKAGE, otherPackage);
+        Collection<Class<?>> scannedEntityTypes = EntityClassIndex.scan(otherPackage).entityTypes();
+        assertFalse(scannedEntityTypes.isEmpty(), "There should be entity classes in " + otherPackage);
+        assertTrue(index.entityTypes().containsAll(scannedEntityTypes), "Entity classes not scanned: " + index.entityTypes());
+        assertEquals(scannedEntityTypes.size() + 1, index.entityTypes().size());
+        assertEquals(TestEntity.class, index.entityType("TEST_ENTITY"));
+        assertNull(index.entityType("TEST_ENTITY_WITHOUT_REPOSITORY"), "Index file should be used instead of scanning " + ENTITY_PACKAGE);
+    }
+
+    @Test
+    public void forPackagesScansIfIndexFileDoesNotGivePackages() throws Exception {
+        writeIndexFileOnClasspath("TEST_ENTITY=" + TestEntity.class.getName() + "\n");
+        EntityClassIndex index = forPackagesUsingIndexFile(ENTITY_PACKAGE, "com.reallifedeveloper.tools.test.database.jdbc");
+        assertEquals(3, index.entityTypes().size());
+    }
+
+    private void writeIndexFileOnClasspath(String contents) throws IOException {
+        Path indexFile = directory.resolve(EntityClassIndex.INDEX_RESOURCE);
+        Files.createDirectories(indexFile.getParent());
+        Files.writeString(indexFile, contents, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calls {@code EntityClassIndex.forPackages} with the temporary directory on the classpath. The index for the packages must not
+     * have been created by another test, since it is cached.
+     */
+    private EntityClassIndex forPackagesUsingIndexFile(String... packages) throws IOException {
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            return EntityClassIndex.forPackages(packages);
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @Test
+    public void mainWithTooFewArguments() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> EntityClassIndex.main("foo"));
+        assertEquals("Usage: java " + EntityClassIndex.class.getName() + " <index file> <package>...", e.getMessage());
+    }
+
+    @Test
+    public void noPackages() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> EntityClassIndex.forPackages());
+        assertEquals("basePackages must not be null or empty", e.getMessage());
+    }
+}
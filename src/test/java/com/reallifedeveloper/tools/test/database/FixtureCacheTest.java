@@ -0,0 +1,136 @@
+package com.reallifedeveloper.tools.test.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter.DbTableRow;
+
+public class FixtureCacheTest {
+
+    @TempDir
+    private Path cacheDirectory;
+
+    @AfterEach
+    public void clearSystemProperties() {
+        System.clearProperty(FixtureCache.DIRECTORY_PROPERTY);
+        System.clearProperty(FixtureCache.ENABLED_PROPERTY);
+    }
+
+    @Test
+    public void putAndGet() {
+        FixtureCache cache = new FixtureCache(cacheDirectory.resolve("cache"));
+        String key = FixtureCache.key("test", bytes("foo"));
+        cache.put(key, List.of(testTable("test_entity"), new FixtureCache.Table("empty", List.of("id"))));
+        Optional<List<FixtureCache.Table>> tables = cache.get(key);
+        assertTrue(tables.isPresent());
+        assertEquals(2, tables.get().size());
+        FixtureCache.Table table = tables.get().get(0);
+        assertEquals("test_entity", table.getName());
+        assertEquals(List.of("id", "name"), table.getColumnNames());
+        assertEquals(3, table.getRowCount());
+        assertEquals("1", table.getValue(0, 0));
+        assertEquals("foo", table.getValue(0, 1));
+        assertEquals("foo", table.getValue(1, 1));
+        assertNull(table.getValue(2, 1));
+        assertEquals("", table.getValue(2, 0));
+        assertEquals("empty", tables.get().get(1).getName());
+        assertEquals(0, tables.get().get(1).getRowCount());
+    }
+
+    @Test
+    public void getMissingEntry() {
+        FixtureCache cache = new FixtureCache(cacheDirectory);
+        assertFalse(cache.get(FixtureCache.key("test", bytes("foo"))).isPresent());
+    }
+
+    @Test
+    public void getUnreadableEntryIsIgnored() throws Exception {
+        FixtureCache cache = new FixtureCache(cacheDirectory);
+        String key = FixtureCache.key("test", bytes("foo"));
+        Files.write(cacheDirectory.resolve(key + ".bin"), bytes("not a cache entry"));
+        assertFalse(cache.get(key).isPresent());
+    }
+
+    @Test
+    public void truncatedEntryIsRejected() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FixtureCache.writeTables(out, List.of(testTable("test_entity")));
+        byte[] data = out.toByteArray();
+        assertEquals(3, FixtureCache.readTables(new ByteArrayInputStream(data)).get(0).getRowCount());
+        byte[] truncatedData = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncatedData, 0, truncatedData.length);
+        assertThrows(IOException.class, () -> FixtureCache.readTables(new ByteArrayInputStream(truncatedData)));
+    }
+
+    @Test
+    public void keyDependsOnDescriptionAndContents() {
+        String key = FixtureCache.key("test", bytes("foo"), bytes("bar"));
+        assertEquals(key, FixtureCache.key("test", bytes("foo"), bytes("bar")));
+        assertEquals(64, key.length());
+        assertNotEquals(key, FixtureCache.key("other", bytes("foo"), bytes("bar")));
+        assertNotEquals(key, FixtureCache.key("test", bytes("foo"), bytes("baz")));
+        assertNotEquals(key, FixtureCache.key("test", bytes("foob"), bytes("ar")));
+    }
+
+    @Test
+    public void fromSystemProperties() {
+        assertFalse(FixtureCache.fromSystemProperties().isPresent());
+        System.setProperty(FixtureCache.ENABLED_PROPERTY, "true");
+        assertEquals("FixtureCache{directory=" + Path.of(FixtureCache.DEFAULT_DIRECTORY) + "}",
+                FixtureCache.fromSystemProperties().get().toString());
+        System.setProperty(FixtureCache.DIRECTORY_PROPERTY, cacheDirectory.toString());
+        assertEquals("FixtureCache{directory=" + cacheDirectory + "}", FixtureCache.fromSystemProperties().get().toString());
+    }
+
+    @Test
+    public void tableRowView() {
+        DbTableRow row = testTable("test_entity").row(2);
+        assertEquals(2, row.columnCount());
+        assertEquals("name", row.columnName(1));
+        assertEquals("", row.columnValue(0));
+        assertNull(row.columnValue(1));
+        assertEquals(new CrudRepositoryWriter.DbTableField("id", ""), row.columns().get(0));
+    }
+
+    @Test
+    public void addRowWithWrongNumberOfValues() {
+        FixtureCache.Table table = new FixtureCache.Table("test_entity", List.of("id", "name"));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> table.addRow("1"));
+        assertEquals("Wrong number of values: expected 2, got 1: [1]", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullDirectory() {
+        assertThrows(IllegalArgumentException.class, () -> new FixtureCache(null));
+    }
+
+    private static FixtureCache.Table testTable(String name) {
+        FixtureCache.Table table = new FixtureCache.Table(name, List.of("id", "name"));
+        table.addRow("1", "foo");
+        table.addRow("2", "foo");
+        table.addRow("", null);
+        return table;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
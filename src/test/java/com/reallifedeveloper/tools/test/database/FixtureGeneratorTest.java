@@ -0,0 +1,162 @@
+package com.reallifedeveloper.tools.test.database;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.reallifedeveloper.tools.test.database.csv.CsvRowCursor;
+import com.reallifedeveloper.tools.test.database.dbunit.DbUnitTestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntityWithoutRepository;
+
+public class FixtureGeneratorTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void writeFlatXml() throws Exception {
+        Path file = tempDir.resolve("fixtures/fixture.xml");
+        generator(42).writeFlatXml(file);
+
+        IDataSet dataSet = new FlatXmlDataSetBuilder().setColumnSensing(true).build(file.toFile());
+        assertArrayEquals(new String[] { "TEST_ENTITY", "DbUnitTestEntity", "TEST_ENTITY_WITHOUT_REPOSITORY",
+                "dbunittestentity_testentity" }, dataSet.getTableNames());
+        ITable testEntities = dataSet.getTable("TEST_ENTITY");
+        ITable dbUnitTestEntities = dataSet.getTable("DbUnitTestEntity");
+        ITable joinTable = dataSet.getTable("dbunittestentity_testentity");
+        assertEquals(10, testEntities.getRowCount());
+        assertEquals(20, dbUnitTestEntities.getRowCount());
+        assertEquals(5, dataSet.getTable("TEST_ENTITY_WITHOUT_REPOSITORY").getRowCount());
+        assertEquals(40, joinTable.getRowCount());
+
+        Set<Object> testEntityIds = columnValues(testEntities, "id");
+        Set<Object> dbUnitTestEntityIds = columnValues(dbUnitTestEntities, "id");
+        assertEquals(Set.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), testEntityIds);
+        assertTrue(testEntityIds.containsAll(columnValues(dbUnitTestEntities, "testentity_id")));
+        assertTrue(testEntityIds.containsAll(columnValues(joinTable, "test_entity_id")));
+        assertTrue(dbUnitTestEntityIds.containsAll(columnValues(joinTable, "dbunit_test_entity_id")));
+        for (int i = 0; i < dbUnitTestEntities.getRowCount(); i++) {
+            assertEquals(12, ((String) dbUnitTestEntities.getValue(i, "string")).length());
+            assertNotNull(dbUnitTestEntities.getValue(i, "zonedDateTime"));
+        }
+    }
+
+    @Test
+    public void writeCsv() throws Exception {
+        List<Path> files = generator(42).writeCsv(tempDir, ';');
+
+        assertEquals(List.of(tempDir.resolve("test_entity.csv"), tempDir.resolve("dbunittestentity.csv"),
+                tempDir.resolve("test_entity_without_repository.csv"), tempDir.resolve("dbunittestentity_testentity.csv")), files);
+        List<String[]> testEntities = readCsv(files.get(0), ';');
+        List<String[]> dbUnitTestEntities = readCsv(files.get(1), ';');
+        List<String[]> testEntitiesWithoutRepository = readCsv(files.get(2), ';');
+        assertArrayEquals(new String[] { "id", "NAME" }, testEntities.get(0));
+        assertEquals(11, testEntities.size());
+        assertEquals(21, dbUnitTestEntities.size());
+        assertEquals(6, testEntitiesWithoutRepository.size());
+        assertEquals(41, readCsv(files.get(3), ';').size());
+
+        List<String> header = Arrays.asList(testEntitiesWithoutRepository.get(0));
+        int dbUnitTestEntityColumn = header.indexOf("db_unit_test_entity_id");
+        int oneToOneColumn = header.indexOf("one_to_one_db_unit_test_entity_id");
+        Set<String> dbUnitTestEntityIds = new HashSet<>();
+        dbUnitTestEntities.stream().skip(1).forEach(row -> dbUnitTestEntityIds.add(row[0]));
+        Set<String> oneToOneIds = new HashSet<>();
+        for (String[] row : testEntitiesWithoutRepository.subList(1, testEntitiesWithoutRepository.size())) {
+            assertTrue(dbUnitTestEntityIds.contains(row[dbUnitTestEntityColumn]));
+            assertTrue(oneToOneIds.add(row[oneToOneColumn]));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameData() throws Exception {
+        generator(42).writeFlatXml(tempDir.resolve("a.xml"));
+        generator(42).writeFlatXml(tempDir.resolve("b.xml"));
+        generator(43).writeFlatXml(tempDir.resolve("c.xml"));
+        String a = Files.readString(tempDir.resolve("a.xml"));
+        assertEquals(a, Files.readString(tempDir.resolve("b.xml")));
+        assertFalse(a.equals(Files.readString(tempDir.resolve("c.xml"))));
+    }
+
+    @Test
+    public void missingReferencedEntityIsLeftOut() throws Exception {
+        FixtureGenerator generator = new FixtureGenerator(1);
+        generator.addEntity(DbUnitTestEntity.class, 3);
+        generator.writeCsv(tempDir, ',');
+        List<String[]> rows = readCsv(tempDir.resolve("dbunittestentity.csv"), ',');
+        assertEquals(4, rows.size());
+        assertFalse(Arrays.asList(rows.get(0)).contains("testentity_id"));
+        assertFalse(Files.exists(tempDir.resolve("dbunittestentity_testentity.csv")));
+    }
+
+    @Test
+    public void addEntityNotAnEntity() {
+        FixtureGenerator generator = new FixtureGenerator(1);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> generator.addEntity(String.class, 1));
+        assertEquals("entityType must be an @Entity class: class java.lang.String", e.getMessage());
+    }
+
+    @Test
+    public void addEntityNegativeRowCount() {
+        FixtureGenerator generator = new FixtureGenerator(1);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> generator.addEntity(TestEntity.class, -1));
+        assertEquals("rowCount must not be negative: -1", e.getMessage());
+    }
+
+    @Test
+    public void setJoinTableRowsPerEntityNegative() {
+        FixtureGenerator generator = new FixtureGenerator(1);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> generator.setJoinTableRowsPerEntity(-1));
+        assertEquals("joinTableRowsPerEntity must not be negative: -1", e.getMessage());
+    }
+
+    private static FixtureGenerator generator(long seed) {
+        FixtureGenerator generator = new FixtureGenerator(seed);
+        generator.addEntity(TestEntityWithoutRepository.class, 5);
+        generator.addEntity(DbUnitTestEntity.class, 20);
+        generator.addEntity(TestEntity.class, 10);
+        return generator;
+    }
+
+    private static Set<Object> columnValues(ITable table, String column) throws Exception {
+        Set<Object> values = new HashSet<>();
+        for (int i = 0; i < table.getRowCount(); i++) {
+            Object value = table.getValue(i, column);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static List<String[]> readCsv(Path file, char separator) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                CsvRowCursor cursor = new CsvRowCursor(reader, separator)) {
+            while (cursor.next()) {
+                rows.add(cursor.toStringArray());
+            }
+        }
+        return rows;
+    }
+}
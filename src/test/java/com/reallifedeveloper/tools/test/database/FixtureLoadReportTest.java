@@ -0,0 +1,109 @@
+package com.reallifedeveloper.tools.test.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import com.reallifedeveloper.tools.test.database.csv.CsvDatabaseReader;
+import com.reallifedeveloper.tools.test.database.dbunit.DbUnitFlatXmlReader;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntity;
+import com.reallifedeveloper.tools.test.database.inmemory.InMemoryJpaRepository;
+
+public class FixtureLoadReportTest {
+
+    private final FixtureLoadReport report = new FixtureLoadReport();
+
+    @AfterEach
+    public void tearDown() {
+        FixtureLoadMonitor.removeListener(report);
+    }
+
+    @Test
+    public void csvDatabaseReader() throws Exception {
+        FixtureLoadMonitor.addListener(report);
+        new CsvDatabaseReader(';', 0).read("/csv/testentity.csv", new InMemoryJpaRepository<TestEntity, Long>(), TestEntity.class,
+                TestEntity.class, "TEST_ENTITY");
+        List<FixtureLoadEvent> events = report.getEvents();
+        assertEquals(1, events.size());
+        FixtureLoadEvent event = events.get(0);
+        assertEquals("/csv/testentity.csv", event.source());
+        assertEquals("CsvDatabaseReader", event.loader());
+        assertEquals(1, event.tables().size());
+        assertEquals("TEST_ENTITY", event.tables().get(0).tableName());
+        assertEquals(3, event.rowCount());
+        assertTrue(event.parsingTime().plus(event.conversionTime()).plus(event.wiringTime()).plus(event.savingTime())
+                .compareTo(event.totalTime()) <= 0);
+        assertTrue(report.summary().contains("TEST_ENTITY: 3 rows"), report.summary());
+    }
+
+    @Test
+    public void dbUnitFlatXmlReader() throws Exception {
+        FixtureLoadMonitor.addListener(report);
+        new DbUnitFlatXmlReader().read("/dbunit/testentity.xml", new InMemoryJpaRepository<TestEntity, Long>(), TestEntity.class,
+                TestEntity.class);
+        List<FixtureLoadEvent> events = report.getEvents();
+        assertEquals(1, events.size());
+        assertEquals("DbUnitFlatXmlReader", events.get(0).loader());
+        assertEquals(3, events.get(0).tables().get(0).rowCount());
+    }
+
+    @Test
+    public void noListeners() throws Exception {
+        new CsvDatabaseReader(';', 0).read("/csv/testentity.csv", new InMemoryJpaRepository<TestEntity, Long>(), TestEntity.class,
+                TestEntity.class, "TEST_ENTITY");
+        assertEquals(List.of(), report.getEvents());
+        assertFalse(FixtureLoadMonitor.start("foo", FixtureLoadReportTest.class).isEnabled());
+    }
+
+    @Test
+    public void failingListenerIsIgnored() {
+        FixtureLoadListener failingListener = event -> {
+            throw new IllegalStateException("foo");
+        };
+        FixtureLoadMonitor.addListener(failingListener);
+        FixtureLoadMonitor.addListener(report);
+        try {
+            FixtureLoadMonitor monitor = FixtureLoadMonitor.start("foo", FixtureLoadReportTest.class);
+            monitor.tableLoaded("BAR", 2, 0);
+            monitor.finish();
+            assertEquals(1, report.getEvents().size());
+        } finally {
+            FixtureLoadMonitor.removeListener(failingListener);
+        }
+    }
+
+    @Test
+    public void extensionRegistersListenerForTestClass() {
+        ExtensionContext context = mock(ExtensionContext.class);
+        when(context.getDisplayName()).thenReturn("FixtureLoadReportTest");
+        report.beforeAll(context);
+        FixtureLoadMonitor.start("foo", FixtureLoadReportTest.class).finish();
+        report.afterAll(context);
+        FixtureLoadMonitor.start("bar", FixtureLoadReportTest.class).finish();
+        assertEquals(1, report.getEvents().size());
+        assertEquals("foo", report.getEvents().get(0).source());
+    }
+
+    @Test
+    public void rowsPerSecond() {
+        assertEquals(2000.0, new FixtureLoadEvent.TableStatistics("FOO", 2, Duration.ofMillis(1)).rowsPerSecond(), 0.001);
+        assertEquals(0.0, new FixtureLoadEvent.TableStatistics("FOO", 2, Duration.ZERO).rowsPerSecond(), 0.001);
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void addNullListener() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> FixtureLoadMonitor.addListener(null));
+        assertEquals("listener must not be null", e.getMessage());
+    }
+}
@@ -0,0 +1,77 @@
+package com.reallifedeveloper.tools.test.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.reallifedeveloper.tools.test.database.dbunit.DbUnitTestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntityWithoutRepository;
+import com.reallifedeveloper.tools.test.database.inmemory.InMemoryJpaRepository;
+
+public class RepositoryRegistryTest {
+
+    private final RepositoryRegistry registry = new RepositoryRegistry();
+
+    @Test
+    public void entityTypeIsFoundByTableNameIgnoringCase() {
+        registry.register(TestEntity.class, new InMemoryJpaRepository<TestEntity, Long>());
+        registry.register(TestEntityWithoutRepository.class);
+        assertEquals(TestEntity.class, registry.entityType("test_entity"));
+        assertEquals(TestEntityWithoutRepository.class, registry.entityType("TEST_ENTITY_WITHOUT_REPOSITORY"));
+        assertNull(registry.entityType("DBUNITTESTENTITY"));
+    }
+
+    @Test
+    public void repositoryForEntityClass() {
+        InMemoryJpaRepository<TestEntity, Long> testEntityRepository = new InMemoryJpaRepository<>();
+        registry.register(TestEntity.class, testEntityRepository);
+        registry.register(TestEntityWithoutRepository.class);
+        assertSame(testEntityRepository, registry.repositoryFor(TestEntity.class));
+        assertNull(registry.repositoryFor(TestEntityWithoutRepository.class));
+        assertNull(registry.repositoryFor(DbUnitTestEntity.class));
+    }
+
+    @Test
+    public void repositoryForSubclass() {
+        InMemoryJpaRepository<Object, Long> objectRepository = new InMemoryJpaRepository<>();
+        registry.register(Object.class, objectRepository);
+        assertSame(objectRepository, registry.repositoryFor(TestEntity.class));
+        assertNull(registry.entityType("Object"));
+
+        InMemoryJpaRepository<TestEntity, Long> testEntityRepository = new InMemoryJpaRepository<>();
+        registry.register(TestEntity.class, testEntityRepository);
+        assertSame(testEntityRepository, registry.repositoryFor(TestEntity.class));
+        assertSame(objectRepository, registry.repositoryFor(DbUnitTestEntity.class));
+    }
+
+    @Test
+    public void registerEntityTypeTwice() {
+        registry.register(TestEntity.class, new InMemoryJpaRepository<TestEntity, Long>());
+        Exception e = assertThrows(IllegalArgumentException.class, () -> registry.register(TestEntity.class));
+        assertEquals("Entity type already registered: " + TestEntity.class.getName(), e.getMessage());
+    }
+
+    @Test
+    public void registerNonEntityType() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> registry.register(String.class));
+        assertEquals("entityType is not annotated with @Entity: java.lang.String", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void registerNullRepository() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> registry.register(TestEntity.class, null));
+        assertEquals("Arguments must not be null: entityType=" + TestEntity.class + ", repository=null", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void registerNullEntityType() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> registry.register(null));
+        assertEquals("entityType must not be null", e.getMessage());
+    }
+}
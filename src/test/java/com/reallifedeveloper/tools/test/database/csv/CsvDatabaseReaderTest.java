@@ -11,6 +11,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter;
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
 import com.reallifedeveloper.tools.test.database.dbunit.DatabaseReaderTestCases;
 import com.reallifedeveloper.tools.test.database.dbunit.DatabaseTestConfiguration;
 import com.reallifedeveloper.tools.test.database.dbunit.DbUnitTestEntity;
@@ -87,4 +88,22 @@ public class CsvDatabaseReaderTest implements DatabaseReaderTestCases {
         assertEquals("Cannot find any field matching attribute 'b' for " + TestEntity.class, e.getMessage());
     }
 
+    @Test
+    public void readSeveralRepositoriesUsingRegistry() throws Exception {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(TestEntity.class, testEntityRepository());
+        repositories.register(DbUnitTestEntity.class, dbUnitTestEntityRepository());
+        repositories.register(TestEntityWithoutRepository.class);
+        csvReader.read("/csv/testentity.csv", repositories, "TEST_ENTITY");
+        csvReader.read("/csv/dbunittestentity.csv", repositories, "DBUNITTESTENTITY");
+        csvReader.read("/csv/dbunittestentity_testentity.csv", repositories, "DBUNITTESTENTITY_TESTENTITY");
+        csvReader.read("/csv/testentitywithoutrepository.csv", repositories, "TEST_ENTITY_WITHOUT_REPOSITORY");
+
+        assertEquals(3, testEntityRepository().count());
+        assertEquals(2, dbUnitTestEntityRepository().count());
+        DbUnitTestEntity dbUnitTestEntity = dbUnitTestEntityRepository().findById(3).get();
+        assertEquals(42L, dbUnitTestEntity.testEntity().id());
+        assertEquals(2, dbUnitTestEntity.testEntities().size());
+        assertEquals(2, dbUnitTestEntity.testEntitiesWithoutRepository().size());
+    }
 }
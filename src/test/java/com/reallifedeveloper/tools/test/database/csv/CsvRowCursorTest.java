@@ -0,0 +1,126 @@
+package com.reallifedeveloper.tools.test.database.csv;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import com.opencsv.exceptions.CsvException;
+
+public class CsvRowCursorTest {
+
+    @Test
+    public void simpleRows() throws Exception {
+        try (CsvRowCursor cursor = cursor("id;name\n1;foo\n2;bar")) {
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "id", "name" }, cursor.toStringArray());
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "1", "foo" }, cursor.toStringArray());
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "2", "bar" }, cursor.toStringArray());
+            assertEquals(3, cursor.rowNumber());
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void cellViewsAreReused() throws Exception {
+        try (CsvRowCursor cursor = cursor("a;b\nc;d\n")) {
+            assertTrue(cursor.next());
+            CharSequence cell = cursor.cell(1);
+            assertEquals("b", cell.toString());
+            assertTrue(cursor.next());
+            assertSame(cell, cursor.cell(1));
+            assertEquals("d", cell.toString());
+            assertEquals('d', cell.charAt(0));
+            assertEquals(1, cell.length());
+        }
+    }
+
+    @Test
+    public void emptyCells() throws Exception {
+        try (CsvRowCursor cursor = cursor("9999;\n;;x")) {
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "9999", "" }, cursor.toStringArray());
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "", "", "x" }, cursor.toStringArray());
+        }
+    }
+
+    @Test
+    public void quotedCells() throws Exception {
+        try (CsvRowCursor cursor = cursor("\"a;b\";\"say \"\"hi\"\"\";\"say \\\"bye\\\"\";\"line\nbreak\"\n")) {
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "a;b", "say \"hi\"", "say \"bye\"", "line\nbreak" }, cursor.toStringArray());
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void windowsLineBreaksAndBlankLines() throws Exception {
+        try (CsvRowCursor cursor = cursor("a,b\r\n\r\nc,d\r\n")) {
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "a", "b" }, cursor.toStringArray());
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "c", "d" }, cursor.toStringArray());
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void skipLines() throws Exception {
+        try (CsvRowCursor cursor = cursor("# comment\r\n# another comment\nid;name\n1;foo")) {
+            cursor.skipLines(2);
+            assertTrue(cursor.next());
+            assertArrayEquals(new String[] { "id", "name" }, cursor.toStringArray());
+        }
+    }
+
+    @Test
+    public void longRowsAndManyCells() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i).append(';');
+        }
+        sb.append("last");
+        try (CsvRowCursor cursor = cursor(sb.toString())) {
+            assertTrue(cursor.next());
+            assertEquals(1001, cursor.cellCount());
+            assertEquals("999", cursor.cell(999).toString());
+            assertEquals("last", cursor.cell(1000).toString());
+        }
+    }
+
+    @Test
+    public void unterminatedQuote() throws Exception {
+        try (CsvRowCursor cursor = cursor("a;\"b\nc;d")) {
+            Exception e = assertThrows(CsvException.class, () -> cursor.next());
+            assertEquals("Unterminated quoted cell in row 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void cellIndexOutOfBounds() throws Exception {
+        try (CsvRowCursor cursor = cursor("a;b")) {
+            assertTrue(cursor.next());
+            assertThrows(IndexOutOfBoundsException.class, () -> cursor.cell(2));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullReader() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvRowCursor(null, ';'));
+    }
+
+    private static CsvRowCursor cursor(String csv) {
+        char separator = csv.indexOf(';') >= 0 ? ';' : ',';
+        return new CsvRowCursor(new StringReader(csv), separator);
+    }
+}
@@ -0,0 +1,49 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * A {@code DataSource} that counts the connections that are opened and closed.
+ */
+public final class ConnectionCountingDataSource extends DelegatingDataSource {
+
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private final AtomicInteger closedConnections = new AtomicInteger();
+
+    public ConnectionCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        openedConnections.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && !connection.isClosed()) {
+                        closedConnections.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public int openedConnections() {
+        return openedConnections.get();
+    }
+
+    public int openConnections() {
+        return openedConnections.get() - closedConnections.get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.DatabaseMetaData;
+
+import org.dbunit.database.DatabaseConfig;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionSettingsTest {
+
+    @Test
+    public void forDatabase() throws Exception {
+        assertEquals(new ConnectionSettings(true, 1000, 1000), ConnectionSettings.forDatabase(metaData("PostgreSQL", true)));
+        assertEquals(new ConnectionSettings(true, 1000, 1000), ConnectionSettings.forDatabase(metaData("HSQL Database Engine", true)));
+        assertEquals(new ConnectionSettings(true, 1000, 1000), ConnectionSettings.forDatabase(metaData("H2", true)));
+        assertEquals(new ConnectionSettings(true, 500, 500), ConnectionSettings.forDatabase(metaData("Oracle", true)));
+        assertEquals(new ConnectionSettings(false, 1000, 1000), ConnectionSettings.forDatabase(metaData("MySQL", false)));
+    }
+
+    @Test
+    public void applyTo() {
+        DatabaseConfig config = new DatabaseConfig();
+        new ConnectionSettings(true, 42, 4711).applyTo(config);
+        assertEquals(Boolean.TRUE, config.getProperty(DatabaseConfig.FEATURE_BATCHED_STATEMENTS));
+        assertEquals(42, config.getProperty(DatabaseConfig.PROPERTY_BATCH_SIZE));
+        assertEquals(4711, config.getProperty(DatabaseConfig.PROPERTY_FETCH_SIZE));
+    }
+
+    @Test
+    public void dbUnitDefaults() {
+        DatabaseConfig config = new DatabaseConfig();
+        ConnectionSettings.DBUNIT_DEFAULTS.applyTo(config);
+        DatabaseConfig defaultConfig = new DatabaseConfig();
+        assertEquals(defaultConfig.getProperty(DatabaseConfig.FEATURE_BATCHED_STATEMENTS),
+                config.getProperty(DatabaseConfig.FEATURE_BATCHED_STATEMENTS));
+        assertEquals(defaultConfig.getProperty(DatabaseConfig.PROPERTY_BATCH_SIZE), config.getProperty(DatabaseConfig.PROPERTY_BATCH_SIZE));
+        assertEquals(defaultConfig.getProperty(DatabaseConfig.PROPERTY_FETCH_SIZE), config.getProperty(DatabaseConfig.PROPERTY_FETCH_SIZE));
+    }
+
+    @Test
+    public void constructorNonPositiveSizes() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new ConnectionSettings(true, 0, 100));
+        assertEquals("batchSize and fetchSize must be positive: batchSize=0, fetchSize=100", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionSettings(true, 100, -1));
+    }
+
+    private static DatabaseMetaData metaData(String databaseProductName, boolean supportsBatchUpdates) throws Exception {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(databaseProductName);
+        when(metaData.supportsBatchUpdates()).thenReturn(supportsBatchUpdates);
+        return metaData;
+    }
+}
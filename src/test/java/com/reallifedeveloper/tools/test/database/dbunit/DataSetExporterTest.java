@@ -0,0 +1,165 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class DataSetExporterTest {
+
+    @Autowired
+    private DataSource ds;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (1, 'foo')");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (2, 'bar;\"baz\"')");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (3, NULL)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, STRING, TESTENTITY_ID) VALUES (10, 'a', 1)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, STRING, TESTENTITY_ID) VALUES (11, 'b', 2)");
+    }
+
+    @AfterEach
+    public void cleanUp() throws SQLException {
+        executeUpdate("DELETE FROM DBUNITTESTENTITY");
+        executeUpdate("DELETE FROM TEST_ENTITY");
+    }
+
+    @Test
+    public void exportFlatXml() throws Exception {
+        DataSetExporter exporter = exporter();
+        Path file = tempDir.resolve("export/dataset.xml");
+        assertEquals(List.of("TEST_ENTITY", "DBUNITTESTENTITY"), exporter.exportFlatXml(file));
+
+        IDataSet dataSet = new FlatXmlDataSetBuilder().setColumnSensing(true).build(file.toFile());
+        assertArrayEquals(new String[] { "TEST_ENTITY", "DBUNITTESTENTITY" }, dataSet.getTableNames());
+        ITable testEntities = dataSet.getTable("TEST_ENTITY");
+        assertEquals(3, testEntities.getRowCount());
+        assertEquals("bar;\"baz\"", testEntities.getValue(1, "NAME"));
+        assertNull(testEntities.getValue(2, "NAME"));
+        assertEquals("2", dataSet.getTable("DBUNITTESTENTITY").getValue(1, "TESTENTITY_ID"));
+    }
+
+    @Test
+    public void exportFlatXmlConcurrentlyGivesSameResult() throws Exception {
+        DataSetExporter exporter = exporter();
+        exporter.exportFlatXml(tempDir.resolve("sequential.xml"));
+        exporter.setParallelism(2);
+        exporter.setFetchSize(1);
+        exporter.exportFlatXml(tempDir.resolve("concurrent.xml"));
+        assertEquals(Files.readString(tempDir.resolve("sequential.xml")), Files.readString(tempDir.resolve("concurrent.xml")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void exportCsv() throws Exception {
+        DataSetExporter exporter = exporter();
+        exporter.setParallelism(2);
+        List<Path> files = exporter.exportCsv(tempDir, ';');
+        assertEquals(List.of(tempDir.resolve("test_entity.csv"), tempDir.resolve("dbunittestentity.csv")), files);
+        assertEquals(List.of("ID;NAME", "1;foo", "2;\"bar;\"\"baz\"\"\"", "3;"), lines(files.get(0)));
+    }
+
+    @Test
+    public void exportCsvInTransactionIncludesUncommittedRows() throws Exception {
+        DataSetExporter exporter = exporter();
+        exporter.setParallelism(2);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        List<Path> files = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            try (Statement statement = DataSourceUtils.getConnection(ds).createStatement()) {
+                statement.executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (4, 'uncommitted')");
+                return exporter.exportCsv(tempDir, ';');
+            } catch (IOException | SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(List.of("ID;NAME", "1;foo", "2;\"bar;\"\"baz\"\"\"", "3;", "4;uncommitted"), lines(files.get(0)));
+    }
+
+    @Test
+    public void exportCsvWithRowFilter() throws Exception {
+        DataSetExporter exporter = exporter();
+        exporter.setExcludedTables("DBUNIT.*");
+        exporter.setRowFilter("test_entity", "ID > 1 AND NAME IS NOT NULL");
+        List<Path> files = exporter.exportCsv(tempDir, ',');
+        assertEquals(List.of(tempDir.resolve("test_entity.csv")), files);
+        assertEquals(List.of("ID,NAME", "2,\"bar;\"\"baz\"\"\""), lines(files.get(0)));
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullDataSource() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new DataSetExporter(null));
+        assertEquals("dataSource must not be null", e.getMessage());
+    }
+
+    @Test
+    public void setFetchSizeNotPositive() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> exporter().setFetchSize(0));
+        assertEquals("fetchSize must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    public void setParallelismNotPositive() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> exporter().setParallelism(0));
+        assertEquals("parallelism must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void setRowFilterNullCondition() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> exporter().setRowFilter("foo", null));
+        assertEquals("Arguments must not be null: tableName=foo, sqlCondition=null", e.getMessage());
+    }
+
+    private DataSetExporter exporter() {
+        DataSetExporter exporter = new DataSetExporter(ds);
+        exporter.setIncludedTables("TEST_ENTITY", "DBUNITTESTENTITY");
+        return exporter;
+    }
+
+    private static List<String> lines(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
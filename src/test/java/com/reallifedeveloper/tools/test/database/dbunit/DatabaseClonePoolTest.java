@@ -0,0 +1,169 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.ext.hsqldb.HsqldbDataTypeFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class DatabaseClonePoolTest {
+
+    private final AtomicInteger initializations = new AtomicInteger();
+
+    @Test
+    public void sameThreadGetsSameClone() throws Exception {
+        try (DatabaseClonePool pool = new DatabaseClonePool(InitializingDatabaseCloner.forHsqldb(this::initialize), "same_thread", 0)) {
+            DataSource dataSource = pool.dataSourceForCurrentThread();
+            assertSame(dataSource, pool.dataSourceForCurrentThread());
+            assertEquals(1, count(dataSource));
+            assertEquals(1, initializations.get());
+        }
+    }
+
+    @Test
+    public void differentThreadsGetDifferentClones() throws Exception {
+        try (DatabaseClonePool pool = new DatabaseClonePool(InitializingDatabaseCloner.forHsqldb(this::initialize), "threads", 2)) {
+            DataSource mainDataSource = pool.dataSourceForCurrentThread();
+            DataSource otherDataSource = CompletableFuture.supplyAsync(pool::dataSourceForCurrentThread).get();
+            assertNotSame(mainDataSource, otherDataSource);
+            insert(mainDataSource, 2);
+            assertEquals(2, count(mainDataSource));
+            assertEquals(1, count(otherDataSource));
+        }
+    }
+
+    @Test
+    public void routingDataSourceUsesCloneOfCurrentThread() throws Exception {
+        try (DatabaseClonePool pool = new DatabaseClonePool(InitializingDatabaseCloner.forHsqldb(this::initialize), "routing", 1)) {
+            insert(pool.routingDataSource(), 2);
+            assertEquals(2, count(pool.dataSourceForCurrentThread()));
+            assertEquals(1, CompletableFuture.supplyAsync(() -> countUnchecked(pool.routingDataSource())).get());
+        }
+    }
+
+    @Test
+    public void closeDropsClones() throws Exception {
+        List<String> droppedClones = new ArrayList<>();
+        InitializingDatabaseCloner hsqldbCloner = InitializingDatabaseCloner.forHsqldb(this::initialize);
+        DatabaseCloner cloner = new DatabaseCloner() {
+            @Override
+            public void prepareTemplate() {
+                // Nothing to do
+            }
+
+            @Override
+            public DataSource createClone(String cloneName) throws SQLException {
+                return hsqldbCloner.createClone(cloneName);
+            }
+
+            @Override
+            public void dropClone(String cloneName, DataSource clone) throws SQLException {
+                droppedClones.add(cloneName);
+                hsqldbCloner.dropClone(cloneName, clone);
+            }
+        };
+        DatabaseClonePool pool = new DatabaseClonePool(cloner, "close", 0);
+        pool.dataSourceForCurrentThread();
+        pool.close();
+        assertEquals(List.of("close_1"), droppedClones);
+        Exception e = assertThrows(IllegalStateException.class, pool::dataSourceForCurrentThread);
+        assertEquals("The pool has been closed", e.getMessage());
+    }
+
+    @Test
+    public void cloneInitializedWithDbTestHelper() throws Exception {
+        List<ConnectionCountingDataSource> clones = new ArrayList<>();
+        InitializingDatabaseCloner cloner = new InitializingDatabaseCloner(name -> {
+            ConnectionCountingDataSource clone = new ConnectionCountingDataSource(
+                    new DriverManagerDataSource("jdbc:hsqldb:mem:" + name, "SA", ""));
+            clones.add(clone);
+            return clone;
+        }, this::initializeWithDbTestHelper, "SHUTDOWN");
+        try (DatabaseClonePool pool = new DatabaseClonePool(cloner, "dbtesthelper", 0)) {
+            DataSource dataSource = pool.dataSourceForCurrentThread();
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST_ENTITY")) {
+                rs.next();
+                assertEquals(3, rs.getInt(1));
+            }
+            assertEquals(1, clones.size());
+            assertEquals(0, clones.get(0).openConnections(), "No connection should be left open after initializing the clone");
+        }
+        assertEquals(0, clones.get(0).openConnections());
+    }
+
+    @Test
+    public void constructorInvalidNamePrefix() {
+        DatabaseCloner cloner = InitializingDatabaseCloner.forHsqldb(this::initialize);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new DatabaseClonePool(cloner, "foo; DROP", 0));
+        assertEquals("Invalid namePrefix: foo; DROP", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullCloner() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new DatabaseClonePool(null, "foo", 0));
+        assertEquals("Arguments must not be null: cloner=null, namePrefix=foo", e.getMessage());
+    }
+
+    @Test
+    public void constructorNegativePrewarmedClones() {
+        DatabaseCloner cloner = InitializingDatabaseCloner.forHsqldb(this::initialize);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new DatabaseClonePool(cloner, "foo", -1));
+        assertEquals("prewarmedClones must not be negative: -1", e.getMessage());
+    }
+
+    private void initialize(DataSource dataSource) throws SQLException {
+        initializations.incrementAndGet();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE clone_test (id INTEGER PRIMARY KEY)");
+            statement.execute("INSERT INTO clone_test VALUES (1)");
+        }
+    }
+
+    private void initializeWithDbTestHelper(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE TEST_ENTITY (ID BIGINT PRIMARY KEY, NAME VARCHAR(255))");
+        }
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath(null, "/dbunit/testentity.xml");
+        new DbTestHelper(dataSource, dataSet, Optional.empty(), Optional.of(new HsqldbDataTypeFactory())).init();
+    }
+
+    private static void insert(DataSource dataSource, int id) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO clone_test VALUES (" + id + ")");
+        }
+    }
+
+    private static int count(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM clone_test")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int countUnchecked(DataSource dataSource) {
+        try {
+            return count(dataSource);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,25 +3,39 @@ package com.reallifedeveloper.tools.test.database.dbunit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Path;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.datatype.IDataTypeFactory;
 import org.dbunit.operation.DatabaseOperation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.reallifedeveloper.tools.test.database.FixtureCache;
+import com.reallifedeveloper.tools.test.database.FixtureLoadEvent;
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
+import com.reallifedeveloper.tools.test.database.FixtureLoadReport;
+
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = DatabaseTestConfiguration.class)
 public class DbTestHelperTest {
@@ -50,6 +64,52 @@ public class DbTestHelperTest {
         verifyDataSet(dataSet, dataTypeFactory, 3);
     }
 
+    @Test
+    public void normalUseWithDtdAndFixtureCache(@TempDir Path cacheDirectory) throws Exception {
+        System.setProperty(FixtureCache.DIRECTORY_PROPERTY, cacheDirectory.toString());
+        try {
+            DbTestHelper.clearDataSetCache();
+            IDataSet parsedDataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+            DbTestHelper.clearDataSetCache();
+            IDataSet cachedDataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+            assertEquals(Arrays.asList(parsedDataSet.getTableNames()), Arrays.asList(cachedDataSet.getTableNames()));
+            verifyDataSet(cachedDataSet, dataTypeFactory, 3);
+        } finally {
+            System.clearProperty(FixtureCache.DIRECTORY_PROPERTY);
+            DbTestHelper.clearDataSetCache();
+        }
+    }
+
+    @Test
+    public void dataSetIsRemembered() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        assertSame(dataSet, DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml"));
+        assertNotSame(dataSet, DbTestHelper.readDataSetFromClasspath(null, "/dbunit/testentity.xml"));
+        DbTestHelper.clearDataSetCache();
+        assertNotSame(dataSet, DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml"));
+    }
+
+    @Test
+    public void severalResourcesAreMergedInOrder() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/single_testentity.xml",
+                "/dbunit/testentity.xml");
+        IDataSet single = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/single_testentity.xml");
+        IDataSet multiple = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        ITable table = dataSet.getTable("TEST_ENTITY");
+        assertEquals(4, table.getRowCount());
+        assertEquals(single.getTable("TEST_ENTITY").getValue(0, "ID"), table.getValue(0, "ID"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(multiple.getTable("TEST_ENTITY").getValue(i, "ID"), table.getValue(i + 1, "ID"));
+        }
+    }
+
+    @Test
+    public void readDataSetFromClasspathOneOfSeveralResourceNamesNonExisting() throws Exception {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> DbTestHelper
+                .readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml", "/dbunit/no_such_file"));
+        assertEquals("Dataset not found on classpath: /dbunit/no_such_file", e.getMessage());
+    }
+
     private void verifyDataSet(IDataSet dataSet, @Nullable IDataTypeFactory dtf, int expectedNumberOfRows) throws Exception, SQLException {
         DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.ofNullable(dtf));
         dbTestHelper.setSetUpOperation(DatabaseOperation.CLEAN_INSERT);
@@ -68,6 +128,136 @@ public class DbTestHelperTest {
         assertFalse(rs.next(), "Database should be empty after clean");
     }
 
+    @Test
+    public void initNotifiesFixtureLoadListeners() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        dbTestHelper.setTearDownOperation(DatabaseOperation.DELETE_ALL);
+        FixtureLoadReport report = new FixtureLoadReport();
+        FixtureLoadMonitor.addListener(report);
+        try {
+            dbTestHelper.init();
+        } finally {
+            FixtureLoadMonitor.removeListener(report);
+            dbTestHelper.clean();
+        }
+        assertEquals(1, report.getEvents().size());
+        FixtureLoadEvent event = report.getEvents().get(0);
+        assertEquals("/dbunit/testentity.xml", event.source());
+        assertEquals("DbTestHelper", event.loader());
+        assertTrue(event.isSuccess());
+        assertEquals(3, event.rowCount());
+        assertEquals("TEST_ENTITY", event.tables().get(0).tableName());
+        assertSame(dataSet, DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml"));
+    }
+
+    @Test
+    public void initNotifiesFixtureLoadListenersOfFailure() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        SQLException failure = new SQLException("foo");
+        dbTestHelper.setSetUpOperation(new DatabaseOperation() {
+            @Override
+            public void execute(IDatabaseConnection connection, IDataSet operationDataSet) throws SQLException {
+                throw failure;
+            }
+        });
+        FixtureLoadReport report = new FixtureLoadReport();
+        FixtureLoadMonitor.addListener(report);
+        try {
+            assertSame(failure, assertThrows(SQLException.class, dbTestHelper::init));
+        } finally {
+            FixtureLoadMonitor.removeListener(report);
+        }
+        assertEquals(1, report.getEvents().size());
+        FixtureLoadEvent event = report.getEvents().get(0);
+        assertFalse(event.isSuccess());
+        assertSame(failure, event.failure());
+        assertTrue(report.summary().startsWith("Loaded test data 1 times in "), report.summary());
+        assertTrue(report.summary().lines().findFirst().orElseThrow().endsWith(", 1 failed"), report.summary());
+    }
+
+    @Test
+    public void normalUseWithDbUnitDefaultConnectionSettings() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        dbTestHelper.setConnectionSettings(ConnectionSettings.DBUNIT_DEFAULTS);
+        dbTestHelper.init();
+        try (ResultSet rs = ds.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM TEST_ENTITY")) {
+            rs.next();
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void connectionIsCached() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        ConnectionCountingDataSource countingDataSource = new ConnectionCountingDataSource(ds);
+        try {
+            for (int i = 0; i < 2; i++) {
+                DbTestHelper dbTestHelper = new DbTestHelper(countingDataSource, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+                dbTestHelper.setConnectionCaching(true);
+                dbTestHelper.setTearDownOperation(DatabaseOperation.DELETE_ALL);
+                dbTestHelper.init();
+                dbTestHelper.clean();
+            }
+            assertEquals(1, countingDataSource.openedConnections());
+            DbTestHelper.closeIdleConnections();
+            assertEquals(0, countingDataSource.openConnections());
+            DbTestHelper dbTestHelper = new DbTestHelper(countingDataSource, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+            dbTestHelper.setConnectionCaching(true);
+            dbTestHelper.init();
+            assertEquals(2, countingDataSource.openedConnections());
+        } finally {
+            DbTestHelper.closeIdleConnections();
+        }
+    }
+
+    @Test
+    public void idleConnectionsAreBounded() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        List<ConnectionCountingDataSource> dataSources = new ArrayList<>();
+        try {
+            for (int i = 0; i <= DbTestHelper.MAX_IDLE_CONNECTIONS; i++) {
+                ConnectionCountingDataSource countingDataSource = new ConnectionCountingDataSource(ds);
+                dataSources.add(countingDataSource);
+                DbTestHelper dbTestHelper = new DbTestHelper(countingDataSource, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+                dbTestHelper.setConnectionCaching(true);
+                dbTestHelper.init();
+            }
+            assertEquals(0, dataSources.get(0).openConnections(), "The connection idle the longest should have been closed");
+            for (int i = 1; i < dataSources.size(); i++) {
+                assertEquals(1, dataSources.get(i).openConnections());
+            }
+        } finally {
+            DbTestHelper.closeIdleConnections();
+        }
+        for (ConnectionCountingDataSource countingDataSource : dataSources) {
+            assertEquals(0, countingDataSource.openConnections());
+        }
+    }
+
+    @Test
+    public void connectionIsNotCachedByDefault() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        ConnectionCountingDataSource countingDataSource = new ConnectionCountingDataSource(ds);
+        DbTestHelper dbTestHelper = new DbTestHelper(countingDataSource, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        dbTestHelper.setTearDownOperation(DatabaseOperation.DELETE_ALL);
+        dbTestHelper.init();
+        dbTestHelper.clean();
+        dbTestHelper.init();
+        assertEquals(3, countingDataSource.openedConnections());
+        assertEquals(0, countingDataSource.openConnections());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void setConnectionSettingsNull() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        assertThrows(IllegalArgumentException.class, () -> dbTestHelper.setConnectionSettings(null));
+    }
+
     @Test
     public void readDataSetFromClasspathNonExistingDtd() throws Exception {
         Exception e = assertThrows(IllegalArgumentException.class,
@@ -115,5 +305,4 @@ public class DbTestHelperTest {
         Exception e = assertThrows(IllegalArgumentException.class, () -> new DbTestHelper(ds, null, null, Optional.of(dataTypeFactory)));
         assertTrue(e.getMessage().contains("Arguments must not be null: dataSource=" + ds + ", dataSet=null"));
     }
-
 }
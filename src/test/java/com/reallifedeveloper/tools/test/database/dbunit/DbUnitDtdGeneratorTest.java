@@ -1,13 +1,19 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -75,6 +81,58 @@ public class DbUnitDtdGeneratorTest {
         assertDtd(EXPECTED_DTD, dtd);
     }
 
+    private static final String EXPECTED_TEST_ENTITY_DTD = """
+            <!ELEMENT dataset (
+                TEST_ENTITY*)>
+
+            <!ELEMENT TEST_ENTITY EMPTY>
+            <!ATTLIST TEST_ENTITY
+                ID CDATA #REQUIRED
+                NAME CDATA #IMPLIED
+            >
+
+            """;
+
+    @Test
+    public void generateDtdWithIncludedAndExcludedTables() throws Exception {
+        ApplicationContext applicationContext = new AnnotationConfigApplicationContext(DatabaseTestConfiguration.class);
+        DbUnitDtdGenerator dtdGenerator = new DbUnitDtdGenerator(applicationContext);
+        dtdGenerator.setIncludedTables("test_entity.*");
+        dtdGenerator.setExcludedTables(".*_WITHOUT_REPOSITORY");
+        assertDtd(EXPECTED_TEST_ENTITY_DTD, dtdGenerator.generateDtd());
+    }
+
+    @Test
+    public void generateDtdInParallel() throws Exception {
+        ApplicationContext applicationContext = new AnnotationConfigApplicationContext(DatabaseTestConfiguration.class);
+        DbUnitDtdGenerator dtdGenerator = new DbUnitDtdGenerator(applicationContext);
+        dtdGenerator.setParallelism(3);
+        assertDtd(EXPECTED_DTD, dtdGenerator.generateDtd());
+    }
+
+    @Test
+    public void writeDtdIfSchemaChanged(@TempDir Path directory) throws Exception {
+        ApplicationContext applicationContext = new AnnotationConfigApplicationContext(DatabaseTestConfiguration.class);
+        DbUnitDtdGenerator dtdGenerator = new DbUnitDtdGenerator(applicationContext);
+        Path dtdFile = directory.resolve("schema.dtd");
+        assertTrue(dtdGenerator.writeDtdIfSchemaChanged(dtdFile), "DTD should be written the first time");
+        List<String> lines = Files.readAllLines(dtdFile, StandardCharsets.UTF_8);
+        assertTrue(lines.get(0).startsWith("<!-- Schema fingerprint: "), "First line should be the fingerprint: " + lines.get(0));
+        assertDtd(EXPECTED_DTD, String.join("\n", lines.subList(1, lines.size())) + "\n");
+        assertFalse(dtdGenerator.writeDtdIfSchemaChanged(dtdFile), "DTD should not be written if the schema is unchanged");
+        dtdGenerator.setIncludedTables("TEST_ENTITY");
+        assertTrue(dtdGenerator.writeDtdIfSchemaChanged(dtdFile), "DTD should be written if the tables change");
+        lines = Files.readAllLines(dtdFile, StandardCharsets.UTF_8);
+        assertDtd(EXPECTED_TEST_ENTITY_DTD, String.join("\n", lines.subList(1, lines.size())) + "\n");
+    }
+
+    @Test
+    public void setParallelismNonPositive() {
+        DbUnitDtdGenerator dtdGenerator = new DbUnitDtdGenerator(new AnnotationConfigApplicationContext(DatabaseTestConfiguration.class));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> dtdGenerator.setParallelism(0));
+        assertEquals("parallelism must be positive: 0", e.getMessage());
+    }
+
     @Test
     public void generateDtdWithoutDataTypeFactory() throws Exception {
         ApplicationContext applicationContext = new ClassPathXmlApplicationContext(
@@ -1,12 +1,17 @@
 package com.reallifedeveloper.tools.test.database.dbunit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.UUID;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.data.repository.CrudRepository;
 
 import com.reallifedeveloper.tools.test.database.CrudRepositoryWriter;
+import com.reallifedeveloper.tools.test.database.EntityClassIndex;
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
 import com.reallifedeveloper.tools.test.database.inmemory.InMemoryJpaRepository;
 
 /**
@@ -69,4 +74,36 @@ public class DbUnitFlatXmlReaderTest implements DatabaseReaderTestCases {
         assertEquals("Entity of " + TestEntity.class + " with primary key 42 not found", e.getMessage());
     }
 
+    @Test
+    public void readSeveralRepositoriesFromOneFile() throws Exception {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(TestEntity.class, testEntityRepository);
+        repositories.register(DbUnitTestEntity.class, dbUnitTestEntityRepository);
+        repositories.register(TestEntityWithoutRepository.class);
+        xmlReader.read("/dbunit/all_entities.xml", repositories);
+
+        assertEquals(3, testEntityRepository.count());
+        assertEquals(2, dbUnitTestEntityRepository.count());
+        DbUnitTestEntity dbUnitTestEntity3 = dbUnitTestEntityRepository.findById(3).get();
+        DbUnitTestEntity dbUnitTestEntity12 = dbUnitTestEntityRepository.findById(12).get();
+        assertSame(testEntityRepository.findById(42L).get(), dbUnitTestEntity3.testEntity());
+        assertSame(testEntityRepository.findById(4711L).get(), dbUnitTestEntity12.testEntity());
+        assertEquals(2, dbUnitTestEntity3.testEntities().size());
+        assertEquals(2, dbUnitTestEntity3.testEntitiesWithoutRepository().size());
+        assertEquals(UUID.fromString("dec505f2-2e23-4814-8815-3dbd5078961c"), dbUnitTestEntity3.testEntityWithoutRepository().id());
+        assertEquals(UUID.fromString("1b262fbd-5cf7-4cb6-9c91-9a5a601816d2"), dbUnitTestEntity12.testEntityWithoutRepository().id());
+    }
+
+    @Test
+    public void readSeveralRepositoriesUsingEntityClassIndex() throws Exception {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(TestEntity.class, testEntityRepository);
+        repositories.register(DbUnitTestEntity.class, dbUnitTestEntityRepository);
+        repositories.setEntityClassIndex(EntityClassIndex.forPackages(TestEntity.class.getPackageName()));
+        xmlReader.read("/dbunit/all_entities.xml", repositories);
+
+        assertEquals(3, testEntityRepository.count());
+        assertEquals(2, dbUnitTestEntityRepository.count());
+        assertEquals(2, dbUnitTestEntityRepository.findById(3).get().testEntitiesWithoutRepository().size());
+    }
 }
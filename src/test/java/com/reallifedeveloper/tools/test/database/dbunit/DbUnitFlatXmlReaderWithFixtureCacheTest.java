@@ -0,0 +1,47 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.reallifedeveloper.tools.test.database.FixtureCache;
+
+/**
+ * Runs the tests from {@link DbUnitFlatXmlReaderTest} with a {@link FixtureCache} enabled, so files are read both from the XML documents
+ * and from the cache.
+ *
+ * @author RealLifeDeveloper
+ */
+public class DbUnitFlatXmlReaderWithFixtureCacheTest extends DbUnitFlatXmlReaderTest {
+
+    @TempDir
+    private static Path cacheDirectory;
+
+    @BeforeAll
+    public static void enableFixtureCache() {
+        System.setProperty(FixtureCache.DIRECTORY_PROPERTY, cacheDirectory.toString());
+    }
+
+    @AfterAll
+    public static void disableFixtureCache() {
+        System.clearProperty(FixtureCache.DIRECTORY_PROPERTY);
+    }
+
+    @Test
+    public void readTestEntityFileTwice() throws Exception {
+        readTestEntityFile();
+        readTestEntityFile();
+        assertEquals(3, testEntityRepository().count());
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertTrue(files.anyMatch(f -> f.toString().endsWith(".bin")), "Cache entry should have been written");
+        }
+    }
+}
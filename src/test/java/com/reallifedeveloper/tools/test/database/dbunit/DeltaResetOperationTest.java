@@ -0,0 +1,147 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.reallifedeveloper.tools.test.database.FixtureLoadMonitor;
+import com.reallifedeveloper.tools.test.database.FixtureLoadReport;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class DeltaResetOperationTest {
+
+    @Autowired
+    private DataSource ds;
+
+    @Autowired
+    private IDataTypeFactory dataTypeFactory;
+
+    private final RecordingCleanInsertOperation cleanInsertOperation = new RecordingCleanInsertOperation();
+
+    private DbTestHelper dbTestHelper;
+
+    @BeforeEach
+    public void init() throws Exception {
+        DeltaResetOperation.forgetFingerprints();
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        dbTestHelper.setSetUpOperation(new DeltaResetOperation(cleanInsertOperation));
+    }
+
+    @Test
+    public void firstExecutionIsFullCleanInsert() throws Exception {
+        dbTestHelper.init();
+        assertEquals(1, cleanInsertOperation.executions.size());
+        assertEquals(4, cleanInsertOperation.executions.get(0).size());
+        assertEquals(3, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void unmodifiedTablesAreNotRestored() throws Exception {
+        dbTestHelper.init();
+        dbTestHelper.init();
+        dbTestHelper.init();
+        assertEquals(1, cleanInsertOperation.executions.size());
+    }
+
+    @Test
+    public void unmodifiedTablesAreNotRestoredWithFixtureLoadListener() throws Exception {
+        FixtureLoadReport report = new FixtureLoadReport();
+        FixtureLoadMonitor.addListener(report);
+        try {
+            dbTestHelper.init();
+            dbTestHelper.init();
+        } finally {
+            FixtureLoadMonitor.removeListener(report);
+        }
+        assertEquals(2, report.getEvents().size());
+        assertEquals(1, cleanInsertOperation.executions.size());
+    }
+
+    @Test
+    public void modifiedTableIsRestored() throws Exception {
+        dbTestHelper.init();
+        executeUpdate("UPDATE TEST_ENTITY SET NAME = 'baz' WHERE ID = 42");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (1, 'new')");
+        dbTestHelper.init();
+        assertEquals(2, cleanInsertOperation.executions.size());
+        assertTrue(cleanInsertOperation.executions.get(1).contains("TEST_ENTITY"), "TEST_ENTITY should be restored");
+        assertEquals(3, countRows("TEST_ENTITY"));
+        assertEquals(0, countRows("TEST_ENTITY WHERE NAME = 'baz' OR ID = 1"));
+        dbTestHelper.init();
+        assertEquals(2, cleanInsertOperation.executions.size());
+    }
+
+    @Test
+    public void deletedRowIsRestored() throws Exception {
+        dbTestHelper.init();
+        executeUpdate("DELETE FROM TEST_ENTITY WHERE ID = 4711");
+        dbTestHelper.init();
+        assertEquals(2, cleanInsertOperation.executions.size());
+        assertEquals(3, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void forgetFingerprints() throws Exception {
+        dbTestHelper.init();
+        DeltaResetOperation.forgetFingerprints();
+        dbTestHelper.init();
+        assertEquals(2, cleanInsertOperation.executions.size());
+        assertEquals(4, cleanInsertOperation.executions.get(1).size());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullOperation() {
+        assertThrows(IllegalArgumentException.class, () -> new DeltaResetOperation(null));
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private int countRows(String tableAndCondition) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tableAndCondition)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static final class RecordingCleanInsertOperation extends DatabaseOperation {
+
+        private final List<List<String>> executions = new ArrayList<>();
+
+        @Override
+        public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+            executions.add(Arrays.asList(dataSet.getTableNames()));
+            DatabaseOperation.CLEAN_INSERT.execute(connection, dataSet);
+        }
+    }
+}
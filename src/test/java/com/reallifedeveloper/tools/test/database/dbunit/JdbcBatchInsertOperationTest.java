@@ -0,0 +1,194 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultDataSet;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class JdbcBatchInsertOperationTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchInsertOperationTest.class);
+
+    private static final int BENCHMARK_ROWS = 5000;
+    private static final int BENCHMARK_ITERATIONS = 5;
+
+    @Autowired
+    private DataSource ds;
+
+    @Autowired
+    private IDataTypeFactory dataTypeFactory;
+
+    @AfterEach
+    public void cleanUp() throws SQLException {
+        executeUpdate("DELETE FROM DBUNITTESTENTITY_TESTENTITY");
+        executeUpdate("DELETE FROM DBUNITTESTENTITY");
+        executeUpdate("DELETE FROM TEST_ENTITY");
+    }
+
+    @Test
+    public void cleanInsert() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper(DbTestHelper.readDataSetFromClasspath(null, "/dbunit/jdbc_batch_insert.xml"));
+        dbTestHelper.setSetUpOperation(AbstractDbTest.JDBC_BATCH_SETUP_OPERATION);
+        dbTestHelper.init();
+        dbTestHelper.init();
+        assertEquals(2, countRows("TEST_ENTITY"));
+        assertEquals(2, countRows("DBUNITTESTENTITY"));
+        assertEquals(2, countRows("DBUNITTESTENTITY_TESTENTITY"));
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT * FROM DBUNITTESTENTITY ORDER BY ID")) {
+            rs.next();
+            assertEquals(4L, rs.getLong("L"));
+            assertEquals(new BigDecimal("1234.56"), rs.getBigDecimal("BD"));
+            assertEquals(Boolean.FALSE, rs.getObject("BOOL"));
+            assertEquals("a", rs.getString("C"));
+            assertEquals(LocalDate.parse("2026-05-10"), rs.getObject("LOCALDATE", LocalDate.class));
+            assertEquals(LocalDateTime.parse("2026-05-10T10:45:00"), rs.getObject("LOCALDATETIME", LocalDateTime.class));
+            assertEquals(42L, rs.getLong("TESTENTITY_ID"));
+            rs.next();
+            assertEquals(Boolean.TRUE, rs.getObject("BOOL"));
+            assertNull(rs.getObject("BD"));
+            assertEquals("bar", rs.getString("STRING"));
+        }
+    }
+
+    @Test
+    public void insertInSeveralBatches() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper(testEntities(7));
+        dbTestHelper.setSetUpOperation(new JdbcBatchInsertOperation(3));
+        dbTestHelper.init();
+        assertEquals(7, countRows("TEST_ENTITY"));
+        assertEquals(1, countRows("TEST_ENTITY WHERE NAME = 'name 6'"));
+    }
+
+    @Test
+    public void insertPlanCacheCanBeCleared() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper(testEntities(2));
+        dbTestHelper.setSetUpOperation(JdbcBatchInsertOperation.CLEAN_INSERT);
+        dbTestHelper.init();
+        JdbcBatchInsertOperation.clearInsertPlanCache();
+        dbTestHelper.init();
+        assertEquals(2, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void valueOfWrongType() throws Exception {
+        DefaultTable table = new DefaultTable("TEST_ENTITY",
+                new Column[] { new Column("ID", DataType.UNKNOWN), new Column("NAME", DataType.UNKNOWN) });
+        table.addRow(new Object[] { "foo", "bar" });
+        DbTestHelper dbTestHelper = dbTestHelper(new DefaultDataSet(table));
+        dbTestHelper.setSetUpOperation(JdbcBatchInsertOperation.CLEAN_INSERT);
+        Exception e = assertThrows(DataSetException.class, dbTestHelper::init);
+        assertEquals("Cannot convert value 'foo' in column ID of table TEST_ENTITY to BIGINT", e.getMessage());
+    }
+
+    @Test
+    public void escapedTableAndColumnNames() throws Exception {
+        executeUpdate("CREATE TABLE \"Escaped\" (ID INTEGER PRIMARY KEY, \"Order\" VARCHAR(10))");
+        try (Connection jdbcConnection = ds.getConnection()) {
+            IDatabaseConnection connection = new DatabaseConnection(jdbcConnection);
+            connection.getConfig().setProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN, "\"?\"");
+            DefaultTable table = new DefaultTable("Escaped",
+                    new Column[] { new Column("ID", DataType.UNKNOWN), new Column("Order", DataType.UNKNOWN) });
+            table.addRow(new Object[] { "1", "first" });
+            JdbcBatchInsertOperation.CLEAN_INSERT.execute(connection, new DefaultDataSet(table));
+            assertEquals(1, countRows("\"Escaped\" WHERE \"Order\" = 'first'"));
+        } finally {
+            executeUpdate("DROP TABLE \"Escaped\"");
+        }
+    }
+
+    @Test
+    public void constructorNonPositiveBatchSize() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> JdbcBatchInsertOperation.cleanInsert(0));
+        assertEquals("batchSize must be positive: 0", e.getMessage());
+    }
+
+    /**
+     * Compares the time to clean insert a data set with {@value #BENCHMARK_ROWS} rows using {@code JdbcBatchInsertOperation} and DbUnit's
+     * {@code CLEAN_INSERT}. The times are logged, not asserted, since they depend on the machine running the test. Run it using the
+     * {@code benchmark} profile.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkAgainstDbUnitCleanInsert() throws Exception {
+        IDataSet dataSet = testEntities(BENCHMARK_ROWS);
+        long dbUnitNanos = timeCleanInsert(dataSet, DatabaseOperation.CLEAN_INSERT);
+        long jdbcBatchNanos = timeCleanInsert(dataSet, JdbcBatchInsertOperation.CLEAN_INSERT);
+        LOG.info("Clean insert of {} rows: DbUnit {} ms, JdbcBatchInsertOperation {} ms", BENCHMARK_ROWS,
+                TimeUnit.NANOSECONDS.toMillis(dbUnitNanos), TimeUnit.NANOSECONDS.toMillis(jdbcBatchNanos));
+    }
+
+    private long timeCleanInsert(IDataSet dataSet, DatabaseOperation operation) throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper(dataSet);
+        dbTestHelper.setSetUpOperation(operation);
+        dbTestHelper.init();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            dbTestHelper.init();
+        }
+        long nanos = (System.nanoTime() - startTime) / BENCHMARK_ITERATIONS;
+        assertEquals(BENCHMARK_ROWS, countRows("TEST_ENTITY"));
+        return nanos;
+    }
+
+    private static IDataSet testEntities(int rows) throws DataSetException {
+        DefaultTable table = new DefaultTable("TEST_ENTITY",
+                new Column[] { new Column("ID", DataType.UNKNOWN), new Column("NAME", DataType.UNKNOWN) });
+        for (int i = 0; i < rows; i++) {
+            table.addRow(new Object[] { Integer.toString(i), "name " + i });
+        }
+        return new DefaultDataSet(table);
+    }
+
+    private DbTestHelper dbTestHelper(IDataSet dataSet) {
+        return new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class ParallelInsertOperationTest {
+
+    @Autowired
+    private DataSource ds;
+
+    @Autowired
+    private IDataTypeFactory dataTypeFactory;
+
+    @AfterEach
+    public void cleanUp() throws SQLException {
+        executeUpdate("DELETE FROM DBUNITTESTENTITY_TESTENTITY");
+        executeUpdate("DELETE FROM DBUNITTESTENTITY");
+        executeUpdate("DELETE FROM TEST_ENTITY");
+    }
+
+    @Test
+    public void cleanInsertRespectsForeignKeys() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper("/dbunit/parallel_insert.xml");
+        dbTestHelper.setSetUpOperation(ParallelInsertOperation.cleanInsert(ds, 3));
+        dbTestHelper.init();
+        dbTestHelper.init();
+        assertEquals(2, countRows("DBUNITTESTENTITY_TESTENTITY"));
+        assertEquals(2, countRows("DBUNITTESTENTITY"));
+        assertEquals(2, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void sequentialInsertFailsWithSameDataSet() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper("/dbunit/parallel_insert.xml");
+        dbTestHelper.setSetUpOperation(DatabaseOperation.INSERT);
+        assertThrows(Exception.class, dbTestHelper::init);
+    }
+
+    @Test
+    public void parallelismOne() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper("/dbunit/parallel_insert.xml");
+        dbTestHelper.setSetUpOperation(new ParallelInsertOperation(ds, 1));
+        dbTestHelper.init();
+        assertEquals(2, countRows("DBUNITTESTENTITY_TESTENTITY"));
+        assertEquals(2, countRows("DBUNITTESTENTITY"));
+        assertEquals(2, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void failureRemovesInsertedRows() throws Exception {
+        DbTestHelper dbTestHelper = dbTestHelper("/dbunit/parallel_insert_broken.xml");
+        dbTestHelper.setSetUpOperation(new ParallelInsertOperation(ds, 2));
+        assertThrows(Exception.class, dbTestHelper::init);
+        assertEquals(0, countRows("DBUNITTESTENTITY"));
+        assertEquals(0, countRows("TEST_ENTITY"));
+    }
+
+    @Test
+    public void constructorNonPositiveParallelism() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new ParallelInsertOperation(ds, 0));
+        assertEquals("parallelism must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullDataSource() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> ParallelInsertOperation.cleanInsert(null, 2));
+        assertEquals("dataSource must not be null", e.getMessage());
+    }
+
+    private DbTestHelper dbTestHelper(String dataSetResourceName) throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath(null, dataSetResourceName);
+        return new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
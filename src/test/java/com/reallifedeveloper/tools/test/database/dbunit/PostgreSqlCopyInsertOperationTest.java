@@ -0,0 +1,111 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.DataType;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class PostgreSqlCopyInsertOperationTest {
+
+    @Autowired
+    private DataSource ds;
+
+    @Autowired
+    private IDataTypeFactory dataTypeFactory;
+
+    @Test
+    public void csvTableReader() throws Exception {
+        Column[] columns = { new Column("ID", DataType.UNKNOWN), new Column("NAME", DataType.UNKNOWN) };
+        DefaultTable table = new DefaultTable("test", columns);
+        table.addRow(new Object[] { "1", "foo" });
+        table.addRow(new Object[] { 2, "say \"hi\", bye" });
+        table.addRow(new Object[] { "3", null });
+        table.addRow(new Object[] { "4", "" });
+        assertTrue(PostgreSqlCopyInsertOperation.isCopyable(table));
+        StringWriter csv = new StringWriter();
+        try (Reader reader = new PostgreSqlCopyInsertOperation.CsvTableReader(table)) {
+            char[] buffer = new char[3];
+            int n;
+            while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+                csv.write(buffer, 0, n);
+            }
+        }
+        assertEquals("\"1\",\"foo\"\n\"2\",\"say \"\"hi\"\", bye\"\n\"3\",\n\"4\",\"\"\n", csv.toString());
+    }
+
+    @Test
+    public void csvTableReaderEmptyTable() throws Exception {
+        DefaultTable table = new DefaultTable("test", new Column[] { new Column("ID", DataType.UNKNOWN) });
+        try (Reader reader = new PostgreSqlCopyInsertOperation.CsvTableReader(table)) {
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    public void binaryValueIsNotCopyable() throws Exception {
+        DefaultTable table = new DefaultTable("test", new Column[] { new Column("DATA", DataType.UNKNOWN) });
+        table.addRow(new Object[] { new byte[] { 1, 2 } });
+        assertFalse(PostgreSqlCopyInsertOperation.isCopyable(table));
+        try (Reader reader = new PostgreSqlCopyInsertOperation.CsvTableReader(table)) {
+            Exception e = assertThrows(IOException.class, reader::read);
+            assertTrue(e.getMessage().startsWith("Value in column DATA cannot be written as text: "), e.getMessage());
+        }
+    }
+
+    @Test
+    public void copyCommandEscapesTableAndColumnNames() throws Exception {
+        Column[] columns = { new Column("ID", DataType.UNKNOWN), new Column("Order", DataType.UNKNOWN) };
+        DefaultTable table = new DefaultTable("Test", columns);
+        try (Connection jdbcConnection = ds.getConnection()) {
+            IDatabaseConnection connection = new DatabaseConnection(jdbcConnection);
+            connection.getConfig().setProperty(DatabaseConfig.PROPERTY_ESCAPE_PATTERN, "\"?\"");
+            assertEquals("COPY \"Test\" (\"ID\", \"Order\") FROM STDIN WITH (FORMAT csv)",
+                    PostgreSqlCopyInsertOperation.copyCommand(connection, table));
+        }
+    }
+
+    @Test
+    public void otherDatabasesUseNormalInserts() throws Exception {
+        IDataSet dataSet = DbTestHelper.readDataSetFromClasspath("/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+        DbTestHelper dbTestHelper = new DbTestHelper(ds, dataSet, Optional.empty(), Optional.of(dataTypeFactory));
+        dbTestHelper.setSetUpOperation(PostgreSqlCopyInsertOperation.CLEAN_INSERT);
+        dbTestHelper.init();
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST_ENTITY")) {
+            rs.next();
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void constructorNegativeMinRowsForCopy() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new PostgreSqlCopyInsertOperation(-1));
+        assertEquals("minRowsForCopy must not be negative: -1", e.getMessage());
+    }
+}
@@ -0,0 +1,83 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+public class PostgreSqlTemplateClonerTest {
+
+    private final DataSource adminDataSource = mock(DataSource.class);
+    private final Statement statement = mock(Statement.class);
+    private final Map<String, DataSource> dataSources = new HashMap<>();
+    private final List<DataSource> initializedDataSources = new ArrayList<>();
+
+    @BeforeEach
+    public void init() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(adminDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    public void prepareTemplate() throws Exception {
+        PostgreSqlTemplateCloner cloner = cloner("test_template");
+        cloner.prepareTemplate();
+        InOrder inOrder = Mockito.inOrder(statement);
+        inOrder.verify(statement).execute("DROP DATABASE IF EXISTS test_template");
+        inOrder.verify(statement).execute("CREATE DATABASE test_template");
+        assertEquals(List.of(dataSources.get("test_template")), initializedDataSources);
+    }
+
+    @Test
+    public void createClone() throws Exception {
+        PostgreSqlTemplateCloner cloner = cloner("test_template");
+        DataSource clone = cloner.createClone("test_1");
+        InOrder inOrder = Mockito.inOrder(statement);
+        inOrder.verify(statement).execute("DROP DATABASE IF EXISTS test_1");
+        inOrder.verify(statement).execute("CREATE DATABASE test_1 TEMPLATE test_template");
+        assertSame(dataSources.get("test_1"), clone);
+        assertEquals(List.of(), initializedDataSources);
+    }
+
+    @Test
+    public void dropClone() throws Exception {
+        PostgreSqlTemplateCloner cloner = cloner("test_template");
+        cloner.dropClone("test_1", mock(DataSource.class));
+        verify(statement).execute("DROP DATABASE IF EXISTS test_1");
+    }
+
+    @Test
+    public void createCloneInvalidName() {
+        PostgreSqlTemplateCloner cloner = cloner("test_template");
+        Exception e = assertThrows(IllegalArgumentException.class, () -> cloner.createClone("test; DROP DATABASE foo"));
+        assertEquals("Invalid database name: test; DROP DATABASE foo", e.getMessage());
+    }
+
+    @Test
+    public void constructorInvalidTemplateName() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> cloner("1template"));
+        assertEquals("Invalid database name: 1template", e.getMessage());
+    }
+
+    private PostgreSqlTemplateCloner cloner(String templateDatabaseName) {
+        return new PostgreSqlTemplateCloner(adminDataSource, templateDatabaseName,
+                name -> dataSources.computeIfAbsent(name, n -> mock(DataSource.class)), initializedDataSources::add);
+    }
+}
@@ -0,0 +1,91 @@
+package com.reallifedeveloper.tools.test.database.dbunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+@SuppressWarnings("NullAway")
+public class TransactionAwareRollbackDbTestTest extends AbstractDbTest {
+
+    private static final AtomicInteger SETUP_COUNT = new AtomicInteger();
+
+    private static final AtomicInteger TEST_COUNT = new AtomicInteger();
+
+    @Autowired
+    private JpaTestEntityRepository repository;
+
+    @Autowired
+    private DataSource ds;
+
+    @Autowired
+    private IDataTypeFactory dataTypeFactory;
+
+    public TransactionAwareRollbackDbTestTest() {
+        super(null, "/dbunit/rld-build-tools.dtd", "/dbunit/testentity.xml");
+    }
+
+    @Test
+    public void deleteEntity() {
+        verifyDataSetLoadedForEachTest();
+        repository.deleteById(42L);
+        repository.flush();
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    public void addEntity() {
+        verifyDataSetLoadedForEachTest();
+        repository.saveAndFlush(new TestEntity(1L, "new"));
+        assertEquals(4, repository.count());
+    }
+
+    private void verifyDataSetLoadedForEachTest() {
+        assertEquals(TEST_COUNT.incrementAndGet(), SETUP_COUNT.get(),
+                "Data set should be loaded before each test since it is rolled back with the test transaction");
+        assertEquals(3, repository.count());
+    }
+
+    @Override
+    protected DataSetLoading getDataSetLoading() {
+        return DataSetLoading.ONCE_PER_CLASS;
+    }
+
+    @Override
+    protected DatabaseOperation getSetUpOperation() {
+        return new DatabaseOperation() {
+            @Override
+            public void execute(IDatabaseConnection connection, IDataSet dataSet) throws DatabaseUnitException, SQLException {
+                SETUP_COUNT.incrementAndGet();
+                DEFAULT_SETUP_OPERATION.execute(connection, dataSet);
+            }
+        };
+    }
+
+    @Override
+    protected DataSource getDataSource() {
+        return new TransactionAwareDataSourceProxy(ds);
+    }
+
+    @Override
+    protected Optional<IDataTypeFactory> getDataTypeFactory() {
+        return Optional.ofNullable(dataTypeFactory);
+    }
+}
@@ -0,0 +1,129 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.reallifedeveloper.tools.test.database.RepositoryRegistry;
+import com.reallifedeveloper.tools.test.database.dbunit.DatabaseTestConfiguration;
+import com.reallifedeveloper.tools.test.database.dbunit.DbUnitTestEntity;
+import com.reallifedeveloper.tools.test.database.dbunit.TestEntity;
+import com.reallifedeveloper.tools.test.database.inmemory.InMemoryJpaRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class JdbcDatabaseReaderTest {
+
+    @Autowired
+    private DataSource ds;
+
+    private final InMemoryJpaRepository<TestEntity, Long> testEntityRepository = new InMemoryJpaRepository<>();
+    private final InMemoryJpaRepository<DbUnitTestEntity, Integer> dbUnitTestEntityRepository = new InMemoryJpaRepository<>();
+
+    @BeforeEach
+    public void init() throws SQLException {
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (42, 'foo')");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (4711, 'bar')");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, L, BD, BOOL, C, STRING, LOCALDATE, LOCALDATETIME, TESTENTITY_ID) "
+                + "VALUES (3, 4, 1234.56, FALSE, 'a', 'foo', DATE '2026-05-10', TIMESTAMP '2026-05-10 10:45:00', 42)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, STRING, TESTENTITY_ID) VALUES (12, 'bar', 4711)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY_TESTENTITY (DBUNIT_TEST_ENTITY_ID, TEST_ENTITY_ID) VALUES (3, 42)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY_TESTENTITY (DBUNIT_TEST_ENTITY_ID, TEST_ENTITY_ID) VALUES (3, 4711)");
+    }
+
+    @AfterEach
+    public void cleanUp() throws SQLException {
+        executeUpdate("DELETE FROM DBUNITTESTENTITY_TESTENTITY");
+        executeUpdate("DELETE FROM DBUNITTESTENTITY");
+        executeUpdate("DELETE FROM TEST_ENTITY");
+    }
+
+    @Test
+    public void readSeveralTables() throws Exception {
+        RepositoryRegistry repositories = new RepositoryRegistry();
+        repositories.register(TestEntity.class, testEntityRepository);
+        repositories.register(DbUnitTestEntity.class, dbUnitTestEntityRepository);
+        JdbcDatabaseReader reader = new JdbcDatabaseReader(ds);
+        reader.setFetchSize(1);
+        reader.read(repositories, "TEST_ENTITY", "DBUNITTESTENTITY", "DBUNITTESTENTITY_TESTENTITY");
+
+        assertEquals(2, testEntityRepository.count());
+        assertEquals("foo", testEntityRepository.findById(42L).get().name());
+        assertEquals(2, dbUnitTestEntityRepository.count());
+        DbUnitTestEntity entity = dbUnitTestEntityRepository.findById(3).get();
+        assertEquals(4L, entity.l());
+        assertEquals(new BigDecimal("1234.56"), entity.bd());
+        assertEquals(Boolean.FALSE, entity.bool());
+        assertEquals('a', entity.c());
+        assertEquals("foo", entity.string());
+        assertEquals(LocalDate.parse("2026-05-10"), entity.localDate());
+        assertEquals(LocalDateTime.parse("2026-05-10T10:45:00"), entity.localDateTime());
+        assertSame(testEntityRepository.findById(42L).get(), entity.testEntity());
+        assertEquals(2, entity.testEntities().size());
+        DbUnitTestEntity otherEntity = dbUnitTestEntityRepository.findById(12).get();
+        assertNull(otherEntity.bd());
+        assertSame(testEntityRepository.findById(4711L).get(), otherEntity.testEntity());
+        assertEquals(0, otherEntity.testEntities().size());
+    }
+
+    @Test
+    public void readSingleTableWithRowFilter() throws Exception {
+        JdbcDatabaseReader reader = new JdbcDatabaseReader(ds);
+        reader.setRowFilter("test_entity", "ID > 100");
+        reader.read(testEntityRepository, TestEntity.class, TestEntity.class, "TEST_ENTITY");
+        assertEquals(1, testEntityRepository.count());
+        assertEquals("bar", testEntityRepository.findById(4711L).get().name());
+    }
+
+    @Test
+    public void readNonExistingTable() {
+        JdbcDatabaseReader reader = new JdbcDatabaseReader(ds);
+        assertThrows(SQLException.class, () -> reader.read(testEntityRepository, TestEntity.class, TestEntity.class, "NO_SUCH_TABLE"));
+    }
+
+    @Test
+    public void readNoTables() {
+        JdbcDatabaseReader reader = new JdbcDatabaseReader(ds);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> reader.read(new RepositoryRegistry()));
+        assertEquals("Arguments must not be null or empty: repositories=RepositoryRegistry{repositories=[], entityTypes=[], "
+                + "entityClassIndex=null}, tableNames=[]", e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveFetchSize() {
+        JdbcDatabaseReader reader = new JdbcDatabaseReader(ds);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> reader.setFetchSize(0));
+        assertEquals("fetchSize must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullDataSource() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new JdbcDatabaseReader(null));
+        assertEquals("dataSource must not be null", e.getMessage());
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
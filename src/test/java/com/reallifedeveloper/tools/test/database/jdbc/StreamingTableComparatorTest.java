@@ -0,0 +1,189 @@
+package com.reallifedeveloper.tools.test.database.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reallifedeveloper.tools.test.database.dbunit.DatabaseTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = DatabaseTestConfiguration.class)
+public class StreamingTableComparatorTest {
+
+    @Autowired
+    private DataSource ds;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (42, 'foo')");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (4711, 'bar')");
+        executeUpdate("INSERT INTO TEST_ENTITY (ID, NAME) VALUES (9999, '')");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, L, BD, BOOL, C, STRING, LOCALDATE, LOCALDATETIME, TESTENTITY_ID) "
+                + "VALUES (3, 4, 1234.56, FALSE, 'a', 'foo', DATE '2026-05-10', TIMESTAMP '2026-05-10 10:45:00', 42)");
+        executeUpdate("INSERT INTO DBUNITTESTENTITY (ID, STRING, TESTENTITY_ID) VALUES (12, 'bar', 4711)");
+    }
+
+    @AfterEach
+    public void cleanUp() throws SQLException {
+        executeUpdate("DELETE FROM DBUNITTESTENTITY");
+        executeUpdate("DELETE FROM TEST_ENTITY");
+    }
+
+    @Test
+    public void equalTablesFromFlatXml() throws Exception {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setSortBufferSize(1);
+        comparator.setFetchSize(1);
+        assertEquals(List.of(), comparator.compare("/jdbc/expected_entities.xml", "TEST_ENTITY"));
+        comparator.assertTableEquals("/jdbc/expected_entities.xml", "dbunittestentity");
+    }
+
+    @Test
+    public void differencesFromCsv() throws Exception {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setCsvSeparatorCharacter(';');
+        List<TableDifference> differences = comparator.compare("/jdbc/expected_test_entity_differences.csv", "TEST_ENTITY");
+        assertEquals(List.of(new TableDifference(TableDifference.Type.MISSING_ROW, List.of(BigDecimal.ONE), null, null, null),
+                new TableDifference(TableDifference.Type.UNEXPECTED_ROW, List.of(new BigDecimal(4711)), null, null, null),
+                new TableDifference(TableDifference.Type.DIFFERENT_VALUE, List.of(new BigDecimal(9999)), "NAME", "baz", "")),
+                differences);
+    }
+
+    @Test
+    public void compareUsesConnectionOfCurrentTransaction() throws Exception {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setCsvSeparatorCharacter(';');
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        List<TableDifference> differences = transactionTemplate.execute(status -> {
+            try {
+                Connection connection = DataSourceUtils.getConnection(ds);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM TEST_ENTITY WHERE ID = 4711");
+                }
+                List<TableDifference> result = comparator.compare("/jdbc/expected_test_entity_differences.csv", "TEST_ENTITY");
+                assertFalse(connection.getAutoCommit(), "Auto-commit should still be off in the transaction");
+                status.setRollbackOnly();
+                return result;
+            } catch (IOException | SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(List.of(new TableDifference(TableDifference.Type.MISSING_ROW, List.of(BigDecimal.ONE), null, null, null),
+                new TableDifference(TableDifference.Type.DIFFERENT_VALUE, List.of(new BigDecimal(9999)), "NAME", "baz", "")),
+                differences);
+        assertEquals(List.of(), comparator.compare("/jdbc/expected_entities.xml", "TEST_ENTITY"),
+                "The delete should have been rolled back");
+    }
+
+    @Test
+    public void assertTableEqualsReportsFirstDifferences() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setCsvSeparatorCharacter(';');
+        comparator.setMaxDifferences(2);
+        AssertionError e = assertThrows(AssertionError.class,
+                () -> comparator.assertTableEquals("/jdbc/expected_test_entity_differences.csv", "TEST_ENTITY"));
+        assertEquals("Table TEST_ENTITY does not match /jdbc/expected_test_entity_differences.csv, showing the first 2 differences:"
+                + System.lineSeparator() + "    Missing row with key [1]" + System.lineSeparator() + "    Unexpected row with key [4711]",
+                e.getMessage());
+    }
+
+    @Test
+    public void rowFilter() throws Exception {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setRowFilter("TEST_ENTITY", "ID < 100");
+        List<TableDifference> differences = comparator.compare("/jdbc/expected_entities.xml", "TEST_ENTITY");
+        assertEquals(2, differences.size());
+        assertEquals(TableDifference.Type.MISSING_ROW, differences.get(0).type());
+        assertEquals(List.of(new BigDecimal(4711)), differences.get(0).key());
+    }
+
+    @Test
+    public void expectedRowWithoutPrimaryKey() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> comparator.compare("/jdbc/expected_test_entity_no_id.csv", "TEST_ENTITY"));
+        assertEquals("Row 2 for table TEST_ENTITY in /jdbc/expected_test_entity_no_id.csv has no value for primary key column ID",
+                e.getMessage());
+    }
+
+    @Test
+    public void unknownColumn() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        comparator.setCsvSeparatorCharacter(';');
+        Exception e = assertThrows(IllegalArgumentException.class, () -> comparator.compare("/csv/testentity.csv", "DBUNITTESTENTITY"));
+        assertEquals("Column name in /csv/testentity.csv not found in table DBUNITTESTENTITY", e.getMessage());
+    }
+
+    @Test
+    public void nonExistingResource() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        assertThrows(FileNotFoundException.class, () -> comparator.compare("/jdbc/no_such_file.xml", "TEST_ENTITY"));
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals(new BigDecimal("5"), StreamingTableComparator.normalize("5.00", Types.DECIMAL));
+        assertEquals(new BigDecimal("5"), StreamingTableComparator.normalize(5.0, Types.DOUBLE));
+        assertEquals(Boolean.TRUE, StreamingTableComparator.normalize("1", Types.BOOLEAN));
+        assertEquals(LocalDateTime.parse("2026-05-10T00:00:00"), StreamingTableComparator.normalize("2026-05-10", Types.TIMESTAMP));
+        assertEquals(LocalDateTime.parse("2026-05-10T10:45:00"),
+                StreamingTableComparator.normalize(Timestamp.valueOf("2026-05-10 10:45:00"), Types.TIMESTAMP));
+        assertNull(StreamingTableComparator.normalize("", Types.INTEGER));
+        assertEquals("", StreamingTableComparator.normalize("", Types.VARCHAR));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> StreamingTableComparator.normalize("foo", Types.INTEGER));
+        assertTrue(e.getMessage().startsWith("Cannot convert 'foo' to INTEGER"), e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveMaxDifferences() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> comparator.setMaxDifferences(0));
+        assertEquals("maxDifferences must be positive: 0", e.getMessage());
+    }
+
+    @Test
+    public void setNonPositiveSortBufferSize() {
+        StreamingTableComparator comparator = new StreamingTableComparator(ds);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> comparator.setSortBufferSize(-1));
+        assertEquals("sortBufferSize must be positive: -1", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("NullAway")
+    public void constructorNullDataSource() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new StreamingTableComparator(null));
+        assertEquals("dataSource must not be null", e.getMessage());
+    }
+
+    private void executeUpdate(String sql) throws SQLException {
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}